@@ -1,20 +1,47 @@
 package clientInterface;
 
+import exceptions.InvalidNumberFormatException;
 import exceptions.ReadErrorException;
 import exceptions.WriteErrorException;
+import features.actions.ActionDefinition;
+import features.actions.ActionRegistry;
+import features.actions.AggregationAccumulator;
+import features.actions.AggregationResult;
+import features.actions.RunningAggregate;
+import features.actions.SampleEstimator;
+import features.actions.WindowAggregator;
+import features.cache.ResultCache;
+import features.input.CompressedInput;
+import features.input.CsvColumns;
 import features.input.FileInputReaderImpl;
+import features.input.FileSetReader;
+import features.input.FileSetResult;
+import features.input.IncrementalCsvReader;
 import features.input.InputReader;
+import features.input.ParseErrors;
+import features.input.PipelinedInputReader;
+import features.input.SamplingMode;
 import features.input.StdInReaderImpl;
 import features.input.UrlInputReaderImpl;
+import features.output.BinaryFloatFileWriter;
 import features.output.FileOutputWriterImpl;
 import features.output.OutputWriter;
 import features.output.StdOutWriterImpl;
 import features.output.UrlOutputWriterImpl;
+import features.output.WriteSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * Command line application
@@ -37,6 +64,20 @@ public class CLIApp {
         options.put("-a", "");
         options.put("-f", "csv");
         options.put("-F", "csv");
+        options.put("-w", "");
+        options.put("-s", "");
+        options.put("-c", "on");
+        options.put("-b", "off");
+        options.put("-p", "auto");
+        options.put("-e", "off");
+        options.put("-r", "");
+        options.put("-P", "auto");
+        options.put("-C", "");
+        options.put("-H", "off");
+        options.put("-S", "");
+        options.put("-T", "");
+        options.put("-t", "");
+        options.put("-Z", "off");
 
         // Iterate through the command line arguments
         for (int i = 0; i < args.length; i++) {
@@ -70,12 +111,40 @@ public class CLIApp {
                     "-o (output type): {} \n" +
                     "-a (action): {} \n" +
                     "-f (input format if input type is file): {}" +
-                    "-F (output format if output type is file: {}",
+                    "-F (output format if output type is file: {} \n" +
+                    "-w (window size of the continuous mode): {} \n" +
+                    "-s (window slide of the continuous mode): {} \n" +
+                    "-c (result cache for file input): {} \n" +
+                    "-b (result of every input file): {} \n" +
+                    "-p (stdin piped into the application): {} \n" +
+                    "-e (invalid values of the lenient mode): {} \n" +
+                    "-r (report of the invalid values): {} \n" +
+                    "-P (pipelined reading and processing): {} \n" +
+                    "-C (selected csv columns): {} \n" +
+                    "-H (csv header line): {} \n" +
+                    "-S (sampling mode): {} \n" +
+                    "-T (checkpoint of the incremental mode): {} \n" +
+                    "-t (poll interval of the follow mode): {} \n" +
+                    "-Z (zone map index of a csv file): {}",
                     options.get("-i"),
                     options.get("-o"),
                     options.get("-a"),
                     options.get("-f"),
-                    options.get("-F")
+                    options.get("-F"),
+                    options.get("-w"),
+                    options.get("-s"),
+                    options.get("-c"),
+                    options.get("-b"),
+                    options.get("-p"),
+                    options.get("-e"),
+                    options.get("-r"),
+                    options.get("-P"),
+                    options.get("-C"),
+                    options.get("-H"),
+                    options.get("-S"),
+                    options.get("-T"),
+                    options.get("-t"),
+                    options.get("-Z")
             );
         }
 
@@ -96,49 +165,139 @@ public class CLIApp {
         String outputFilePath = outputPath;
         String inputFormat = options.get("-f");
         String outputFormat = options.get("-F");
-        List<Float> inputList = null;
+        AggregationResult result = null;
+        Map<String, AggregationResult> columnResults = null;
+        List<ActionDefinition> actions = null;
+        ParseErrors parseErrors = createParseErrors(options.get("-e"));
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        // converting the input to the binary format does not perform any action
+        if (outputType.equalsIgnoreCase("file") && outputFormat.equalsIgnoreCase("bin")) {
+            exitCode = convertToBinary(options, inputFilePath, outputFilePath, parseErrors);
+            inputType = "";
+            outputType = "";
+        } else if (!options.get("-S").isEmpty()) {
+            // the sampling mode estimates a fixed set of statistics instead of performing the actions
+            exitCode = runSampling(options, inputFilePath, outputFilePath);
+            inputType = "";
+            outputType = "";
+        } else {
+            // the actions are resolved before reading, so the input is streamed straight into their accumulators
+            try {
+                actions = ActionRegistry.getDefault().parseActions(action);
+            } catch (IllegalArgumentException e) {
+                logger.error("Write Error: invalid operation, invalid action {}, exiting the application with code 3",
+                        e.getMessage());
+                exitCode = 3;
+                inputType = "";
+                outputType = "";
+            }
+        }
+
+        // the columns are only selected in a single file, they would be silently ignored for other inputs
+        if (exitCode == 0 && actions != null && !options.get("-C").isEmpty()
+                && (!inputType.equalsIgnoreCase("file") || FileSetReader.isFileSet(inputFilePath))) {
+            logger.error("Format Error: -C only selects the columns of a single csv file, not of stdin, a URL " +
+                    "or a set of files, exiting the application with code 4");
+            exitCode = 4;
+            inputType = "";
+            outputType = "";
+        }
+
+        if (exitCode == 0 && actions != null && !options.get("-T").isEmpty()) {
+            exitCode = runIncremental(options, inputFilePath, outputFilePath, actions);
+            inputType = "";
+            outputType = "";
+        } else if (exitCode == 0 && actions != null && !options.get("-w").isEmpty()) {
+            exitCode = runContinuous(options, inputFilePath, outputFilePath, actions, parseErrors);
+            inputType = "";
+            outputType = "";
+        }
 
         switch (inputType.toUpperCase()) {
             case "STDIN":
-                System.out.println("Please enter a list of float numbers separated by \",\"");
-                inputReader = new StdInReaderImpl();
+                if (isPiped(options.get("-p"))) {
+                    inputReader = pipelined(new StdInReaderImpl(StdInReaderImpl.Mode.PIPED, parseErrors),
+                            options.get("-P"));
+                } else {
+                    System.out.println("Please enter a list of float numbers separated by \",\"");
+                    inputReader = new StdInReaderImpl(StdInReaderImpl.Mode.INTERACTIVE, parseErrors);
+                }
                 try {
-                    inputList = inputReader.readInput();
-                    logger.info("Performing the selected operations on the " +
-                            "input list " + inputList);
+                    result = readResult(inputReader, actions);
                 } catch (ReadErrorException e) {
                     logger.error("Error reading input: {} application will exit with code " + e.getErrorCode(), e.getMessage(), e);
                     exitCode = e.getErrorCode();
                 }
                 break;
             case "FILE":
-                System.out.println("Reading input from the file " + inputFilePath);
-                inputReader = new FileInputReaderImpl(inputFilePath, inputFormat);
-
                 try {
-                    inputList = inputReader.readInput();
-                    logger.info("Performing the selected operations on the " +
-                            "input list " + inputList);
+                    if (FileSetReader.isFileSet(inputFilePath)) {
+                        System.out.println("Reading input from the files " + inputFilePath);
+                        result = readFileSet(new FileSetReader(inputFilePath, inputFormat, threads, parseErrors),
+                                actions, options.get("-b").equalsIgnoreCase("on"));
+                    } else if (!options.get("-C").isEmpty()) {
+                        System.out.println("Reading the columns " + options.get("-C") + " of the file " + inputFilePath);
+                        CsvColumns columns = csvColumns(options);
+                        columnResults = readColumnResults(new FileInputReaderImpl(inputFilePath, inputFormat, threads,
+                                parseErrors, columns), columns, actions);
+                    } else if (useZoneMap(options, inputFilePath, parseErrors)) {
+                        System.out.println("Reading input from the file " + inputFilePath + " with its zone map");
+                        result = new FileInputReaderImpl(inputFilePath, inputFormat, 1, null, csvColumns(options))
+                                .aggregateIndexed(actions);
+                    } else {
+                        System.out.println("Reading input from the file " + inputFilePath);
+                        CsvColumns columns = csvColumns(options);
+                        inputReader = pipelined(new FileInputReaderImpl(inputFilePath, inputFormat, threads, parseErrors,
+                                columns), options.get("-P"));
+                        // the result of a lenient run depends on the error mode and the one of a csv file with
+                        // a header on the columns, they are not cached
+                        result = readCachedResult(inputReader, inputFilePath, inputFormat, actions,
+                                parseErrors == null && columns == null ? options.get("-c") : "off");
+                    }
                 } catch (ReadErrorException e) {
                     logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
                     exitCode = e.getErrorCode();
                 }
                 break;
             case "URL":
-                inputReader = new UrlInputReaderImpl();
-                // TODO: Implement URL input handling
-                System.out.println("URL input handling is not implemented yet.");
+                System.out.println("Reading input from the URL " + inputFilePath);
+                inputReader = pipelined(new UrlInputReaderImpl(inputFilePath, inputFormat, threads, parseErrors),
+                        options.get("-P"));
+                try {
+                    result = readResult(inputReader, actions);
+                } catch (ReadErrorException e) {
+                    logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
+                    exitCode = e.getErrorCode();
+                }
+                break;
+            case "":
                 break;
             default:
                 System.err.println("Unknown input type, will be ignored.");
                 break;
         }
 
+        if (parseErrors != null) {
+            exitCode = reportParseErrors(parseErrors, options.get("-r"), exitCode);
+        }
+
+        if (result == null && columnResults == null) {
+            // nothing was read, there is nothing to write
+            outputType = "";
+        }
+
         switch (outputType.toUpperCase()) {
             case "STDOUT":
                 try {
-                    resultOutputWriter = new StdOutWriterImpl(action);
-                    printOutput(resultOutputWriter, inputList, action);
+                    StdOutWriterImpl stdOutWriter = new StdOutWriterImpl(action);
+                    if (columnResults != null) {
+                        stdOutWriter.streamColumnResults(columnResults,
+                                "The result of the specified operation " + action + " per column is: ");
+                        System.out.println();
+                    } else {
+                        printOutput(stdOutWriter, result, action);
+                    }
                 } catch (WriteErrorException e) {
                     logger.error(e.getMessage(), "Exiting the application with code {}", e.getErrorCode());
                     exitCode = e.getErrorCode();
@@ -147,7 +306,10 @@ public class CLIApp {
             case "FILE":
                 try {
                     resultOutputWriter = new FileOutputWriterImpl(action, outputFormat, outputFilePath);
-                    resultOutputWriter.writeOutput(inputList);
+                    WriteSummary summary = columnResults != null
+                            ? resultOutputWriter.streamColumnResults(columnResults)
+                            : resultOutputWriter.streamResult(result);
+                    logger.info("Wrote {} to the output file", summary);
                     System.out.println("The result file of the performed operation " + action +
                             " is contained in the output file " + outputFilePath);
                 } catch (WriteErrorException e) {
@@ -157,9 +319,19 @@ public class CLIApp {
                 break;
 
             case "URL":
-                resultOutputWriter = new UrlOutputWriterImpl();
-                // TODO: Implement URL output handling
-                System.out.println("URL input handling is not implemented yet.");
+                try {
+                    resultOutputWriter = new UrlOutputWriterImpl();
+                    if (columnResults != null) {
+                        resultOutputWriter.writeColumnResults(columnResults);
+                    } else {
+                        resultOutputWriter.writeResult(result);
+                    }
+                } catch (WriteErrorException e) {
+                    logger.error(e.getMessage(), "Exiting the application with code {}", e.getErrorCode());
+                    exitCode = e.getErrorCode();
+                }
+                break;
+            case "":
                 break;
             default:
                 System.err.println("Unknown output type, will be ignored.");
@@ -181,7 +353,8 @@ public class CLIApp {
     private static void printWelcomeMessage() {
         System.out.print("Welcome to Queo's coding game.\n" +
                 "The game performs actions on a list of float point numbers:\n" +
-                "Please specify: action \"-a\" followed by one of the options (sum, minMax and LT4 (less than four)), \n" +
+                "Please specify: action \"-a\" followed by one or more of the options separated by \",\" " +
+                "(sum, min, max, minMax, LT4 (less than four) and count), \n" +
                 " input type \"-i\" proceeding with the input type value (stdin, FILE or URL), " +
                 "if input type is FILE or URL please provide the input file path following the input type," +
                 "output type \"-o\" proceeding with the one of the output type values (stdout, FILE or URL), \n" +
@@ -190,15 +363,472 @@ public class CLIApp {
                 "default output option is \"stdout\" \n" +
                 "if input option is \"stdin\" you will be asked to enter the list of float point numbers to be used as input." +
                 "If you have not selected the input file format, default format is \"csv\" \n" +
-                "If you have not selected the output file format, default format is \"csv\" \n");
+                "If you have not selected the output file format, default format is \"csv\" \n" +
+                "Continuous mode: window size \"-w\" followed by the number of values of a window and optionally " +
+                "the slide \"-s\" followed by the number of values between two windows (default: the window size) \n" +
+                "Result cache for file input: \"-c\" followed by on (default), hash (also compare the file content), " +
+                "off (bypass the cache) or clear (empty the cache first) \n" +
+                "The input file path can also be a directory or a glob pattern like \"data/*.csv\", " +
+                "the files are read in parallel and \"-b on\" also prints the result of every file \n" +
+                "Input piped into stdin is read in bulk without a prompt, \"-p\" followed by auto (default), " +
+                "on or off selects this mode \n" +
+                "Input format \"-f bin\" reads raw float32 values without parsing, " +
+                "\"-o FILE path -F bin\" converts the input to this format instead of performing actions \n" +
+                "Lenient mode: \"-e\" followed by skip (leave invalid values out) or nan (read them as NaN), " +
+                "optionally with the number of invalid values tolerated like \"skip:100\" (default: no limit), " +
+                "off (default) stops at the first invalid value, \"-r\" followed by a path writes the invalid values " +
+                "and their position to a csv report \n" +
+                "The raw bytes of the input are read on one thread, parsed on a second one and aggregated on a third, " +
+                "connected by bounded queues of reused blocks (a converted file is written by the aggregating thread), " +
+                "\"-P\" followed by auto (default, with more than one processor), on or off selects this mode \n" +
+                "Csv columns: \"-H on\" skips the header line of a csv file, \"-C\" followed by the names or positions " +
+                "of columns like \"price,qty\" or \"2,5\" reads only these columns and performs the actions per column \n" +
+                "Sampling mode: \"-S\" followed by bernoulli:<rate>, reservoir:<lines> or blocks:<blocks>, " +
+                "optionally with a seed like \"blocks:200:42\", estimates sum, count, mean and LT4 of a csv file " +
+                "with 95% confidence intervals from a sample instead of performing the actions \n" +
+                "Incremental mode: \"-T\" followed by the path of a checkpoint file only reads the lines appended to " +
+                "a csv file since the last run, \"-t\" followed by a number of milliseconds keeps following the file " +
+                "and writes the updated result whenever lines were appended \n" +
+                "Zone map: \"-Z on\" builds an index of the blocks of a csv file next to it, later runs answer sum, " +
+                "min, max and count from the index and only read the blocks LT4 and other filters may match \n");
+    }
+
+    /**
+     * Continuous mode: the input is treated as an unbounded stream, the results of every window
+     * are written as soon as the window is complete and only the last window of values is kept in memory.
+     *
+     * @return the exit code
+     */
+    private static int runContinuous(Map<String, String> options, String inputFilePath, String outputFilePath,
+                                     List<ActionDefinition> actions, ParseErrors parseErrors) {
+        int windowSize = Integer.parseInt(options.get("-w").trim());
+        int slide = options.get("-s").isEmpty() ? windowSize : Integer.parseInt(options.get("-s").trim());
+        String action = options.get("-a");
+        InputReader inputReader;
+        OutputWriter resultOutputWriter;
+
+        switch (options.get("-i").toUpperCase()) {
+            case "STDIN":
+                inputReader = new StdInReaderImpl(StdInReaderImpl.Mode.CONTINUOUS, parseErrors);
+                break;
+            default:
+                inputReader = pipelined(createInputReader(options, inputFilePath, parseErrors), options.get("-P"));
+                break;
+        }
+        switch (options.get("-o").toUpperCase()) {
+            case "STDOUT":
+                resultOutputWriter = new StdOutWriterImpl(action);
+                break;
+            case "FILE":
+                resultOutputWriter = new FileOutputWriterImpl(action, options.get("-F"), outputFilePath);
+                break;
+            default:
+                // fails before the input is read, instead of dropping every window
+                logger.error("Write Error: output to a URL is not supported yet, exiting the application with code 3");
+                return 3;
+        }
+
+        WindowAggregator aggregator;
+        try {
+            aggregator = new WindowAggregator(windowSize, slide, actions, window -> {
+                try {
+                    resultOutputWriter.writeWindow(window);
+                } catch (WriteErrorException e) {
+                    // the reader only declares read errors, the write error is unwrapped below
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            logger.error("Write Error: invalid operation, {}, exiting the application with code 3", e.getMessage());
+            return 3;
+        }
+
+        try {
+            inputReader.readInto(aggregator);
+            aggregator.finish();
+        } catch (ReadErrorException e) {
+            logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
+            return e.getErrorCode();
+        } catch (UncheckedIOException e) {
+            if (!(e.getCause() instanceof WriteErrorException)) {
+                logger.error("Write Error: {}, exiting the application with code 3", e.getCause().getMessage());
+                return 3;
+            }
+            WriteErrorException writeError = (WriteErrorException) e.getCause();
+            logger.error(writeError.getMessage(), "Exiting the application with code {}", writeError.getErrorCode());
+            return writeError.getErrorCode();
+        }
+        logger.info("Continuous mode processed {} input values", aggregator.getCount());
+        return 0;
+    }
+
+    /**
+     * Conversion mode: the input values are written to a binary float file, the path of the output file
+     * with the extension .bin, so later runs read them with "-f bin" without parsing. No action is performed.
+     *
+     * @return the exit code
+     */
+    private static int convertToBinary(Map<String, String> options, String inputFilePath, String outputFilePath,
+                                       ParseErrors parseErrors) {
+        InputReader inputReader;
+        if (options.get("-i").equalsIgnoreCase("stdin")) {
+            inputReader = new StdInReaderImpl(isPiped(options.get("-p"))
+                    ? StdInReaderImpl.Mode.PIPED : StdInReaderImpl.Mode.INTERACTIVE, parseErrors);
+        } else {
+            inputReader = createInputReader(options, inputFilePath, parseErrors);
+        }
+        inputReader = pipelined(inputReader, options.get("-P"));
+        Path binaryFile;
+        try {
+            binaryFile = Paths.get(outputFilePath + ".bin");
+        } catch (InvalidPathException | NullPointerException e) {
+            logger.error("Write Error: invalid output path {}, exiting the application with code 3", outputFilePath);
+            return 3;
+        }
+        try (BinaryFloatFileWriter writer = new BinaryFloatFileWriter(binaryFile)) {
+            inputReader.readInto(writer);
+            System.out.println("The " + writer.getCount() + " input values are converted to the binary file " + binaryFile);
+        } catch (ReadErrorException e) {
+            logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
+            deleteIncompleteFile(binaryFile);
+            return e.getErrorCode();
+        } catch (WriteErrorException e) {
+            logger.error(e.getMessage(), "Exiting the application with code {}", e.getErrorCode());
+            deleteIncompleteFile(binaryFile);
+            return e.getErrorCode();
+        } catch (UncheckedIOException e) {
+            deleteIncompleteFile(binaryFile);
+            if (!(e.getCause() instanceof WriteErrorException)) {
+                logger.error("Write Error: {}, exiting the application with code 3", e.getCause().getMessage());
+                return 3;
+            }
+            WriteErrorException writeError = (WriteErrorException) e.getCause();
+            logger.error(writeError.getMessage(), "Exiting the application with code {}", writeError.getErrorCode());
+            return writeError.getErrorCode();
+        }
+        return 0;
+    }
+
+    /**
+     * Incremental mode: only the lines appended to a growing csv file since the last run are read, the offset and the
+     * state of the actions are kept in the checkpoint file. The result over all values is written like a window
+     * of the continuous mode, from 0 to the number of values. With a poll interval the file is followed and the result
+     * is written again after every update which read new lines, until the application is stopped.
+     *
+     * @return the exit code
+     */
+    private static int runIncremental(Map<String, String> options, String inputFilePath, String outputFilePath,
+                                      List<ActionDefinition> actions) {
+        if (!options.get("-i").equalsIgnoreCase("file") || FileSetReader.isFileSet(inputFilePath)
+                || !options.get("-f").equalsIgnoreCase("csv")) {
+            logger.error("Read Error: only a single csv input file can be read incrementally, "
+                    + "exiting the application with code 4");
+            return 4;
+        }
+        if (inputFilePath == null || inputFilePath.trim().isEmpty()) {
+            logger.error("Read Error: no input file path given, exiting the application with code 2");
+            return 2;
+        }
+        int outputError = checkOutput(options, outputFilePath);
+        if (outputError != 0) {
+            return outputError;
+        }
+        if (!options.get("-e").equalsIgnoreCase("off")) {
+            logger.warn("The lenient mode is not applied to the incremental mode, an invalid value ends it");
+        }
+        String action = options.get("-a");
+        RunningAggregate aggregate;
+        try {
+            aggregate = new RunningAggregate(actions);
+        } catch (IllegalArgumentException e) {
+            logger.error("Write Error: invalid operation, {}, exiting the application with code 3", e.getMessage());
+            return 3;
+        }
+        // a URL output was rejected by checkOutput
+        OutputWriter resultOutputWriter = options.get("-o").equalsIgnoreCase("stdout")
+                ? new StdOutWriterImpl(action)
+                : new FileOutputWriterImpl(action, options.get("-F"), outputFilePath);
+        IncrementalCsvReader reader;
+        try {
+            reader = new IncrementalCsvReader(Paths.get(inputFilePath), Paths.get(options.get("-T")),
+                    csvColumns(options));
+        } catch (InvalidPathException e) {
+            logger.error("Read Error: invalid input or checkpoint path, exiting the application with code 2");
+            return 2;
+        }
+        long pollInterval = options.get("-t").isEmpty() ? 0 : Long.parseLong(options.get("-t").trim());
+        long updates = 0;
+        try {
+            while (true) {
+                if (reader.update(aggregate) > 0 || updates == 0) {
+                    resultOutputWriter.writeWindow(aggregate.result(updates++));
+                }
+                if (pollInterval == 0) {
+                    return 0;
+                }
+                Thread.sleep(pollInterval);
+            }
+        } catch (ReadErrorException e) {
+            logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
+            return e.getErrorCode();
+        } catch (InvalidNumberFormatException e) {
+            logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
+            return e.getErrorCode();
+        } catch (WriteErrorException e) {
+            logger.error(e.getMessage(), "Exiting the application with code {}", e.getErrorCode());
+            return e.getErrorCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * Sampling mode: the sum, count, mean, LT4 count and LT4 fraction of a csv file are estimated from a sample
+     * of its lines or blocks, with their 95% confidence intervals, and written as csv lines with the smallest and
+     * largest sampled values. No action is performed.
+     *
+     * @return the exit code
+     */
+    private static int runSampling(Map<String, String> options, String inputFilePath, String outputFilePath) {
+        if (!options.get("-i").equalsIgnoreCase("file") || FileSetReader.isFileSet(inputFilePath)) {
+            logger.error("Read Error: only a single input file can be sampled, exiting the application with code 4");
+            return 4;
+        }
+        int outputError = checkOutput(options, outputFilePath);
+        if (outputError != 0) {
+            return outputError;
+        }
+        if (!options.get("-e").equalsIgnoreCase("off")) {
+            logger.warn("The lenient mode is not applied to the sampling, an invalid value ends it");
+        }
+        SamplingMode mode = SamplingMode.parse(options.get("-S"), new Random().nextLong());
+        // the seed is logged, so the same sample can be drawn again
+        logger.info("Sampling the file {} with {}", inputFilePath, mode);
+        SampleEstimator estimator;
+        try {
+            estimator = new FileInputReaderImpl(inputFilePath, options.get("-f"), 1, null, csvColumns(options))
+                    .sample(mode);
+        } catch (ReadErrorException e) {
+            logger.error("Error reading input {} the application with code {} ", e.getMessage(), e.getErrorCode());
+            return e.getErrorCode();
+        }
+        String description = "Estimates from " + estimator.getSampledValues() + " sampled values in "
+                + estimator.getSampledClusters() + " of " + estimator.getPopulationClusters()
+                + (mode.getKind() == SamplingMode.Kind.BLOCKS ? " blocks" : " lines");
+        if (options.get("-o").equalsIgnoreCase("stdout")) {
+            System.out.println(description + ":");
+            System.out.println("ESTIMATE,VALUE,LOWER_95,UPPER_95");
+            for (SampleEstimator.Estimate estimate : estimator.estimate()) {
+                System.out.println(estimate);
+            }
+            System.out.println("MIN_SAMPLED," + estimator.getSampledMin() + ",,");
+            System.out.println("MAX_SAMPLED," + estimator.getSampledMax() + ",,");
+            return 0;
+        }
+        // the same suffix and format as the results of the actions
+        FileOutputWriterImpl writer = new FileOutputWriterImpl(options.get("-a"), options.get("-F"), outputFilePath);
+        try {
+            writer.writeEstimates(estimator);
+        } catch (WriteErrorException e) {
+            logger.error(e.getMessage(), "Exiting the application with code {}", e.getErrorCode());
+            return e.getErrorCode();
+        }
+        System.out.println(description + " are contained in the output file " + writer.getOutputPath());
+        return 0;
     }
 
     /**
-     * Method to print output to STDOUT
+     * Checks the output before the input is read: a file needs a path, a URL is not supported yet.
+     *
+     * @return 0 if the output can be written, otherwise the exit code
      */
-    private static void printOutput(OutputWriter writer, List<Float> values, String action) throws WriteErrorException {
-            System.out.println("The result of the specified operation " +
-                    action + " is: " + writer.writeOutput(values));
+    private static int checkOutput(Map<String, String> options, String outputFilePath) {
+        if (options.get("-o").equalsIgnoreCase("url")) {
+            logger.error("Write Error: output to a URL is not supported yet, exiting the application with code 3");
+            return 3;
+        }
+        if (options.get("-o").equalsIgnoreCase("file") && (outputFilePath == null || outputFilePath.trim().isEmpty())) {
+            logger.error("Write Error: no output file path given, exiting the application with code 3");
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * "-Z on" reads a csv file with its zone map, which is not used for other formats and in the lenient mode,
+     * as the values skipped or read as NaN would have to be reported, nor for compressed files whose blocks
+     * cannot be read on their own.
+     */
+    static boolean useZoneMap(Map<String, String> options, String inputFilePath, ParseErrors parseErrors) {
+        if (!options.get("-Z").equalsIgnoreCase("on")) {
+            return false;
+        }
+        if (!options.get("-f").equalsIgnoreCase("csv") || parseErrors != null) {
+            logger.warn("The zone map is only used for csv files in the strict mode, reading the whole file");
+            return false;
+        }
+        try {
+            if (CompressedInput.isCompressed(Paths.get(inputFilePath))) {
+                logger.warn("The zone map cannot index a compressed file, reading the whole file");
+                return false;
+            }
+        } catch (IOException | InvalidPathException e) {
+            // the normal reader reports why the file cannot be read
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the reader of the input file, set of files or URL
+     */
+    private static InputReader createInputReader(Map<String, String> options, String inputFilePath,
+                                                 ParseErrors parseErrors) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (options.get("-i").equalsIgnoreCase("url")) {
+            return new UrlInputReaderImpl(inputFilePath, options.get("-f"), threads, parseErrors);
+        }
+        return FileSetReader.isFileSet(inputFilePath)
+                ? new FileSetReader(inputFilePath, options.get("-f"), threads, parseErrors)
+                : new FileInputReaderImpl(inputFilePath, options.get("-f"), threads, parseErrors, csvColumns(options));
+    }
+
+    /**
+     * "-H on" skips the header line of a csv file, "-C" selects its columns by name or position,
+     * the values of the other columns are not parsed.
+     *
+     * @return the selected columns, null to read every value of every line
+     */
+    private static CsvColumns csvColumns(Map<String, String> options) {
+        boolean header = options.get("-H").equalsIgnoreCase("on");
+        if (!header && options.get("-C").isEmpty()) {
+            return null;
+        }
+        return CsvColumns.parse(options.get("-C"), header);
+    }
+
+    /**
+     * Reads the selected columns of a csv file, each streamed into an accumulator of its own,
+     * and returns their results keyed by the names of the columns.
+     */
+    private static Map<String, AggregationResult> readColumnResults(FileInputReaderImpl reader, CsvColumns columns,
+                                                                    List<ActionDefinition> actions) throws ReadErrorException {
+        int columnCount = columns.getSelectors().size();
+        AggregationAccumulator[] accumulators = new AggregationAccumulator[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            accumulators[i] = new AggregationAccumulator(actions);
+        }
+        List<String> names = reader.readColumnsInto(accumulators);
+        Map<String, AggregationResult> results = new LinkedHashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            results.put(names.get(i), accumulators[i].result());
+        }
+        logger.info("Performed the selected operations on {} columns", columnCount);
+        return results;
+    }
+
+    /**
+     * "-P on" reads the raw bytes of the input on one thread and parses them on another, which hands the values over
+     * in blocks to the actions or the writer of a converted file, "-P auto" does so if there is more than one processor.
+     */
+    private static InputReader pipelined(InputReader reader, String pipelineMode) {
+        boolean pipelined = pipelineMode.equalsIgnoreCase("auto")
+                ? Runtime.getRuntime().availableProcessors() > 1
+                : pipelineMode.equalsIgnoreCase("on");
+        return pipelined ? new PipelinedInputReader(reader) : reader;
+    }
+
+    private static void deleteIncompleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete the incomplete file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the input into an accumulator of the actions, block by block while it is read,
+     * so the input values are never held in memory all at once.
+     */
+    private static AggregationResult readResult(InputReader reader, List<ActionDefinition> actions) throws ReadErrorException {
+        AggregationAccumulator accumulator = new AggregationAccumulator(actions);
+        reader.readInto(accumulator);
+        logger.info("Performed the selected operations on {} input values", accumulator.getCount());
+        return accumulator.result();
+    }
+
+    /**
+     * Reads a directory or a glob pattern of files concurrently and merges their results.
+     * With the breakdown the result of every file is printed too, each line prefixed with the path of the file.
+     */
+    private static AggregationResult readFileSet(FileSetReader reader, List<ActionDefinition> actions,
+                                                 boolean breakdown) throws ReadErrorException {
+        FileSetResult fileSetResult = reader.aggregate(actions, breakdown);
+        if (breakdown) {
+            StdOutWriterImpl breakdownWriter = new StdOutWriterImpl("");
+            for (Map.Entry<Path, AggregationResult> entry : fileSetResult.getFileResults().entrySet()) {
+                if (entry.getValue().getCount() == 0) {
+                    continue;
+                }
+                for (String line : breakdownWriter.formatResults(entry.getValue()).split("\n")) {
+                    System.out.println(entry.getKey() + "," + line);
+                }
+            }
+        }
+        return fileSetResult.getResult();
+    }
+
+    /**
+     * Looks the result up in the result cache before reading the input file, and stores it there after
+     * reading the file on a miss. "-c off" bypasses the cache, "-c clear" empties it first
+     * and "-c hash" also compares the content of the file, not only its size and modification time.
+     */
+    private static AggregationResult readCachedResult(InputReader reader, String inputFilePath, String inputFormat,
+                                                      List<ActionDefinition> actions, String cacheMode) throws ReadErrorException {
+        if (cacheMode.equalsIgnoreCase("off") || inputFilePath == null) {
+            return readResult(reader, actions);
+        }
+        ResultCache cache = ResultCache.fromSystemProperties();
+        if (cacheMode.equalsIgnoreCase("clear")) {
+            try {
+                cache.clear();
+                logger.info("Result cache cleared.");
+            } catch (IOException e) {
+                logger.warn("Could not clear the result cache: {}", e.getMessage());
+            }
+        }
+        String key = null;
+        try {
+            key = ResultCache.key(Paths.get(inputFilePath), inputFormat, actions, cacheMode.equalsIgnoreCase("hash"));
+        } catch (IOException | InvalidPathException e) {
+            // the reader reports the missing or unreadable file
+            logger.debug("No result cache key for {}: {}", inputFilePath, e.getMessage());
+        }
+        AggregationResult result = key == null ? null : cache.get(key, actions);
+        if (result != null) {
+            logger.info("Result cache hit for {}, the file is not read.", inputFilePath);
+        } else {
+            result = readResult(reader, actions);
+            if (key != null) {
+                cache.put(key, result);
+            }
+        }
+        long runHits = cache.getHits();
+        long runMisses = cache.getMisses();
+        long[] totals = cache.saveStats();
+        logger.info("Result cache: {} hits, {} misses in this run, {} hits, {} misses in total",
+                runHits, runMisses, totals[0], totals[1]);
+        return result;
+    }
+
+    /**
+     * Method to print output to STDOUT, the results are streamed through a buffer instead of being built as a String
+     */
+    private static void printOutput(StdOutWriterImpl writer, AggregationResult result, String action) throws WriteErrorException {
+        WriteSummary summary = writer.streamResult(result, "The result of the specified operation " + action + " is: ");
+        System.out.println();
+        logger.info("Printed {}", summary);
     }
 
     /**
@@ -218,12 +848,148 @@ public class CLIApp {
             options.put("-o", "stdout");
         }
         if (options.get("-f") == null || !(options.get("-f").equalsIgnoreCase("csv") ||
-                options.get("-f").equalsIgnoreCase("json"))) {
+                options.get("-f").equalsIgnoreCase("json") ||
+                options.get("-f").equalsIgnoreCase("bin"))) {
             options.put("-f", "csv");
         }
         if (options.get("-F") == null || !(options.get("-F").equalsIgnoreCase("csv") ||
-                options.get("-F").equalsIgnoreCase("json"))) {
+                options.get("-F").equalsIgnoreCase("json") ||
+                options.get("-F").equalsIgnoreCase("bin"))) {
             options.put("-F", "csv");
         }
+        if (options.get("-b") == null || !(options.get("-b").equalsIgnoreCase("on") ||
+                options.get("-b").equalsIgnoreCase("off"))) {
+            options.put("-b", "off");
+        }
+        if (options.get("-p") == null || !(options.get("-p").equalsIgnoreCase("auto") ||
+                options.get("-p").equalsIgnoreCase("on") ||
+                options.get("-p").equalsIgnoreCase("off"))) {
+            options.put("-p", "auto");
+        }
+        if (options.get("-c") == null || !(options.get("-c").equalsIgnoreCase("on") ||
+                options.get("-c").equalsIgnoreCase("off") ||
+                options.get("-c").equalsIgnoreCase("hash") ||
+                options.get("-c").equalsIgnoreCase("clear"))) {
+            options.put("-c", "on");
+        }
+        if (!options.get("-e").equalsIgnoreCase("off") && createParseErrors(options.get("-e")) == null) {
+            options.put("-e", "off");
+        }
+        if (options.get("-P") == null || !(options.get("-P").equalsIgnoreCase("auto") ||
+                options.get("-P").equalsIgnoreCase("on") ||
+                options.get("-P").equalsIgnoreCase("off"))) {
+            options.put("-P", "auto");
+        }
+        if (options.get("-H") == null || !(options.get("-H").equalsIgnoreCase("on") ||
+                options.get("-H").equalsIgnoreCase("off"))) {
+            options.put("-H", "off");
+        }
+        try {
+            CsvColumns.parse(options.get("-C"), false);
+        } catch (IllegalArgumentException e) {
+            options.put("-C", "");
+        }
+        try {
+            SamplingMode.parse(options.get("-S"), 0);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            options.put("-S", "");
+        }
+        if (options.get("-T") == null) {
+            options.put("-T", "");
+        }
+        if (!isPositiveInteger(options.get("-t"))) {
+            options.put("-t", "");
+        }
+        if (options.get("-Z") == null || !(options.get("-Z").equalsIgnoreCase("on") ||
+                options.get("-Z").equalsIgnoreCase("off"))) {
+            options.put("-Z", "off");
+        }
+        if (options.get("-r") == null) {
+            options.put("-r", "");
+        }
+        if (!isPositiveInteger(options.get("-w"))) {
+            options.put("-w", "");
+        }
+        if (!isPositiveInteger(options.get("-s"))) {
+            options.put("-s", "");
+        }
+    }
+
+    /**
+     * "-p auto" reads stdin in the piped mode when it is not a terminal, "-p on" and "-p off" force the mode.
+     */
+    private static boolean isPiped(String pipeMode) {
+        if (pipeMode.equalsIgnoreCase("auto")) {
+            return StdInReaderImpl.isStdInPiped();
+        }
+        return pipeMode.equalsIgnoreCase("on");
+    }
+
+    /**
+     * "-e skip" and "-e nan" select the lenient mode, optionally followed by the error budget like "skip:100".
+     *
+     * @return the error budget of the lenient mode, null for "-e off" or an invalid value
+     */
+    private static ParseErrors createParseErrors(String errorMode) {
+        if (errorMode == null) {
+            return null;
+        }
+        String[] parts = errorMode.trim().split(":", 2);
+        ParseErrors.Action errorAction;
+        if (parts[0].equalsIgnoreCase("skip")) {
+            errorAction = ParseErrors.Action.SKIP;
+        } else if (parts[0].equalsIgnoreCase("nan")) {
+            errorAction = ParseErrors.Action.NAN;
+        } else {
+            return null;
+        }
+        long budget = Long.MAX_VALUE;
+        if (parts.length == 2) {
+            try {
+                budget = Long.parseLong(parts[1].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (budget < 0) {
+                return null;
+            }
+        }
+        return new ParseErrors(errorAction, budget);
+    }
+
+    /**
+     * Writes the report of the invalid values of the lenient mode to the path given with "-r",
+     * or logs their number and the first ones without it. Also written after a failed read,
+     * e.g. when the error budget is exceeded.
+     *
+     * @return the exit code, the one of the report if it cannot be written and the run succeeded otherwise
+     */
+    private static int reportParseErrors(ParseErrors parseErrors, String reportPath, int exitCode) {
+        if (!reportPath.isEmpty()) {
+            try {
+                parseErrors.writeReport(Paths.get(reportPath));
+                System.out.println("The " + parseErrors.getCount() + " invalid input values are reported in the file "
+                        + reportPath);
+            } catch (WriteErrorException | InvalidPathException e) {
+                logger.error("Could not write the report of the invalid values to {}: {}", reportPath, e.getMessage());
+                return exitCode == 0 ? 3 : exitCode;
+            }
+            return exitCode;
+        }
+        if (parseErrors.getCount() > 0) {
+            List<ParseErrors.ParseError> errors = parseErrors.getErrors();
+            logger.warn("{} invalid input values were {}, the first ones: {}", parseErrors.getCount(),
+                    parseErrors.getAction() == ParseErrors.Action.SKIP ? "skipped" : "read as NaN",
+                    errors.subList(0, Math.min(10, errors.size())));
+        }
+        return exitCode;
+    }
+
+    private static boolean isPositiveInteger(String value) {
+        try {
+            return value != null && Integer.parseInt(value.trim()) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
 }
\ No newline at end of file
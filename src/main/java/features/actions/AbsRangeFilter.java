@@ -0,0 +1,57 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * Filter on the absolute value lying in the closed interval [lower, upper].
+ */
+final class AbsRangeFilter extends FloatFilter {
+
+    private final float lower;
+    private final float upper;
+
+    AbsRangeFilter(String expression, float lower, float upper) {
+        super(expression);
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    @Override
+    public boolean test(float value) {
+        float abs = Math.abs(value);
+        return abs >= lower && abs <= upper;
+    }
+
+    @Override
+    public void select(float[] values, int from, int to, FloatColumn target) {
+        for (int i = from; i < to; i++) {
+            float abs = Math.abs(values[i]);
+            if (abs >= lower && abs <= upper) {
+                target.add(values[i]);
+            }
+        }
+    }
+
+    @Override
+    public int count(float[] values, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            float abs = Math.abs(values[i]);
+            if (abs >= lower && abs <= upper) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean mayMatch(float min, float max) {
+        if (min > max) {
+            return false;
+        }
+        // the absolute values of [min, max] range from 0 if it contains 0, else from the bound closer to 0
+        float minAbs = min <= 0 && max >= 0 ? 0 : Math.min(Math.abs(min), Math.abs(max));
+        float maxAbs = Math.max(Math.abs(min), Math.abs(max));
+        return maxAbs >= lower && minAbs <= upper;
+    }
+}
@@ -0,0 +1,74 @@
+package features.actions;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The built-in actions which can be requested on the command line with the "-a" option.
+ * Several actions can be combined in one run, e.g. "-a sum,minmax,lt4".
+ */
+public enum Action implements ActionDefinition {
+    SUM {
+        @Override
+        public ActionOutput output(AggregationResult result) {
+            return ActionOutput.ofScalar("SUM", result.getSum());
+        }
+    },
+    MIN {
+        @Override
+        public ActionOutput output(AggregationResult result) {
+            return ActionOutput.ofScalar("MIN", result.getMin());
+        }
+    },
+    MAX {
+        @Override
+        public ActionOutput output(AggregationResult result) {
+            return ActionOutput.ofScalar("MAX", result.getMax());
+        }
+    },
+    MINMAX {
+        @Override
+        public ActionOutput output(AggregationResult result) {
+            Map<String, Number> scalars = new LinkedHashMap<>();
+            scalars.put("MIN", result.getMin());
+            scalars.put("MAX", result.getMax());
+            return ActionOutput.ofScalars(scalars);
+        }
+    },
+    LT4 {
+        private final FloatFilter filter = FilterCompiler.compile("lt:4");
+
+        @Override
+        public FloatFilter getFilter() {
+            return filter;
+        }
+
+        @Override
+        public ActionOutput output(AggregationResult result) {
+            return ActionOutput.ofValues("LT4", result.getFiltered(this));
+        }
+    },
+    COUNT {
+        @Override
+        public ActionOutput output(AggregationResult result) {
+            return ActionOutput.ofScalar("COUNT", result.getCount());
+        }
+    };
+
+    @Override
+    public String getName() {
+        return name();
+    }
+
+    /**
+     * Parses a comma separated list of actions with the default {@link ActionRegistry}.
+     *
+     * @param actions the value of the "-a" option, e.g. "sum,minmax" or "sum,between:1,3"
+     * @return the requested actions in the order they were given
+     * @throws IllegalArgumentException if the list is empty or contains an unknown action
+     */
+    public static List<ActionDefinition> parseActions(String actions) {
+        return ActionRegistry.getDefault().parseActions(actions);
+    }
+}
@@ -0,0 +1,38 @@
+package features.actions;
+
+/**
+ * An action which can be requested with the "-a" option.
+ * Actions are resolved by the {@link ActionRegistry} from the registered {@link ActionProvider}s.
+ * All requested actions are computed together by one {@link AggregationAccumulator}:
+ * aggregations read the running sum, min, max and count, actions with their own state,
+ * like filters, provide an accumulator which gets every block of values.
+ */
+public interface ActionDefinition {
+
+    /**
+     * @return the name of the action used as key in the output, e.g. "SUM"
+     */
+    String getName();
+
+    /**
+     * @return the filter whose selected values this action outputs, or null if the action is an aggregation
+     */
+    default FloatFilter getFilter() {
+        return null;
+    }
+
+    /**
+     * Creates the accumulator for the state of this action, by default a {@link FilterAccumulator}
+     * for actions with a filter.
+     *
+     * @return a new accumulator, or null if the action only needs the running sum, min, max and count
+     */
+    default FloatAccumulator newAccumulator() {
+        return getFilter() == null ? null : new FilterAccumulator(getFilter());
+    }
+
+    /**
+     * Builds the output of the action from the results of the aggregation pass.
+     */
+    ActionOutput output(AggregationResult result);
+}
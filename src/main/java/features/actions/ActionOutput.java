@@ -0,0 +1,100 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Output of one action: either named scalar results (e.g. MIN and MAX),
+ * a column of values (e.g. the values selected by a filter) or the buckets of a histogram.
+ */
+public final class ActionOutput {
+
+    private final Map<String, Number> scalars;
+    private final String valuesName;
+    private final FloatColumn values;
+    private final List<HistogramAccumulator.Bucket> buckets;
+
+    private ActionOutput(Map<String, Number> scalars, String valuesName, FloatColumn values,
+                         List<HistogramAccumulator.Bucket> buckets) {
+        this.scalars = scalars;
+        this.valuesName = valuesName;
+        this.values = values;
+        this.buckets = buckets;
+    }
+
+    public static ActionOutput ofScalar(String name, Number value) {
+        return ofScalars(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * @param scalars the named results, written in the iteration order of the map
+     */
+    public static ActionOutput ofScalars(Map<String, Number> scalars) {
+        return new ActionOutput(Collections.unmodifiableMap(new LinkedHashMap<>(scalars)), null, null, null);
+    }
+
+    public static ActionOutput ofValues(String name, FloatColumn values) {
+        return new ActionOutput(Collections.emptyMap(), name, values.asReadOnly(), null);
+    }
+
+    /**
+     * @param buckets the buckets of the histogram, in ascending order
+     */
+    public static ActionOutput ofHistogram(String name, List<HistogramAccumulator.Bucket> buckets) {
+        return new ActionOutput(Collections.emptyMap(), name, null, Collections.unmodifiableList(buckets));
+    }
+
+    public boolean hasValues() {
+        return values != null;
+    }
+
+    public boolean hasBuckets() {
+        return buckets != null;
+    }
+
+    public Map<String, Number> getScalars() {
+        return scalars;
+    }
+
+    /**
+     * @return the name of the values or of the histogram buckets
+     */
+    public String getValuesName() {
+        return valuesName;
+    }
+
+    public FloatColumn getValues() {
+        return values;
+    }
+
+    public List<HistogramAccumulator.Bucket> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Returns the output as a column, scalar results are converted to float,
+     * histogram buckets are flattened to lower bound, upper bound and count.
+     */
+    public FloatColumn toColumn() {
+        if (values != null) {
+            return values;
+        }
+        if (buckets != null) {
+            FloatColumn column = new FloatColumn(buckets.size() * 3);
+            for (HistogramAccumulator.Bucket bucket : buckets) {
+                column.add(bucket.getLower());
+                column.add(bucket.getUpper());
+                column.add(bucket.getCount());
+            }
+            return column;
+        }
+        FloatColumn column = new FloatColumn(scalars.size());
+        for (Number scalar : scalars.values()) {
+            column.add(scalar.floatValue());
+        }
+        return column;
+    }
+}
@@ -0,0 +1,19 @@
+package features.actions;
+
+/**
+ * Service provider interface for contributing actions to the {@link ActionRegistry}.
+ * Implementations are discovered with {@link java.util.ServiceLoader}, so additional actions can be
+ * added by putting a jar on the classpath which lists its provider in
+ * META-INF/services/features.actions.ActionProvider.
+ */
+public interface ActionProvider {
+
+    /**
+     * Resolves the text of one action of the "-a" option.
+     *
+     * @param action the action text, e.g. "sum" or "between:1,3"
+     * @return the action, or null if this provider does not know it
+     * @throws IllegalArgumentException if the provider knows the action but its arguments are invalid
+     */
+    ActionDefinition resolve(String action);
+}
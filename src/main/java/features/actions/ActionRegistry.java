@@ -0,0 +1,109 @@
+package features.actions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Resolves the actions of the "-a" option with the {@link ActionProvider}s found by the {@link ServiceLoader}.
+ * Providers are asked in the order they are found, the first one knowing an action wins.
+ */
+public final class ActionRegistry {
+
+    private static final ActionRegistry DEFAULT = new ActionRegistry(loadProviders());
+
+    private final List<ActionProvider> providers;
+
+    public ActionRegistry(List<ActionProvider> providers) {
+        this.providers = Collections.unmodifiableList(new ArrayList<>(providers));
+    }
+
+    /**
+     * @return the registry with all providers available on the classpath
+     */
+    public static ActionRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public List<ActionProvider> getProviders() {
+        return providers;
+    }
+
+    /**
+     * Resolves a single action.
+     *
+     * @throws IllegalArgumentException if no provider knows the action
+     */
+    public ActionDefinition resolve(String action) {
+        for (ActionProvider provider : providers) {
+            ActionDefinition definition = provider.resolve(action);
+            if (definition != null) {
+                return definition;
+            }
+        }
+        throw new IllegalArgumentException("Unknown action: " + action);
+    }
+
+    /**
+     * Parses a comma separated list of actions, ignoring blanks and duplicates.
+     * A part which is only a number continues the arguments of the previous action,
+     * so "sum,between:1,3" is read as the two actions "sum" and "between:1,3".
+     *
+     * @param actions the value of the "-a" option
+     * @return the requested actions in the order they were given
+     * @throws IllegalArgumentException if the list is empty or contains an unknown or invalid action
+     */
+    public List<ActionDefinition> parseActions(String actions) {
+        if (actions == null) {
+            throw new IllegalArgumentException("No action selected");
+        }
+        List<String> names = new ArrayList<>();
+        for (String part : actions.split(",")) {
+            String sanitizedPart = part.trim();
+            if (sanitizedPart.isEmpty()) {
+                continue;
+            }
+            if (!names.isEmpty() && isNumber(sanitizedPart)) {
+                names.set(names.size() - 1, names.get(names.size() - 1) + "," + sanitizedPart);
+            } else {
+                names.add(sanitizedPart);
+            }
+        }
+
+        List<ActionDefinition> result = new ArrayList<>();
+        List<String> resolvedNames = new ArrayList<>();
+        for (String name : names) {
+            ActionDefinition definition = resolve(name);
+            if (!resolvedNames.contains(definition.getName())) {
+                resolvedNames.add(definition.getName());
+                result.add(definition);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("No action selected");
+        }
+        return result;
+    }
+
+    private static boolean isNumber(String text) {
+        try {
+            Float.parseFloat(text);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static List<ActionProvider> loadProviders() {
+        List<ActionProvider> providers = new ArrayList<>();
+        for (ActionProvider provider : ServiceLoader.load(ActionProvider.class)) {
+            providers.add(provider);
+        }
+        if (providers.isEmpty()) {
+            // e.g. when the services file was lost while repackaging the jar
+            providers.add(new BuiltInActionProvider());
+        }
+        return providers;
+    }
+}
@@ -1,5 +1,6 @@
 package features.actions;
 
+import features.data.FloatColumn;
 import java.util.List;
 
 /**
@@ -42,4 +43,81 @@ public interface ActionsManager {
      * or empty list if the input list is empty or null
      */
     List<Float> filter(List<Float> inputList);
+
+    /**
+     * Calculates the sum of all values in the provided column.
+     *
+     * @param column a column of float values which are to be summed
+     * @return the sum of the values or 0 if the column is empty or null
+     */
+    float sumColumn(FloatColumn column);
+
+    /**
+     * Finds the minimum value in the provided column.
+     *
+     * @param column a column of float values to search for the minimum
+     * @return the minimum value in the column or 0 if the column is empty or null
+     */
+    float minColumn(FloatColumn column);
+
+    /**
+     * Finds the maximum value in the provided column.
+     *
+     * @param column a column of float values to search for the maximum
+     * @return the maximum value in the column or 0 if the column is empty or null
+     */
+    float maxColumn(FloatColumn column);
+
+    /**
+     * Filters the provided column based on certain condition
+     * and returns a new column with the values which satisfy the condition.
+     *
+     * @param column a column of float values to be filtered
+     * @return a column with the values that satisfy the condition,
+     * or empty column if the input column is empty or null
+     */
+    FloatColumn filterColumn(FloatColumn column);
+
+    /**
+     * Finds the exact median of the provided column, NaN values are ignored.
+     *
+     * @param column a column of float values
+     * @return the middle value, the mean of the two middle values for an even number of values,
+     * or 0 if the column is empty or null
+     */
+    float medianColumn(FloatColumn column);
+
+    /**
+     * Finds the exact percentile of the provided column using the nearest rank definition:
+     * the smallest value such that at least the given percentage of the values is less than or equal to it.
+     * NaN values are ignored.
+     *
+     * @param column a column of float values
+     * @param percentile the percentile between 0 and 100, e.g. 99 for the 99th percentile
+     * @return the percentile or 0 if the column is empty or null
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    float percentileColumn(FloatColumn column, double percentile);
+
+    /**
+     * Finds the k smallest values of the provided column, NaN values are ignored.
+     *
+     * @param column a column of float values
+     * @param k the number of values
+     * @return a column with the k smallest values in ascending order,
+     * all values if there are fewer than k, or empty column if the input column is empty or null
+     * @throws IllegalArgumentException if k is negative
+     */
+    FloatColumn smallestColumn(FloatColumn column, int k);
+
+    /**
+     * Finds the k largest values of the provided column, NaN values are ignored.
+     *
+     * @param column a column of float values
+     * @param k the number of values
+     * @return a column with the k largest values in descending order,
+     * all values if there are fewer than k, or empty column if the input column is empty or null
+     * @throws IllegalArgumentException if k is negative
+     */
+    FloatColumn largestColumn(FloatColumn column, int k);
 }
@@ -1,10 +1,28 @@
 package features.actions;
 
-import java.util.ArrayList;
+import features.data.FloatColumn;
 import java.util.List;
 
 public class ActionsManagerImpl implements ActionsManager {
 
+    private final FloatKernels kernels = FloatKernels.get();
+    protected final FloatFilter filter;
+
+    /**
+     * Constructor using the LT4 (less than four) filter
+     */
+    public ActionsManagerImpl() {
+        this(Action.LT4.getFilter());
+    }
+
+    /**
+     * Constructor
+     * @param filter the filter applied by the filter methods, see {@link FilterCompiler}
+     */
+    public ActionsManagerImpl(FloatFilter filter) {
+        this.filter = filter;
+    }
+
     /**
      * Calculates the sum of all values in the provided list of float type numbers.
      *
@@ -13,16 +31,7 @@ public class ActionsManagerImpl implements ActionsManager {
      */
     @Override
     public float sum(List<Float> inputList) {
-        if (inputList == null || inputList.isEmpty()) {
-            return 0;
-        }
-        float sum = 0;
-        for (Float value : inputList) {
-            if (value != null) {
-                sum += value;
-            }
-        }
-        return sum;
+        return sumColumn(FloatColumn.fromList(inputList));
     }
 
     /**
@@ -33,16 +42,7 @@ public class ActionsManagerImpl implements ActionsManager {
      */
     @Override
     public float min(List<Float> inputList) {
-        if (inputList == null || inputList.isEmpty()) {
-            return 0;
-        }
-        float minValue = Float.MAX_VALUE;
-        for (Float value : inputList) {
-            if (value != null && value < minValue) {
-                minValue = value;
-            }
-        }
-        return minValue == Float.MAX_VALUE ? 0 : minValue;
+        return minColumn(FloatColumn.fromList(inputList));
     }
 
     /**
@@ -53,26 +53,12 @@ public class ActionsManagerImpl implements ActionsManager {
      */
     @Override
     public float max(List<Float> inputList) {
-        if (inputList == null || inputList.isEmpty()) {
-            return 0;
-        }
-
-        float maxValue = Float.MIN_VALUE;
-        boolean foundValidValue = false;
-        for (Float value : inputList) {
-            if (value != null) {
-                foundValidValue = true;
-                if (value > maxValue) {
-                    maxValue = value;
-                }
-            }
-        }
-        return foundValidValue ? maxValue : 0;
+        return maxColumn(FloatColumn.fromList(inputList));
     }
 
     /**
      * Implementation of the filter method which filters the provided list
-     * based on the condition LT4 (less than four)
+     * based on the filter of this manager, LT4 (less than four) by default,
      * and returns the list with the float values which satisfy the condition.
      *
      * @param inputList a list of Float values to be filtered
@@ -81,15 +67,135 @@ public class ActionsManagerImpl implements ActionsManager {
      */
     @Override
     public List<Float> filter(List<Float> inputList) {
-        List<Float> filteredList = new ArrayList<>();
-        if (inputList == null || inputList.isEmpty()) {
-            return filteredList;
+        return filterColumn(FloatColumn.fromList(inputList)).toList();
+    }
+
+    /**
+     * Calculates the sum of all values in the provided column.
+     *
+     * @param column a column of float values to be summed
+     * @return the sum of the values in the column or 0 if the column is empty or null
+     */
+    @Override
+    public float sumColumn(FloatColumn column) {
+        if (column == null || column.isEmpty()) {
+            return 0;
+        }
+        return kernels.sum(column.elements(), 0, column.size());
+    }
+
+    /**
+     * Implementation of finding the minimum value in the provided column.
+     *
+     * @param column a column of float values to search for the minimum
+     * @return the minimum value in the column or 0 if the column is empty or null
+     */
+    @Override
+    public float minColumn(FloatColumn column) {
+        if (column == null || column.isEmpty()) {
+            return 0;
+        }
+        return kernels.min(column.elements(), 0, column.size());
+    }
+
+    /**
+     * Implementation of finding the maximum value in the provided column.
+     *
+     * @param column a column of float values to search for the maximum
+     * @return the maximum value in the column or 0 if the column is empty or null
+     */
+    @Override
+    public float maxColumn(FloatColumn column) {
+        if (column == null || column.isEmpty()) {
+            return 0;
         }
-        for (Float value : inputList) {
-            if (value != null && value < 4) {
-                filteredList.add(value);
-            }
+        return kernels.max(column.elements(), 0, column.size());
+    }
+
+    /**
+     * Implementation of the filter method which filters the provided column
+     * based on the filter of this manager, LT4 (less than four) by default.
+     *
+     * @param column a column of float values to be filtered
+     * @return a column with the values that satisfy the condition,
+     * or empty column if the input column is empty or null
+     */
+    @Override
+    public FloatColumn filterColumn(FloatColumn column) {
+        FloatColumn filtered = new FloatColumn();
+        if (column == null || column.isEmpty()) {
+            return filtered;
+        }
+        filter.select(column.elements(), 0, column.size(), filtered);
+        return filtered;
+    }
+
+    /**
+     * Finds the exact median with an introselect on a copy of the values, O(n) on average.
+     *
+     * @param column a column of float values
+     * @return the median or 0 if the column is empty or null
+     */
+    @Override
+    public float medianColumn(FloatColumn column) {
+        if (column == null || column.isEmpty()) {
+            return 0;
+        }
+        float[] values = FloatSelection.copyWithoutNaN(column.elements(), 0, column.size());
+        return values.length == 0 ? 0 : FloatSelection.median(values);
+    }
+
+    /**
+     * Finds the exact percentile with an introselect on a copy of the values, O(n) on average.
+     *
+     * @param column a column of float values
+     * @param percentile the percentile between 0 and 100
+     * @return the percentile or 0 if the column is empty or null
+     */
+    @Override
+    public float percentileColumn(FloatColumn column, double percentile) {
+        double q = checkPercentile(percentile);
+        if (column == null || column.isEmpty()) {
+            return 0;
+        }
+        float[] values = FloatSelection.copyWithoutNaN(column.elements(), 0, column.size());
+        if (values.length == 0) {
+            return 0;
+        }
+        return FloatSelection.select(values, 0, values.length, FloatSelection.rankIndex(values.length, q));
+    }
+
+    /**
+     * Finds the k smallest values with a bounded heap, O(n log k), or a selection for large k.
+     */
+    @Override
+    public FloatColumn smallestColumn(FloatColumn column, int k) {
+        return bestColumn(column, k, false);
+    }
+
+    /**
+     * Finds the k largest values with a bounded heap, O(n log k), or a selection for large k.
+     */
+    @Override
+    public FloatColumn largestColumn(FloatColumn column, int k) {
+        return bestColumn(column, k, true);
+    }
+
+    protected FloatColumn bestColumn(FloatColumn column, int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of values cannot be negative: " + k);
+        }
+        if (column == null || column.isEmpty()) {
+            return new FloatColumn(0);
+        }
+        float[] best = FloatSelection.best(column.elements(), 0, column.size(), k, largest);
+        return FloatColumn.wrap(best, best.length);
+    }
+
+    protected static double checkPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
         }
-        return filteredList;
+        return percentile / 100;
     }
 }
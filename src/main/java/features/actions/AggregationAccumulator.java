@@ -0,0 +1,140 @@
+package features.actions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulator for any combination of actions, the streaming form of the {@link AggregationEngine}.
+ * Sum, min, max and count are always computed with one fused kernel per block,
+ * actions with their own state, like filters, get the same block right after it while it is still in cache.
+ * The memory used does not depend on the number of accepted values, except for the values kept by filters.
+ */
+public final class AggregationAccumulator implements FloatAccumulator {
+
+    static final int BLOCK_SIZE = 4096;
+
+    private final FloatKernels kernels = FloatKernels.get();
+    private final List<ActionDefinition> actions;
+    private final Map<ActionDefinition, FloatAccumulator> accumulators;
+    private final FloatAccumulator[] accumulatorArray;
+    private final float[] blockResult = new float[3];
+    private double sum;
+    private float min = Float.POSITIVE_INFINITY;
+    private float max = Float.NEGATIVE_INFINITY;
+    private long count;
+
+    /**
+     * Constructor
+     * @param actions the actions to compute
+     */
+    public AggregationAccumulator(List<? extends ActionDefinition> actions) {
+        this(actions, createAccumulators(actions));
+    }
+
+    private AggregationAccumulator(List<? extends ActionDefinition> actions,
+                                   Map<ActionDefinition, FloatAccumulator> accumulators) {
+        this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+        this.accumulators = accumulators;
+        this.accumulatorArray = accumulators.values().toArray(new FloatAccumulator[0]);
+    }
+
+    @Override
+    public void accept(float value) {
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        count++;
+        for (FloatAccumulator accumulator : accumulatorArray) {
+            accumulator.accept(value);
+        }
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        int end = offset + length;
+        for (int from = offset; from < end; from += BLOCK_SIZE) {
+            int to = Math.min(end, from + BLOCK_SIZE);
+            kernels.aggregate(values, from, to, blockResult);
+            sum += blockResult[0];
+            if (blockResult[1] < min) {
+                min = blockResult[1];
+            }
+            if (blockResult[2] > max) {
+                max = blockResult[2];
+            }
+            for (FloatAccumulator accumulator : accumulatorArray) {
+                accumulator.accept(values, from, to - from);
+            }
+        }
+        count += length;
+    }
+
+    /**
+     * Merges an accumulator of the same actions computed over a later part of the input.
+     */
+    @Override
+    public void merge(FloatAccumulator other) {
+        if (!(other instanceof AggregationAccumulator)
+                || !((AggregationAccumulator) other).actions.equals(actions)) {
+            throw new IllegalArgumentException("Can only merge an AggregationAccumulator of the same actions");
+        }
+        AggregationAccumulator aggregation = (AggregationAccumulator) other;
+        sum += aggregation.sum;
+        min = Math.min(min, aggregation.min);
+        max = Math.max(max, aggregation.max);
+        count += aggregation.count;
+        for (Map.Entry<ActionDefinition, FloatAccumulator> entry : accumulators.entrySet()) {
+            entry.getValue().merge(aggregation.accumulators.get(entry.getKey()));
+        }
+    }
+
+    @Override
+    public AggregationAccumulator snapshot() {
+        Map<ActionDefinition, FloatAccumulator> copies = new IdentityHashMap<>();
+        for (Map.Entry<ActionDefinition, FloatAccumulator> entry : accumulators.entrySet()) {
+            copies.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        AggregationAccumulator copy = new AggregationAccumulator(actions, copies);
+        copy.sum = sum;
+        copy.min = min;
+        copy.max = max;
+        copy.count = count;
+        return copy;
+    }
+
+    public List<ActionDefinition> getActions() {
+        return actions;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Hands the state of the actions to the result without copying it, e.g. the values kept by filters.
+     * Call it on a {@link #snapshot()} to keep accepting values without changing the result.
+     *
+     * @return the results of all actions over the values accepted so far
+     */
+    public AggregationResult result() {
+        return new AggregationResult(actions, (float) sum, min, max, count, accumulators);
+    }
+
+    private static Map<ActionDefinition, FloatAccumulator> createAccumulators(List<? extends ActionDefinition> actions) {
+        Map<ActionDefinition, FloatAccumulator> accumulators = new IdentityHashMap<>();
+        for (ActionDefinition action : actions) {
+            FloatAccumulator accumulator = action.newAccumulator();
+            if (accumulator != null) {
+                accumulators.put(action, accumulator);
+            }
+        }
+        return accumulators;
+    }
+}
@@ -0,0 +1,38 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import java.util.List;
+
+/**
+ * Computes any combination of the actions in a single pass over the data,
+ * instead of walking the whole input once per action.
+ * The input is processed in blocks small enough to stay in the L1 cache:
+ * the aggregations and then every requested filter run over a block before moving to the next one.
+ */
+public class AggregationEngine {
+
+    /**
+     * Computes all the requested actions with one scan of the values.
+     *
+     * @param values the input values, may be null or empty
+     * @param actions the actions to compute
+     * @return the results of all requested actions
+     */
+    public AggregationResult aggregate(FloatColumn values, List<? extends ActionDefinition> actions) {
+        AggregationAccumulator accumulator = newAccumulator(actions);
+        if (values != null && !values.isEmpty()) {
+            accumulator.accept(values.elements(), 0, values.size());
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * Creates an accumulator for the actions, which values can be pushed to while they are read.
+     *
+     * @param actions the actions to compute
+     * @return an empty accumulator
+     */
+    public AggregationAccumulator newAccumulator(List<? extends ActionDefinition> actions) {
+        return new AggregationAccumulator(actions);
+    }
+}
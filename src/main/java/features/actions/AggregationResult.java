@@ -0,0 +1,91 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of all actions computed by one pass of the {@link AggregationEngine}.
+ * Min and max are 0 when there were no values, the same as in {@link ActionsManager}.
+ */
+public class AggregationResult {
+
+    private final List<ActionDefinition> actions;
+    private final float sum;
+    private final float min;
+    private final float max;
+    private final long count;
+    private final Map<ActionDefinition, FloatAccumulator> accumulators;
+
+    public AggregationResult(List<? extends ActionDefinition> actions, float sum, float min, float max, long count,
+                             Map<ActionDefinition, FloatAccumulator> accumulators) {
+        this.actions = Collections.unmodifiableList(actions);
+        this.sum = sum;
+        this.min = count == 0 ? 0 : min;
+        this.max = count == 0 ? 0 : max;
+        this.count = count;
+        this.accumulators = accumulators;
+    }
+
+    public List<ActionDefinition> getActions() {
+        return actions;
+    }
+
+    public float getSum() {
+        return sum;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the accumulator of the action, or null if the action was not requested or has no own state
+     */
+    public FloatAccumulator getAccumulator(ActionDefinition action) {
+        return accumulators.get(action);
+    }
+
+    /**
+     * @return the values selected by the filter of the action, or null if the action was not requested
+     */
+    public FloatColumn getFiltered(ActionDefinition action) {
+        FloatAccumulator accumulator = accumulators.get(action);
+        return accumulator instanceof FilterAccumulator ? ((FilterAccumulator) accumulator).getValues() : null;
+    }
+
+    /**
+     * @return the values less than four, or null if LT4 was not requested
+     */
+    public FloatColumn getLt4() {
+        return getFiltered(Action.LT4);
+    }
+
+    /**
+     * Returns the output of one of the requested actions.
+     */
+    public ActionOutput outputOf(ActionDefinition action) {
+        return action.output(this);
+    }
+
+    /**
+     * Returns the result values of one of the requested actions,
+     * in the same layout the single action output always had.
+     * The count is converted to float, use {@link #getCount()} for the exact value.
+     *
+     * @param action one of the requested actions
+     * @return the result values of the action
+     */
+    public FloatColumn valuesOf(ActionDefinition action) {
+        return outputOf(action).toColumn();
+    }
+}
@@ -0,0 +1,51 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * Conjunction of a range on the plain value and a range on the absolute value,
+ * the only combination which cannot be folded into a single interval.
+ */
+final class AndFilter extends FloatFilter {
+
+    private final RangeFilter range;
+    private final AbsRangeFilter absRange;
+
+    AndFilter(String expression, RangeFilter range, AbsRangeFilter absRange) {
+        super(expression);
+        this.range = range;
+        this.absRange = absRange;
+    }
+
+    @Override
+    public boolean test(float value) {
+        return range.test(value) && absRange.test(value);
+    }
+
+    @Override
+    public void select(float[] values, int from, int to, FloatColumn target) {
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            if (range.test(value) && absRange.test(value)) {
+                target.add(value);
+            }
+        }
+    }
+
+    @Override
+    public int count(float[] values, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            if (range.test(value) && absRange.test(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean mayMatch(float min, float max) {
+        return range.mayMatch(min, max) && absRange.mayMatch(min, max);
+    }
+}
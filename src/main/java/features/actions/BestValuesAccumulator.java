@@ -0,0 +1,83 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import java.util.Arrays;
+
+/**
+ * Keeps the k largest or smallest values seen so far, NaN values are ignored.
+ * Every block is reduced with {@link FloatSelection#best} and merged into the kept values,
+ * so the memory used depends on k, not on the size of the input.
+ */
+public final class BestValuesAccumulator implements FloatAccumulator {
+
+    private final int k;
+    private final boolean largest;
+    private float[] best;
+
+    /**
+     * Constructor
+     * @param k the number of values to keep
+     * @param largest true to keep the largest values, false for the smallest ones
+     */
+    public BestValuesAccumulator(int k, boolean largest) {
+        this(k, largest, new float[0]);
+    }
+
+    private BestValuesAccumulator(int k, boolean largest, float[] best) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of values cannot be negative: " + k);
+        }
+        this.k = k;
+        this.largest = largest;
+        this.best = best;
+    }
+
+    @Override
+    public void accept(float value) {
+        if (value != value || k == 0 || best.length == k && !isBetter(value, best[k - 1])) {
+            return;
+        }
+        // insert into the sorted values, dropping the worst one when k values are kept
+        float[] updated = best.length < k ? Arrays.copyOf(best, best.length + 1) : best;
+        int position = updated.length - 1;
+        while (position > 0 && isBetter(value, updated[position - 1])) {
+            updated[position] = updated[position - 1];
+            position--;
+        }
+        updated[position] = value;
+        best = updated;
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        best = FloatSelection.mergeBest(best, FloatSelection.best(values, offset, offset + length, k, largest), k, largest);
+    }
+
+    @Override
+    public void merge(FloatAccumulator other) {
+        if (!(other instanceof BestValuesAccumulator)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName() + " into BestValuesAccumulator");
+        }
+        BestValuesAccumulator values = (BestValuesAccumulator) other;
+        if (values.k != k || values.largest != largest) {
+            throw new IllegalArgumentException("Cannot merge the best values of a different kind");
+        }
+        best = FloatSelection.mergeBest(best, values.best, k, largest);
+    }
+
+    @Override
+    public BestValuesAccumulator snapshot() {
+        return new BestValuesAccumulator(k, largest, Arrays.copyOf(best, best.length));
+    }
+
+    private boolean isBetter(float value, float other) {
+        return largest ? Float.compare(value, other) > 0 : Float.compare(value, other) < 0;
+    }
+
+    /**
+     * @return the kept values, the largest in descending order or the smallest in ascending order
+     */
+    public FloatColumn getValues() {
+        return FloatColumn.wrap(best, best.length).asReadOnly();
+    }
+}
@@ -0,0 +1,35 @@
+package features.actions;
+
+import java.util.Locale;
+
+/**
+ * Provides the built-in actions of {@link Action}, the quantile, exact quantile, top values and histogram actions
+ * and filter expressions compiled by {@link FilterCompiler}.
+ */
+public class BuiltInActionProvider implements ActionProvider {
+
+    @Override
+    public ActionDefinition resolve(String action) {
+        ActionDefinition statistic = QuantileAction.parse(action);
+        if (statistic == null) {
+            statistic = ExactQuantileAction.parse(action);
+        }
+        if (statistic == null) {
+            statistic = TopValuesAction.parse(action);
+        }
+        if (statistic == null) {
+            statistic = HistogramAction.parse(action);
+        }
+        if (statistic != null) {
+            return statistic;
+        }
+        if (FilterCompiler.isFilterExpression(action)) {
+            return new FilterAction(FilterCompiler.compile(action));
+        }
+        try {
+            return Action.valueOf(action.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package features.actions;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Action outputting an exact quantile with the same selection as {@link ActionsManager#medianColumn} and
+ * {@link ActionsManager#percentileColumn}. Unlike {@link QuantileAction} it keeps every value in memory.
+ * The supported forms are:
+ * <ul>
+ *     <li>median:exact - the exact median, written as MEDIAN_EXACT</li>
+ *     <li>pN:exact - the exact N-th percentile, e.g. p95:exact, written as P95_EXACT</li>
+ * </ul>
+ */
+public final class ExactQuantileAction implements ActionDefinition {
+
+    private static final String EXACT_SUFFIX = ":exact";
+    private static final String MEDIAN = "median";
+
+    private final String name;
+    // null for the median
+    private final Double fraction;
+    // selects every value but NaN, so the values are kept with the range kernel
+    private final FloatFilter values = new RangeFilter("values", Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY);
+
+    private ExactQuantileAction(String name, Double fraction) {
+        this.name = name;
+        this.fraction = fraction;
+    }
+
+    /**
+     * Parses an exact quantile action.
+     *
+     * @param action the action as given with the "-a" option
+     * @return the action, or null if the text is not an exact quantile action
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    public static ExactQuantileAction parse(String action) {
+        String normalized = action.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+        if (!normalized.endsWith(EXACT_SUFFIX)) {
+            return null;
+        }
+        String quantile = normalized.substring(0, normalized.length() - EXACT_SUFFIX.length());
+        if (quantile.equals(MEDIAN)) {
+            return new ExactQuantileAction("MEDIAN_EXACT", null);
+        }
+        if (!quantile.matches("p\\d+(\\.\\d+)?")) {
+            return null;
+        }
+        BigDecimal percentile = new BigDecimal(quantile.substring(1)).stripTrailingZeros();
+        if (percentile.compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + action);
+        }
+        return new ExactQuantileAction("P" + percentile.toPlainString() + "_EXACT",
+                percentile.movePointLeft(2).doubleValue());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public FloatAccumulator newAccumulator() {
+        return new FilterAccumulator(values);
+    }
+
+    /**
+     * Selects the quantile on a copy of the kept values, 0 if there are none.
+     */
+    @Override
+    public ActionOutput output(AggregationResult result) {
+        FilterAccumulator accumulator = (FilterAccumulator) result.getAccumulator(this);
+        float[] copy = accumulator.getValues().toArray();
+        if (copy.length == 0) {
+            return ActionOutput.ofScalar(name, 0f);
+        }
+        if (fraction == null) {
+            return ActionOutput.ofScalar(name, FloatSelection.median(copy));
+        }
+        return ActionOutput.ofScalar(name,
+                FloatSelection.select(copy, 0, copy.length, FloatSelection.rankIndex(copy.length, fraction)));
+    }
+}
@@ -0,0 +1,64 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * Collects the values selected by a filter, e.g. LT4, in the order they were accepted.
+ * Only the selected values are kept, so the memory used depends on the number of matches,
+ * not on the size of the input.
+ */
+public final class FilterAccumulator implements FloatAccumulator {
+
+    private final FloatFilter filter;
+    private final FloatColumn values;
+
+    public FilterAccumulator(FloatFilter filter) {
+        this(filter, new FloatColumn());
+    }
+
+    private FilterAccumulator(FloatFilter filter, FloatColumn values) {
+        this.filter = filter;
+        this.values = values;
+    }
+
+    @Override
+    public void accept(float value) {
+        if (filter.test(value)) {
+            values.add(value);
+        }
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        filter.select(values, offset, offset + length, this.values);
+    }
+
+    /**
+     * Appends the values of the other accumulator after the values of this one.
+     */
+    @Override
+    public void merge(FloatAccumulator other) {
+        if (!(other instanceof FilterAccumulator)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName() + " into FilterAccumulator");
+        }
+        values.addAll(((FilterAccumulator) other).values);
+    }
+
+    @Override
+    public FilterAccumulator snapshot() {
+        FloatColumn copy = new FloatColumn(values.size());
+        copy.addAll(values);
+        return new FilterAccumulator(filter, copy);
+    }
+
+    public FloatFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return a read-only view of the values selected so far
+     */
+    public FloatColumn getValues() {
+        return values.asReadOnly();
+    }
+}
@@ -0,0 +1,28 @@
+package features.actions;
+
+/**
+ * Action outputting the values selected by a filter expression, named after the expression.
+ */
+public final class FilterAction implements ActionDefinition {
+
+    private final FloatFilter filter;
+
+    public FilterAction(FloatFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public String getName() {
+        return filter.getExpression();
+    }
+
+    @Override
+    public FloatFilter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public ActionOutput output(AggregationResult result) {
+        return ActionOutput.ofValues(getName(), result.getFiltered(this));
+    }
+}
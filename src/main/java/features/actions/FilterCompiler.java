@@ -0,0 +1,151 @@
+package features.actions;
+
+import java.util.Locale;
+
+/**
+ * Compiles filter expressions into {@link FloatFilter}s.
+ * <p>
+ * An expression is one or more conditions joined with "&amp;", each condition is an operator
+ * followed by ":" and its comma separated arguments:
+ * <ul>
+ *     <li>lt:x, le:x, gt:x, ge:x, eq:x - compare the value with x</li>
+ *     <li>between:x,y - x &lt;= value &lt;= y</li>
+ *     <li>abs_lt:x, abs_le:x, abs_gt:x, abs_ge:x - compare the absolute value with x</li>
+ * </ul>
+ * For example "lt:4", "between:1,3", "gt:0&amp;lt:10" or "abs_gt:5".
+ * <p>
+ * Strict comparisons are turned into inclusive ones on the next representable float, so all the
+ * conditions on the plain value fold into one closed interval and all the conditions on the absolute
+ * value into another. The expression is parsed once and the resulting filter only does the comparisons.
+ */
+public final class FilterCompiler {
+
+    private FilterCompiler() {
+    }
+
+    /**
+     * @return true if the text looks like a filter expression rather than an action name
+     */
+    public static boolean isFilterExpression(String text) {
+        return text.indexOf(':') > 0;
+    }
+
+    /**
+     * Compiles a filter expression.
+     *
+     * @param expression the filter expression, e.g. "between:1,3"
+     * @return the compiled filter
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static FloatFilter compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("Filter expression cannot be empty");
+        }
+        // only the operators are case insensitive, the arguments are read like Float.parseFloat, e.g. "Infinity"
+        String normalized = expression.replaceAll("\\s+", "");
+
+        float lower = Float.NEGATIVE_INFINITY;
+        float upper = Float.POSITIVE_INFINITY;
+        float absLower = 0;
+        float absUpper = Float.POSITIVE_INFINITY;
+        boolean hasRange = false;
+        boolean hasAbsRange = false;
+
+        for (String condition : normalized.split("&", -1)) {
+            int separator = condition.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid filter condition: " + condition);
+            }
+            String operator = condition.substring(0, separator).toLowerCase(Locale.ROOT);
+            float[] arguments = parseArguments(condition, condition.substring(separator + 1));
+            boolean abs = operator.startsWith("abs_");
+            String comparison = abs ? operator.substring(4) : operator;
+            float conditionLower;
+            float conditionUpper;
+
+            switch (comparison) {
+                case "lt":
+                    conditionUpper = Math.nextDown(single(condition, arguments));
+                    // nothing is less than -infinity, which is its own next float down
+                    conditionLower = arguments[0] == Float.NEGATIVE_INFINITY
+                            ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+                    break;
+                case "le":
+                    conditionLower = Float.NEGATIVE_INFINITY;
+                    conditionUpper = single(condition, arguments);
+                    break;
+                case "gt":
+                    conditionLower = Math.nextUp(single(condition, arguments));
+                    // nothing is greater than infinity, which is its own next float up
+                    conditionUpper = arguments[0] == Float.POSITIVE_INFINITY
+                            ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+                    break;
+                case "ge":
+                    conditionLower = single(condition, arguments);
+                    conditionUpper = Float.POSITIVE_INFINITY;
+                    break;
+                case "eq":
+                    conditionLower = single(condition, arguments);
+                    conditionUpper = conditionLower;
+                    break;
+                case "between":
+                    if (arguments.length != 2) {
+                        throw new IllegalArgumentException("Filter condition " + condition + " expects two arguments");
+                    }
+                    conditionLower = arguments[0];
+                    conditionUpper = arguments[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter operator: " + operator);
+            }
+
+            if (abs) {
+                hasAbsRange = true;
+                absLower = Math.max(absLower, conditionLower);
+                absUpper = Math.min(absUpper, conditionUpper);
+            } else {
+                hasRange = true;
+                lower = Math.max(lower, conditionLower);
+                upper = Math.min(upper, conditionUpper);
+            }
+        }
+
+        if (lower > upper || absLower > absUpper) {
+            return new NoneFilter(expression);
+        }
+        if (hasRange && hasAbsRange) {
+            return new AndFilter(expression, new RangeFilter(expression, lower, upper),
+                    new AbsRangeFilter(expression, absLower, absUpper));
+        }
+        if (hasAbsRange) {
+            return new AbsRangeFilter(expression, absLower, absUpper);
+        }
+        return new RangeFilter(expression, lower, upper);
+    }
+
+    private static float[] parseArguments(String condition, String text) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Filter condition " + condition + " has no argument");
+        }
+        String[] parts = text.split(",", -1);
+        float[] arguments = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                arguments[i] = Float.parseFloat(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in filter condition " + condition + ": " + parts[i], e);
+            }
+            if (Float.isNaN(arguments[i])) {
+                throw new IllegalArgumentException("Invalid number in filter condition " + condition + ": " + parts[i]);
+            }
+        }
+        return arguments;
+    }
+
+    private static float single(String condition, float[] arguments) {
+        if (arguments.length != 1) {
+            throw new IllegalArgumentException("Filter condition " + condition + " expects one argument");
+        }
+        return arguments[0];
+    }
+}
@@ -0,0 +1,23 @@
+package features.actions;
+
+import features.data.FloatSink;
+
+/**
+ * Incremental computation of an action over values pushed to it while the input is still being read.
+ * Accumulators of the same kind computed over separate parts of the input, e.g. on different threads,
+ * can be merged into one.
+ */
+public interface FloatAccumulator extends FloatSink {
+
+    /**
+     * Adds the state of another accumulator of the same kind to this one.
+     *
+     * @throws IllegalArgumentException if the other accumulator is of a different kind
+     */
+    void merge(FloatAccumulator other);
+
+    /**
+     * @return an independent copy of the current state, this accumulator keeps accepting values
+     */
+    FloatAccumulator snapshot();
+}
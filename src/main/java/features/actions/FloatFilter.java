@@ -0,0 +1,54 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * A compiled filter condition on float values, created from an expression by {@link FilterCompiler}.
+ * Every implementation runs its own selection loop over the array, so each loop only ever sees
+ * one kind of condition and the JIT can inline it, instead of calling a generic predicate per element.
+ */
+public abstract class FloatFilter {
+
+    private final String expression;
+
+    FloatFilter(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * @return the expression the filter was compiled from
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return true if the value satisfies the condition
+     */
+    public abstract boolean test(float value);
+
+    /**
+     * Appends the values of the range which satisfy the condition to the target column, keeping their order.
+     */
+    public abstract void select(float[] values, int from, int to, FloatColumn target);
+
+    /**
+     * @return the number of values of the range which satisfy the condition
+     */
+    public abstract int count(float[] values, int from, int to);
+
+    /**
+     * Tells whether a block of values can be skipped, given only its smallest and largest value, e.g. from an index.
+     * NaN never satisfies a condition, so the bounds ignore it and a block of only NaN has the bounds +inf and -inf.
+     *
+     * @return false if no value in [min, max] satisfies the condition, true if some may
+     */
+    public boolean mayMatch(float min, float max) {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
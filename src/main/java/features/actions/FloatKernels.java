@@ -0,0 +1,65 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk loops over primitive float arrays used by the actions.
+ * On Java 17+ with the jdk.incubator.vector module added, a SIMD implementation from the
+ * multi-release layer of the jar is used, otherwise the scalar one.
+ * The SIMD implementation can be switched off with -Dqueo.kernels=scalar.
+ */
+interface FloatKernels {
+
+    float sum(float[] values, int from, int to);
+
+    float min(float[] values, int from, int to);
+
+    float max(float[] values, int from, int to);
+
+    /**
+     * Computes sum, min and max in one pass.
+     *
+     * @param result receives the sum at index 0, the min at index 1 and the max at index 2
+     */
+    void aggregate(float[] values, int from, int to, float[] result);
+
+    /**
+     * Appends the values in the closed interval [lower, upper] to the target column, keeping their order.
+     */
+    void filterRange(float[] values, int from, int to, float lower, float upper, FloatColumn target);
+
+    /**
+     * @return the number of values in the closed interval [lower, upper]
+     */
+    int countRange(float[] values, int from, int to, float lower, float upper);
+
+    static FloatKernels get() {
+        return Holder.INSTANCE;
+    }
+
+    final class Holder {
+        private static final Logger logger = LoggerFactory.getLogger(FloatKernels.class);
+        private static final FloatKernels INSTANCE = load();
+
+        private Holder() {
+        }
+
+        private static FloatKernels load() {
+            if ("scalar".equalsIgnoreCase(System.getProperty("queo.kernels"))) {
+                return new ScalarFloatKernels();
+            }
+            try {
+                // Only present in the META-INF/versions/17 layer of the jar
+                Class<?> vectorKernels = Class.forName("features.actions.VectorFloatKernels");
+                FloatKernels kernels = (FloatKernels) vectorKernels.getDeclaredConstructor().newInstance();
+                logger.info("Using SIMD float kernels.");
+                return kernels;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.debug("SIMD float kernels are not available, using scalar kernels: {}", e.toString());
+                return new ScalarFloatKernels();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package features.actions;
+
+import java.util.Arrays;
+
+/**
+ * Exact order statistics over primitive float arrays without sorting the whole input.
+ * Values are ordered like {@link Float#compare(float, float)}, NaN values are ignored.
+ */
+final class FloatSelection {
+
+    private static final int INSERTION_SORT_SIZE = 16;
+    // below this ratio of k to the input size a bounded heap is cheaper than selecting on a copy
+    private static final int HEAP_RATIO = 4;
+
+    private FloatSelection() {
+    }
+
+    /**
+     * @return a copy of the range without the NaN values
+     */
+    static float[] copyWithoutNaN(float[] values, int from, int to) {
+        float[] copy = new float[to - from];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            if (value == value) {
+                copy[size++] = value;
+            }
+        }
+        return size == copy.length ? copy : Arrays.copyOf(copy, size);
+    }
+
+    /**
+     * Index of the q-quantile in the sorted values using the nearest rank definition,
+     * the same as {@link QuantileSketch#quantile(double)}.
+     */
+    static int rankIndex(int size, double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        return q == 0 ? 0 : (int) Math.min(size - 1, Math.max(0, (long) Math.ceil(q * size) - 1));
+    }
+
+    /**
+     * Introselect: quickselect with median of three pivots and a three way partition, falling back
+     * to sorting the remaining range if the partitions keep being unbalanced, so the worst case is
+     * O(n log n) and the average O(n). Reorders the range so that index k holds the value it would
+     * hold if the range was sorted, smaller or equal values before it and greater or equal values after it.
+     *
+     * @return the k-th smallest value of the range
+     */
+    static float select(float[] values, int from, int to, int k) {
+        int low = from;
+        int high = to - 1;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (high > low) {
+            if (high - low < INSERTION_SORT_SIZE) {
+                insertionSort(values, low, high);
+                return values[k];
+            }
+            if (depthLimit-- == 0) {
+                Arrays.sort(values, low, high + 1);
+                return values[k];
+            }
+            float pivot = medianOfThree(values[low], values[(low + high) >>> 1], values[high]);
+            int lessEnd = low;
+            int greaterStart = high;
+            int i = low;
+            while (i <= greaterStart) {
+                int comparison = Float.compare(values[i], pivot);
+                if (comparison < 0) {
+                    swap(values, lessEnd++, i++);
+                } else if (comparison > 0) {
+                    swap(values, i, greaterStart--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lessEnd) {
+                high = lessEnd - 1;
+            } else if (k > greaterStart) {
+                low = greaterStart + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return values[k];
+    }
+
+    /**
+     * Exact median of values without NaN, the mean of the two middle values for an even count.
+     * Reorders the array.
+     */
+    static float median(float[] values) {
+        int size = values.length;
+        float upper = select(values, 0, size, size / 2);
+        if (size % 2 == 1) {
+            return upper;
+        }
+        // after the selection the lower middle value is the greatest of the first half
+        float lower = values[0];
+        for (int i = 1; i < size / 2; i++) {
+            if (Float.compare(values[i], lower) > 0) {
+                lower = values[i];
+            }
+        }
+        return (float) (((double) lower + upper) / 2);
+    }
+
+    /**
+     * Returns the k smallest or largest values of the range, sorted from the best one,
+     * with a bounded heap for small k or a selection on a copy otherwise.
+     *
+     * @param largest true for the largest values in descending order, false for the smallest in ascending order
+     */
+    static float[] best(float[] values, int from, int to, int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of values cannot be negative: " + k);
+        }
+        float[] result;
+        if ((long) k * HEAP_RATIO < to - from) {
+            result = heapBest(values, from, to, k, largest);
+        } else {
+            float[] copy = copyWithoutNaN(values, from, to);
+            int count = Math.min(k, copy.length);
+            if (count > 0 && count < copy.length) {
+                select(copy, 0, copy.length, largest ? copy.length - count : count - 1);
+            }
+            result = largest ? Arrays.copyOfRange(copy, copy.length - count, copy.length) : Arrays.copyOf(copy, count);
+            Arrays.sort(result);
+        }
+        if (largest) {
+            reverse(result);
+        }
+        return result;
+    }
+
+    /**
+     * Merges two results of {@link #best} into the best k values of both, keeping the order.
+     */
+    static float[] mergeBest(float[] first, float[] second, int k, boolean largest) {
+        float[] merged = new float[Math.min(k, first.length + second.length)];
+        int i = 0;
+        int j = 0;
+        for (int position = 0; position < merged.length; position++) {
+            boolean takeFirst = j == second.length || i < first.length && !isBetter(second[j], first[i], largest);
+            merged[position] = takeFirst ? first[i++] : second[j++];
+        }
+        return merged;
+    }
+
+    /**
+     * Keeps the best k values in a heap with the worst of them at the root,
+     * so most values are rejected with a single comparison. Returns them in ascending order.
+     */
+    private static float[] heapBest(float[] values, int from, int to, int k, boolean largest) {
+        float[] heap = new float[k];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            if (value != value) {
+                continue;
+            }
+            if (size < k) {
+                heap[size] = value;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && isBetter(value, heap[0], largest)) {
+                heap[0] = value;
+                siftDown(heap, size, largest);
+            }
+        }
+        float[] result = Arrays.copyOf(heap, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static boolean isBetter(float value, float other, boolean largest) {
+        int comparison = Float.compare(value, other);
+        return largest ? comparison > 0 : comparison < 0;
+    }
+
+    private static void siftUp(float[] heap, int index, boolean largest) {
+        float value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(heap[parent], value, largest)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(float[] heap, int size, boolean largest) {
+        float value = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && isBetter(heap[child], heap[child + 1], largest)) {
+                child++;
+            }
+            if (!isBetter(value, heap[child], largest)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private static float medianOfThree(float a, float b, float c) {
+        if (Float.compare(a, b) > 0) {
+            float swap = a;
+            a = b;
+            b = swap;
+        }
+        if (Float.compare(b, c) > 0) {
+            b = c;
+        }
+        return Float.compare(a, b) > 0 ? a : b;
+    }
+
+    private static void insertionSort(float[] values, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            float value = values[i];
+            int j = i - 1;
+            while (j >= low && Float.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void swap(float[] values, int i, int j) {
+        float swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+    }
+
+    private static void reverse(float[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            swap(values, i, j);
+        }
+    }
+}
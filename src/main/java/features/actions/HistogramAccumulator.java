@@ -0,0 +1,42 @@
+package features.actions;
+
+import java.util.List;
+
+/**
+ * Accumulator counting the values per bucket, using a fixed amount of memory whatever the size of the input.
+ * NaN values are not counted.
+ */
+public interface HistogramAccumulator extends FloatAccumulator {
+
+    /**
+     * @return the buckets in ascending order of their bounds
+     */
+    List<Bucket> getBuckets();
+
+    /**
+     * Counted range of values, lower bound inclusive and upper bound exclusive.
+     */
+    final class Bucket {
+        private final float lower;
+        private final float upper;
+        private final long count;
+
+        public Bucket(float lower, float upper, long count) {
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+        }
+
+        public float getLower() {
+            return lower;
+        }
+
+        public float getUpper() {
+            return upper;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
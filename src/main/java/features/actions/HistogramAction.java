@@ -0,0 +1,99 @@
+package features.actions;
+
+import java.util.Locale;
+
+/**
+ * Action outputting a histogram of the values, one row with the bounds and the count per bucket.
+ * The supported forms are:
+ * <ul>
+ *     <li>histogram:lower,upper,n - n buckets of equal width, see {@link LinearHistogram}</li>
+ *     <li>loghistogram or loghistogram:p - logarithmic buckets, 2^p per power of two, see {@link LogHistogram}</li>
+ * </ul>
+ */
+public final class HistogramAction implements ActionDefinition {
+
+    private static final String LINEAR_PREFIX = "histogram:";
+    private static final String LOG_NAME = "loghistogram";
+
+    private final String name;
+    private final float lower;
+    private final float upper;
+    private final int bucketCount;
+    private final int precision;
+
+    private HistogramAction(String name, float lower, float upper, int bucketCount, int precision) {
+        this.name = name;
+        this.lower = lower;
+        this.upper = upper;
+        this.bucketCount = bucketCount;
+        this.precision = precision;
+    }
+
+    /**
+     * Parses a histogram action.
+     *
+     * @param action the action as given with the "-a" option
+     * @return the action, or null if the text is not a histogram action
+     * @throws IllegalArgumentException if the text is a histogram action with invalid arguments
+     */
+    public static HistogramAction parse(String action) {
+        String normalized = action.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+        if (normalized.equals(LOG_NAME)) {
+            return log(LogHistogram.DEFAULT_PRECISION);
+        }
+        if (normalized.startsWith(LOG_NAME + ":")) {
+            return log(parseInt(action, normalized.substring(LOG_NAME.length() + 1)));
+        }
+        if (!normalized.startsWith(LINEAR_PREFIX)) {
+            return null;
+        }
+        String[] arguments = normalized.substring(LINEAR_PREFIX.length()).split(",", -1);
+        if (arguments.length != 3) {
+            throw new IllegalArgumentException("Expected histogram:lower,upper,buckets but was " + action);
+        }
+        float lower;
+        float upper;
+        try {
+            lower = Float.parseFloat(arguments[0]);
+            upper = Float.parseFloat(arguments[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid histogram bounds: " + action, e);
+        }
+        int bucketCount = parseInt(action, arguments[2]);
+        // validate the arguments right away instead of on the first value
+        new LinearHistogram(lower, upper, bucketCount);
+        return new HistogramAction(normalized, lower, upper, bucketCount, -1);
+    }
+
+    /**
+     * @param precision number of mantissa bits used for the bucket, see {@link LogHistogram#LogHistogram(int)}
+     */
+    public static HistogramAction log(int precision) {
+        new LogHistogram(precision);
+        String name = precision == LogHistogram.DEFAULT_PRECISION ? LOG_NAME : LOG_NAME + ":" + precision;
+        return new HistogramAction(name, 0, 0, 0, precision);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public HistogramAccumulator newAccumulator() {
+        return precision >= 0 ? new LogHistogram(precision) : new LinearHistogram(lower, upper, bucketCount);
+    }
+
+    @Override
+    public ActionOutput output(AggregationResult result) {
+        return ActionOutput.ofHistogram(name, ((HistogramAccumulator) result.getAccumulator(this)).getBuckets());
+    }
+
+    private static int parseInt(String action, String argument) {
+        try {
+            return Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid argument " + argument + " of " + action, e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package features.actions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Histogram of equal width buckets between a lower and an upper bound,
+ * with one more bucket for the values below and one for the values from the upper bound on.
+ */
+public final class LinearHistogram implements HistogramAccumulator {
+
+    private final float lower;
+    private final float upper;
+    private final int bucketCount;
+    private final double scale;
+    // counts[0] is the underflow bucket, counts[bucketCount + 1] the overflow bucket
+    private final long[] counts;
+
+    /**
+     * Constructor
+     * @param lower inclusive lower bound of the first bucket
+     * @param upper exclusive upper bound of the last bucket
+     * @param bucketCount number of buckets between the bounds
+     */
+    public LinearHistogram(float lower, float upper, int bucketCount) {
+        if (!(lower < upper) || Float.isInfinite(lower) || Float.isInfinite(upper)) {
+            throw new IllegalArgumentException("Histogram bounds must be finite with lower < upper: " + lower + ", " + upper);
+        }
+        if (bucketCount < 1 || bucketCount > 1 << 20) {
+            throw new IllegalArgumentException("Histogram bucket count must be between 1 and " + (1 << 20) + ": " + bucketCount);
+        }
+        this.lower = lower;
+        this.upper = upper;
+        this.bucketCount = bucketCount;
+        this.scale = bucketCount / ((double) upper - lower);
+        this.counts = new long[bucketCount + 2];
+    }
+
+    @Override
+    public void accept(float value) {
+        if (value < lower) {
+            counts[0]++;
+        } else if (value >= upper) {
+            counts[bucketCount + 1]++;
+        } else if (value == value) {
+            // rounding of the scale can put values just below the upper bound one bucket too far
+            counts[1 + Math.min(bucketCount - 1, (int) ((value - (double) lower) * scale))]++;
+        }
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(values[i]);
+        }
+    }
+
+    @Override
+    public void merge(FloatAccumulator other) {
+        if (!(other instanceof LinearHistogram)) {
+            throw new IllegalArgumentException("Cannot merge " + other.getClass().getSimpleName() + " into LinearHistogram");
+        }
+        LinearHistogram histogram = (LinearHistogram) other;
+        if (histogram.lower != lower || histogram.upper != upper || histogram.bucketCount != bucketCount) {
+            throw new IllegalArgumentException("Can only merge a LinearHistogram with the same buckets");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += histogram.counts[i];
+        }
+    }
+
+    @Override
+    public LinearHistogram snapshot() {
+        LinearHistogram copy = new LinearHistogram(lower, upper, bucketCount);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        return copy;
+    }
+
+    /**
+     * @return the underflow bucket, the buckets between the bounds and the overflow bucket, also when empty
+     */
+    @Override
+    public List<Bucket> getBuckets() {
+        List<Bucket> buckets = new ArrayList<>(counts.length);
+        buckets.add(new Bucket(Float.NEGATIVE_INFINITY, lower, counts[0]));
+        double width = ((double) upper - lower) / bucketCount;
+        for (int i = 0; i < bucketCount; i++) {
+            float bucketLower = (float) (lower + i * width);
+            float bucketUpper = i == bucketCount - 1 ? upper : (float) (lower + (i + 1) * width);
+            buckets.add(new Bucket(bucketLower, bucketUpper, counts[i + 1]));
+        }
+        buckets.add(new Bucket(upper, Float.POSITIVE_INFINITY, counts[bucketCount + 1]));
+        return buckets;
+    }
+}
@@ -0,0 +1,118 @@
+package features.actions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Histogram of logarithmic buckets covering the whole float range, negative values included.
+ * <p>
+ * Every power of two is split into 2^p buckets of equal width, so the width of a bucket is at most
+ * 1/2^p of its lower bound. The bucket of a value is taken straight from the exponent and the highest
+ * p bits of the mantissa of its absolute value, the same as an HDR histogram, without any logarithm.
+ * The memory used is 2 * 2^(8+p) counts for every input size, 32 KB for the default precision of 3.
+ */
+public final class LogHistogram implements HistogramAccumulator {
+
+    public static final int DEFAULT_PRECISION = 3;
+    public static final int MAX_PRECISION = 10;
+    private static final int MANTISSA_BITS = 23;
+
+    private final int precision;
+    private final int shift;
+    private final long[] positive;
+    private final long[] negative;
+
+    public LogHistogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructor
+     * @param precision number of mantissa bits used for the bucket, from 0 to {@link #MAX_PRECISION}
+     */
+    public LogHistogram(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Histogram precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.shift = MANTISSA_BITS - precision;
+        this.positive = new long[1 << (8 + precision)];
+        this.negative = new long[1 << (8 + precision)];
+    }
+
+    @Override
+    public void accept(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int magnitude = bits & 0x7FFFFFFF;
+        if (magnitude > 0x7F800000) {
+            // NaN
+            return;
+        }
+        if (bits < 0 && magnitude != 0) {
+            negative[magnitude >>> shift]++;
+        } else {
+            positive[magnitude >>> shift]++;
+        }
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(values[i]);
+        }
+    }
+
+    @Override
+    public void merge(FloatAccumulator other) {
+        if (!(other instanceof LogHistogram) || ((LogHistogram) other).precision != precision) {
+            throw new IllegalArgumentException("Can only merge a LogHistogram with precision " + precision);
+        }
+        LogHistogram histogram = (LogHistogram) other;
+        for (int i = 0; i < positive.length; i++) {
+            positive[i] += histogram.positive[i];
+            negative[i] += histogram.negative[i];
+        }
+    }
+
+    @Override
+    public LogHistogram snapshot() {
+        LogHistogram copy = new LogHistogram(precision);
+        System.arraycopy(positive, 0, copy.positive, 0, positive.length);
+        System.arraycopy(negative, 0, copy.negative, 0, negative.length);
+        return copy;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return the buckets holding at least one value, the bounds of the buckets of negative values
+     * are mirrored, so their lower bound is exclusive and their upper bound inclusive
+     */
+    @Override
+    public List<Bucket> getBuckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = negative.length - 1; i >= 0; i--) {
+            if (negative[i] != 0) {
+                buckets.add(new Bucket(-upperBound(i), -lowerBound(i), negative[i]));
+            }
+        }
+        for (int i = 0; i < positive.length; i++) {
+            if (positive[i] != 0) {
+                buckets.add(new Bucket(lowerBound(i), upperBound(i), positive[i]));
+            }
+        }
+        return buckets;
+    }
+
+    private float lowerBound(int index) {
+        return Float.intBitsToFloat(index << shift);
+    }
+
+    private float upperBound(int index) {
+        int bits = (index + 1) << shift;
+        return bits >= 0x7F800000 ? Float.POSITIVE_INFINITY : Float.intBitsToFloat(bits);
+    }
+}
@@ -0,0 +1,33 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * Filter whose conditions contradict each other, e.g. "gt:5&lt:1".
+ */
+final class NoneFilter extends FloatFilter {
+
+    NoneFilter(String expression) {
+        super(expression);
+    }
+
+    @Override
+    public boolean test(float value) {
+        return false;
+    }
+
+    @Override
+    public void select(float[] values, int from, int to, FloatColumn target) {
+        // nothing ever matches
+    }
+
+    @Override
+    public int count(float[] values, int from, int to) {
+        return 0;
+    }
+
+    @Override
+    public boolean mayMatch(float min, float max) {
+        return false;
+    }
+}
@@ -0,0 +1,484 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Implementation of ActionsManager which splits large inputs into chunks processed on a ForkJoinPool.
+ * Inputs smaller than the threshold are processed on the calling thread.
+ * <p>
+ * The sum is computed with pairwise summation over Kahan compensated leaves, always splitting
+ * the range at the same midpoints. The shape of the summation tree only depends on the input size,
+ * so the result is the same for every parallelism and threshold, but it can differ in the last bits
+ * from the plain left to right sum of {@link ActionsManagerImpl}.
+ */
+public class ParallelActionsManagerImpl extends ActionsManagerImpl implements AutoCloseable {
+
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+    private static final int PAIRWISE_LEAF_SIZE = 1024;
+    // bits of the order preserving representation of a float decided by each round of the radix selection
+    private static final int[] RADIX_ROUNDS = {12, 12, 8};
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final boolean ownsPool;
+
+    /**
+     * Constructor using the common pool and the default threshold
+     */
+    public ParallelActionsManagerImpl() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD, false);
+    }
+
+    /**
+     * Constructor
+     * @param parallelism number of worker threads of the pool created for this manager
+     * @param threshold number of values below which a chunk is not split any further
+     */
+    public ParallelActionsManagerImpl(int parallelism, int threshold) {
+        this(new ForkJoinPool(parallelism), threshold, true);
+    }
+
+    /**
+     * Constructor
+     * @param pool the pool to run the chunks on, it is not shut down by {@link #close()}
+     * @param threshold number of values below which a chunk is not split any further
+     */
+    public ParallelActionsManagerImpl(ForkJoinPool pool, int threshold) {
+        this(pool, threshold, false);
+    }
+
+    /**
+     * Constructor
+     * @param pool the pool to run the chunks on, it is not shut down by {@link #close()}
+     * @param threshold number of values below which a chunk is not split any further
+     * @param filter the filter applied by the filter methods, see {@link FilterCompiler}
+     */
+    public ParallelActionsManagerImpl(ForkJoinPool pool, int threshold, FloatFilter filter) {
+        this(pool, threshold, false, filter);
+    }
+
+    private ParallelActionsManagerImpl(ForkJoinPool pool, int threshold, boolean ownsPool) {
+        this(pool, threshold, ownsPool, Action.LT4.getFilter());
+    }
+
+    private ParallelActionsManagerImpl(ForkJoinPool pool, int threshold, boolean ownsPool, FloatFilter filter) {
+        super(filter);
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Calculates the sum of all values in the provided column with deterministic compensated summation.
+     *
+     * @param column a column of float values to be summed
+     * @return the sum of the values in the column or 0 if the column is empty or null
+     */
+    @Override
+    public float sumColumn(FloatColumn column) {
+        if (column == null || column.isEmpty()) {
+            return 0;
+        }
+        float[] values = column.elements();
+        int size = column.size();
+        if (size <= threshold) {
+            return (float) pairwiseSum(values, 0, size);
+        }
+        return (float) (double) pool.invoke(new SumTask(values, 0, size, threshold));
+    }
+
+    /**
+     * Finds the minimum value in the provided column, chunks are searched in parallel.
+     *
+     * @param column a column of float values to search for the minimum
+     * @return the minimum value in the column or 0 if the column is empty or null
+     */
+    @Override
+    public float minColumn(FloatColumn column) {
+        if (column == null || column.size() <= threshold) {
+            return super.minColumn(column);
+        }
+        return pool.invoke(new MinMaxTask(column.elements(), 0, column.size(), threshold, true));
+    }
+
+    /**
+     * Finds the maximum value in the provided column, chunks are searched in parallel.
+     *
+     * @param column a column of float values to search for the maximum
+     * @return the maximum value in the column or 0 if the column is empty or null
+     */
+    @Override
+    public float maxColumn(FloatColumn column) {
+        if (column == null || column.size() <= threshold) {
+            return super.maxColumn(column);
+        }
+        return pool.invoke(new MinMaxTask(column.elements(), 0, column.size(), threshold, false));
+    }
+
+    /**
+     * Filters the column with the filter of this manager keeping the original order.
+     * Every chunk first counts its matches with the count kernel of the filter, then the chunks write their
+     * matches straight to their offset in the result array, so the chunk results are never copied serially.
+     *
+     * @param column a column of float values to be filtered
+     * @return a column with the values that satisfy the condition,
+     * or empty column if the input column is empty or null
+     */
+    @Override
+    public FloatColumn filterColumn(FloatColumn column) {
+        if (column == null || column.size() <= threshold) {
+            return super.filterColumn(column);
+        }
+        float[] values = column.elements();
+        int size = column.size();
+        int chunkCount = (int) ((size + (long) threshold - 1) / threshold);
+        int[] offsets = new int[chunkCount + 1];
+
+        pool.invoke(new FilterTask(filter, values, size, threshold, 0, chunkCount, offsets, null));
+        // offsets[i + 1] holds the match count of chunk i, turn it into a prefix sum
+        for (int i = 0; i < chunkCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        float[] filtered = new float[offsets[chunkCount]];
+        pool.invoke(new FilterTask(filter, values, size, threshold, 0, chunkCount, offsets, filtered));
+        return FloatColumn.wrap(filtered, filtered.length);
+    }
+
+    /**
+     * Finds the exact median with a parallel radix selection, see {@link #percentileColumn}.
+     *
+     * @param column a column of float values
+     * @return the median or 0 if the column is empty or null
+     */
+    @Override
+    public float medianColumn(FloatColumn column) {
+        if (column == null || column.size() <= threshold) {
+            return super.medianColumn(column);
+        }
+        float[] values = column.elements();
+        int size = column.size();
+        long[] counts = pool.invoke(new RadixCountTask(values, 0, size, threshold, 0, 0, RADIX_ROUNDS[0]));
+        long total = total(counts);
+        if (total == 0) {
+            return 0;
+        }
+        float upper = radixSelect(values, size, total / 2, counts);
+        if (total % 2 == 1) {
+            return upper;
+        }
+        float lower = radixSelect(values, size, total / 2 - 1, counts);
+        return (float) (((double) lower + upper) / 2);
+    }
+
+    /**
+     * Finds the exact percentile with a parallel radix selection instead of the introselect, which is
+     * inherently sequential: the values are mapped to ints with the same order and every round counts,
+     * in parallel chunks, the values of the remaining prefix per bucket of the next 12 bits, keeping the
+     * bucket holding the rank. Three passes over the values whatever their distribution and no copy of them.
+     *
+     * @param column a column of float values
+     * @param percentile the percentile between 0 and 100
+     * @return the percentile or 0 if the column is empty or null
+     */
+    @Override
+    public float percentileColumn(FloatColumn column, double percentile) {
+        double q = checkPercentile(percentile);
+        if (column == null || column.size() <= threshold) {
+            return super.percentileColumn(column, percentile);
+        }
+        float[] values = column.elements();
+        int size = column.size();
+        long[] counts = pool.invoke(new RadixCountTask(values, 0, size, threshold, 0, 0, RADIX_ROUNDS[0]));
+        long total = total(counts);
+        if (total == 0) {
+            return 0;
+        }
+        return radixSelect(values, size, FloatSelection.rankIndex((int) total, q), counts);
+    }
+
+    /**
+     * Every chunk keeps its best k values in a bounded heap, the chunk results are merged pairwise.
+     */
+    @Override
+    protected FloatColumn bestColumn(FloatColumn column, int k, boolean largest) {
+        if (column == null || column.size() <= threshold || k < 0) {
+            return super.bestColumn(column, k, largest);
+        }
+        float[] best = pool.invoke(new BestTask(column.elements(), 0, column.size(), threshold, k, largest));
+        return FloatColumn.wrap(best, best.length);
+    }
+
+    /**
+     * Shuts down the pool if it was created by this manager.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    static double pairwiseSum(float[] values, int from, int to) {
+        if (to - from <= PAIRWISE_LEAF_SIZE) {
+            return kahanSum(values, from, to);
+        }
+        int mid = (from + to) >>> 1;
+        return pairwiseSum(values, from, mid) + pairwiseSum(values, mid, to);
+    }
+
+    /**
+     * @param rank index of the value among the sorted values without NaN
+     * @param firstCounts the counts of the first round, shared by the selections of the same column
+     */
+    private float radixSelect(float[] values, int size, long rank, long[] firstCounts) {
+        int prefix = 0;
+        int prefixBits = 0;
+        long[] counts = firstCounts;
+        for (int round = 0; round < RADIX_ROUNDS.length; round++) {
+            if (round > 0) {
+                counts = pool.invoke(new RadixCountTask(values, 0, size, threshold, prefix, prefixBits, RADIX_ROUNDS[round]));
+            }
+            int bucket = 0;
+            while (rank >= counts[bucket]) {
+                rank -= counts[bucket++];
+            }
+            prefix = (prefix << RADIX_ROUNDS[round]) | bucket;
+            prefixBits += RADIX_ROUNDS[round];
+        }
+        return fromOrderedBits(prefix);
+    }
+
+    private static long total(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Maps a float to an int whose unsigned order is the order of {@link Float#compare(float, float)}.
+     */
+    static int orderedBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) | 0x80000000);
+    }
+
+    static float fromOrderedBits(int orderedBits) {
+        return Float.intBitsToFloat(orderedBits < 0 ? orderedBits ^ 0x80000000 : ~orderedBits);
+    }
+
+    private static double kahanSum(float[] values, int from, int to) {
+        double sum = 0;
+        double compensation = 0;
+        for (int i = from; i < to; i++) {
+            double y = values[i] - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+        return sum;
+    }
+
+    /**
+     * Splits at the same midpoints as {@link #pairwiseSum}, so forking does not change the result.
+     */
+    private static final class SumTask extends RecursiveTask<Double> {
+        private final float[] values;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SumTask(float[] values, int from, int to, int threshold) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= Math.max(threshold, PAIRWISE_LEAF_SIZE)) {
+                return pairwiseSum(values, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SumTask left = new SumTask(values, from, mid, threshold);
+            left.fork();
+            double right = new SumTask(values, mid, to, threshold).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static final class MinMaxTask extends RecursiveTask<Float> {
+        private final float[] values;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final boolean min;
+
+        MinMaxTask(float[] values, int from, int to, int threshold, boolean min) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.min = min;
+        }
+
+        @Override
+        protected Float compute() {
+            if (to - from <= threshold) {
+                FloatKernels kernels = FloatKernels.get();
+                return min ? kernels.min(values, from, to) : kernels.max(values, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            MinMaxTask left = new MinMaxTask(values, from, mid, threshold, min);
+            left.fork();
+            float right = new MinMaxTask(values, mid, to, threshold, min).compute();
+            float leftValue = left.join();
+            if (min) {
+                return leftValue <= right ? leftValue : right;
+            }
+            return leftValue >= right ? leftValue : right;
+        }
+    }
+
+    /**
+     * Runs over a range of chunks. Without a target array it stores the match count of chunk i
+     * in offsets[i + 1], with a target array it copies the matches of chunk i starting at offsets[i].
+     * Both passes use the kernels of the filter, the matches are selected into a scratch column of the
+     * exact size counted before and copied from there by the same task.
+     */
+    private static final class FilterTask extends RecursiveAction {
+        private final FloatFilter filter;
+        private final float[] values;
+        private final int size;
+        private final int chunkSize;
+        private final int fromChunk;
+        private final int toChunk;
+        private final int[] offsets;
+        private final float[] target;
+
+        FilterTask(FloatFilter filter, float[] values, int size, int chunkSize, int fromChunk, int toChunk,
+                   int[] offsets, float[] target) {
+            this.filter = filter;
+            this.values = values;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.offsets = offsets;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                invokeAll(new FilterTask(filter, values, size, chunkSize, fromChunk, mid, offsets, target),
+                        new FilterTask(filter, values, size, chunkSize, mid, toChunk, offsets, target));
+                return;
+            }
+            int from = (int) ((long) fromChunk * chunkSize);
+            int to = (int) Math.min(size, (long) from + chunkSize);
+            if (target == null) {
+                offsets[fromChunk + 1] = filter.count(values, from, to);
+                return;
+            }
+            int count = offsets[fromChunk + 1] - offsets[fromChunk];
+            if (count == 0) {
+                return;
+            }
+            FloatColumn scratch = new FloatColumn(count);
+            filter.select(values, from, to, scratch);
+            System.arraycopy(scratch.elements(), 0, target, offsets[fromChunk], count);
+        }
+    }
+
+    /**
+     * Counts the values whose highest prefixBits ordered bits equal the prefix, per bucket of the next bits.
+     */
+    private static final class RadixCountTask extends RecursiveTask<long[]> {
+        private final float[] values;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int prefix;
+        private final int prefixBits;
+        private final int bits;
+
+        RadixCountTask(float[] values, int from, int to, int threshold, int prefix, int prefixBits, int bits) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.prefix = prefix;
+            this.prefixBits = prefixBits;
+            this.bits = bits;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                RadixCountTask left = new RadixCountTask(values, from, mid, threshold, prefix, prefixBits, bits);
+                left.fork();
+                long[] counts = new RadixCountTask(values, mid, to, threshold, prefix, prefixBits, bits).compute();
+                long[] leftCounts = left.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += leftCounts[i];
+                }
+                return counts;
+            }
+            long[] counts = new long[1 << bits];
+            int shift = 32 - prefixBits - bits;
+            int mask = (1 << bits) - 1;
+            for (int i = from; i < to; i++) {
+                float value = values[i];
+                if (value != value) {
+                    continue;
+                }
+                int ordered = orderedBits(value);
+                if (prefixBits == 0 || ordered >>> (32 - prefixBits) == prefix) {
+                    counts[(ordered >>> shift) & mask]++;
+                }
+            }
+            return counts;
+        }
+    }
+
+    private static final class BestTask extends RecursiveTask<float[]> {
+        private final float[] values;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int k;
+        private final boolean largest;
+
+        BestTask(float[] values, int from, int to, int threshold, int k, boolean largest) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.k = k;
+            this.largest = largest;
+        }
+
+        @Override
+        protected float[] compute() {
+            if (to - from <= threshold) {
+                return FloatSelection.best(values, from, to, k, largest);
+            }
+            int mid = (from + to) >>> 1;
+            BestTask left = new BestTask(values, from, mid, threshold, k, largest);
+            left.fork();
+            float[] right = new BestTask(values, mid, to, threshold, k, largest).compute();
+            return FloatSelection.mergeBest(left.join(), right, k, largest);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package features.actions;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Action outputting approximate quantiles computed by a {@link QuantileSketch}, so the memory used
+ * does not depend on the size of the input. The supported forms are:
+ * <ul>
+ *     <li>median - the 0.5 quantile</li>
+ *     <li>pN - the N-th percentile, e.g. p95 or p99.9</li>
+ *     <li>quantiles:q1,q2,... - several quantiles given as fractions, e.g. quantiles:0.5,0.9,0.99</li>
+ *     <li>quantiles:k=N:q1,q2,... - the same with the accuracy of the sketch, see {@link QuantileSketch#QuantileSketch(int)}</li>
+ * </ul>
+ * Every quantile is written with its percentile as name, e.g. P99, except for median.
+ */
+public final class QuantileAction implements ActionDefinition {
+
+    private static final String QUANTILES_PREFIX = "quantiles:";
+    private static final String ACCURACY_PREFIX = "k=";
+
+    private final String name;
+    private final double[] fractions;
+    private final String[] labels;
+    private final int k;
+
+    /**
+     * Constructor
+     * @param name the name of the action
+     * @param fractions the quantiles to output, between 0 and 1
+     * @param k accuracy of the sketch
+     */
+    public QuantileAction(String name, double[] fractions, int k) {
+        this.name = name;
+        this.fractions = fractions.clone();
+        this.labels = new String[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            if (!(fractions[i] >= 0 && fractions[i] <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1: " + fractions[i]);
+            }
+            labels[i] = "MEDIAN".equals(name) ? name : "P" + percent(fractions[i]);
+        }
+        if (k < QuantileSketch.MIN_K) {
+            throw new IllegalArgumentException("Sketch accuracy k must be at least " + QuantileSketch.MIN_K + ": " + k);
+        }
+        this.k = k;
+    }
+
+    /**
+     * Parses a quantile action.
+     *
+     * @param action the action as given with the "-a" option
+     * @return the action, or null if the text is not a quantile action
+     * @throws IllegalArgumentException if the text is a quantile action with invalid arguments
+     */
+    public static QuantileAction parse(String action) {
+        String normalized = action.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+        if (normalized.equals("median")) {
+            return new QuantileAction("MEDIAN", new double[]{0.5}, QuantileSketch.DEFAULT_K);
+        }
+        if (normalized.matches("p\\d+(\\.\\d+)?")) {
+            BigDecimal percentile = new BigDecimal(normalized.substring(1)).stripTrailingZeros();
+            if (percentile.compareTo(BigDecimal.valueOf(100)) > 0) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + action);
+            }
+            return new QuantileAction("P" + percentile.toPlainString(),
+                    new double[]{percentile.movePointLeft(2).doubleValue()}, QuantileSketch.DEFAULT_K);
+        }
+        if (!normalized.startsWith(QUANTILES_PREFIX)) {
+            return null;
+        }
+        String arguments = normalized.substring(QUANTILES_PREFIX.length());
+        int k = QuantileSketch.DEFAULT_K;
+        if (arguments.startsWith(ACCURACY_PREFIX)) {
+            int separator = arguments.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing quantiles after the accuracy: " + action);
+            }
+            k = parseArgument(action, arguments.substring(ACCURACY_PREFIX.length(), separator), true).intValue();
+            arguments = arguments.substring(separator + 1);
+        }
+        if (arguments.isEmpty()) {
+            throw new IllegalArgumentException("Missing quantiles: " + action);
+        }
+        String[] parts = arguments.split(",", -1);
+        double[] fractions = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            fractions[i] = parseArgument(action, parts[i], false).doubleValue();
+        }
+        return new QuantileAction(normalized, fractions, k);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public FloatAccumulator newAccumulator() {
+        return new QuantileSketch(k);
+    }
+
+    @Override
+    public ActionOutput output(AggregationResult result) {
+        float[] quantiles = ((QuantileSketch) result.getAccumulator(this)).quantiles(fractions);
+        Map<String, Number> scalars = new LinkedHashMap<>();
+        for (int i = 0; i < quantiles.length; i++) {
+            scalars.put(labels[i], quantiles[i]);
+        }
+        return ActionOutput.ofScalars(scalars);
+    }
+
+    private static String percent(double fraction) {
+        return BigDecimal.valueOf(fraction).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+    private static Number parseArgument(String action, String argument, boolean integer) {
+        try {
+            return integer ? Integer.valueOf(Integer.parseInt(argument)) : Double.valueOf(Double.parseDouble(argument));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid argument " + argument + " of " + action, e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package features.actions;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable approximate quantile sketch in the style of KLL (Karnin, Lang, Liberty).
+ * <p>
+ * Values are kept in levels, an item on level h stands for 2^h input values. When a level is full it is
+ * sorted and every second item, starting at a random offset, is promoted to the next level. The capacity
+ * of the levels shrinks by 2/3 from the top level down, so the sketch holds at most about 3k values
+ * whatever the size of the input, and the rank error is roughly 1.7/k (about 1% for the default k).
+ * As long as fewer than about k values were accepted nothing is compacted and the quantiles are exact.
+ * <p>
+ * The random offsets come from a fixed seed, so the same input gives the same result on every run.
+ */
+public final class QuantileSketch implements FloatAccumulator {
+
+    public static final int DEFAULT_K = 200;
+    public static final int MIN_K = 8;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final double CAPACITY_FACTOR = 2.0 / 3.0;
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int k;
+    private float[][] levels;
+    private int[] levelSizes;
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private float min = Float.POSITIVE_INFINITY;
+    private float max = Float.NEGATIVE_INFINITY;
+    private long random = SEED;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructor
+     * @param k accuracy parameter, the rank error is roughly 1.7/k and the memory used about 3k floats
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("Sketch accuracy k must be at least " + MIN_K + ": " + k);
+        }
+        this.k = k;
+        this.levels = new float[][]{new float[capacity(0, 1)]};
+        this.levelSizes = new int[1];
+        this.maxRetained = capacity(0, 1);
+    }
+
+    @Override
+    public void accept(float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        updateMinMax(value);
+        count++;
+        if (levelSizes[0] == levels[0].length) {
+            levels[0] = Arrays.copyOf(levels[0], levels[0].length + (levels[0].length >> 1));
+        }
+        levels[0][levelSizes[0]++] = value;
+        retained++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(values[i]);
+        }
+    }
+
+    /**
+     * Merges a sketch of the same accuracy computed over another part of the input.
+     */
+    @Override
+    public void merge(FloatAccumulator other) {
+        if (!(other instanceof QuantileSketch) || ((QuantileSketch) other).k != k) {
+            throw new IllegalArgumentException("Can only merge a QuantileSketch with k=" + k);
+        }
+        QuantileSketch sketch = (QuantileSketch) other;
+        while (levels.length < sketch.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < sketch.levels.length; h++) {
+            append(h, sketch.levels[h], sketch.levelSizes[h]);
+        }
+        retained += sketch.retained;
+        count += sketch.count;
+        if (sketch.count > 0) {
+            updateMinMax(sketch.min);
+            updateMinMax(sketch.max);
+        }
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    @Override
+    public QuantileSketch snapshot() {
+        QuantileSketch copy = new QuantileSketch(k);
+        copy.levels = new float[levels.length][];
+        for (int h = 0; h < levels.length; h++) {
+            copy.levels[h] = levels[h].clone();
+        }
+        copy.levelSizes = levelSizes.clone();
+        copy.retained = retained;
+        copy.maxRetained = maxRetained;
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        copy.random = random;
+        return copy;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of values held by the sketch
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    /**
+     * Returns the approximate q-quantile using the nearest rank definition:
+     * the smallest value such that at least q * count values are less than or equal to it.
+     *
+     * @param q the fraction of values, between 0 and 1
+     * @return the quantile, or 0 if no values were accepted, the same as min and max of an empty input
+     */
+    public float quantile(double q) {
+        return quantiles(new double[]{q})[0];
+    }
+
+    /**
+     * Returns several quantiles sorting the retained values only once, see {@link #quantile(double)}.
+     */
+    public float[] quantiles(double[] fractions) {
+        for (double q : fractions) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+            }
+        }
+        float[] result = new float[fractions.length];
+        if (count == 0) {
+            return result;
+        }
+        float[] values = new float[retained];
+        long[] weights = new long[retained];
+        sortedItems(values, weights);
+
+        for (int i = 0; i < fractions.length; i++) {
+            if (fractions[i] == 0) {
+                result[i] = min;
+            } else if (fractions[i] == 1) {
+                result[i] = max;
+            } else {
+                double rank = fractions[i] * count;
+                long cumulative = 0;
+                int index = 0;
+                while (index < values.length - 1 && cumulative + weights[index] < rank) {
+                    cumulative += weights[index++];
+                }
+                result[i] = Math.max(min, Math.min(max, values[index]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fills the retained values in ascending order together with the number of input values each stands for.
+     */
+    private void sortedItems(float[] values, long[] weights) {
+        int position = 0;
+        for (int h = 0; h < levels.length; h++) {
+            System.arraycopy(levels[h], 0, values, position, levelSizes[h]);
+            Arrays.fill(weights, position, position + levelSizes[h], 1L << h);
+            position += levelSizes[h];
+        }
+        // sort the values and their weights together through a permutation of sortable keys
+        long[] keys = new long[position];
+        for (int i = 0; i < position; i++) {
+            keys[i] = ((long) sortableBits(values[i]) << 32) | i;
+        }
+        Arrays.sort(keys);
+        float[] unsortedValues = values.clone();
+        long[] unsortedWeights = weights.clone();
+        for (int i = 0; i < position; i++) {
+            int source = (int) keys[i];
+            values[i] = unsortedValues[source];
+            weights[i] = unsortedWeights[source];
+        }
+    }
+
+    /**
+     * Maps the float to an int with the same order, for sorting values together with their index.
+     */
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    /**
+     * Compacts the lowest full level, and the levels above it which overflow in turn,
+     * until the sketch is below its maximum size again.
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (levelSizes[h] >= capacity(h, levels.length)) {
+                if (h + 1 == levels.length) {
+                    addLevel();
+                }
+                compact(h);
+                if (retained < maxRetained) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void compact(int h) {
+        float[] level = levels[h];
+        int size = levelSizes[h];
+        // an odd item out stays on this level
+        int pairs = size / 2;
+        int start = size - 2 * pairs;
+        Arrays.sort(level, 0, size);
+        int offset = nextBit();
+        float[] promoted = new float[pairs];
+        for (int i = 0; i < pairs; i++) {
+            promoted[i] = level[start + 2 * i + offset];
+        }
+        levelSizes[h] = start;
+        retained -= 2 * pairs;
+        append(h + 1, promoted, pairs);
+        retained += pairs;
+    }
+
+    private void append(int h, float[] values, int length) {
+        int required = levelSizes[h] + length;
+        if (required > levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], Math.max(required, levels[h].length + (levels[h].length >> 1)));
+        }
+        System.arraycopy(values, 0, levels[h], levelSizes[h], length);
+        levelSizes[h] = required;
+    }
+
+    private void addLevel() {
+        int height = levels.length + 1;
+        levels = Arrays.copyOf(levels, height);
+        levelSizes = Arrays.copyOf(levelSizes, height);
+        levels[height - 1] = new float[0];
+        maxRetained = 0;
+        for (int h = 0; h < height; h++) {
+            maxRetained += capacity(h, height);
+        }
+    }
+
+    /**
+     * Capacity of level h in a sketch with the given number of levels, k for the top level.
+     */
+    private int capacity(int h, int height) {
+        int depth = height - h - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_FACTOR, depth)));
+    }
+
+    private void updateMinMax(float value) {
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * xorshift64 random bit, deterministic for reproducible results.
+     */
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+}
@@ -0,0 +1,40 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * Filter on a closed interval [lower, upper], every comparison and conjunction of
+ * comparisons on the plain value compiles to one of these.
+ */
+final class RangeFilter extends FloatFilter {
+
+    private final float lower;
+    private final float upper;
+    private final FloatKernels kernels = FloatKernels.get();
+
+    RangeFilter(String expression, float lower, float upper) {
+        super(expression);
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    @Override
+    public boolean test(float value) {
+        return value >= lower && value <= upper;
+    }
+
+    @Override
+    public void select(float[] values, int from, int to, FloatColumn target) {
+        kernels.filterRange(values, from, to, lower, upper, target);
+    }
+
+    @Override
+    public int count(float[] values, int from, int to) {
+        return kernels.countRange(values, from, to, lower, upper);
+    }
+
+    @Override
+    public boolean mayMatch(float min, float max) {
+        return max >= lower && min <= upper;
+    }
+}
@@ -0,0 +1,135 @@
+package features.actions;
+
+import features.data.FloatSink;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sum, min, max, count and the number of values matching every filter action of all values accepted so far,
+ * the state of the incremental mode which is saved after every run and restored by the next one,
+ * so only the values appended to the input in between are read.
+ * <p>
+ * Supported are the same actions as in the continuous mode: SUM, MIN, MAX, MINMAX, COUNT and filter actions,
+ * e.g. LT4, which output the number of matching values as NAME_COUNT.
+ */
+public final class RunningAggregate implements FloatSink {
+
+    private final List<ActionDefinition> actions;
+    private final FloatFilter[] filters;
+    private final long[] matchCounts;
+    private double sum;
+    private float min = Float.POSITIVE_INFINITY;
+    private float max = Float.NEGATIVE_INFINITY;
+    private long count;
+
+    /**
+     * Constructor
+     * @param actions the actions of the result
+     * @throws IllegalArgumentException if an action is not supported in the incremental mode
+     */
+    public RunningAggregate(List<? extends ActionDefinition> actions) {
+        this.filters = WindowAggregator.filters(actions, "incremental mode");
+        this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+        this.matchCounts = new long[filters.length];
+    }
+
+    @Override
+    public void accept(float value) {
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        count++;
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i].test(value)) {
+                matchCounts[i]++;
+            }
+        }
+    }
+
+    /**
+     * Forgets all values, e.g. when the input was truncated and is read again from its start.
+     */
+    public void reset() {
+        sum = 0;
+        min = Float.POSITIVE_INFINITY;
+        max = Float.NEGATIVE_INFINITY;
+        count = 0;
+        Arrays.fill(matchCounts, 0);
+    }
+
+    /**
+     * Restores the state saved by an earlier run.
+     *
+     * @param savedMatchCounts number of matching values by the name of the filter action
+     * @return false if the state has no count for one of the filter actions, then nothing is restored
+     */
+    public boolean restore(double savedSum, float savedMin, float savedMax, long savedCount,
+                           Map<String, Long> savedMatchCounts) {
+        long[] counts = new long[filters.length];
+        int filterIndex = 0;
+        for (ActionDefinition action : actions) {
+            if (action.getFilter() != null) {
+                Long saved = savedMatchCounts.get(action.getName());
+                if (saved == null) {
+                    return false;
+                }
+                counts[filterIndex++] = saved;
+            }
+        }
+        sum = savedSum;
+        min = savedMin;
+        max = savedMax;
+        count = savedCount;
+        System.arraycopy(counts, 0, matchCounts, 0, counts.length);
+        return true;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest value, positive infinity if there was none
+     */
+    public float getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, negative infinity if there was none
+     */
+    public float getMax() {
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of matching values by the name of the filter action
+     */
+    public Map<String, Long> getMatchCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        int filterIndex = 0;
+        for (ActionDefinition action : actions) {
+            if (action.getFilter() != null) {
+                counts.put(action.getName(), matchCounts[filterIndex++]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @param index number of the result, e.g. of the update in the follow mode
+     * @return the results of the actions over all values, min and max are 0 when there were no values
+     */
+    public WindowResult result(long index) {
+        return new WindowResult(index, 0, count, WindowAggregator.scalars(actions, sum,
+                count == 0 ? 0 : min, count == 0 ? 0 : max, count, matchCounts.clone()));
+    }
+}
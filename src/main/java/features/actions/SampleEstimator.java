@@ -0,0 +1,169 @@
+package features.actions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates of the sum, count, mean and LT4 fraction of an input from a sample of it, with 95% confidence intervals.
+ * <p>
+ * The sample is made of clusters drawn uniformly without replacement from the clusters of the input, e.g. its lines
+ * or blocks, each given by its number of values, their sum and the number of values below four.
+ * Totals are expanded by the number of clusters of the input, the mean and the fraction are ratios of two totals
+ * with their variance linearized, and every variance gets the finite population correction, so a sample of
+ * the whole input has intervals of width 0. Otherwise, with fewer than two clusters the bounds are NaN.
+ */
+public final class SampleEstimator {
+
+    static final double Z_95 = 1.959963984540054;
+
+    private long clusters;
+    private long values;
+    private double count;
+    private double countSquares;
+    private double sum;
+    private double sumSquares;
+    private double sumTimesCount;
+    private double lessThanFour;
+    private double lessThanFourSquares;
+    private double lessThanFourTimesCount;
+    private float min = Float.POSITIVE_INFINITY;
+    private float max = Float.NEGATIVE_INFINITY;
+    private long populationClusters;
+
+    /**
+     * Adds a sampled cluster
+     * @param count number of values of the cluster
+     * @param clusterSum sum of the values
+     * @param clusterLessThanFour number of values less than four
+     * @param clusterMin smallest value, ignored if the cluster has none
+     * @param clusterMax largest value, ignored if the cluster has none
+     */
+    public void addCluster(long count, double clusterSum, long clusterLessThanFour, float clusterMin, float clusterMax) {
+        clusters++;
+        values += count;
+        this.count += count;
+        countSquares += (double) count * count;
+        sum += clusterSum;
+        sumSquares += clusterSum * clusterSum;
+        sumTimesCount += clusterSum * count;
+        lessThanFour += clusterLessThanFour;
+        lessThanFourSquares += (double) clusterLessThanFour * clusterLessThanFour;
+        lessThanFourTimesCount += (double) clusterLessThanFour * count;
+        if (count > 0) {
+            min = Math.min(min, clusterMin);
+            max = Math.max(max, clusterMax);
+        }
+    }
+
+    /**
+     * @param populationClusters number of clusters of the whole input, e.g. its lines or blocks
+     */
+    public void setPopulationClusters(long populationClusters) {
+        this.populationClusters = populationClusters;
+    }
+
+    public long getPopulationClusters() {
+        return populationClusters;
+    }
+
+    public long getSampledClusters() {
+        return clusters;
+    }
+
+    public long getSampledValues() {
+        return values;
+    }
+
+    /**
+     * @return the smallest sampled value, NaN if no value was sampled
+     */
+    public float getSampledMin() {
+        return values == 0 ? Float.NaN : min;
+    }
+
+    /**
+     * @return the largest sampled value, NaN if no value was sampled
+     */
+    public float getSampledMax() {
+        return values == 0 ? Float.NaN : max;
+    }
+
+    /**
+     * @return the estimates of SUM, COUNT, MEAN, LT4 and LT4_FRACTION
+     */
+    public List<Estimate> estimate() {
+        if (populationClusters < clusters) {
+            throw new IllegalArgumentException("The sample has more clusters than the input: " + clusters);
+        }
+        double b = clusters;
+        double population = populationClusters;
+        // finite population correction divided by the sample size
+        double correction = clusters == 0 ? Double.NaN : (1 - b / population) / b;
+        List<Estimate> estimates = new ArrayList<>(5);
+        estimates.add(total("SUM", sum, sumSquares, population, correction));
+        estimates.add(total("COUNT", count, countSquares, population, correction));
+        estimates.add(ratio("MEAN", sum, sumSquares, sumTimesCount, correction));
+        estimates.add(total("LT4", lessThanFour, lessThanFourSquares, population, correction));
+        estimates.add(ratio("LT4_FRACTION", lessThanFour, lessThanFourSquares, lessThanFourTimesCount, correction));
+        return estimates;
+    }
+
+    /**
+     * Expansion estimate of a total from the sum and sum of squares of the cluster totals
+     */
+    private Estimate total(String name, double total, double squares, double population, double correction) {
+        double variance = (squares - total * total / clusters) / (clusters - 1);
+        double error = correction == 0 ? 0 : population * Math.sqrt(Math.max(0, variance) * correction);
+        return new Estimate(name, population * total / clusters, error);
+    }
+
+    /**
+     * Ratio estimate of a total per value, e.g. the mean as the sum per value
+     */
+    private Estimate ratio(String name, double total, double squares, double timesCount, double correction) {
+        double ratio = total / count;
+        // variance of the residuals total - ratio * count of the clusters
+        double residuals = squares - 2 * ratio * timesCount + ratio * ratio * countSquares;
+        double meanCount = count / clusters;
+        double error = correction == 0 ? 0 : Math.sqrt(Math.max(0, residuals / (clusters - 1)) * correction) / meanCount;
+        return new Estimate(name, ratio, error);
+    }
+
+    /**
+     * An estimate and its 95% confidence interval
+     */
+    public static final class Estimate {
+        private final String name;
+        private final double value;
+        private final double lower;
+        private final double upper;
+
+        Estimate(String name, double value, double standardError) {
+            this.name = name;
+            this.value = value;
+            this.lower = value - Z_95 * standardError;
+            this.upper = value + Z_95 * standardError;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        @Override
+        public String toString() {
+            return name + "," + value + "," + lower + "," + upper;
+        }
+    }
+}
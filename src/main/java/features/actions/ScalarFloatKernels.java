@@ -0,0 +1,82 @@
+package features.actions;
+
+import features.data.FloatColumn;
+
+/**
+ * Plain loop implementation of the float kernels, used on every JVM.
+ */
+final class ScalarFloatKernels implements FloatKernels {
+
+    @Override
+    public float sum(float[] values, int from, int to) {
+        float sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float min(float[] values, int from, int to) {
+        float minValue = Float.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            if (values[i] < minValue) {
+                minValue = values[i];
+            }
+        }
+        return minValue;
+    }
+
+    @Override
+    public float max(float[] values, int from, int to) {
+        float maxValue = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            if (values[i] > maxValue) {
+                maxValue = values[i];
+            }
+        }
+        return maxValue;
+    }
+
+    @Override
+    public void aggregate(float[] values, int from, int to, float[] result) {
+        float sum = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            sum += value;
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        result[0] = sum;
+        result[1] = min;
+        result[2] = max;
+    }
+
+    @Override
+    public int countRange(float[] values, int from, int to, float lower, float upper) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            if (value >= lower && value <= upper) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void filterRange(float[] values, int from, int to, float lower, float upper, FloatColumn target) {
+        for (int i = from; i < to; i++) {
+            float value = values[i];
+            if (value >= lower && value <= upper) {
+                target.add(value);
+            }
+        }
+    }
+}
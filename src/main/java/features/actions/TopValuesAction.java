@@ -0,0 +1,68 @@
+package features.actions;
+
+import java.util.Locale;
+
+/**
+ * Action outputting the k largest or smallest values, the same values as {@link ActionsManager#largestColumn}
+ * and {@link ActionsManager#smallestColumn}. The supported forms are:
+ * <ul>
+ *     <li>top:k - the k largest values in descending order, written as TOPk</li>
+ *     <li>bottom:k - the k smallest values in ascending order, written as BOTTOMk</li>
+ * </ul>
+ */
+public final class TopValuesAction implements ActionDefinition {
+
+    private static final String TOP_PREFIX = "top:";
+    private static final String BOTTOM_PREFIX = "bottom:";
+
+    private final String name;
+    private final int k;
+    private final boolean largest;
+
+    private TopValuesAction(String name, int k, boolean largest) {
+        this.name = name;
+        this.k = k;
+        this.largest = largest;
+    }
+
+    /**
+     * Parses a top or bottom values action.
+     *
+     * @param action the action as given with the "-a" option
+     * @return the action, or null if the text is not a top or bottom values action
+     * @throws IllegalArgumentException if the number of values is not a positive integer
+     */
+    public static TopValuesAction parse(String action) {
+        String normalized = action.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+        boolean largest = normalized.startsWith(TOP_PREFIX);
+        if (!largest && !normalized.startsWith(BOTTOM_PREFIX)) {
+            return null;
+        }
+        String argument = normalized.substring(largest ? TOP_PREFIX.length() : BOTTOM_PREFIX.length());
+        int k;
+        try {
+            k = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number of values " + argument + " of " + action, e);
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of values must be positive: " + action);
+        }
+        return new TopValuesAction((largest ? "TOP" : "BOTTOM") + k, k, largest);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public FloatAccumulator newAccumulator() {
+        return new BestValuesAccumulator(k, largest);
+    }
+
+    @Override
+    public ActionOutput output(AggregationResult result) {
+        return ActionOutput.ofValues(name, ((BestValuesAccumulator) result.getAccumulator(this)).getValues());
+    }
+}
@@ -0,0 +1,251 @@
+package features.actions;
+
+import features.data.FloatSink;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the actions over a count based window of an unbounded stream of values,
+ * emitting the results every slide values once the window is full. A slide equal to the window size
+ * gives tumbling windows, a smaller slide overlapping sliding windows.
+ * <p>
+ * Only the last window of values is kept in a ring buffer. Sum and filter match counts are running values
+ * updated when a value enters and leaves the window, min and max are the heads of monotonic deques,
+ * so every value costs O(1) amortized whatever the window size. The running sum is recomputed from the
+ * ring buffer once per window size values, which keeps it from drifting at the same amortized cost.
+ * Like in {@link AggregationAccumulator} a NaN value is never the min or max of a window, so it is not put
+ * into the deques, and the min and max of a window of NaN values only are infinity and -infinity.
+ * <p>
+ * Supported are SUM, MIN, MAX, MINMAX, COUNT and filter actions, e.g. LT4, which output
+ * the number of matching values in the window as NAME_COUNT.
+ */
+public final class WindowAggregator implements FloatSink {
+
+    /**
+     * Receives the results of every window as soon as it is complete.
+     */
+    public interface Listener {
+        void onWindow(WindowResult window);
+    }
+
+    private final int windowSize;
+    private final int slide;
+    private final List<ActionDefinition> actions;
+    private final FloatFilter[] filters;
+    private final Listener listener;
+
+    private final float[] ring;
+    private final long[] minDeque;
+    private final long[] maxDeque;
+    private int minHead;
+    private int minSize;
+    private int maxHead;
+    private int maxSize;
+    private final long[] matchCounts;
+    private double sum;
+    private long seen;
+    private long lastEmitted;
+    private long windowCount;
+
+    /**
+     * Constructor
+     * @param windowSize number of values in a window
+     * @param slide number of values between two windows, from 1 to the window size
+     * @param actions the actions to compute for every window
+     * @param listener receiver of the window results
+     * @throws IllegalArgumentException if the sizes are invalid or an action is not supported in window mode
+     */
+    public WindowAggregator(int windowSize, int slide, List<? extends ActionDefinition> actions, Listener listener) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        if (slide < 1 || slide > windowSize) {
+            throw new IllegalArgumentException("Window slide must be between 1 and the window size " + windowSize + ": " + slide);
+        }
+        FloatFilter[] filters = filters(actions, "window mode");
+        this.windowSize = windowSize;
+        this.slide = slide;
+        this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+        this.filters = filters;
+        this.listener = listener;
+        this.ring = new float[windowSize];
+        this.minDeque = new long[windowSize];
+        this.maxDeque = new long[windowSize];
+        this.matchCounts = new long[filters.length];
+    }
+
+    @Override
+    public void accept(float value) {
+        int slot = (int) (seen % windowSize);
+        if (seen >= windowSize) {
+            evict(ring[slot], seen - windowSize);
+        }
+        ring[slot] = value;
+        sum += value;
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i].test(value)) {
+                matchCounts[i]++;
+            }
+        }
+        if (!Float.isNaN(value)) {
+            // drop the values which can no longer be the min or max of any window
+            while (minSize > 0 && ring[slotOf(minDeque[(minHead + minSize - 1) % windowSize])] >= value) {
+                minSize--;
+            }
+            minDeque[(minHead + minSize++) % windowSize] = seen;
+            while (maxSize > 0 && ring[slotOf(maxDeque[(maxHead + maxSize - 1) % windowSize])] <= value) {
+                maxSize--;
+            }
+            maxDeque[(maxHead + maxSize++) % windowSize] = seen;
+        }
+        seen++;
+
+        if (seen % windowSize == 0) {
+            recomputeSum();
+        }
+        if (seen >= windowSize && (seen - windowSize) % slide == 0) {
+            float min = minSize > 0 ? ring[slotOf(minDeque[minHead])] : Float.POSITIVE_INFINITY;
+            float max = maxSize > 0 ? ring[slotOf(maxDeque[maxHead])] : Float.NEGATIVE_INFINITY;
+            emit(seen - windowSize, seen, sum, min, max, matchCounts.clone());
+        }
+    }
+
+    /**
+     * Emits the values accepted since the last window at the end of the stream:
+     * the last incomplete tumbling window, or for sliding windows the values seen
+     * if there were fewer than the window size. The values after the last full sliding window
+     * are only part of windows which never fill up, so they are not emitted.
+     */
+    public void finish() {
+        if (seen == lastEmitted && windowCount > 0 || seen == 0) {
+            return;
+        }
+        if (slide < windowSize && seen >= windowSize) {
+            return;
+        }
+        long from = slide == windowSize ? lastEmitted : 0;
+        double windowSum = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        long[] matches = new long[filters.length];
+        for (long position = from; position < seen; position++) {
+            float value = ring[slotOf(position)];
+            windowSum += value;
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+            for (int i = 0; i < filters.length; i++) {
+                if (filters[i].test(value)) {
+                    matches[i]++;
+                }
+            }
+        }
+        emit(from, seen, windowSum, min, max, matches);
+    }
+
+    public List<ActionDefinition> getActions() {
+        return actions;
+    }
+
+    /**
+     * @return the number of values accepted so far
+     */
+    public long getCount() {
+        return seen;
+    }
+
+    private void evict(float value, long position) {
+        sum -= value;
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i].test(value)) {
+                matchCounts[i]--;
+            }
+        }
+        if (minSize > 0 && minDeque[minHead] == position) {
+            minHead = (minHead + 1) % windowSize;
+            minSize--;
+        }
+        if (maxSize > 0 && maxDeque[maxHead] == position) {
+            maxHead = (maxHead + 1) % windowSize;
+            maxSize--;
+        }
+    }
+
+    private void recomputeSum() {
+        double exactSum = 0;
+        for (float value : ring) {
+            exactSum += value;
+        }
+        sum = exactSum;
+    }
+
+    private int slotOf(long position) {
+        return (int) (position % windowSize);
+    }
+
+    private void emit(long from, long to, double windowSum, float min, float max, long[] matches) {
+        lastEmitted = to;
+        listener.onWindow(new WindowResult(windowCount++, from, to,
+                scalars(actions, windowSum, min, max, to - from, matches)));
+    }
+
+    /**
+     * @param mode name of the mode for the error message
+     * @return the filters of the filter actions, in their order
+     * @throws IllegalArgumentException if an action is neither a built-in scalar action nor a filter
+     */
+    static FloatFilter[] filters(List<? extends ActionDefinition> actions, String mode) {
+        List<FloatFilter> filters = new ArrayList<>();
+        for (ActionDefinition action : actions) {
+            if (action.getFilter() != null) {
+                filters.add(action.getFilter());
+            } else if (!(action instanceof Action)) {
+                throw new IllegalArgumentException("Action " + action.getName() + " is not supported in " + mode);
+            }
+        }
+        return filters.toArray(new FloatFilter[0]);
+    }
+
+    /**
+     * @param matches number of values matching every filter action, in the order of the actions
+     * @return the results of the actions in their order, filters as NAME_COUNT
+     */
+    static Map<String, Number> scalars(List<ActionDefinition> actions, double sum, float min, float max, long count,
+                                       long[] matches) {
+        Map<String, Number> scalars = new LinkedHashMap<>();
+        int filterIndex = 0;
+        for (ActionDefinition action : actions) {
+            if (action.getFilter() != null) {
+                scalars.put(action.getName() + "_COUNT", matches[filterIndex++]);
+                continue;
+            }
+            switch ((Action) action) {
+                case SUM:
+                    scalars.put("SUM", (float) sum);
+                    break;
+                case MIN:
+                    scalars.put("MIN", min);
+                    break;
+                case MAX:
+                    scalars.put("MAX", max);
+                    break;
+                case MINMAX:
+                    scalars.put("MIN", min);
+                    scalars.put("MAX", max);
+                    break;
+                case COUNT:
+                    scalars.put("COUNT", count);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return scalars;
+    }
+}
@@ -0,0 +1,49 @@
+package features.actions;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Results of one window of the continuous mode, see {@link WindowAggregator}.
+ * The window covers the values at the positions from (inclusive) to (exclusive) of the stream, counted from 0.
+ */
+public final class WindowResult {
+
+    private final long index;
+    private final long from;
+    private final long to;
+    private final Map<String, Number> scalars;
+
+    public WindowResult(long index, long from, long to, Map<String, Number> scalars) {
+        this.index = index;
+        this.from = from;
+        this.to = to;
+        this.scalars = Collections.unmodifiableMap(scalars);
+    }
+
+    /**
+     * @return the number of the window, counted from 0
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public long getCount() {
+        return to - from;
+    }
+
+    /**
+     * @return the results of the requested actions in the requested order, e.g. SUM, MIN, MAX and LT4_COUNT
+     */
+    public Map<String, Number> getScalars() {
+        return scalars;
+    }
+}
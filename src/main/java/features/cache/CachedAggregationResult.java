@@ -0,0 +1,36 @@
+package features.cache;
+
+import features.actions.ActionDefinition;
+import features.actions.ActionOutput;
+import features.actions.AggregationResult;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregation result restored from the {@link ResultCache}. It holds the outputs of the actions
+ * instead of their accumulators, so {@link #getAccumulator} and {@link #getFiltered} return null.
+ */
+public class CachedAggregationResult extends AggregationResult {
+
+    private final Map<String, ActionOutput> outputs;
+
+    /**
+     * Constructor
+     * @param outputs the outputs of the actions by action name
+     */
+    public CachedAggregationResult(List<? extends ActionDefinition> actions, float sum, float min, float max, long count,
+                                   Map<String, ActionOutput> outputs) {
+        super(actions, sum, min, max, count, Collections.emptyMap());
+        this.outputs = outputs;
+    }
+
+    @Override
+    public ActionOutput outputOf(ActionDefinition action) {
+        ActionOutput output = outputs.get(action.getName());
+        if (output == null) {
+            throw new IllegalArgumentException("Action " + action.getName() + " is not part of the cached result");
+        }
+        return output;
+    }
+}
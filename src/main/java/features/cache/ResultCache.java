@@ -0,0 +1,401 @@
+package features.cache;
+
+import features.actions.ActionDefinition;
+import features.actions.ActionOutput;
+import features.actions.AggregationResult;
+import features.actions.HistogramAccumulator;
+import features.data.FloatColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk cache of the results of the actions on input files, so repeated runs on an unchanged file
+ * do not read and parse it again.
+ * <p>
+ * An entry is keyed by the real path, size and modification time of the input file, optionally a CRC32C
+ * of its content, its format and the requested actions. Every entry is one file in the cache directory,
+ * named after the SHA-256 of the key, holding the key and the outputs of the actions. The modification
+ * time of an entry file is its last use: when the cache grows beyond its maximum size or number of
+ * entries the least recently used entries are deleted. Hits and misses are counted across runs.
+ */
+public final class ResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String STATS_FILE = "stats.properties";
+    private static final int MAGIC = 0x51524331; // "QRC1"
+    private static final byte SCALARS = 0;
+    private static final byte VALUES = 1;
+    private static final byte BUCKETS = 2;
+    private static final byte FLOAT = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final int HASH_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_KEY_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxEntries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor
+     * @param directory the directory holding the entries, created when the first entry is stored
+     * @param maxBytes maximum total size of the entries
+     * @param maxEntries maximum number of entries
+     */
+    public ResultCache(Path directory, long maxBytes, int maxEntries) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Creates the cache configured with the system properties queo.cache.dir (default ~/.queo-cache),
+     * queo.cache.maxBytes and queo.cache.maxEntries.
+     */
+    public static ResultCache fromSystemProperties() {
+        Path directory = Paths.get(System.getProperty("queo.cache.dir",
+                Paths.get(System.getProperty("user.home"), ".queo-cache").toString()));
+        long maxBytes = Long.getLong("queo.cache.maxBytes", DEFAULT_MAX_BYTES);
+        int maxEntries = Integer.getInteger("queo.cache.maxEntries", DEFAULT_MAX_ENTRIES);
+        return new ResultCache(directory, maxBytes, maxEntries);
+    }
+
+    /**
+     * Builds the key of the results of the actions on an input file.
+     *
+     * @param contentHash if true the content of the file is hashed as well, which detects changes keeping
+     *                    the size and modification time at the cost of reading the file, still without parsing it
+     */
+    public static String key(Path file, String format, List<? extends ActionDefinition> actions, boolean contentHash)
+            throws IOException {
+        Path realPath = file.toRealPath();
+        BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        StringBuilder key = new StringBuilder()
+                .append(realPath).append('\n')
+                .append(attributes.size()).append('\n')
+                .append(attributes.lastModifiedTime().toMillis()).append('\n')
+                .append(contentHash ? Long.toHexString(crc32c(realPath)) : "-").append('\n')
+                .append(format.toLowerCase()).append('\n');
+        for (ActionDefinition action : actions) {
+            key.append(action.getName()).append('\n');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Looks up the results of the key.
+     *
+     * @param actions the requested actions the results are restored for
+     * @return the cached results, or null if there is no valid entry for the key
+     */
+    public AggregationResult get(String key, List<? extends ActionDefinition> actions) {
+        Path entry = entryPath(key);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != MAGIC || !readLongString(input).equals(key)) {
+                misses++;
+                return null;
+            }
+            AggregationResult result = readResult(input, actions);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return result;
+        } catch (NoSuchFileException e) {
+            misses++;
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable cache entry {}: {}", entry, e.getMessage());
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Stores the results of the key, then evicts the least recently used entries beyond the limits.
+     * Failures are logged and ignored, the cache only saves work.
+     */
+    public void put(String key, AggregationResult result) {
+        Path entry = entryPath(key);
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                writeLongString(output, key);
+                writeResult(output, result);
+            }
+            long size = Files.size(temporary);
+            if (size > maxBytes) {
+                Files.delete(temporary);
+                logger.info("Result of {} bytes is too large for the cache", size);
+                return;
+            }
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict();
+        } catch (IOException e) {
+            logger.warn("Could not store the result in the cache {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes all entries and the hit and miss counters.
+     */
+    public void clear() throws IOException {
+        for (Path entry : listEntries()) {
+            Files.deleteIfExists(entry);
+        }
+        Files.deleteIfExists(directory.resolve(STATS_FILE));
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * @return the hits of this instance
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the misses of this instance
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Adds the hits and misses of this instance to the counters stored in the cache directory
+     * and resets them.
+     *
+     * @return the total hits and misses of all runs
+     */
+    public long[] saveStats() {
+        Path statsFile = directory.resolve(STATS_FILE);
+        Properties stats = new Properties();
+        try {
+            if (Files.exists(statsFile)) {
+                try (InputStream input = Files.newInputStream(statsFile)) {
+                    stats.load(input);
+                }
+            }
+            long totalHits = Long.parseLong(stats.getProperty("hits", "0")) + hits;
+            long totalMisses = Long.parseLong(stats.getProperty("misses", "0")) + misses;
+            stats.setProperty("hits", Long.toString(totalHits));
+            stats.setProperty("misses", Long.toString(totalMisses));
+            Files.createDirectories(directory);
+            try (OutputStream output = Files.newOutputStream(statsFile)) {
+                stats.store(output, "Result cache counters");
+            }
+            hits = 0;
+            misses = 0;
+            return new long[]{totalHits, totalMisses};
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not update the cache counters {}: {}", statsFile, e.getMessage());
+            return new long[]{hits, misses};
+        }
+    }
+
+    private void evict() throws IOException {
+        Map<Path, BasicFileAttributes> entries = new LinkedHashMap<>();
+        long totalBytes = 0;
+        for (Path entry : listEntries()) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                entries.put(entry, attributes);
+                totalBytes += attributes.size();
+            } catch (NoSuchFileException e) {
+                // removed by a concurrent run
+            }
+        }
+        List<Path> leastRecentlyUsed = new ArrayList<>(entries.keySet());
+        leastRecentlyUsed.sort(Comparator.comparing(entry -> entries.get(entry).lastModifiedTime()));
+        int remaining = leastRecentlyUsed.size();
+        for (Path entry : leastRecentlyUsed) {
+            if (totalBytes <= maxBytes && remaining <= maxEntries) {
+                break;
+            }
+            Files.deleteIfExists(entry);
+            totalBytes -= entries.get(entry).size();
+            remaining--;
+            logger.info("Evicted cache entry {}", entry.getFileName());
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path entry : stream) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private Path entryPath(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return directory.resolve(name + ENTRY_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long crc32c(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void writeResult(DataOutputStream output, AggregationResult result) throws IOException {
+        output.writeFloat(result.getSum());
+        output.writeFloat(result.getMin());
+        output.writeFloat(result.getMax());
+        output.writeLong(result.getCount());
+        output.writeInt(result.getActions().size());
+        for (ActionDefinition action : result.getActions()) {
+            ActionOutput actionOutput = result.outputOf(action);
+            output.writeUTF(action.getName());
+            if (actionOutput.hasValues()) {
+                output.writeByte(VALUES);
+                output.writeUTF(actionOutput.getValuesName());
+                FloatColumn values = actionOutput.getValues();
+                output.writeInt(values.size());
+                float[] elements = values.elements();
+                for (int i = 0; i < values.size(); i++) {
+                    output.writeFloat(elements[i]);
+                }
+            } else if (actionOutput.hasBuckets()) {
+                output.writeByte(BUCKETS);
+                output.writeUTF(actionOutput.getValuesName());
+                output.writeInt(actionOutput.getBuckets().size());
+                for (HistogramAccumulator.Bucket bucket : actionOutput.getBuckets()) {
+                    output.writeFloat(bucket.getLower());
+                    output.writeFloat(bucket.getUpper());
+                    output.writeLong(bucket.getCount());
+                }
+            } else {
+                output.writeByte(SCALARS);
+                output.writeInt(actionOutput.getScalars().size());
+                for (Map.Entry<String, Number> scalar : actionOutput.getScalars().entrySet()) {
+                    output.writeUTF(scalar.getKey());
+                    Number value = scalar.getValue();
+                    if (value instanceof Float) {
+                        output.writeByte(FLOAT);
+                        output.writeFloat(value.floatValue());
+                    } else if (value instanceof Long || value instanceof Integer) {
+                        output.writeByte(LONG);
+                        output.writeLong(value.longValue());
+                    } else {
+                        output.writeByte(DOUBLE);
+                        output.writeDouble(value.doubleValue());
+                    }
+                }
+            }
+        }
+    }
+
+    private static AggregationResult readResult(DataInputStream input, List<? extends ActionDefinition> actions)
+            throws IOException {
+        float sum = input.readFloat();
+        float min = input.readFloat();
+        float max = input.readFloat();
+        long count = input.readLong();
+        int actionCount = input.readInt();
+        Map<String, ActionOutput> outputs = new LinkedHashMap<>();
+        for (int i = 0; i < actionCount; i++) {
+            String name = input.readUTF();
+            byte kind = input.readByte();
+            if (kind == VALUES) {
+                String valuesName = input.readUTF();
+                int size = input.readInt();
+                float[] values = new float[size];
+                for (int j = 0; j < size; j++) {
+                    values[j] = input.readFloat();
+                }
+                outputs.put(name, ActionOutput.ofValues(valuesName, FloatColumn.wrap(values, size)));
+            } else if (kind == BUCKETS) {
+                String valuesName = input.readUTF();
+                int size = input.readInt();
+                List<HistogramAccumulator.Bucket> buckets = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    buckets.add(new HistogramAccumulator.Bucket(input.readFloat(), input.readFloat(), input.readLong()));
+                }
+                outputs.put(name, ActionOutput.ofHistogram(valuesName, buckets));
+            } else {
+                int size = input.readInt();
+                Map<String, Number> scalars = new LinkedHashMap<>();
+                for (int j = 0; j < size; j++) {
+                    String scalarName = input.readUTF();
+                    byte type = input.readByte();
+                    scalars.put(scalarName, type == FLOAT ? (Number) input.readFloat()
+                            : type == LONG ? (Number) input.readLong() : (Number) input.readDouble());
+                }
+                outputs.put(name, ActionOutput.ofScalars(scalars));
+            }
+        }
+        return new CachedAggregationResult(actions, sum, min, max, count, outputs);
+    }
+
+    private static void writeLongString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readLongString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_KEY_BYTES) {
+            throw new IOException("Invalid key length " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package features.data;
+
+import exceptions.ReadErrorException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Header of the binary input format, which stores the values as raw IEEE-754 float32 so they are read without parsing.
+ * <p>
+ * A file starts with a header of {@link #HEADER_SIZE} bytes: the magic bytes "QFLT", the format version,
+ * 'L' or 'B' for the byte order of the file, two reserved zero bytes and the number of values as a 64 bit integer
+ * in the byte order of the file. The values follow directly, 4 bytes each in the byte order of the file.
+ */
+public final class BinaryFloatFormat {
+
+    public static final int HEADER_SIZE = 16;
+    public static final byte VERSION = 1;
+    private static final byte[] MAGIC = {'Q', 'F', 'L', 'T'};
+
+    private final ByteOrder order;
+    private final long count;
+
+    /**
+     * Constructor
+     * @param order byte order of the header count and the values
+     * @param count number of values following the header
+     */
+    public BinaryFloatFormat(ByteOrder order, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Number of values must not be negative: " + count);
+        }
+        this.order = order;
+        this.count = count;
+    }
+
+    public ByteOrder getOrder() {
+        return order;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the size of a file with this header and its values
+     */
+    public long fileSize() {
+        return HEADER_SIZE + count * Float.BYTES;
+    }
+
+    /**
+     * @return the header, ready to be written
+     */
+    public ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(order);
+        header.put(MAGIC).put(VERSION).put((byte) (order == ByteOrder.LITTLE_ENDIAN ? 'L' : 'B'))
+                .put((byte) 0).put((byte) 0).putLong(count);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Reads a header from the remaining bytes of the buffer.
+     *
+     * @throws ReadErrorException with code 4 if the bytes are not a header of a supported version
+     */
+    public static BinaryFloatFormat read(ByteBuffer header) throws ReadErrorException {
+        if (header.remaining() < HEADER_SIZE) {
+            throw new ReadErrorException("Format Error: not a binary float file, the header is incomplete", 4);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header.get(header.position() + i) != MAGIC[i]) {
+                throw new ReadErrorException("Format Error: not a binary float file", 4);
+            }
+        }
+        byte version = header.get(header.position() + 4);
+        if (version != VERSION) {
+            throw new ReadErrorException("Format Error: unsupported binary float file version " + version, 4);
+        }
+        ByteOrder order;
+        switch (header.get(header.position() + 5)) {
+            case 'L':
+                order = ByteOrder.LITTLE_ENDIAN;
+                break;
+            case 'B':
+                order = ByteOrder.BIG_ENDIAN;
+                break;
+            default:
+                throw new ReadErrorException("Format Error: unknown byte order of the binary float file", 4);
+        }
+        long count = header.duplicate().order(order).getLong(header.position() + 8);
+        if (count < 0) {
+            throw new ReadErrorException("Format Error: negative number of values " + count, 4);
+        }
+        return new BinaryFloatFormat(order, count);
+    }
+}
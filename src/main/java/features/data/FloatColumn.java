@@ -0,0 +1,236 @@
+package features.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable column of primitive float values backed by a single float array.
+ * Replaces List&lt;Float&gt; on the hot paths, so every value costs 4 bytes
+ * instead of a boxed Float object plus a reference in the list backing array.
+ */
+public final class FloatColumn implements FloatSink {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final float[] EMPTY = new float[0];
+
+    private float[] elements;
+    private int size;
+    private final boolean readOnly;
+
+    public FloatColumn() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param initialCapacity number of values the column can hold before it has to grow
+     */
+    public FloatColumn(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + initialCapacity);
+        }
+        this.elements = initialCapacity == 0 ? EMPTY : new float[initialCapacity];
+        this.readOnly = false;
+    }
+
+    private FloatColumn(float[] elements, int size, boolean readOnly) {
+        this.elements = elements;
+        this.size = size;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Creates a column holding a copy of the given values.
+     */
+    public static FloatColumn of(float... values) {
+        return new FloatColumn(Arrays.copyOf(values, values.length), values.length, false);
+    }
+
+    /**
+     * Wraps the first size values of the given array without copying them.
+     * The column takes ownership of the array.
+     */
+    public static FloatColumn wrap(float[] values, int size) {
+        if (size < 0 || size > values.length) {
+            throw new IndexOutOfBoundsException("Size " + size + " out of bounds for length " + values.length);
+        }
+        return new FloatColumn(values, size, false);
+    }
+
+    /**
+     * Adapter for the List based API. Null elements are skipped,
+     * the same way the actions always ignored them.
+     *
+     * @param inputList list of Float values, may be null
+     * @return a new column with the non null values of the list, empty if the list is null
+     */
+    public static FloatColumn fromList(List<Float> inputList) {
+        if (inputList == null) {
+            return new FloatColumn(0);
+        }
+        FloatColumn column = new FloatColumn(inputList.size());
+        for (Float value : inputList) {
+            if (value != null) {
+                column.add(value);
+            }
+        }
+        return column;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return elements[index];
+    }
+
+    public void set(int index, float value) {
+        checkWritable();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        elements[index] = value;
+    }
+
+    public void add(float value) {
+        checkWritable();
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    public void addAll(float[] values, int offset, int length) {
+        checkWritable();
+        ensureCapacity(size + length);
+        System.arraycopy(values, offset, elements, size, length);
+        size += length;
+    }
+
+    @Override
+    public void accept(float value) {
+        add(value);
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        addAll(values, offset, length);
+    }
+
+    public void addAll(FloatColumn other) {
+        addAll(other.elements, 0, other.size);
+    }
+
+    public void clear() {
+        checkWritable();
+        size = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        checkWritable();
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Shrinks the backing array to the number of values held by the column.
+     */
+    public void trimToSize() {
+        checkWritable();
+        if (size < elements.length) {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * Returns a read-only view sharing the storage of this column.
+     * The view covers the values present at the time it was created.
+     */
+    public FloatColumn asReadOnly() {
+        return readOnly ? this : new FloatColumn(elements, size, true);
+    }
+
+    /**
+     * Gives direct access to the backing array for bulk kernels.
+     * Only the first size() values are valid and callers must treat the array as read-only.
+     */
+    public float[] elements() {
+        return elements;
+    }
+
+    public float[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Adapter for the List based API, boxes every value.
+     */
+    public List<Float> toList() {
+        List<Float> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(elements[i]);
+        }
+        return list;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FloatColumn)) {
+            return false;
+        }
+        FloatColumn other = (FloatColumn) o;
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Float.floatToIntBits(elements[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FloatColumn[size=" + size + "]";
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Required column capacity " + minCapacity + " is too large");
+        }
+        int newCapacity = elements.length + (elements.length >> 1);
+        if (newCapacity < minCapacity || newCapacity < 0) {
+            newCapacity = Math.max(minCapacity, DEFAULT_CAPACITY);
+        }
+        if (newCapacity > MAX_CAPACITY) {
+            newCapacity = MAX_CAPACITY;
+        }
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Column is read-only");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package features.data;
+
+/**
+ * Receiver of float values pushed by the input readers as they are parsed,
+ * e.g. a {@link FloatColumn} collecting them or an accumulator aggregating them on the fly.
+ */
+public interface FloatSink {
+
+    void accept(float value);
+
+    /**
+     * Accepts a block of values. Implementations should override it with a bulk operation,
+     * readers push blocks through a {@link FloatSinkBuffer} rather than single values.
+     */
+    default void accept(float[] values, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(values[i]);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package features.data;
+
+/**
+ * Collects single values into a reusable block and pushes full blocks to the target sink,
+ * so the target is called once per block instead of once per value.
+ * {@link #flush()} has to be called after the last value.
+ */
+public final class FloatSinkBuffer implements FloatSink {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final FloatSink target;
+    private final float[] block;
+    private int size;
+    private long count;
+
+    public FloatSinkBuffer(FloatSink target) {
+        this(target, DEFAULT_BLOCK_SIZE);
+    }
+
+    public FloatSinkBuffer(FloatSink target, int blockSize) {
+        this.target = target;
+        this.block = new float[blockSize];
+    }
+
+    @Override
+    public void accept(float value) {
+        block[size++] = value;
+        if (size == block.length) {
+            flush();
+        }
+    }
+
+    @Override
+    public void accept(float[] values, int offset, int length) {
+        flush();
+        target.accept(values, offset, length);
+        count += length;
+    }
+
+    /**
+     * Pushes the values collected so far to the target sink.
+     */
+    public void flush() {
+        if (size > 0) {
+            target.accept(block, 0, size);
+            count += size;
+            size = 0;
+        }
+    }
+
+    /**
+     * @return the number of values accepted so far, including the ones not flushed yet
+     */
+    public long getCount() {
+        return count + size;
+    }
+}
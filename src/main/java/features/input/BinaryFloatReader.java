@@ -0,0 +1,129 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.BinaryFloatFormat;
+import features.data.FloatSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file of the binary format described by {@link BinaryFloatFormat}. The values are memory mapped
+ * in chunks and copied in bulk through a {@link FloatBuffer} view in the byte order of the file,
+ * there is nothing to parse, so reading is bound by the disk rather than the processor.
+ * A compressed file is read from its decompressed stream instead.
+ */
+final class BinaryFloatReader {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+    // a multiple of the value size, so no value is split between two mappings
+    private static final long MAX_MAPPING_SIZE = 64L * 1024 * 1024;
+    private static final Logger logger = LoggerFactory.getLogger(BinaryFloatReader.class);
+
+    private final Path file;
+
+    /**
+     * Constructor
+     * @param file binary float file
+     */
+    BinaryFloatReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the file and pushes its values to the sink in blocks of up to {@link #BLOCK_SIZE} values.
+     *
+     * @return the number of values read
+     * @throws ReadErrorException with code 4 if the header is invalid or the size of the file
+     * does not match the number of values of the header, with code 2 if it cannot be read
+     */
+    long readInto(FloatSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(BinaryFloatFormat.HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            BinaryFloatFormat format = BinaryFloatFormat.read(header);
+            long size = channel.size();
+            if (size != format.fileSize()) {
+                throw new ReadErrorException("Format Error: the header of " + file + " declares " + format.getCount()
+                        + " values but the file has " + (size - BinaryFloatFormat.HEADER_SIZE) + " bytes of values", 4);
+            }
+            logger.info("Reading {} {} values of {}", format.getCount(), format.getOrder(), file);
+
+            float[] block = new float[(int) Math.min(BLOCK_SIZE, Math.max(1, format.getCount()))];
+            for (long position = BinaryFloatFormat.HEADER_SIZE; position < size; position += MAX_MAPPING_SIZE) {
+                FloatBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAX_MAPPING_SIZE, size - position)).order(format.getOrder()).asFloatBuffer();
+                while (values.hasRemaining()) {
+                    int length = Math.min(block.length, values.remaining());
+                    values.get(block, 0, length);
+                    sink.accept(block, 0, length);
+                }
+            }
+            return format.getCount();
+        }
+    }
+
+    /**
+     * Reads the content of a binary float file from a stream, e.g. the decompressed content of a compressed file
+     * or a download, and pushes its values to the sink in blocks of up to {@link #BLOCK_SIZE} values.
+     *
+     * @param source name of the file or the download in the messages
+     * @return the number of values read
+     * @throws ReadErrorException with code 4 if the header is invalid or the stream does not contain
+     * the number of values of the header
+     */
+    static long readInto(InputStream in, String source, FloatSink sink) throws IOException {
+        byte[] bytes = new byte[BLOCK_SIZE * Float.BYTES];
+        int length = readFully(in, bytes, 0, BinaryFloatFormat.HEADER_SIZE);
+        BinaryFloatFormat format = BinaryFloatFormat.read(ByteBuffer.wrap(bytes, 0, length));
+        logger.info("Reading {} {} values of {}", format.getCount(), format.getOrder(), source);
+
+        float[] block = new float[BLOCK_SIZE];
+        long count = 0;
+        int kept = 0;
+        while (true) {
+            length = kept + readFully(in, bytes, kept, bytes.length - kept);
+            int values = length / Float.BYTES;
+            ByteBuffer.wrap(bytes, 0, values * Float.BYTES).order(format.getOrder()).asFloatBuffer().get(block, 0, values);
+            count += values;
+            if (count > format.getCount()) {
+                break;
+            }
+            sink.accept(block, 0, values);
+            // a value split between two reads
+            kept = length - values * Float.BYTES;
+            System.arraycopy(bytes, values * Float.BYTES, bytes, 0, kept);
+            if (length < bytes.length) {
+                break;
+            }
+        }
+        if (count != format.getCount() || kept != 0) {
+            throw new ReadErrorException("Format Error: the header of " + source + " declares " + format.getCount()
+                    + " values but the content has " + (count * Float.BYTES + kept) + " bytes of values", 4);
+        }
+        return count;
+    }
+
+    private static int readFully(InputStream in, byte[] bytes, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(bytes, offset + read, length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+}
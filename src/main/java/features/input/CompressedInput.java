@@ -0,0 +1,117 @@
+package features.input;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Opens input files and streams which may be compressed with gzip or zlib, recognized by their first bytes
+ * whatever their extension, and decompresses them with the inflater of the JDK while they are read.
+ */
+public final class CompressedInput {
+
+    /**
+     * Extensions of compressed files, a directory of csv files also stands for its .csv.gz and .csv.zz files
+     */
+    static final String[] EXTENSIONS = {".gz", ".zz"};
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * @return true if the file starts with the magic bytes of gzip or the header of zlib
+     */
+    public static boolean isCompressed(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            int first = in.read();
+            int second = in.read();
+            return isGzip(first, second) || isZlib(first, second);
+        }
+    }
+
+    /**
+     * Opens the file for reading its decompressed content if it is compressed, or its plain content otherwise.
+     *
+     * @param pipelined if true the file is decompressed on its own thread, see {@link PipelinedInputStream},
+     *                  otherwise on the thread reading the stream
+     */
+    static InputStream open(Path file, boolean pipelined) throws IOException {
+        return open(file, pipelined, false);
+    }
+
+    /**
+     * Opens the file for reading its decompressed content if it is compressed, or its plain content otherwise.
+     *
+     * @param pipelined if true the file is decompressed on its own thread, see {@link PipelinedInputStream},
+     *                  otherwise on the thread reading the stream
+     * @param readAhead if true the plain content is read on its own thread too, ahead of the thread parsing it
+     */
+    static InputStream open(Path file, boolean pipelined, boolean readAhead) throws IOException {
+        return decompress(Files.newInputStream(file), pipelined, readAhead, file.getFileName().toString());
+    }
+
+    /**
+     * Wraps the stream for reading its decompressed content if it starts like a compressed stream,
+     * the stream is closed if that fails.
+     *
+     * @param pipelined if true the content is decompressed on its own thread, see {@link PipelinedInputStream},
+     *                  otherwise on the thread reading the stream
+     * @param readAhead if true the plain content is read on its own thread too, ahead of the thread parsing it,
+     *                  and a compressed one is decompressed on its own thread
+     * @param name name of the input, the decompressing thread is called "inflater-" and the reading one
+     *             "reader-" followed by it
+     */
+    static InputStream decompress(InputStream stream, boolean pipelined, boolean readAhead, String name)
+            throws IOException {
+        InputStream in = new BufferedInputStream(stream, BUFFER_SIZE);
+        InputStream decompressed;
+        try {
+            in.mark(2);
+            int first = in.read();
+            int second = in.read();
+            in.reset();
+            if (isGzip(first, second)) {
+                // reads concatenated gzip members too, like gunzip
+                decompressed = new GZIPInputStream(in, BUFFER_SIZE);
+            } else if (isZlib(first, second)) {
+                Inflater inflater = new Inflater();
+                decompressed = new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        // an inflater passed to the stream is not released by it
+                        try {
+                            super.close();
+                        } finally {
+                            inflater.end();
+                        }
+                    }
+                };
+            } else {
+                return readAhead ? new PipelinedInputStream(in, "reader-" + name) : in;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return pipelined || readAhead ? new PipelinedInputStream(decompressed, "inflater-" + name) : decompressed;
+    }
+
+    private static boolean isGzip(int first, int second) {
+        return first == 0x1f && second == 0x8b;
+    }
+
+    /**
+     * A zlib header with the default window size, which no csv or json number starts with,
+     * and the check bits of the second byte.
+     */
+    private static boolean isZlib(int first, int second) {
+        return first == 0x78 && second >= 0 && ((first << 8) | second) % 31 == 0;
+    }
+}
@@ -0,0 +1,147 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Selection of the columns of a csv input, by the names of a header line or by their position counted from 1,
+ * e.g. "price,quantity" or "3,7". The values of the other columns are skipped by the parser without converting them.
+ * A selector which is the name of a header column selects it, otherwise it has to be a position.
+ * Without selectors every column is selected, e.g. to skip only the header line.
+ */
+public final class CsvColumns {
+
+    private final boolean header;
+    private final List<String> selectors;
+
+    /**
+     * Constructor
+     * @param header true if the first line of the input holds the names of the columns
+     * @param selectors names or positions of the selected columns, in the order of their results,
+     *                  empty for all columns
+     */
+    public CsvColumns(boolean header, List<String> selectors) {
+        this.header = header;
+        this.selectors = Collections.unmodifiableList(new ArrayList<>(selectors));
+    }
+
+    /**
+     * @param selection comma separated names or positions of the columns, empty for all columns,
+     *                  a name in double quotes may contain commas
+     * @param header true if the first line of the input holds the names of the columns
+     * @throws IllegalArgumentException if a selector is empty or given twice
+     */
+    public static CsvColumns parse(String selection, boolean header) {
+        List<String> selectors = new ArrayList<>();
+        if (!selection.trim().isEmpty()) {
+            for (String selector : splitSelection(selection)) {
+                String trimmed = selector.trim();
+                if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                    trimmed = trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"");
+                }
+                if (trimmed.isEmpty() || selectors.contains(trimmed)) {
+                    throw new IllegalArgumentException("Empty or repeated column in the selection: " + selection);
+                }
+                selectors.add(trimmed);
+            }
+        }
+        return new CsvColumns(header, selectors);
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    /**
+     * @return the names or positions of the selected columns, empty for all columns
+     */
+    public List<String> getSelectors() {
+        return selectors;
+    }
+
+    /**
+     * Finds the selected columns.
+     *
+     * @param names names of the header line, null if the input has none
+     * @param columnCount number of columns of the first line
+     * @return the positions of the selected columns from 0, in the order of the selectors
+     * @throws ReadErrorException with code 4 if a column is not found or selected twice
+     */
+    int[] resolve(List<String> names, int columnCount) throws ReadErrorException {
+        if (selectors.isEmpty()) {
+            int[] all = new int[columnCount];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] indexes = new int[selectors.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            String selector = selectors.get(i);
+            int index = names == null ? -1 : names.indexOf(selector);
+            if (index < 0) {
+                index = position(selector) - 1;
+            }
+            if (index < 0 || index >= columnCount) {
+                throw new ReadErrorException("Format Error: no column " + selector + " in "
+                        + (names == null ? columnCount + " columns" : "the header " + String.join(",", names)), 4);
+            }
+            for (int j = 0; j < i; j++) {
+                if (indexes[j] == index) {
+                    throw new ReadErrorException("Format Error: column " + selector + " is selected twice", 4);
+                }
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * @return the names of the selected columns, their header names or else their selectors
+     */
+    List<String> names(List<String> headerNames, int[] indexes) {
+        List<String> names = new ArrayList<>(indexes.length);
+        for (int i = 0; i < indexes.length; i++) {
+            if (headerNames != null) {
+                names.add(headerNames.get(indexes[i]));
+            } else {
+                names.add(selectors.isEmpty() ? String.valueOf(indexes[i] + 1) : selectors.get(i));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Splits the selection at the commas outside of double quotes, so "\"price, net\",qty" selects two columns.
+     */
+    private static List<String> splitSelection(String selection) {
+        List<String> parts = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < selection.length(); i++) {
+            char c = selection.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                parts.add(selection.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(selection.substring(start));
+        return parts;
+    }
+
+    private static int position(String selector) {
+        try {
+            return Integer.parseInt(selector);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (selectors.isEmpty() ? "all columns" : String.join(",", selectors)) + (header ? " with header" : "");
+    }
+}
@@ -0,0 +1,793 @@
+package features.input;
+
+import exceptions.InvalidNumberFormatException;
+import exceptions.ReadErrorException;
+import features.data.FloatSink;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses comma separated float values straight from the bytes of the input, without creating a String per line
+ * or per value. Follows the rules of the line based reader it replaces: lines end with \n, \r or \r\n, values are
+ * trimmed, empty values are skipped, the first line must not be blank, and every line must have as many columns
+ * as the first one, counted like {@link String#split(String)} counts them, so trailing empty columns are ignored.
+ * <p>
+ * Plain decimal numbers are converted with a fast path which gives the same result as {@link Float#parseFloat(String)}.
+ * Everything else, e.g. NaN, Infinity, hexadecimal numbers, more than 18 digits or values which would be rounded
+ * twice, falls back to {@link Float#parseFloat(String)}.
+ * <p>
+ * In the lenient mode, with {@link ParseErrors}, an invalid value is recorded with its position and skipped
+ * or read as NaN. Only the values which are not plain decimal numbers are validated, without an exception.
+ * <p>
+ * With a selection of {@link CsvColumns}, the values of every selected column are pushed to a sink of their own,
+ * and the other columns are only scanned for the next delimiter, their values are neither converted nor validated.
+ * A header line is not parsed as values but names the columns.
+ */
+final class CsvFloatParser {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // bits of a double which are cut off when it is rounded to a float, and their value in the middle of two floats
+    private static final long FLOAT_ROUNDING_BITS = (1L << 29) - 1;
+    private static final long FLOAT_MIDPOINT = 1L << 28;
+    // the bytes of the input read as little endian words, so the first byte is the lowest
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long COMMAS = 0x2C2C2C2C2C2C2C2CL;
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+
+    private final FloatSink sink;
+    private final ParseErrors errors;
+    // selected columns and their sinks, in the order of the selection, resolved with the first line
+    private final CsvColumns selection;
+    private final FloatSink[] selectionSinks;
+    // sink of every column by its position, null for the skipped columns, or null for all columns to the sink
+    private FloatSink[] columnSinks;
+    private int[] columnIndexes;
+    private List<String> columnNames;
+    // number of delimiters found by the last skipColumns
+    private int skippedCommas;
+    private byte[] buffer;
+    // position in the input of the first byte of the buffer, or of the bytes passed to parseLines
+    private long offset;
+    private int lineStart;
+    private long lineNumber;
+    private int columnCount = -1;
+    private boolean lastFieldBlank;
+
+    /**
+     * Constructor
+     * @param sink receiver of the parsed values
+     */
+    CsvFloatParser(FloatSink sink) {
+        this(sink, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param sink receiver of the parsed values
+     * @param bufferSize initial size of the read buffer, it grows for lines which do not fit
+     */
+    CsvFloatParser(FloatSink sink, int bufferSize) {
+        this(sink, bufferSize, -1);
+    }
+
+    /**
+     * Constructor for a part of the input which does not start with the first line
+     * @param sink receiver of the parsed values
+     * @param bufferSize initial size of the read buffer, it grows for lines which do not fit
+     * @param columnCount number of columns of the first line of the input, -1 if the part starts with the first line
+     */
+    CsvFloatParser(FloatSink sink, int bufferSize, int columnCount) {
+        this(sink, bufferSize, columnCount, null);
+    }
+
+    /**
+     * Constructor
+     * @param sink receiver of the parsed values
+     * @param bufferSize initial size of the read buffer, it grows for lines which do not fit
+     * @param columnCount number of columns of the first line of the input, -1 if the part starts with the first line
+     * @param errors error budget of the lenient mode, null to throw an exception for the first invalid value
+     */
+    CsvFloatParser(FloatSink sink, int bufferSize, int columnCount, ParseErrors errors) {
+        this(sink, null, null, bufferSize, columnCount, errors);
+    }
+
+    /**
+     * Constructor for selected columns of the whole input, which are resolved with its first line
+     * @param sinks receiver of the values of every selected column, in the order of the selection,
+     *              the same sink may receive several columns, a single sink receives all of them
+     * @param selection selected columns, the first line is skipped if it is a header
+     * @param bufferSize initial size of the read buffer, it grows for lines which do not fit
+     * @param errors error budget of the lenient mode, null to throw an exception for the first invalid value
+     */
+    CsvFloatParser(FloatSink[] sinks, CsvColumns selection, int bufferSize, ParseErrors errors) {
+        this(null, selection, sinks, bufferSize, -1, errors);
+    }
+
+    /**
+     * Constructor for selected columns of a part of the input which does not start with the first line
+     * @param sinks receiver of the values of every selected column, in the order of the indexes,
+     *              a single sink receives all of them
+     * @param indexes positions of the selected columns from 0
+     * @param bufferSize initial size of the read buffer, it grows for lines which do not fit
+     * @param columnCount number of columns of the first line of the input
+     * @param errors error budget of the lenient mode, null to throw an exception for the first invalid value
+     */
+    CsvFloatParser(FloatSink[] sinks, int[] indexes, int bufferSize, int columnCount, ParseErrors errors) {
+        this(null, null, sinks, bufferSize, columnCount, errors);
+        route(indexes);
+    }
+
+    private CsvFloatParser(FloatSink sink, CsvColumns selection, FloatSink[] selectionSinks, int bufferSize,
+                           int columnCount, ParseErrors errors) {
+        this.sink = sink;
+        this.selection = selection;
+        this.selectionSinks = selectionSinks;
+        this.errors = errors;
+        this.buffer = new byte[Math.max(2, bufferSize)];
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * @return the names of the selected columns, the names of the header or else the selectors,
+     * null if the first line was not parsed yet or there is no selection
+     */
+    List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * @return the positions of the selected columns from 0, in the order of the selection,
+     * null if the first line was not parsed yet or there is no selection
+     */
+    int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    /**
+     * @return the number of lines parsed so far
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the number of columns of the first line, or -1 if no line was parsed yet
+     */
+    int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Reads the whole stream through the reusable buffer and pushes every value to the sink.
+     *
+     * @throws ReadErrorException with code 1 if the first line is missing or blank,
+     * with code 4 if a line has a different number of columns than the first one
+     * @throws InvalidNumberFormatException with code 4 for a value which is not a number
+     */
+    void parse(InputStream in) throws IOException {
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, length, buffer.length - length);
+            boolean endOfInput = read < 0;
+            if (!endOfInput) {
+                length += read;
+            }
+            length = parseBuffer(length, endOfInput);
+            if (endOfInput) {
+                break;
+            }
+        }
+        if (lineNumber == 0) {
+            throw new ReadErrorException("Error: Input is empty", 1);
+        }
+    }
+
+    /**
+     * Parses the remaining bytes of the buffer, e.g. a memory mapped part of a file, copying them
+     * through the reusable buffer. The last line is complete at the end of the bytes even without a line end.
+     *
+     * @throws ReadErrorException with code 4 if a line has a different number of columns than the first one
+     * @throws InvalidNumberFormatException with code 4 for a value which is not a number
+     */
+    void parse(ByteBuffer in) throws ReadErrorException {
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = Math.min(in.remaining(), buffer.length - length);
+            in.get(buffer, length, read);
+            length += read;
+            boolean endOfInput = !in.hasRemaining();
+            length = parseBuffer(length, endOfInput);
+            if (endOfInput) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Parses the complete lines of the buffer and moves the incomplete last line to its start.
+     *
+     * @return the number of bytes left in the buffer
+     */
+    private int parseBuffer(int length, boolean endOfInput) throws ReadErrorException {
+        int consumed = parseLines(buffer, 0, length, endOfInput);
+        System.arraycopy(buffer, consumed, buffer, 0, length - consumed);
+        offset += consumed;
+        return length - consumed;
+    }
+
+    /**
+     * The error of a line with a different number of columns than the first line.
+     */
+    static ReadErrorException inconsistentColumns(long lineNumber) {
+        return new ReadErrorException("Format Error: Inconsistent number of columns at line " + lineNumber, 4);
+    }
+
+    /**
+     * Parses the complete lines of the range.
+     *
+     * @param endOfInput true if nothing follows the range, so its last line is complete even without a line end
+     * @return the position after the last parsed line
+     */
+    int parseLines(byte[] bytes, int from, int to, boolean endOfInput) throws ReadErrorException {
+        int limit = endOfInput ? to : completeLinesEnd(bytes, from, to);
+        int position = from;
+        while (position < limit) {
+            position = parseLine(bytes, position, limit);
+        }
+        return limit;
+    }
+
+    /**
+     * @return the position after the last line end of the range, a \r at the very end is not counted
+     * because the \n of a \r\n line end may still follow
+     */
+    private static int completeLinesEnd(byte[] bytes, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes[i] == '\n' || bytes[i] == '\r' && i + 1 < to) {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Parses one line in a single pass over its bytes, converting the values while looking for the delimiters.
+     *
+     * @return the position after the line end
+     */
+    private int parseLine(byte[] bytes, int from, int limit) throws ReadErrorException {
+        if (selection != null && columnSinks == null) {
+            if (selection.hasHeader()) {
+                return parseHeader(bytes, from, limit);
+            }
+            // the positions are checked against the number of columns of the first line
+            int count = countColumns(bytes, from, limit);
+            int[] indexes = selection.resolve(null, count);
+            route(indexes);
+            columnNames = selection.names(null, indexes);
+        }
+        lineNumber++;
+        lineStart = from;
+        int columns = 0;
+        int nonEmptyColumns = 0;
+        boolean blank = true;
+        int position = from;
+        FloatSink[] sinks = columnSinks;
+        while (true) {
+            int end;
+            if (sinks == null) {
+                end = parseField(bytes, position, limit, sink);
+            } else if (columns < sinks.length) {
+                FloatSink target = sinks[columns];
+                end = target == null ? skipField(bytes, position, limit) : parseField(bytes, position, limit, target);
+            } else {
+                // no later column is selected, only their delimiters are counted, eight bytes at a time
+                int lineEnd = skipColumns(bytes, position, limit);
+                int trailingEnd = lineEnd;
+                while (trailingEnd > position && bytes[trailingEnd - 1] == ',') {
+                    trailingEnd--;
+                }
+                if (trailingEnd > position) {
+                    nonEmptyColumns = columns + skippedCommas - (lineEnd - trailingEnd) + 1;
+                }
+                columns += skippedCommas + 1;
+                lastFieldBlank = lineEnd == trailingEnd && trailingEnd == position;
+                position = lineEnd;
+                break;
+            }
+            columns++;
+            if (end > position) {
+                nonEmptyColumns = columns;
+            }
+            if (end == limit || bytes[end] != ',') {
+                position = end;
+                break;
+            }
+            blank = false;
+            position = end + 1;
+        }
+        if (columnCount < 0 && blank && lastFieldBlank) {
+            throw new ReadErrorException("Error: Input is empty", 1);
+        }
+        // String.split drops the trailing empty columns, but keeps an empty line as one column
+        int splitColumns = position == from ? 1 : nonEmptyColumns;
+        if (columnCount < 0) {
+            columnCount = splitColumns;
+        } else if (splitColumns != columnCount) {
+            throw inconsistentColumns(lineNumber);
+        }
+        return skipLineEnd(bytes, position, limit);
+    }
+
+    private static int skipLineEnd(byte[] bytes, int position, int limit) {
+        if (position < limit) {
+            position += bytes[position] == '\r' && position + 1 < limit && bytes[position + 1] == '\n' ? 2 : 1;
+        }
+        return position;
+    }
+
+    /**
+     * Reads the names of the header line and resolves the selected columns with them. A name in double quotes
+     * may contain commas and quotes doubled like "price, ""net""".
+     * The header counts as a line, but its number of columns is the one every line has to have.
+     *
+     * @return the position after the line end
+     */
+    private int parseHeader(byte[] bytes, int from, int limit) throws ReadErrorException {
+        lineNumber++;
+        lineStart = from;
+        List<String> names = new ArrayList<>();
+        int position = from;
+        while (true) {
+            int end = skipQuoted(bytes, position, limit);
+            while (end < limit && !isDelimiter(bytes[end])) {
+                end++;
+            }
+            names.add(unquote(new String(bytes, position, end - position, StandardCharsets.UTF_8).trim()));
+            position = end;
+            if (end == limit || bytes[end] != ',') {
+                break;
+            }
+            position++;
+        }
+        // the trailing empty columns are not counted, like in the other lines
+        int count = names.size();
+        while (count > 1 && names.get(count - 1).isEmpty()) {
+            count--;
+        }
+        if (count == 1 && names.get(0).isEmpty()) {
+            throw new ReadErrorException("Error: Input is empty", 1);
+        }
+        List<String> headerNames = new ArrayList<>(names.subList(0, count));
+        columnCount = count;
+        int[] indexes = selection.resolve(headerNames, count);
+        route(indexes);
+        columnNames = selection.names(headerNames, indexes);
+        return skipLineEnd(bytes, position, limit);
+    }
+
+    /**
+     * @return the position after the closing quote if the field starts with a quote after blanks, else the position
+     */
+    private static int skipQuoted(byte[] bytes, int position, int limit) {
+        int start = position;
+        while (start < limit && (bytes[start] == ' ' || bytes[start] == '\t')) {
+            start++;
+        }
+        if (start == limit || bytes[start] != '"') {
+            return position;
+        }
+        int end = start + 1;
+        while (end < limit) {
+            if (bytes[end] == '"') {
+                if (end + 1 < limit && bytes[end + 1] == '"') {
+                    end += 2;
+                    continue;
+                }
+                return end + 1;
+            }
+            end++;
+        }
+        // not closed, read up to the next delimiter like an unquoted name
+        return position;
+    }
+
+    private static String unquote(String name) {
+        if (name.length() >= 2 && name.charAt(0) == '"' && name.charAt(name.length() - 1) == '"') {
+            return name.substring(1, name.length() - 1).replace("\"\"", "\"");
+        }
+        return name;
+    }
+
+    /**
+     * @return the number of columns of the line, counted like {@link #parseLine} counts them
+     */
+    private static int countColumns(byte[] bytes, int from, int limit) {
+        int columns = 0;
+        int nonEmptyColumns = 0;
+        int position = from;
+        while (true) {
+            int end = position;
+            while (end < limit && !isDelimiter(bytes[end])) {
+                end++;
+            }
+            columns++;
+            if (end > position) {
+                nonEmptyColumns = columns;
+            }
+            if (end == limit || bytes[end] != ',') {
+                return end == from ? 1 : nonEmptyColumns;
+            }
+            position = end + 1;
+        }
+    }
+
+    /**
+     * Routes the values of the selected columns to their sinks and skips the other columns.
+     */
+    private void route(int[] indexes) {
+        int width = 0;
+        for (int index : indexes) {
+            width = Math.max(width, index + 1);
+        }
+        columnIndexes = indexes;
+        columnSinks = new FloatSink[width];
+        for (int i = 0; i < indexes.length; i++) {
+            columnSinks[indexes[i]] = selectionSinks[selectionSinks.length == 1 ? 0 : i];
+        }
+    }
+
+    /**
+     * Finds the end of a field of a column which is not selected, without looking at its value.
+     *
+     * @return the position of the delimiter or line end after the field
+     */
+    private int skipField(byte[] bytes, int from, int limit) {
+        int position = from;
+        while (position + Long.BYTES <= limit) {
+            long word = (long) LONGS.get(bytes, position);
+            long delimiters = equalBytes(word, COMMAS) | equalBytes(word, NEWLINES) | equalBytes(word, RETURNS);
+            if (delimiters != 0) {
+                position += Long.numberOfTrailingZeros(delimiters) >>> 3;
+                break;
+            }
+            position += Long.BYTES;
+        }
+        while (position < limit && !isDelimiter(bytes[position])) {
+            position++;
+        }
+        // only the first line is checked for being blank
+        lastFieldBlank = columnCount < 0 && isBlank(bytes, from, position);
+        return position;
+    }
+
+    /**
+     * Finds the end of the line without looking at the values, counting the delimiters of its columns
+     * into {@link #skippedCommas}.
+     *
+     * @return the position of the line end
+     */
+    private int skipColumns(byte[] bytes, int from, int limit) {
+        int position = from;
+        int commas = 0;
+        while (position + Long.BYTES <= limit) {
+            long word = (long) LONGS.get(bytes, position);
+            long commaBytes = equalBytes(word, COMMAS);
+            long lineEnds = equalBytes(word, NEWLINES) | equalBytes(word, RETURNS);
+            if (lineEnds != 0) {
+                int lineEnd = Long.numberOfTrailingZeros(lineEnds);
+                // the flags of the bytes before the line end
+                commas += Long.bitCount(commaBytes & ((1L << lineEnd) - 1));
+                skippedCommas = commas;
+                return position + (lineEnd >>> 3);
+            }
+            commas += Long.bitCount(commaBytes);
+            position += Long.BYTES;
+        }
+        byte b;
+        while (position < limit && (b = bytes[position]) != '\n' && b != '\r') {
+            if (b == ',') {
+                commas++;
+            }
+            position++;
+        }
+        skippedCommas = commas;
+        return position;
+    }
+
+    /**
+     * @return the highest bit of every byte of the word which equals the byte repeated in the pattern
+     */
+    private static long equalBytes(long word, long pattern) {
+        long x = word ^ pattern;
+        // exact for every byte, unlike the shorter (x - 0x01..) & ~x & 0x80.. which may flag the byte after a match
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((bytes[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the field starting at the position and pushes its value to the sink, unless it is blank.
+     * Plain decimal numbers are converted while they are scanned, anything else by {@link #parseFloat}.
+     *
+     * @return the position of the delimiter or line end after the field
+     */
+    private int parseField(byte[] bytes, int from, int limit, FloatSink sink) throws ReadErrorException {
+        int valueStart = skipSpaces(bytes, from, limit);
+        int position = valueStart;
+        boolean negative = false;
+        if (position < limit && (bytes[position] == '-' || bytes[position] == '+')) {
+            negative = bytes[position] == '-';
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        byte b;
+        while (position < limit && isDigit(b = bytes[position])) {
+            mantissa = mantissa * 10 + (b - '0');
+            digits++;
+            position++;
+        }
+        if (position < limit && bytes[position] == '.') {
+            int fractionStart = ++position;
+            while (position < limit && isDigit(b = bytes[position])) {
+                mantissa = mantissa * 10 + (b - '0');
+                position++;
+            }
+            exponent = fractionStart - position;
+            digits -= exponent;
+        }
+        int valueEnd = position;
+        position = skipSpaces(bytes, position, limit);
+        if (position == limit || isDelimiter(bytes[position])) {
+            lastFieldBlank = valueEnd == valueStart;
+            if (digits > 0 && digits <= MAX_FAST_DIGITS) {
+                sink.accept(toFloat(negative, mantissa, exponent, bytes, valueStart, valueEnd));
+            } else if (!lastFieldBlank) {
+                acceptValue(bytes, valueStart, valueEnd, sink);
+            }
+            return position;
+        }
+        // not a plain decimal number, e.g. with an exponent: find the end of the field and convert it the exact way
+        while (position < limit && !isDelimiter(bytes[position])) {
+            position++;
+        }
+        lastFieldBlank = false;
+        int trimmedEnd = position;
+        while ((bytes[trimmedEnd - 1] & 0xFF) <= ' ') {
+            trimmedEnd--;
+        }
+        acceptValue(bytes, valueStart, trimmedEnd, sink);
+        return position;
+    }
+
+    /**
+     * Converts a value which is not a plain decimal number, which is validated first in the lenient mode.
+     */
+    private void acceptValue(byte[] bytes, int from, int to, FloatSink sink) throws ReadErrorException {
+        if (errors != null && !isFloatLiteral(bytes, from, to)) {
+            String token = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            errors.add(lineNumber, from - lineStart + 1, offset + from, token);
+            if (errors.getAction() == ParseErrors.Action.NAN) {
+                sink.accept(Float.NaN);
+            }
+            return;
+        }
+        sink.accept(parseFloat(bytes, from, to));
+    }
+
+    /**
+     * Checks the syntax of {@link Float#parseFloat(String)} without converting the value: an optional sign,
+     * NaN, Infinity, a decimal number with an optional exponent or a hexadecimal number with a binary exponent,
+     * optionally followed by f, F, d or D, with leading and trailing blanks.
+     */
+    static boolean isFloatLiteral(byte[] bytes, int from, int to) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (bytes[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        int position = from;
+        if (position < to && (bytes[position] == '-' || bytes[position] == '+')) {
+            position++;
+        }
+        if (equalsAscii(bytes, position, to, "NaN") || equalsAscii(bytes, position, to, "Infinity")) {
+            return true;
+        }
+        boolean hexadecimal = to - position > 2 && bytes[position] == '0'
+                && (bytes[position + 1] == 'x' || bytes[position + 1] == 'X');
+        if (hexadecimal) {
+            position += 2;
+        }
+        int digits = 0;
+        while (position < to && isDigit(bytes[position], hexadecimal)) {
+            position++;
+            digits++;
+        }
+        if (position < to && bytes[position] == '.') {
+            position++;
+            while (position < to && isDigit(bytes[position], hexadecimal)) {
+                position++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        boolean exponent = position < to && (hexadecimal
+                ? bytes[position] == 'p' || bytes[position] == 'P'
+                : bytes[position] == 'e' || bytes[position] == 'E');
+        if (exponent) {
+            position++;
+            if (position < to && (bytes[position] == '-' || bytes[position] == '+')) {
+                position++;
+            }
+            int exponentStart = position;
+            while (position < to && isDigit(bytes[position])) {
+                position++;
+            }
+            if (position == exponentStart) {
+                return false;
+            }
+        } else if (hexadecimal) {
+            // the binary exponent of a hexadecimal number is required
+            return false;
+        }
+        if (position < to && (bytes[position] == 'f' || bytes[position] == 'F'
+                || bytes[position] == 'd' || bytes[position] == 'D')) {
+            position++;
+        }
+        return position == to;
+    }
+
+    private static boolean equalsAscii(byte[] bytes, int from, int to, String text) {
+        if (to - from != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[from + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte b, boolean hexadecimal) {
+        return isDigit(b) || hexadecimal && (b >= 'a' && b <= 'f' || b >= 'A' && b <= 'F');
+    }
+
+    /**
+     * Converts the trimmed bytes of one value, the same as {@link Float#parseFloat(String)} would.
+     */
+    static float parseFloat(byte[] bytes, int from, int to) {
+        int position = from;
+        boolean negative = false;
+        if (position < to && (bytes[position] == '-' || bytes[position] == '+')) {
+            negative = bytes[position] == '-';
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        for (; position < to && isDigit(bytes[position]); position++) {
+            // leading zeros do not count against the digits of the mantissa
+            if (mantissa != 0 || bytes[position] != '0') {
+                mantissa = mantissa * 10 + (bytes[position] - '0');
+                digits++;
+            }
+        }
+        boolean anyDigit = position > from && isDigit(bytes[position - 1]);
+        if (position < to && bytes[position] == '.') {
+            for (position++; position < to && isDigit(bytes[position]); position++) {
+                anyDigit = true;
+                exponent--;
+                if (mantissa != 0 || bytes[position] != '0') {
+                    mantissa = mantissa * 10 + (bytes[position] - '0');
+                    digits++;
+                }
+            }
+        }
+        if (anyDigit && position < to && (bytes[position] == 'e' || bytes[position] == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < to && (bytes[position] == '-' || bytes[position] == '+')) {
+                negativeExponent = bytes[position] == '-';
+                position++;
+            }
+            int explicitExponent = 0;
+            int exponentStart = position;
+            for (; position < to && isDigit(bytes[position]) && explicitExponent < 10000; position++) {
+                explicitExponent = explicitExponent * 10 + (bytes[position] - '0');
+            }
+            if (position == exponentStart) {
+                return parseFloatFallback(bytes, from, to);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (!anyDigit || position != to || digits > MAX_FAST_DIGITS) {
+            return parseFloatFallback(bytes, from, to);
+        }
+        return toFloat(negative, mantissa, exponent, bytes, from, to);
+    }
+
+    /**
+     * Converts mantissa * 10^exponent to the nearest float, falling back to {@link Float#parseFloat(String)}
+     * of the bytes when the fast conversion could be off by one.
+     */
+    private static float toFloat(boolean negative, long mantissa, int exponent, byte[] bytes, int from, int to) {
+        if (mantissa == 0) {
+            return negative ? -0f : 0f;
+        }
+        if (exponent < -22 || exponent > 22 || mantissa > (1L << 53)) {
+            return parseFloatFallback(bytes, from, to);
+        }
+        // both operands are exact doubles, so the double result is correctly rounded
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        // rounding the double to a float again is only wrong if it lies exactly in the middle of two floats,
+        // or in the range of the subnormal floats which are rounded at a different bit
+        if (value < Float.MIN_NORMAL || value > Float.MAX_VALUE
+                || (Double.doubleToRawLongBits(value) & FLOAT_ROUNDING_BITS) == FLOAT_MIDPOINT) {
+            return parseFloatFallback(bytes, from, to);
+        }
+        return negative ? (float) -value : (float) value;
+    }
+
+    private static float parseFloatFallback(byte[] bytes, int from, int to) {
+        String value = new String(bytes, from, to - from, StandardCharsets.UTF_8).trim();
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidNumberFormatException("Invalid number format: " + value, e, 4);
+        }
+    }
+
+    /**
+     * Skips the characters {@link String#trim()} would remove, except the line ends.
+     */
+    private static int skipSpaces(byte[] bytes, int from, int limit) {
+        byte b;
+        while (from < limit && (b = bytes[from]) <= ' ' && b >= 0 && b != '\n' && b != '\r') {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,190 @@
+package features.input;
+
+import features.actions.RunningAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Progress of the incremental reading of a file: the offset after the last line read, what identifies the file,
+ * the reading settings and the state of the aggregate of the values read so far. It is stored as a properties file,
+ * which is replaced atomically, so a run killed while saving leaves the previous checkpoint.
+ * <p>
+ * The file is identified by its file key, e.g. the inode, which changes when the file is rotated by renaming it and
+ * creating a new one, and by a CRC32C of its first bytes, which changes when it is truncated and rewritten.
+ */
+final class FileCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileCheckpoint.class);
+    private static final String MATCH_PREFIX = "match.";
+
+    private final String fileKey;
+    private final String settings;
+    private final long offset;
+    private final int headLength;
+    private final long headCrc;
+    private final int columnCount;
+    private final int[] columnIndexes;
+    private final double sum;
+    private final float min;
+    private final float max;
+    private final long count;
+    private final Map<String, Long> matchCounts;
+
+    /**
+     * Constructor
+     * @param fileKey file key of the file, "null" if the file system has none
+     * @param settings format and columns the file was read with
+     * @param offset position after the last line read
+     * @param headLength number of the first bytes of the file in the CRC
+     * @param headCrc CRC32C of the first bytes of the file
+     * @param columnCount number of columns of the first line, -1 if no line was read
+     * @param columnIndexes positions of the selected columns, null for every column
+     * @param aggregate state of the values read up to the offset
+     */
+    FileCheckpoint(String fileKey, String settings, long offset, int headLength, long headCrc, int columnCount,
+                   int[] columnIndexes, RunningAggregate aggregate) {
+        this(fileKey, settings, offset, headLength, headCrc, columnCount, columnIndexes, aggregate.getSum(),
+                aggregate.getMin(), aggregate.getMax(), aggregate.getCount(), aggregate.getMatchCounts());
+    }
+
+    private FileCheckpoint(String fileKey, String settings, long offset, int headLength, long headCrc,
+                           int columnCount, int[] columnIndexes, double sum, float min, float max, long count,
+                           Map<String, Long> matchCounts) {
+        this.fileKey = fileKey;
+        this.settings = settings;
+        this.offset = offset;
+        this.headLength = headLength;
+        this.headCrc = headCrc;
+        this.columnCount = columnCount;
+        this.columnIndexes = columnIndexes;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.count = count;
+        this.matchCounts = matchCounts;
+    }
+
+    /**
+     * @return the checkpoint, null if there is none or it cannot be read, then the file is read from its start
+     */
+    static FileCheckpoint load(Path path) {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(path)) {
+            properties.load(input);
+            Map<String, Long> matchCounts = new LinkedHashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(MATCH_PREFIX)) {
+                    matchCounts.put(name.substring(MATCH_PREFIX.length()), Long.parseLong(properties.getProperty(name)));
+                }
+            }
+            String indexes = properties.getProperty("columnIndexes", "");
+            return new FileCheckpoint(
+                    required(properties, "fileKey"),
+                    required(properties, "settings"),
+                    Long.parseLong(required(properties, "offset")),
+                    Integer.parseInt(required(properties, "headLength")),
+                    Long.parseLong(required(properties, "headCrc"), 16),
+                    Integer.parseInt(required(properties, "columnCount")),
+                    indexes.isEmpty() ? null : Arrays.stream(indexes.split(",")).mapToInt(Integer::parseInt).toArray(),
+                    Double.parseDouble(required(properties, "sum")),
+                    Float.parseFloat(required(properties, "min")),
+                    Float.parseFloat(required(properties, "max")),
+                    Long.parseLong(required(properties, "count")),
+                    matchCounts);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Ignoring the unreadable checkpoint {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the checkpoint file.
+     */
+    void save(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fileKey", fileKey);
+        properties.setProperty("settings", settings);
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("headLength", Integer.toString(headLength));
+        properties.setProperty("headCrc", Long.toHexString(headCrc));
+        properties.setProperty("columnCount", Integer.toString(columnCount));
+        if (columnIndexes != null) {
+            properties.setProperty("columnIndexes", Arrays.toString(columnIndexes).replaceAll("[\\[\\] ]", ""));
+        }
+        // the decimal strings of Java read back to the same double and float values
+        properties.setProperty("sum", Double.toString(sum));
+        properties.setProperty("min", Float.toString(min));
+        properties.setProperty("max", Float.toString(max));
+        properties.setProperty("count", Long.toString(count));
+        for (Map.Entry<String, Long> matchCount : matchCounts.entrySet()) {
+            properties.setProperty(MATCH_PREFIX + matchCount.getKey(), Long.toString(matchCount.getValue()));
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "checkpoint", ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                properties.store(output, "Incremental reading checkpoint");
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @return true if the aggregate state was restored, false if it lacks a filter action of the aggregate
+     */
+    boolean restoreInto(RunningAggregate aggregate) {
+        return aggregate.restore(sum, min, max, count, matchCounts);
+    }
+
+    String getFileKey() {
+        return fileKey;
+    }
+
+    String getSettings() {
+        return settings;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    int getHeadLength() {
+        return headLength;
+    }
+
+    long getHeadCrc() {
+        return headCrc;
+    }
+
+    int getColumnCount() {
+        return columnCount;
+    }
+
+    int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    private static String required(Properties properties, String name) {
+        String value = properties.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + name);
+        }
+        return value;
+    }
+}
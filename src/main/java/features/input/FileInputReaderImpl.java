@@ -1,14 +1,16 @@
 package features.input;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
 import exceptions.InvalidNumberFormatException;
 import exceptions.ReadErrorException;
+import features.actions.ActionDefinition;
+import features.actions.AggregationResult;
+import features.actions.SampleEstimator;
+import features.data.FloatSink;
+import features.data.FloatSinkBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -20,89 +22,228 @@ public class FileInputReaderImpl implements InputReader {
     private static final Logger logger = LoggerFactory.getLogger(FileInputReaderImpl.class);
     private final String filePath;
     private final String format;
+    private final int threads;
+    private final ParseErrors errors;
+    private final CsvColumns columns;
+    private boolean readAhead;
 
     public FileInputReaderImpl(String filePath, String format) {
+        this(filePath, format, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor
+     * @param filePath path of the input file
+     * @param format csv, json or bin
+     * @param threads number of threads parsing a large csv file or inflating a compressed file,
+     *                1 to always read it sequentially
+     */
+    public FileInputReaderImpl(String filePath, String format, int threads) {
+        this(filePath, format, threads, null);
+    }
+
+    /**
+     * Constructor
+     * @param filePath path of the input file
+     * @param format csv, json or bin
+     * @param threads number of threads parsing a large csv file or inflating a compressed file,
+     *                1 to always read it sequentially
+     * @param errors error budget of the lenient mode, which skips invalid values or reads them as NaN,
+     *               null to fail on the first invalid value
+     */
+    public FileInputReaderImpl(String filePath, String format, int threads, ParseErrors errors) {
+        this(filePath, format, threads, errors, null);
+    }
+
+    /**
+     * Constructor
+     * @param filePath path of the input file
+     * @param format csv, json or bin
+     * @param threads number of threads parsing a large csv file or inflating a compressed file,
+     *                1 to always read it sequentially
+     * @param errors error budget of the lenient mode, which skips invalid values or reads them as NaN,
+     *               null to fail on the first invalid value
+     * @param columns header and selected columns of a csv file, the other columns are skipped without parsing them,
+     *                null to read every column
+     */
+    public FileInputReaderImpl(String filePath, String format, int threads, ParseErrors errors, CsvColumns columns) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
         this.filePath = filePath;
         this.format = format;
+        this.threads = threads;
+        this.errors = errors;
+        this.columns = columns;
     }
 
     /**
-     * Implementation of readInput method for reading input data from file
-     * returns it as a list of Float values.
+     * Reads the bytes of a plain csv or json file on a thread of their own, and inflates a compressed one on its own
+     * thread. A large csv file parsed in parallel is memory mapped instead, a plain bin file has nothing to parse.
      */
     @Override
-    public List<Float> readInput() throws ReadErrorException {
+    public void readBytesAhead() {
+        readAhead = true;
+    }
+
+    /**
+     * Implementation of readInto method for reading input data from file
+     * and pushing the values to the sink while the file is read.
+     */
+    @Override
+    public void readInto(FloatSink sink) throws ReadErrorException {
 
         switch (format.toLowerCase()) {
             case "csv":
-                return readCsvFile();
+                readCsvFile(new FloatSink[]{sink});
+                break;
             case "json":
-                return readJsonFile();
+                readJsonFile(sink);
+                break;
+            case "bin":
+                readBinaryFile(sink);
+                break;
             default:
                 throw new ReadErrorException("Unsupported format: " + format, 4);
         }
     }
 
-    private List<Float> readCsvFile() throws ReadErrorException {
-        validateFilePath();
+    /**
+     * Reads the selected columns of a csv file, each into its own sink, e.g. the accumulator of the actions
+     * of the column. The values of the columns which are not selected are skipped without parsing them.
+     *
+     * @param sinks receiver of the values of every selected column, in the order of the selection
+     * @return the names of the selected columns from the header, or else their positions
+     */
+    public List<String> readColumnsInto(FloatSink[] sinks) throws ReadErrorException {
+        if (!format.equalsIgnoreCase("csv")) {
+            throw new ReadErrorException("Format Error: columns can only be selected in csv input, not in " + format, 4);
+        }
+        if (columns == null || columns.getSelectors().size() != sinks.length) {
+            throw new IllegalArgumentException("One sink per selected column is required");
+        }
+        return readCsvFile(sinks);
+    }
 
-        List<Float> values = new ArrayList<>();
+    /**
+     * Estimates the sum, count, mean and LT4 fraction of a csv file from a sample of its lines or blocks,
+     * with 95% confidence intervals. The selected columns are sampled together, invalid values fail the sampling
+     * like in the strict mode.
+     *
+     * @param mode how the sample is drawn
+     * @return the estimator holding the sample
+     */
+    public SampleEstimator sample(SamplingMode mode) throws ReadErrorException {
+        if (!format.equalsIgnoreCase("csv")) {
+            throw new ReadErrorException("Format Error: only csv input can be sampled, not " + format, 4);
+        }
+        validateFilePath();
         File file = new File(filePath);
-
         if (!file.exists() || !file.canRead()) {
             String errorMessage = "Read Error: File with path " + filePath +
                     " does not exist or is not readable.";
             logger.error(errorMessage);
             throw new ReadErrorException(errorMessage, 2);
         }
+        try {
+            return new SampledCsvReader(file.toPath(), mode, columns).read();
+        } catch (InvalidNumberFormatException e) {
+            logger.error("Number Format Error {}", e.getMessage());
+            throw new InvalidNumberFormatException(e.getMessage(), e, e.getErrorCode());
+        } catch (ReadErrorException e) {
+            logger.error(e.getMessage() + " Error code: " + e.getErrorCode());
+            throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
+        } catch (IOException e) {
+            logger.error("Read Error {} the file: {}", e.getMessage(), filePath);
+            throw new ReadErrorException("Error while sampling the file " + filePath, e, 2);
+        }
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            int columnCount;
-            int lineNumber = 0;
-
-            // Read the first line to check if the file is empty
-            line = br.readLine();
-            if (line == null || line.trim().isEmpty()) {
-                logger.error("CSV Input file {} is empty. Error code: 1", filePath);
-                throw new ReadErrorException("Error: Input is empty", 1);
-            }
+    /**
+     * Performs the actions on a csv file with the help of its zone map, a sidecar file with the extension .zmap
+     * holding the bounds, sum and count of every block of lines. The first run reads the whole file and builds it,
+     * later ones answer sum, min, max and count from it alone and read only the blocks a filter action may match.
+     * The zone map is built again when the size or modification time of the file changed. The selected columns
+     * are aggregated together, invalid values fail the reading like in the strict mode.
+     *
+     * @param actions the actions to perform
+     * @return the results of the actions over every value of the file
+     */
+    public AggregationResult aggregateIndexed(List<? extends ActionDefinition> actions) throws ReadErrorException {
+        if (!format.equalsIgnoreCase("csv")) {
+            throw new ReadErrorException("Format Error: only csv input can be indexed, not " + format, 4);
+        }
+        validateFilePath();
+        File file = new File(filePath);
+        if (!file.exists() || !file.canRead()) {
+            String errorMessage = "Read Error: File with path " + filePath +
+                    " does not exist or is not readable.";
+            logger.error(errorMessage);
+            throw new ReadErrorException(errorMessage, 2);
+        }
+        try {
+            return new IndexedCsvReader(file.toPath(), columns, IndexedCsvReader.DEFAULT_BLOCK_SIZE).aggregate(actions);
+        } catch (InvalidNumberFormatException e) {
+            logger.error("Number Format Error {}", e.getMessage());
+            throw new InvalidNumberFormatException(e.getMessage(), e, e.getErrorCode());
+        } catch (ReadErrorException e) {
+            logger.error(e.getMessage() + " Error code: " + e.getErrorCode());
+            throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
+        } catch (IOException e) {
+            logger.error("Read Error {} the file: {}", e.getMessage(), filePath);
+            throw new ReadErrorException("Error while reading the file " + filePath, e, 2);
+        }
+    }
 
-            // Process the first line and initialize columnCount
-            String[] valuesArray = line.split(",");
-            columnCount = valuesArray.length;
-            lineNumber++;
+    private List<String> readCsvFile(FloatSink[] sinks) throws ReadErrorException {
+        validateFilePath();
 
-            // Read the values from the first line
-            for (String column : valuesArray) {
-                String sanitizedValue = column.trim();
-                if (!sanitizedValue.isEmpty()) {
-                    values.add(parseFloat(sanitizedValue));
-                }
-            }
+        FloatSinkBuffer[] values = new FloatSinkBuffer[sinks.length];
+        for (int i = 0; i < sinks.length; i++) {
+            values[i] = new FloatSinkBuffer(sinks[i]);
+        }
+        List<String> names = null;
+        File file = new File(filePath);
 
-            // Process subsequent lines
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                valuesArray = line.split(",");
+        if (!file.exists() || !file.canRead()) {
+            String errorMessage = "Read Error: File with path " + filePath +
+                    " does not exist or is not readable.";
+            logger.error(errorMessage);
+            throw new ReadErrorException(errorMessage, 2);
+        }
 
-                if (valuesArray.length != columnCount) {
-                    String errorMessage = "Format Error: Inconsistent number of columns at line " + lineNumber;
-                    logger.error(errorMessage + " Error code: 4");
-                    throw new ReadErrorException(errorMessage, 4);
+        // the parser scans the bytes of the file through a reusable buffer, without a String per line or value,
+        // large files are memory mapped in chunks parsed in parallel, compressed files are inflated while parsed
+        try {
+            if (threads > 1 && file.length() >= ParallelCsvReader.PARALLEL_THRESHOLD
+                    && !CompressedInput.isCompressed(file.toPath())) {
+                ParallelCsvReader reader = new ParallelCsvReader(file.toPath(), threads, 0, errors);
+                if (columns == null) {
+                    reader.readInto(values[0]);
+                } else {
+                    names = reader.readColumnsInto(values, columns);
                 }
-
-                for (String column : valuesArray) {
-                    String sanitizedValue = column.trim();
-                    if (!sanitizedValue.isEmpty()) {
-                        values.add(parseFloat(sanitizedValue));
-                    }
+            } else {
+                try (InputStream in = openInput()) {
+                    CsvFloatParser parser = columns == null
+                            ? new CsvFloatParser(values[0], CsvFloatParser.DEFAULT_BUFFER_SIZE, -1, errors)
+                            : new CsvFloatParser(values, columns, CsvFloatParser.DEFAULT_BUFFER_SIZE, errors);
+                    parser.parse(in);
+                    names = parser.getColumnNames();
                 }
             }
+            for (FloatSinkBuffer buffer : values) {
+                buffer.flush();
+            }
         } catch (InvalidNumberFormatException e) {
             logger.error("Number Format Error {}", e.getMessage());
             throw new InvalidNumberFormatException(e.getMessage(), e, e.getErrorCode());
         } catch (ReadErrorException e) {
+            if (e.getErrorCode() == 1) {
+                logger.error("CSV Input file {} is empty. Error code: 1", filePath);
+            } else {
+                logger.error(e.getMessage() + " Error code: " + e.getErrorCode());
+            }
             throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
         } catch (IOException e) {
             logger.error("Read Error {} the file: {}", e.getMessage(), filePath);
@@ -110,21 +251,21 @@ public class FileInputReaderImpl implements InputReader {
         }
 
         logger.info("CSV file is valid and values are read successfully.");
-        return values;
+        return names;
     }
 
-    private List<Float> readJsonFile() throws ReadErrorException {
+    private void readJsonFile(FloatSink sink) throws ReadErrorException {
         validateFilePath();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            List<Float> jsonList = new Gson().fromJson(reader, new TypeToken<List<Float>>(){}.getType());
+        // the array is parsed from the bytes of the file through a reusable buffer, whatever its length
+        try (InputStream in = openInput()) {
+            FloatSinkBuffer values = new FloatSinkBuffer(sink);
+            new JsonFloatArrayParser(values, JsonFloatArrayParser.DEFAULT_BUFFER_SIZE, errors).parse(in);
+            values.flush();
 
             // Check if the result is empty
-            if (jsonList == null || jsonList.isEmpty()) {
+            if (values.getCount() == 0) {
                 throw new ReadErrorException("Error: Input is empty.", 1);
             }
-            return jsonList;
-        } catch (JsonParseException e) {
-            throw new ReadErrorException("Invalid JSON format: " + e.getMessage(), e, 4);
         } catch (ReadErrorException e) {
             throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
         } catch (IOException e) {
@@ -132,17 +273,44 @@ public class FileInputReaderImpl implements InputReader {
         }
     }
 
-    private void validateFilePath() throws ReadErrorException {
-        if (filePath == null || filePath.trim().isEmpty()) {
-            throw new ReadErrorException("File path cannot be empty", 1);
+    private void readBinaryFile(FloatSink sink) throws ReadErrorException {
+        validateFilePath();
+        // the raw float32 values are copied in blocks straight into the sink, there is nothing to parse
+        Path file = new File(filePath).toPath();
+        try {
+            long count;
+            if (CompressedInput.isCompressed(file)) {
+                try (InputStream in = openInput()) {
+                    count = BinaryFloatReader.readInto(in, filePath, sink);
+                }
+            } else {
+                count = new BinaryFloatReader(file).readInto(sink);
+            }
+            if (count == 0) {
+                throw new ReadErrorException("Error: Input is empty.", 1);
+            }
+        } catch (ReadErrorException e) {
+            logger.error(e.getMessage() + " Error code: " + e.getErrorCode());
+            throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
+        } catch (IOException e) {
+            logger.error("Read Error {} the file: {}", e.getMessage(), filePath);
+            throw new ReadErrorException("Error while reading the file " + filePath, e, 2);
         }
+        logger.info("Binary file is valid and values are read successfully.");
     }
 
-    private Float parseFloat(String value) throws InvalidNumberFormatException {
-        try {
-            return Float.parseFloat(value);
-        } catch (NumberFormatException e) {
-            throw new InvalidNumberFormatException("Invalid number format: " + value, e, 4);
+    /**
+     * Opens the file, decompressing it while it is read if it is compressed with gzip or zlib.
+     * With more than one thread the file is inflated on its own thread, while it is parsed on this one,
+     * when its bytes are read ahead a plain file is read on its own thread as well.
+     */
+    private InputStream openInput() throws IOException {
+        return CompressedInput.open(new File(filePath).toPath(), threads > 1, readAhead);
+    }
+
+    private void validateFilePath() throws ReadErrorException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new ReadErrorException("File path cannot be empty", 1);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,291 @@
+package features.input;
+
+import exceptions.InvalidNumberFormatException;
+import exceptions.ReadErrorException;
+import features.actions.ActionDefinition;
+import features.actions.AggregationAccumulator;
+import features.actions.AggregationResult;
+import features.data.FloatSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads a set of input files of the same format, given as a directory or a glob pattern,
+ * e.g. data/shards or data/2024-01-*.csv or data/**.json
+ * <p>
+ * A directory stands for the files directly inside it with the extension of the format,
+ * also followed by .gz or .zz for compressed files.
+ * In a glob pattern, * and ? do not cross directory boundaries while ** does, see
+ * {@link FileSystems#getPathMatcher(String)}. The files are always processed in the order of their paths.
+ */
+public class FileSetReader implements InputReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSetReader.class);
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final String pattern;
+    private final String format;
+    private final int threads;
+    private final ParseErrors errors;
+
+    /**
+     * Constructor reading up to one file per available processor at the same time
+     * @param pattern path of a directory or a glob pattern
+     * @param format format of all files, csv, json or bin
+     */
+    public FileSetReader(String pattern, String format) {
+        this(pattern, format, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor
+     * @param pattern path of a directory or a glob pattern
+     * @param format format of all files, csv, json or bin
+     * @param threads maximum number of files read at the same time by {@link #aggregate(List, boolean)}
+     */
+    public FileSetReader(String pattern, String format, int threads) {
+        this(pattern, format, threads, null);
+    }
+
+    /**
+     * Constructor
+     * @param pattern path of a directory or a glob pattern
+     * @param format format of all files, csv, json or bin
+     * @param threads maximum number of files read at the same time by {@link #aggregate(List, boolean)}
+     * @param errors error budget of the lenient mode shared by all files, the errors name their file,
+     *               null to fail on the first invalid value
+     */
+    public FileSetReader(String pattern, String format, int threads, ParseErrors errors) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.pattern = pattern;
+        this.format = format;
+        this.threads = threads;
+        this.errors = errors;
+    }
+
+    /**
+     * @return true if the path is a directory or a glob pattern rather than a single file
+     */
+    public static boolean isFileSet(String path) {
+        if (path == null) {
+            return false;
+        }
+        Path existing = existingPath(path);
+        if (existing != null) {
+            // a [ or { in the name of an existing file or directory is part of the name, not a glob
+            return Files.isDirectory(existing);
+        }
+        return indexOfGlob(path) >= 0;
+    }
+
+    /**
+     * Resolves the directory or the glob pattern.
+     *
+     * @return the matching regular files sorted by path
+     * @throws ReadErrorException with code 2 if no file matches
+     */
+    public List<Path> listFiles() throws ReadErrorException {
+        if (pattern == null || pattern.trim().isEmpty()) {
+            throw new ReadErrorException("File path cannot be empty", 1);
+        }
+        List<Path> files;
+        try {
+            Path existing = existingPath(pattern);
+            int globIndex = existing == null ? indexOfGlob(pattern) : -1;
+            if (globIndex < 0) {
+                String extension = "." + format.toLowerCase(Locale.ROOT);
+                try (Stream<Path> entries = Files.list(Paths.get(pattern))) {
+                    files = entries.filter(Files::isRegularFile)
+                            .filter(file -> hasExtension(file, extension))
+                            .sorted()
+                            .collect(Collectors.toList());
+                }
+            } else {
+                int separator = Math.max(pattern.lastIndexOf('/', globIndex), pattern.lastIndexOf(File.separatorChar, globIndex));
+                Path base = separator < 0 ? Paths.get("") : Paths.get(separator == 0 ? "/" : pattern.substring(0, separator));
+                String glob = pattern.substring(separator + 1);
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+                int depth = glob.contains("**") ? Integer.MAX_VALUE : glob.split("/").length;
+                Path start = base.toString().isEmpty() ? Paths.get(".") : base;
+                if (!Files.isDirectory(start)) {
+                    files = new ArrayList<>();
+                } else {
+                    try (Stream<Path> entries = Files.walk(start, depth)) {
+                        files = entries.filter(Files::isRegularFile)
+                                .filter(file -> matcher.matches(start.relativize(file)))
+                                .map(file -> base.resolve(start.relativize(file)))
+                                .sorted()
+                                .collect(Collectors.toList());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new ReadErrorException("Read Error: cannot list the input files " + pattern, e, 2);
+        }
+        if (files.isEmpty()) {
+            String errorMessage = "Read Error: no input files match " + pattern;
+            logger.error(errorMessage);
+            throw new ReadErrorException(errorMessage, 2);
+        }
+        return files;
+    }
+
+    /**
+     * @return true if the name of the file ends with the extension, or with the extension and the one of a compressed file
+     */
+    private static boolean hasExtension(Path file, String extension) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(extension)) {
+            return true;
+        }
+        for (String compressed : CompressedInput.EXTENSIONS) {
+            if (name.endsWith(extension + compressed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads all files one after the other into the sink, in the order of their paths.
+     * Empty files are skipped.
+     */
+    @Override
+    public void readInto(FloatSink sink) throws ReadErrorException {
+        for (Path file : listFiles()) {
+            readFile(file, sink, threads);
+        }
+    }
+
+    /**
+     * Reads the files concurrently on a pool of at most the configured number of threads, each into its own
+     * accumulator of the actions, and merges the partial results in the order of the paths, so the result is
+     * the same as reading the files one after the other. A file is only submitted once the one as many places
+     * before it was merged, so at most one partial result per thread is held whatever the number of files.
+     * Empty files are skipped.
+     *
+     * @param actions the actions to compute
+     * @param breakdown true to also keep the result of every single file
+     * @return the merged result and, if requested, the result of every file
+     * @throws ReadErrorException for the first file which cannot be read, the message names the file
+     */
+    public FileSetResult aggregate(List<? extends ActionDefinition> actions, boolean breakdown) throws ReadErrorException {
+        List<Path> files = listFiles();
+        logger.info("Reading {} input files matching {} with {} threads", files.size(), pattern,
+                Math.min(threads, files.size()));
+        // the threads not needed for one file each parse the large files in chunks
+        int fileThreads = Math.max(1, threads / files.size());
+        int window = Math.min(threads, files.size());
+        ExecutorService executor = Executors.newFixedThreadPool(window, runnable -> {
+            Thread thread = new Thread(runnable, "file-set-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<AggregationAccumulator>> partials = new ArrayList<>(files.size());
+            for (int i = 0; i < window; i++) {
+                partials.add(submit(executor, files.get(i), actions, fileThreads));
+            }
+            AggregationAccumulator merged = new AggregationAccumulator(actions);
+            Map<Path, AggregationResult> fileResults = new LinkedHashMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                AggregationAccumulator partial = await(partials.get(i));
+                // merging while the later files are still read frees every partial as soon as possible
+                partials.set(i, null);
+                if (i + window < files.size()) {
+                    partials.add(submit(executor, files.get(i + window), actions, fileThreads));
+                }
+                merged.merge(partial);
+                if (breakdown) {
+                    fileResults.put(files.get(i), partial.result());
+                }
+            }
+            logger.info("Performed the selected operations on {} input values of {} files", merged.getCount(), files.size());
+            return new FileSetResult(merged.result(), fileResults);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Future<AggregationAccumulator> submit(ExecutorService executor, Path file,
+                                                  List<? extends ActionDefinition> actions, int fileThreads) {
+        return executor.submit(() -> {
+            AggregationAccumulator accumulator = new AggregationAccumulator(actions);
+            readFile(file, accumulator, fileThreads);
+            return accumulator;
+        });
+    }
+
+    private void readFile(Path file, FloatSink sink, int fileThreads) throws ReadErrorException {
+        try {
+            new FileInputReaderImpl(file.toString(), format, fileThreads,
+                    errors == null ? null : errors.forSource(file.toString())).readInto(sink);
+        } catch (ReadErrorException e) {
+            if (e.getErrorCode() == 1) {
+                // a shard without values does not make the whole input invalid
+                logger.warn("Input file {} is empty and is skipped.", file);
+                return;
+            }
+            throw new ReadErrorException("Error reading the input file " + file + ": " + e.getMessage(), e, e.getErrorCode());
+        } catch (InvalidNumberFormatException e) {
+            throw new ReadErrorException("Error reading the input file " + file + ": " + e.getMessage(), e, e.getErrorCode());
+        }
+    }
+
+    private static AggregationAccumulator await(Future<AggregationAccumulator> partial) throws ReadErrorException {
+        try {
+            return partial.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadErrorException("Read Error: interrupted while reading the input files", e, 2);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ReadErrorException) {
+                ReadErrorException cause = (ReadErrorException) e.getCause();
+                throw new ReadErrorException(cause.getMessage(), cause, cause.getErrorCode());
+            }
+            throw new ReadErrorException("Read Error: " + e.getCause(), e.getCause(), 2);
+        }
+    }
+
+    /**
+     * @return the path if a file or directory exists at it, otherwise null
+     */
+    private static Path existingPath(String path) {
+        try {
+            Path file = Paths.get(path);
+            return Files.exists(file) ? file : null;
+        } catch (RuntimeException e) {
+            // e.g. * is not valid in a path on Windows
+            return null;
+        }
+    }
+
+    private static int indexOfGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(path.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,35 @@
+package features.input;
+
+import features.actions.AggregationResult;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Results of reading a set of files with {@link FileSetReader#aggregate(java.util.List, boolean)}:
+ * the result over all files and, if requested, the result of every file.
+ */
+public class FileSetResult {
+
+    private final AggregationResult result;
+    private final Map<Path, AggregationResult> fileResults;
+
+    public FileSetResult(AggregationResult result, Map<Path, AggregationResult> fileResults) {
+        this.result = result;
+        this.fileResults = Collections.unmodifiableMap(fileResults);
+    }
+
+    /**
+     * @return the results over the values of all files
+     */
+    public AggregationResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return the results of every file in the order of the paths, empty if no breakdown was requested
+     */
+    public Map<Path, AggregationResult> getFileResults() {
+        return fileResults;
+    }
+}
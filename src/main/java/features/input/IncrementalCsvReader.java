@@ -0,0 +1,242 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import exceptions.WriteErrorException;
+import features.actions.RunningAggregate;
+import features.data.FloatSink;
+import features.data.FloatSinkBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads a growing csv file, e.g. an append-only log, incrementally: every update only parses the lines appended
+ * since the offset of the checkpoint, adds their values to the running aggregate and saves its state with the new
+ * offset in the checkpoint. A scheduled run resumes where the previous one stopped, the follow mode updates in a loop.
+ * <p>
+ * Only complete lines are read, a last line without its line end is read once it is complete. The file is read again
+ * from its start, with the aggregate reset, when it is shorter than the offset (truncated), has another file key
+ * (rotated by renaming it and creating a new file) or other first bytes (truncated and written again), and when
+ * the checkpoint was saved with other columns or lacks the count of a filter action. The lines appended to a rotated
+ * file after the last update are not read.
+ */
+public final class IncrementalCsvReader {
+
+    static final int HEAD_LENGTH = 4096;
+    private static final int SCAN_BUFFER_SIZE = 8192;
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalCsvReader.class);
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final CsvColumns columns;
+    private final String settings;
+    private boolean loaded;
+    private FileCheckpoint checkpoint;
+
+    /**
+     * Constructor
+     * @param file csv file
+     * @param checkpointFile properties file holding the progress, created by the first update
+     * @param columns header and selected columns, their values are aggregated together, null for every column
+     */
+    public IncrementalCsvReader(Path file, Path checkpointFile, CsvColumns columns) {
+        this.file = file;
+        this.checkpointFile = checkpointFile;
+        this.columns = columns;
+        this.settings = "csv;" + (columns == null ? "all columns" : columns.toString());
+    }
+
+    /**
+     * Reads the lines appended since the last update into the aggregate and saves the checkpoint.
+     *
+     * @param aggregate the same aggregate on every update, empty on the first one, its state is restored from the
+     *                  checkpoint saved by an earlier run. It is not valid any more after an exception.
+     * @return the number of bytes read, 0 if no complete line was appended
+     * @throws ReadErrorException with code 2 if the file cannot be read,
+     * with code 4 for a line with another number of columns than the first one
+     * @throws WriteErrorException with code 3 if the checkpoint cannot be saved
+     */
+    public long update(RunningAggregate aggregate) throws ReadErrorException, WriteErrorException {
+        long offset;
+        long end;
+        String fileKey;
+        int columnCount;
+        int[] columnIndexes;
+        long headCrc;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileKey = String.valueOf(Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+            long size = channel.size();
+            boolean restarted = dropInvalidCheckpoint(channel, fileKey, size, aggregate);
+            offset = checkpoint == null ? 0 : checkpoint.getOffset();
+            end = lastLineEnd(channel, offset, size);
+            if (end == offset && !restarted) {
+                return 0;
+            }
+            columnCount = checkpoint == null ? -1 : checkpoint.getColumnCount();
+            columnIndexes = checkpoint == null ? null : checkpoint.getColumnIndexes();
+            if (end > offset) {
+                FloatSinkBuffer values = new FloatSinkBuffer(aggregate);
+                CsvFloatParser parser = parser(values, offset, columnCount, columnIndexes);
+                parser.parse(new RangeInputStream(channel, offset, end));
+                values.flush();
+                if (offset == 0) {
+                    columnCount = parser.getColumnCount();
+                    columnIndexes = parser.getColumnIndexes();
+                }
+            }
+            headCrc = crc(channel, (int) Math.min(end, HEAD_LENGTH));
+        } catch (ReadErrorException e) {
+            logger.error(e.getMessage() + " Error code: " + e.getErrorCode());
+            throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
+        } catch (IOException e) {
+            logger.error("Read Error {} the file: {}", e.getMessage(), file);
+            throw new ReadErrorException("Error while reading the file " + file, e, 2);
+        }
+
+        checkpoint = new FileCheckpoint(fileKey, settings, end, (int) Math.min(end, HEAD_LENGTH), headCrc, columnCount,
+                columnIndexes, aggregate);
+        try {
+            checkpoint.save(checkpointFile);
+        } catch (IOException e) {
+            throw new WriteErrorException("Write Error: cannot save the checkpoint " + checkpointFile, e, 3);
+        }
+        logger.info("Read {} bytes of {} from offset {}, {} values in total", end - offset, file, offset,
+                aggregate.getCount());
+        return end - offset;
+    }
+
+    /**
+     * Loads the checkpoint on the first update, then checks it against the file. If the file has to be read
+     * from its start the aggregate and the checkpoint are reset.
+     *
+     * @return true if a checkpoint was dropped
+     */
+    private boolean dropInvalidCheckpoint(FileChannel channel, String fileKey, long size, RunningAggregate aggregate)
+            throws IOException {
+        if (!loaded) {
+            loaded = true;
+            FileCheckpoint saved = FileCheckpoint.load(checkpointFile);
+            if (saved == null) {
+                return false;
+            }
+            if (!saved.getSettings().equals(settings) || !saved.restoreInto(aggregate)) {
+                logger.info("The checkpoint {} was saved with other columns or actions, reading {} from the start",
+                        checkpointFile, file);
+                return true;
+            }
+            checkpoint = saved;
+        }
+        if (checkpoint == null) {
+            return false;
+        }
+        String change = null;
+        if (!checkpoint.getFileKey().equals(fileKey)) {
+            change = "was replaced";
+        } else if (size < checkpoint.getOffset()) {
+            change = "was truncated";
+        } else if (crc(channel, checkpoint.getHeadLength()) != checkpoint.getHeadCrc()) {
+            change = "was rewritten";
+        }
+        if (change == null) {
+            return false;
+        }
+        logger.warn("The file {} {} since the checkpoint, reading it from the start", file, change);
+        aggregate.reset();
+        checkpoint = null;
+        return true;
+    }
+
+    private CsvFloatParser parser(FloatSink values, long offset, int columnCount, int[] columnIndexes) {
+        if (offset == 0) {
+            return columns == null
+                    ? new CsvFloatParser(values, CsvFloatParser.DEFAULT_BUFFER_SIZE, -1, null)
+                    : new CsvFloatParser(new FloatSink[]{values}, columns, CsvFloatParser.DEFAULT_BUFFER_SIZE, null);
+        }
+        // the lines after the offset are checked against the first line of the file
+        return columnIndexes == null
+                ? new CsvFloatParser(values, CsvFloatParser.DEFAULT_BUFFER_SIZE, columnCount, null)
+                : new CsvFloatParser(new FloatSink[]{values}, columnIndexes, CsvFloatParser.DEFAULT_BUFFER_SIZE,
+                columnCount, null);
+    }
+
+    /**
+     * @return the position after the last line end from the offset, the offset if there is none,
+     * a \r at the very end is not counted because the \n of a \r\n line end may still follow
+     */
+    static long lastLineEnd(FileChannel channel, long offset, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long end = size;
+        while (end > offset) {
+            int length = (int) Math.min(SCAN_BUFFER_SIZE, end - offset);
+            long start = end - length;
+            buffer.clear().limit(length);
+            readFully(channel, buffer, start);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r' && start + i + 1 < size) {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return offset;
+    }
+
+    private static long crc(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer, 0);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        return crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stream of a range of the file, read with positional reads
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+            if (read < 0) {
+                throw new ReadErrorException("Read Error: the file was truncated while it was read", 2);
+            }
+            position += read;
+            return read;
+        }
+    }
+}
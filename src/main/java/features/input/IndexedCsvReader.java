@@ -0,0 +1,277 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.actions.ActionDefinition;
+import features.actions.AggregationAccumulator;
+import features.actions.AggregationResult;
+import features.actions.FloatAccumulator;
+import features.actions.FloatFilter;
+import features.data.FloatSink;
+import features.data.FloatSinkBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a csv file with the help of its {@link ZoneMap}, kept in the sidecar file with the extension .zmap.
+ * <p>
+ * The first run reads the whole file and builds the index on the way. Later runs answer SUM, MIN, MAX, MINMAX and
+ * COUNT from the index alone, and filter actions like LT4 only parse the blocks whose bounds may match the filter.
+ * Other actions with their own state, e.g. histograms, still parse every block. The index is built again when the
+ * size or the modification time of the file changed.
+ */
+final class IndexedCsvReader {
+
+    static final int DEFAULT_BLOCK_SIZE = 512 * 1024;
+    static final String INDEX_EXTENSION = ".zmap";
+    private static final Logger logger = LoggerFactory.getLogger(IndexedCsvReader.class);
+
+    private final Path file;
+    private final CsvColumns columns;
+    private final int blockSize;
+    private final String settings;
+    private int blocksRead;
+    private int blockCount;
+
+    /**
+     * Constructor
+     * @param file csv file, not compressed
+     * @param columns header and selected columns, their values are aggregated together, null for every column
+     * @param blockSize number of bytes of a block, each extended to the end of its last line
+     */
+    IndexedCsvReader(Path file, CsvColumns columns, int blockSize) {
+        this.file = file;
+        this.columns = columns;
+        this.blockSize = blockSize;
+        this.settings = "csv;" + (columns == null ? "all columns" : columns.toString()) + ";" + blockSize;
+    }
+
+    static Path indexPath(Path file) {
+        return file.resolveSibling(file.getFileName() + INDEX_EXTENSION);
+    }
+
+    /**
+     * @return the results of the actions over every value of the file
+     * @throws ReadErrorException with code 1 if the file is empty, with code 2 if it cannot be read,
+     * with code 4 if it is compressed
+     */
+    AggregationResult aggregate(List<? extends ActionDefinition> actions) throws IOException {
+        if (CompressedInput.isCompressed(file)) {
+            throw new ReadErrorException("Format Error: the blocks of the compressed file " + file
+                    + " cannot be read on their own, it cannot be indexed", 4);
+        }
+        Path indexFile = indexPath(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // taken before reading, so a change while the index is built makes it out of date
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            ZoneMap index = ZoneMap.load(indexFile, size, modified, settings);
+            if (index != null) {
+                return query(channel, index, actions);
+            }
+            AggregationAccumulator accumulator = new AggregationAccumulator(actions);
+            index = build(channel, size, modified, accumulator);
+            try {
+                index.save(indexFile);
+                logger.info("Built the zone map {} of {} blocks", indexFile, blockCount);
+            } catch (IOException e) {
+                logger.warn("Could not save the zone map {}: {}", indexFile, e.getMessage());
+            }
+            return accumulator.result();
+        }
+    }
+
+    /**
+     * @return the number of blocks parsed by the last aggregation
+     */
+    int getBlocksRead() {
+        return blocksRead;
+    }
+
+    /**
+     * @return the number of blocks of the file
+     */
+    int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Reads every block into the accumulator and the bounds of the block into the index.
+     */
+    private ZoneMap build(FileChannel channel, long size, long modified, FloatSink accumulator) throws IOException {
+        CsvFloatParser firstLine = ParallelCsvReader.parseFirstLine(channel, new FloatSink[1], columns, null);
+        ZoneMap index = new ZoneMap(size, modified, settings, firstLine.getColumnCount(),
+                firstLine.getColumnIndexes());
+        BlockBounds bounds = new BlockBounds(accumulator);
+        FloatSinkBuffer values = new FloatSinkBuffer(bounds);
+        CsvFloatParser parser = parser(values, index);
+        long start = columns != null && columns.hasHeader() ? ParallelCsvReader.nextLineStart(channel, 1, size) : 0;
+        while (start < size) {
+            long end = start + blockSize >= size ? size : ParallelCsvReader.nextLineStart(channel, start + blockSize, size);
+            parse(channel, parser, start, end);
+            values.flush();
+            index.addBlock(bounds.toBlock(start, end));
+            start = end;
+        }
+        blockCount = index.getBlocks().size();
+        blocksRead = blockCount;
+        return index;
+    }
+
+    /**
+     * Sums up the blocks of the index and feeds the actions with their own state from the blocks they need.
+     */
+    private AggregationResult query(FileChannel channel, ZoneMap index, List<? extends ActionDefinition> actions)
+            throws IOException {
+        Map<ActionDefinition, FloatAccumulator> accumulators = new IdentityHashMap<>();
+        List<FloatFilter> filters = new ArrayList<>();
+        boolean everyBlock = false;
+        for (ActionDefinition action : actions) {
+            FloatAccumulator accumulator = action.newAccumulator();
+            if (accumulator != null) {
+                accumulators.put(action, accumulator);
+                if (action.getFilter() != null) {
+                    filters.add(action.getFilter());
+                } else {
+                    everyBlock = true;
+                }
+            }
+        }
+        FloatSinkBuffer values = new FloatSinkBuffer(
+                new Broadcast(accumulators.values().toArray(new FloatAccumulator[0])));
+        CsvFloatParser parser = parser(values, index);
+        double sum = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        long count = 0;
+        blocksRead = 0;
+        for (ZoneMap.Block block : index.getBlocks()) {
+            sum += block.getSum();
+            min = Math.min(min, block.getMin());
+            max = Math.max(max, block.getMax());
+            count += block.getCount();
+            if (everyBlock || mayMatch(filters, block)) {
+                parse(channel, parser, block.getStart(), block.getEnd());
+                values.flush();
+                blocksRead++;
+            }
+        }
+        blockCount = index.getBlocks().size();
+        logger.info("Read {} of {} blocks of {} with its zone map", blocksRead, blockCount, file);
+        return new AggregationResult(actions, (float) sum, min, max, count, accumulators);
+    }
+
+    private static boolean mayMatch(List<FloatFilter> filters, ZoneMap.Block block) {
+        for (FloatFilter filter : filters) {
+            if (filter.mayMatch(block.getMin(), block.getMax())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the parser of the lines after the first one, checked against the columns of the first line
+     */
+    private CsvFloatParser parser(FloatSink values, ZoneMap index) {
+        return columns == null
+                ? new CsvFloatParser(values, 2, index.getColumnCount(), null)
+                : new CsvFloatParser(new FloatSink[]{values}, index.getColumnIndexes(), 2, index.getColumnCount(),
+                null);
+    }
+
+    private void parse(FileChannel channel, CsvFloatParser parser, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new ReadErrorException("Read Error: a line of " + file + " is longer than 2 GB", 2);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new ReadErrorException("Read Error: " + file + " was truncated while it was read", 2);
+            }
+        }
+        parser.parseLines(buffer.array(), 0, buffer.capacity(), true);
+    }
+
+    /**
+     * Keeps the number, sum and bounds of the values of the current block and passes them on
+     */
+    private static final class BlockBounds implements FloatSink {
+        private final FloatSink target;
+        private long count;
+        private double sum;
+        private float min = Float.POSITIVE_INFINITY;
+        private float max = Float.NEGATIVE_INFINITY;
+
+        private BlockBounds(FloatSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void accept(float value) {
+            accept(new float[]{value}, 0, 1);
+        }
+
+        @Override
+        public void accept(float[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                float value = values[i];
+                sum += value;
+                // NaN fails both comparisons and never widens the bounds
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+            count += length;
+            target.accept(values, offset, length);
+        }
+
+        private ZoneMap.Block toBlock(long start, long end) {
+            ZoneMap.Block block = new ZoneMap.Block(start, end, count, sum, min, max);
+            count = 0;
+            sum = 0;
+            min = Float.POSITIVE_INFINITY;
+            max = Float.NEGATIVE_INFINITY;
+            return block;
+        }
+    }
+
+    /**
+     * Passes the values on to every accumulator
+     */
+    private static final class Broadcast implements FloatSink {
+        private final FloatAccumulator[] targets;
+
+        private Broadcast(FloatAccumulator[] targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public void accept(float value) {
+            for (FloatAccumulator target : targets) {
+                target.accept(value);
+            }
+        }
+
+        @Override
+        public void accept(float[] values, int offset, int length) {
+            for (FloatAccumulator target : targets) {
+                target.accept(values, offset, length);
+            }
+        }
+    }
+}
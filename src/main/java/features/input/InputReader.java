@@ -1,18 +1,50 @@
 package features.input;
 
 import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import features.data.FloatSink;
 import java.util.List;
 
 /**
  * This interface provides a contract for reading input data
- * and returning it as a list of Float values.
+ * and pushing it as primitive float values to a sink, e.g. a column or an accumulator.
  */
  public interface InputReader {
+    /**
+     * Reads input data from the specified source and pushes every parsed value to the sink,
+     * in blocks while the input is still being read.
+     *
+     * @param sink receiver of the parsed float values
+     */
+    void readInto(FloatSink sink) throws ReadErrorException;
+
+    /**
+     * Makes the reader read the raw bytes of its input on a thread of its own, in blocks ahead of the thread
+     * parsing them, see {@link PipelinedInputReader}. Readers without such a step ignore it.
+     */
+    default void readBytesAhead() {
+    }
+
+    /**
+     * Reads input data from the specified source and returns it as a column of
+     * primitive float values.
+     *
+     * @return a column containing the parsed float values.
+     */
+    default FloatColumn readColumn() throws ReadErrorException {
+        FloatColumn column = new FloatColumn();
+        readInto(column);
+        return column;
+    }
+
     /**
      * Reads input data from the specified source and returns it as a list of
-     * Float values.
+     * Float values. Adapter for the List based API.
      *
      * @return a list containing the parsed float values.
      */
-    List<Float> readInput() throws ReadErrorException;
+    default List<Float> readInput() throws ReadErrorException {
+        FloatColumn column = readColumn();
+        return column == null ? null : column.toList();
+    }
 }
@@ -0,0 +1,408 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.FloatSink;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses a JSON array of numbers straight from the bytes of the input through a reusable buffer,
+ * so the memory used does not depend on the length of the array.
+ * <p>
+ * Accepts what Gson accepted when the array was bound to List&lt;Float&gt;, which reads leniently:
+ * null elements and empty elements like in [1,,2] are skipped, numbers may be quoted or written as
+ * NaN and Infinity, ; separates elements like , and comments are skipped. An empty document or the null
+ * literal contain no values. Like Gson the values are parsed as double and then converted to float.
+ * Escape sequences in quoted numbers are not supported.
+ * <p>
+ * Errors name the line, the column and the byte offset of the malformed token
+ * and the index of the array element, e.g. "Expected a number at line 3 column 7 (offset 25) path $[4]".
+ * In the lenient mode, with {@link ParseErrors}, an element which is not a number is recorded and skipped
+ * or read as NaN instead, other syntax errors still end the parsing.
+ */
+final class JsonFloatArrayParser {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FloatSink sink;
+    private final ParseErrors errors;
+    private InputStream in;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    // offset of the first byte of the buffer in the input
+    private long bufferOffset;
+    private int lineNumber = 1;
+    private long lineStart;
+    private long elementIndex;
+    private long count;
+
+    /**
+     * Constructor
+     * @param sink receiver of the parsed values
+     */
+    JsonFloatArrayParser(FloatSink sink) {
+        this(sink, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param sink receiver of the parsed values
+     * @param bufferSize initial size of the read buffer, it grows for tokens which do not fit
+     */
+    JsonFloatArrayParser(FloatSink sink, int bufferSize) {
+        this(sink, bufferSize, null);
+    }
+
+    /**
+     * Constructor
+     * @param sink receiver of the parsed values
+     * @param bufferSize initial size of the read buffer, it grows for tokens which do not fit
+     * @param errors error budget of the lenient mode, null to fail on the first element which is not a number
+     */
+    JsonFloatArrayParser(FloatSink sink, int bufferSize, ParseErrors errors) {
+        this.sink = sink;
+        this.errors = errors;
+        this.buffer = new byte[Math.max(2, bufferSize)];
+    }
+
+    /**
+     * @return the number of values pushed to the sink
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Reads the whole stream and pushes every number of the array to the sink.
+     *
+     * @throws ReadErrorException with code 4 if the input is not a JSON array of numbers,
+     * with code 2 if it cannot be read
+     */
+    void parse(InputStream in) throws IOException {
+        this.in = in;
+        if (peek() == 0xEF && limit - position >= 3 && buffer[position + 1] == (byte) 0xBB
+                && buffer[position + 2] == (byte) 0xBF) {
+            // a UTF-8 byte order mark, which Gson skips too
+            position += 3;
+        }
+        int b = skipWhitespace();
+        if (b < 0) {
+            return;
+        }
+        if (b == '[') {
+            position++;
+            readElements();
+        } else {
+            long tokenOffset = offset();
+            String token = readLiteral();
+            if (!token.equals("null")) {
+                throw error("Expected an array", tokenOffset);
+            }
+        }
+        if (skipWhitespace() >= 0) {
+            throw error("Unexpected content after the array", offset());
+        }
+    }
+
+    private void readElements() throws IOException {
+        boolean expectValue = true;
+        while (true) {
+            int b = skipWhitespace();
+            if (b < 0) {
+                throw error("End of input", offset());
+            }
+            if (b == ']') {
+                position++;
+                return;
+            }
+            if (b == ',' || b == ';') {
+                // an empty element is read as null by the lenient Gson reader
+                position++;
+                if (expectValue) {
+                    elementIndex++;
+                }
+                expectValue = true;
+                continue;
+            }
+            if (!expectValue) {
+                throw error("Expected , or ]", offset());
+            }
+            readValue(b);
+            elementIndex++;
+            expectValue = false;
+        }
+    }
+
+    private void readValue(int b) throws IOException {
+        long tokenOffset = offset();
+        String text;
+        if (b == '"' || b == '\'') {
+            text = readQuoted((byte) b);
+        } else if (b == '[' || b == '{') {
+            throw error("Expected a number", tokenOffset);
+        } else {
+            int start = literalEnd();
+            if (position == start) {
+                throw error("Unexpected character '" + (char) b + "'", tokenOffset);
+            }
+            double value = fastParse(buffer, start, position);
+            if (value == value) {
+                accept(value);
+                return;
+            }
+            text = new String(buffer, start, position - start, StandardCharsets.UTF_8);
+            if (text.equals("null")) {
+                return;
+            }
+        }
+        if (errors != null) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (!CsvFloatParser.isFloatLiteral(bytes, 0, bytes.length)) {
+                errors.add(lineNumber, tokenOffset - lineStart + 1, tokenOffset, text);
+                if (errors.getAction() == ParseErrors.Action.NAN) {
+                    accept(Double.NaN);
+                }
+                return;
+            }
+        }
+        try {
+            accept(Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            throw error("Expected a number but was " + text, tokenOffset);
+        }
+    }
+
+    private void accept(double value) {
+        sink.accept((float) value);
+        count++;
+    }
+
+    /**
+     * Converts a plain JSON number with at most 18 digits and a small exponent exactly to the nearest double.
+     *
+     * @return the value, or NaN if the token needs the exact conversion of {@link Double#parseDouble(String)}
+     */
+    private static double fastParse(byte[] bytes, int from, int to) {
+        int position = from;
+        boolean negative = bytes[position] == '-';
+        if (negative) {
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        int digitsStart = position;
+        for (; position < to && isDigit(bytes[position]); position++) {
+            mantissa = mantissa * 10 + (bytes[position] - '0');
+            digits++;
+        }
+        if (position == digitsStart) {
+            return Double.NaN;
+        }
+        if (position < to && bytes[position] == '.') {
+            int fractionStart = ++position;
+            for (; position < to && isDigit(bytes[position]); position++) {
+                mantissa = mantissa * 10 + (bytes[position] - '0');
+            }
+            exponent = fractionStart - position;
+            digits -= exponent;
+        }
+        if (position != to || digits > MAX_FAST_DIGITS || mantissa > (1L << 53) || exponent < -22) {
+            return Double.NaN;
+        }
+        // both operands are exact doubles, so the result is correctly rounded like Double.parseDouble
+        double value = mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Moves the position to the end of an unquoted literal, refilling the buffer if needed.
+     *
+     * @return the start of the literal in the buffer
+     */
+    private int literalEnd() throws IOException {
+        int start = position;
+        while (true) {
+            while (position < limit && !isLiteralEnd(buffer[position])) {
+                position++;
+            }
+            if (position < limit || endOfInput) {
+                return start;
+            }
+            start = fill(start);
+        }
+    }
+
+    private String readLiteral() throws IOException {
+        int start = literalEnd();
+        return new String(buffer, start, position - start, StandardCharsets.UTF_8);
+    }
+
+    private String readQuoted(byte quote) throws IOException {
+        long tokenOffset = offset();
+        int start = ++position;
+        while (true) {
+            while (position < limit && buffer[position] != quote) {
+                if (buffer[position] == '\\') {
+                    throw error("Escape sequences are not supported in numbers", offset());
+                }
+                position++;
+            }
+            if (position < limit) {
+                String text = new String(buffer, start, position - start, StandardCharsets.UTF_8);
+                position++;
+                return text;
+            }
+            if (endOfInput) {
+                throw error("Unterminated string", tokenOffset);
+            }
+            start = fill(start);
+        }
+    }
+
+    /**
+     * Skips whitespace and comments.
+     *
+     * @return the next byte, or -1 at the end of the input
+     */
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            int b = peek();
+            if (b == '\n') {
+                position++;
+                lineNumber++;
+                lineStart = offset();
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                position++;
+            } else if (b == '#') {
+                skipUntil("\n");
+            } else if (b == '/' && peekSecond() == '/') {
+                skipUntil("\n");
+            } else if (b == '/' && peekSecond() == '*') {
+                long commentOffset = offset();
+                position += 2;
+                if (!skipUntil("*/")) {
+                    throw error("Unterminated comment", commentOffset);
+                }
+                position += 2;
+            } else {
+                return b;
+            }
+        }
+    }
+
+    /**
+     * Moves the position to the next occurrence of the text, counting the lines on the way.
+     *
+     * @return false if the input ended before the text
+     */
+    private boolean skipUntil(String text) throws IOException {
+        while (true) {
+            int b = peek();
+            if (b < 0) {
+                return false;
+            }
+            if (b == text.charAt(0) && (text.length() == 1 || peekSecond() == text.charAt(1))) {
+                return true;
+            }
+            position++;
+            if (b == '\n') {
+                lineNumber++;
+                lineStart = offset();
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !endOfInput) {
+            fill(position);
+        }
+        return position < limit ? buffer[position] & 0xFF : -1;
+    }
+
+    private int peekSecond() throws IOException {
+        if (position + 1 >= limit && !endOfInput) {
+            fill(position);
+        }
+        return position + 1 < limit ? buffer[position + 1] & 0xFF : -1;
+    }
+
+    /**
+     * Moves the bytes from the given start to the beginning of the buffer and reads more input after them.
+     *
+     * @return the new position of the start
+     */
+    private int fill(int keepFrom) throws IOException {
+        int kept = limit - keepFrom;
+        if (keepFrom == 0 && kept == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else {
+            System.arraycopy(buffer, keepFrom, buffer, 0, kept);
+        }
+        bufferOffset += keepFrom;
+        position -= keepFrom;
+        limit = kept;
+        while (limit < buffer.length && !endOfInput) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfInput = true;
+            } else if (read > 0) {
+                limit += read;
+                break;
+            }
+        }
+        return 0;
+    }
+
+    private long offset() {
+        return bufferOffset + position;
+    }
+
+    private ReadErrorException error(String message, long offset) {
+        return new ReadErrorException("Invalid JSON format: " + message + " at line " + lineNumber
+                + " column " + (offset - lineStart + 1) + " (offset " + offset + ") path $[" + elementIndex + "]", 4);
+    }
+
+    /**
+     * The characters which end an unquoted literal in the lenient Gson reader.
+     */
+    private static boolean isLiteralEnd(byte b) {
+        switch (b) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+            case '\f':
+            case ',':
+            case ';':
+            case ':':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+            case '/':
+            case '\\':
+            case '#':
+            case '=':
+            case '"':
+            case '\'':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
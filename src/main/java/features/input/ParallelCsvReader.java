@@ -0,0 +1,341 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import features.data.FloatSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a large csv file by memory mapping it in chunks which end at line boundaries and parsing the chunks
+ * in parallel into their own columns, which are pushed to the sink in the order of the file.
+ * The sink gets the same values in the same order as from the sequential {@link CsvFloatParser}.
+ * <p>
+ * Every chunk has its own mapping, so files larger than 2 GB can be read too. The number of columns of the
+ * first line is read before the chunks are parsed, so every chunk checks its lines against it, and the line
+ * numbers in the error messages count the lines of all chunks before.
+ * At most two chunks per thread are mapped or waiting to be pushed at the same time.
+ * <p>
+ * With a selection of {@link CsvColumns}, the header and the selected columns are resolved with the first line,
+ * every chunk parses the selected columns into columns of their own and skips the others.
+ */
+final class ParallelCsvReader {
+
+    // files from this size on are read in parallel
+    static final long PARALLEL_THRESHOLD = 16L * 1024 * 1024;
+    static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    private static final Logger logger = LoggerFactory.getLogger(ParallelCsvReader.class);
+
+    private final Path file;
+    private final int threads;
+    private final long chunkSize;
+    private final ParseErrors errors;
+
+    /**
+     * Constructor with about four chunks per thread, from {@link #MIN_CHUNK_SIZE} to 64 MB each
+     * @param file csv file
+     * @param threads number of chunks parsed at the same time
+     */
+    ParallelCsvReader(Path file, int threads) {
+        this(file, threads, 0);
+    }
+
+    /**
+     * Constructor
+     * @param file csv file
+     * @param threads number of chunks parsed at the same time
+     * @param chunkSize nominal size of a chunk, the chunks are extended to the next line start,
+     * 0 for the default size
+     */
+    ParallelCsvReader(Path file, int threads, long chunkSize) {
+        this(file, threads, chunkSize, null);
+    }
+
+    /**
+     * Constructor
+     * @param file csv file
+     * @param threads number of chunks parsed at the same time
+     * @param chunkSize nominal size of a chunk, the chunks are extended to the next line start,
+     * 0 for the default size
+     * @param errors error budget of the lenient mode, null to throw an exception for the first invalid value,
+     * every chunk records its errors on its own and they are counted against the budget in the order of the file
+     */
+    ParallelCsvReader(Path file, int threads, long chunkSize, ParseErrors errors) {
+        this.file = file;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.errors = errors;
+    }
+
+    /**
+     * Reads the file and pushes every parsed value to the sink, in the order of the file.
+     *
+     * @throws ReadErrorException with code 1 if the first line is missing or blank,
+     * with code 4 if a line has a different number of columns than the first one, with code 2 if it cannot be read
+     * @throws exceptions.InvalidNumberFormatException with code 4 for a value which is not a number
+     */
+    void readInto(FloatSink sink) throws IOException {
+        read(new FloatSink[]{sink}, null);
+    }
+
+    /**
+     * Reads the selected columns of the file and pushes the values of every column to its sink,
+     * in the order of the file.
+     *
+     * @param sinks receiver of the values of every selected column, in the order of the selection,
+     *              the same sink may receive several columns, it gets their values in the order of the lines then,
+     *              a single sink receives all of them
+     * @return the names of the selected columns
+     * @throws ReadErrorException with code 4 if a selected column does not exist, see also {@link #readInto}
+     */
+    List<String> readColumnsInto(FloatSink[] sinks, CsvColumns selection) throws IOException {
+        return read(sinks, selection);
+    }
+
+    private List<String> read(FloatSink[] sinks, CsvColumns selection) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CsvFloatParser firstLine = parseFirstLine(channel, sinks, selection, errors);
+            int columnCount = firstLine.getColumnCount();
+            int[] indexes = firstLine.getColumnIndexes();
+            // the chunks start after a header line
+            long dataStart = selection != null && selection.hasHeader() ? nextLineStart(channel, 1, size) : 0;
+            long nominalChunkSize = chunkSize > 0 ? chunkSize
+                    : Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / ((long) threads * CHUNKS_PER_THREAD) + 1));
+            List<long[]> chunks = chunks(channel, dataStart, size, nominalChunkSize);
+            logger.info("Reading {} bytes of {} in {} chunks with {} threads", size, file, chunks.size(), threads);
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "csv-chunk-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+                int next = 0;
+                long linesBefore = dataStart > 0 ? 1 : 0;
+                while (next < chunks.size() || !inFlight.isEmpty()) {
+                    while (next < chunks.size() && inFlight.size() < threads * CHUNKS_IN_FLIGHT_PER_THREAD) {
+                        long[] chunk = chunks.get(next++);
+                        inFlight.add(executor.submit(() -> parseChunk(channel, chunk[0], chunk[1], columnCount,
+                                sinks, indexes, errors)));
+                    }
+                    ChunkResult result = await(inFlight.poll());
+                    if (errors != null) {
+                        errors.merge(result.errors, linesBefore, result.start);
+                    }
+                    if (result.errorLine > 0) {
+                        throw CsvFloatParser.inconsistentColumns(linesBefore + result.errorLine);
+                    }
+                    for (int i = 0; i < sinks.length; i++) {
+                        if (result.values[i] != null) {
+                            sinks[i].accept(result.values[i].elements(), 0, result.values[i].size());
+                        }
+                    }
+                    linesBefore += result.lines;
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            return firstLine.getColumnNames();
+        }
+    }
+
+    /**
+     * Parses the first line alone for the number of columns every line has to have, and the selected columns.
+     */
+    static CsvFloatParser parseFirstLine(FileChannel channel, FloatSink[] sinks, CsvColumns selection,
+                                        ParseErrors errors) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0;
+        while (true) {
+            int read = channel.read(buffer, position);
+            byte[] bytes = buffer.array();
+            int lineEnd = -1;
+            for (int i = 0; i < buffer.position(); i++) {
+                if (bytes[i] == '\n' || bytes[i] == '\r') {
+                    lineEnd = i;
+                    break;
+                }
+            }
+            if (lineEnd >= 0 || read < 0) {
+                // the values of the first line are pushed and its invalid values recorded when the first chunk is parsed
+                ParseErrors firstLineErrors = errors == null ? null : errors.forPart();
+                CsvFloatParser parser = selection == null
+                        ? new CsvFloatParser(new FloatColumn(), 2, -1, firstLineErrors)
+                        : new CsvFloatParser(discarding(sinks.length), selection, 2, firstLineErrors);
+                parser.parseLines(bytes, 0, lineEnd >= 0 ? lineEnd : buffer.position(), true);
+                if (parser.getLineNumber() == 0) {
+                    throw new ReadErrorException("Error: Input is empty", 1);
+                }
+                return parser;
+            }
+            position += read;
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    /**
+     * Splits the file into ranges of about the chunk size, each extended to the start of the next line.
+     *
+     * @return the start and end of every chunk
+     */
+    private List<long[]> chunks(FileChannel channel, long start, long size, long chunkSize) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new ReadErrorException("Read Error: a line of " + file + " is longer than 2 GB", 2);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the position of the first line start at or after the position, a \r\n line end is not split
+     */
+    static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        // the byte before decides whether the position already is a line start
+        long scanned = position - 1;
+        while (scanned < size) {
+            buffer.clear();
+            int read = channel.read(buffer, scanned);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    return scanned + i + 1;
+                }
+                if (b == '\r') {
+                    long next = scanned + i + 1;
+                    if (next == size) {
+                        return size;
+                    }
+                    byte following = i + 1 < read ? buffer.get(i + 1) : readByte(channel, next);
+                    return following == '\n' ? next + 1 : next;
+                }
+            }
+            scanned += read;
+        }
+        return size;
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, position);
+        return buffer.get(0);
+    }
+
+    private static ChunkResult parseChunk(FileChannel channel, long start, long end, int columnCount, FloatSink[] sinks,
+                                          int[] indexes, ParseErrors errors) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        ChunkResult result = new ChunkResult();
+        result.start = start;
+        result.errors = errors == null ? null : errors.forPart();
+        // about one value per 8 bytes of text, spread over the columns, the columns grow if there are more
+        long expectedValues = (end - start) / 8 + 16;
+        result.values = new FloatColumn[sinks.length];
+        CsvFloatParser parser;
+        if (indexes == null) {
+            result.values[0] = new FloatColumn((int) expectedValues);
+            parser = new CsvFloatParser(result.values[0], CsvFloatParser.DEFAULT_BUFFER_SIZE, columnCount, result.errors);
+        } else {
+            // columns going to the same sink are collected in the same column, to keep the order of their values
+            FloatSink[] chunkSinks = new FloatSink[sinks.length];
+            for (int i = 0; i < sinks.length; i++) {
+                int same = indexOf(sinks, sinks[i], i);
+                if (same < 0) {
+                    result.values[i] = new FloatColumn((int) (expectedValues / Math.max(1, columnCount)) + 16);
+                    chunkSinks[i] = result.values[i];
+                } else {
+                    chunkSinks[i] = chunkSinks[same];
+                }
+            }
+            parser = new CsvFloatParser(chunkSinks, indexes, CsvFloatParser.DEFAULT_BUFFER_SIZE, columnCount,
+                    result.errors);
+        }
+        try {
+            parser.parse(mapped);
+        } catch (ReadErrorException e) {
+            // the line number is only known relative to the chunk here
+            result.errorLine = parser.getLineNumber();
+        }
+        result.lines = parser.getLineNumber();
+        return result;
+    }
+
+    /**
+     * @return the first position before the end with the same sink, -1 if there is none
+     */
+    private static int indexOf(FloatSink[] sinks, FloatSink sink, int end) {
+        for (int i = 0; i < end; i++) {
+            if (sinks[i] == sink) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static FloatSink[] discarding(int count) {
+        FloatSink[] sinks = new FloatSink[count];
+        Arrays.fill(sinks, (FloatSink) value -> { });
+        return sinks;
+    }
+
+    private static ChunkResult await(Future<ChunkResult> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadErrorException("Read Error: interrupted while reading the file", e, 2);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ReadErrorException("Read Error: " + cause, cause, 2);
+        }
+    }
+
+    private static final class ChunkResult {
+        private long start;
+        // the values of every selected column, null for a column collected with an earlier one
+        private FloatColumn[] values;
+        // invalid values of the lenient mode, relative to the start of the chunk
+        private ParseErrors errors;
+        private long lines;
+        // line of the chunk with a different number of columns, 0 if there is none
+        private long errorLine;
+    }
+}
@@ -0,0 +1,243 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import exceptions.WriteErrorException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Error budget of the lenient parsing mode: invalid values are skipped or read as NaN instead of aborting the run,
+ * until there are more of them than the budget. The invalid values are recorded with their position for a report,
+ * up to a limit, and counted beyond it.
+ * <p>
+ * The parsers only look at values which are not plain decimal numbers more closely, and validate them without
+ * throwing exceptions, so valid input is parsed as fast as in the strict mode. An instance may be shared by readers
+ * running on several threads, e.g. for a set of files, {@link #forSource(String)} names the file of its errors.
+ */
+public final class ParseErrors {
+
+    /**
+     * What becomes of an invalid value
+     */
+    public enum Action {
+        /**
+         * The value is left out
+         */
+        SKIP,
+        /**
+         * The value is read as NaN, so the other values keep their position
+         */
+        NAN
+    }
+
+    static final int DEFAULT_REPORT_LIMIT = 10_000;
+
+    private final Action action;
+    private final long budget;
+    private final int reportLimit;
+    private final String source;
+    // the errors of all sources are counted and recorded by the root, on which the instances synchronize
+    private final ParseErrors root;
+    private final List<ParseError> errors;
+    private long count;
+
+    /**
+     * Constructor recording up to 10000 errors
+     * @param action what becomes of an invalid value
+     * @param budget number of invalid values tolerated, Long.MAX_VALUE for no limit
+     */
+    public ParseErrors(Action action, long budget) {
+        this(action, budget, DEFAULT_REPORT_LIMIT);
+    }
+
+    /**
+     * Constructor
+     * @param action what becomes of an invalid value
+     * @param budget number of invalid values tolerated, Long.MAX_VALUE for no limit
+     * @param reportLimit number of errors recorded for the report, the other ones are only counted
+     */
+    public ParseErrors(Action action, long budget, int reportLimit) {
+        this(action, budget, reportLimit, "", null);
+    }
+
+    private ParseErrors(Action action, long budget, int reportLimit, String source, ParseErrors root) {
+        if (budget < 0 || reportLimit < 0) {
+            throw new IllegalArgumentException("Error budget and report limit must not be negative");
+        }
+        this.action = action;
+        this.budget = budget;
+        this.reportLimit = reportLimit;
+        this.source = source;
+        this.root = root == null ? this : root;
+        this.errors = root == null ? new ArrayList<>() : null;
+    }
+
+    /**
+     * @return errors counted against the same budget, which name the source, e.g. one file of a set of files
+     */
+    public ParseErrors forSource(String source) {
+        return new ParseErrors(action, budget, reportLimit, source, root);
+    }
+
+    /**
+     * @return errors of a part of the input parsed on its own, e.g. a chunk of a file, without a budget,
+     * whose positions count from the start of the part until they are {@link #merge merged} into these errors
+     */
+    ParseErrors forPart() {
+        return new ParseErrors(action, Long.MAX_VALUE, reportLimit, source, null);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Records an invalid value.
+     *
+     * @param line line of the value, from 1
+     * @param column position of the first byte of the value in the line, from 1
+     * @param offset position of the first byte of the value in the input, from 0
+     * @param token the invalid value as it was read
+     * @throws ReadErrorException with code 4 if there are more invalid values than the budget
+     */
+    void add(long line, long column, long offset, String token) throws ReadErrorException {
+        ParseError error = new ParseError(source, line, column, offset, token);
+        synchronized (root) {
+            root.record(error, 1);
+            root.checkBudget(error);
+        }
+    }
+
+    /**
+     * Adds the errors of a part, whose lines and offsets are relative to the start of the part.
+     *
+     * @throws ReadErrorException with code 4 if there are more invalid values than the budget
+     */
+    void merge(ParseErrors part, long linesBefore, long offsetBefore) throws ReadErrorException {
+        if (part.count == 0) {
+            return;
+        }
+        ParseError last = null;
+        synchronized (root) {
+            for (ParseError error : part.errors) {
+                last = new ParseError(source, error.line + linesBefore, error.column, error.offset + offsetBefore,
+                        error.token);
+                root.record(last, 0);
+            }
+            root.count += part.count;
+            root.checkBudget(last);
+        }
+    }
+
+    private void record(ParseError error, long counted) {
+        if (errors.size() < reportLimit) {
+            errors.add(error);
+        }
+        count += counted;
+    }
+
+    private void checkBudget(ParseError error) throws ReadErrorException {
+        if (count > budget) {
+            throw new ReadErrorException("Format Error: " + count + " invalid values, more than the error budget of "
+                    + budget + (error == null ? "" : ", the last one " + error), 4);
+        }
+    }
+
+    /**
+     * @return the number of invalid values of all sources
+     */
+    public long getCount() {
+        synchronized (root) {
+            return root.count;
+        }
+    }
+
+    /**
+     * @return the recorded errors of all sources, in the order they were found
+     */
+    public List<ParseError> getErrors() {
+        synchronized (root) {
+            return Collections.unmodifiableList(new ArrayList<>(root.errors));
+        }
+    }
+
+    /**
+     * Writes the recorded errors as csv, one line per error: source, line, column, offset and the invalid value.
+     */
+    public void writeReport(Path file) throws WriteErrorException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("SOURCE,LINE,COLUMN,OFFSET,TOKEN\n");
+            for (ParseError error : getErrors()) {
+                writer.write(quote(error.getSource()) + "," + error.getLine() + "," + error.getColumn() + ","
+                        + error.getOffset() + "," + quote(error.getToken()) + "\n");
+            }
+            long unrecorded = getCount() - getErrors().size();
+            if (unrecorded > 0) {
+                writer.write("# " + unrecorded + " more invalid values are not recorded\n");
+            }
+        } catch (IOException e) {
+            throw new WriteErrorException("Failed to write the error report: " + file, e, 3);
+        }
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * An invalid value and its position
+     */
+    public static final class ParseError {
+        private final String source;
+        private final long line;
+        private final long column;
+        private final long offset;
+        private final String token;
+
+        ParseError(String source, long line, long column, long offset, String token) {
+            this.source = source;
+            this.line = line;
+            this.column = column;
+            this.offset = offset;
+            this.token = token;
+        }
+
+        /**
+         * @return the file of the value, empty if there is only one input
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public long getColumn() {
+            return column;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        @Override
+        public String toString() {
+            return (source.isEmpty() ? "" : source + " ") + "at line " + line + " column " + column
+                    + " (offset " + offset + "): " + token;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.FloatSink;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs another reader on its own thread and hands its values over to the sink in blocks through a bounded queue,
+ * so parsing the input runs on a different core than the sink, e.g. the accumulator of the actions
+ * or the writer of a converted file. The reader is told to read its raw bytes ahead on a third thread,
+ * see {@link InputReader#readBytesAhead()}, which hands them over in reused byte blocks through a bounded queue
+ * of its own, see {@link PipelinedInputStream}. The throughput approaches the one of the slowest stage instead of
+ * the sum of all of them.
+ * <p>
+ * The blocks are reused: the parsing thread waits for a free block when the sink falls behind,
+ * so at most {@code queueCapacity} + 1 blocks are allocated. Only full blocks are handed over,
+ * plus the last one at the end of the input, so the sink always gets blocks of the full size. The writing of
+ * a converted file is not separated from the sink. The exceptions of the reader are thrown by {@link #readInto}
+ * after the values read before them, with the same error codes. If the sink throws, the reading threads are stopped.
+ */
+public final class PipelinedInputReader implements InputReader {
+
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    static final int DEFAULT_QUEUE_CAPACITY = 2;
+
+    private final InputReader source;
+    private final int blockSize;
+    private final int queueCapacity;
+
+    /**
+     * Constructor with blocks of 64K values, two of them filled ahead
+     * @param source reader run on the new thread
+     */
+    public PipelinedInputReader(InputReader source) {
+        this(source, DEFAULT_BLOCK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param source reader run on the new thread
+     * @param blockSize number of values of a block
+     * @param queueCapacity number of blocks filled ahead of the sink
+     */
+    PipelinedInputReader(InputReader source, int blockSize, int queueCapacity) {
+        if (blockSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Block size and queue capacity must be positive");
+        }
+        this.source = source;
+        source.readBytesAhead();
+        this.blockSize = blockSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void readInto(FloatSink sink) throws ReadErrorException {
+        // one more slot for the end or the error after a full queue
+        BlockingQueue<Block> filled = new ArrayBlockingQueue<>(queueCapacity + 1);
+        BlockingQueue<float[]> free = new ArrayBlockingQueue<>(queueCapacity + 1);
+        for (int i = 0; i <= queueCapacity; i++) {
+            free.add(new float[blockSize]);
+        }
+        Thread thread = new Thread(() -> read(filled, free), "input-parser");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            while (true) {
+                Block block = filled.take();
+                if (block == Block.END) {
+                    return;
+                }
+                if (block.error != null) {
+                    throw rethrow(block.error);
+                }
+                sink.accept(block.values, 0, block.length);
+                free.add(block.values);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadErrorException("Read Error: interrupted while waiting for the input", e, 2);
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+    private void read(BlockingQueue<Block> filled, BlockingQueue<float[]> free) {
+        try {
+            BlockSink blocks = new BlockSink(filled, free);
+            source.readInto(blocks);
+            blocks.handOver();
+            filled.put(Block.END);
+        } catch (InterruptedException | Stopped e) {
+            // the sink failed, nobody waits for the values any more
+        } catch (ReadErrorException | RuntimeException | Error e) {
+            // this thread holds one of the blocks, so the queue has a slot left for the error
+            filled.offer(new Block(null, 0, e));
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable error) throws ReadErrorException {
+        if (error instanceof ReadErrorException) {
+            ReadErrorException readError = (ReadErrorException) error;
+            throw new ReadErrorException(readError.getMessage(), readError, readError.getErrorCode());
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return (RuntimeException) error;
+    }
+
+    /**
+     * Copies the values pushed by the reader into the blocks and puts them into the queue.
+     */
+    private static final class BlockSink implements FloatSink {
+        private final BlockingQueue<Block> filled;
+        private final BlockingQueue<float[]> free;
+        private float[] block;
+        private int size;
+
+        private BlockSink(BlockingQueue<Block> filled, BlockingQueue<float[]> free) throws InterruptedException {
+            this.filled = filled;
+            this.free = free;
+            this.block = free.take();
+        }
+
+        @Override
+        public void accept(float value) {
+            block[size++] = value;
+            if (size == block.length) {
+                handOverUninterruptibly();
+            }
+        }
+
+        @Override
+        public void accept(float[] values, int offset, int length) {
+            while (length > 0) {
+                int count = Math.min(length, block.length - size);
+                System.arraycopy(values, offset, block, size, count);
+                size += count;
+                offset += count;
+                length -= count;
+                if (size == block.length) {
+                    handOverUninterruptibly();
+                }
+            }
+        }
+
+        private void handOver() throws InterruptedException {
+            if (size > 0) {
+                filled.put(new Block(block, size, null));
+                block = free.take();
+                size = 0;
+            }
+        }
+
+        private void handOverUninterruptibly() {
+            try {
+                handOver();
+            } catch (InterruptedException e) {
+                // unwinds the reader, which cannot throw a checked exception from the sink
+                throw new Stopped();
+            }
+        }
+    }
+
+    /**
+     * Thrown through the reader when the sink failed
+     */
+    private static final class Stopped extends RuntimeException {
+        private Stopped() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Block {
+        private static final Block END = new Block(null, 0, null);
+
+        private final float[] values;
+        private final int length;
+        private final Throwable error;
+
+        private Block(float[] values, int length, Throwable error) {
+            this.values = values;
+            this.length = length;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package features.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads another stream on its own thread, e.g. one decompressing its input, and hands the bytes over
+ * in blocks through a bounded queue, so reading the source and processing its bytes run on different cores.
+ * <p>
+ * The blocks are reused: the reading thread waits for a free block when the reader of this stream
+ * falls behind, so at most {@code queueCapacity} + 1 blocks are allocated. An exception of the source
+ * is thrown by the read after the last block read before it. Closing this stream stops the thread.
+ */
+final class PipelinedInputStream extends InputStream {
+
+    static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+    static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private static final Block END = new Block(null, -1, null);
+
+    private final BlockingQueue<Block> filled;
+    private final BlockingQueue<byte[]> free;
+    private final Thread thread;
+    private Block current;
+    private int position;
+    private boolean ended;
+
+    /**
+     * Constructor with blocks of 256 KB, four of them filled ahead
+     * @param source stream read on the new thread, closed when it is read to the end or this stream is closed
+     * @param name name of the thread
+     */
+    PipelinedInputStream(InputStream source, String name) {
+        this(source, name, DEFAULT_BLOCK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param source stream read on the new thread, closed when it is read to the end or this stream is closed
+     * @param name name of the thread
+     * @param blockSize size of the blocks handed over
+     * @param queueCapacity number of blocks filled ahead of the reader of this stream
+     */
+    PipelinedInputStream(InputStream source, String name, int blockSize, int queueCapacity) {
+        if (blockSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Block size and queue capacity must be positive");
+        }
+        // one more slot for the end or the error after a full queue
+        this.filled = new ArrayBlockingQueue<>(queueCapacity + 1);
+        this.free = new ArrayBlockingQueue<>(queueCapacity + 1);
+        for (int i = 0; i <= queueCapacity; i++) {
+            free.add(new byte[blockSize]);
+        }
+        this.thread = new Thread(() -> fill(source), name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void fill(InputStream source) {
+        try (InputStream in = source) {
+            while (true) {
+                byte[] bytes = free.take();
+                int length = readFully(in, bytes);
+                if (length > 0) {
+                    filled.put(new Block(bytes, length, null));
+                }
+                if (length < bytes.length) {
+                    filled.put(END);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed by the reader
+        } catch (IOException | RuntimeException e) {
+            // this thread holds one of the blocks, so the queue has a slot left for the error
+            filled.offer(new Block(null, -1, e));
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] bytes) throws IOException {
+        int length = 0;
+        while (length < bytes.length) {
+            int read = in.read(bytes, length, bytes.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+        return current.bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.bytes, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Makes sure the current block has bytes left, taking the next one if needed.
+     *
+     * @return false at the end of the source
+     */
+    private boolean nextBlock() throws IOException {
+        if (current != null && position < current.length) {
+            return true;
+        }
+        if (ended) {
+            return false;
+        }
+        if (current != null) {
+            free.add(current.bytes);
+            current = null;
+        }
+        Block block;
+        try {
+            block = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the input", e);
+        }
+        if (block.error != null) {
+            ended = true;
+            throw new IOException(block.error.getMessage(), block.error);
+        }
+        if (block == END) {
+            ended = true;
+            return false;
+        }
+        current = block;
+        position = 0;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        current = null;
+        ended = true;
+        thread.interrupt();
+    }
+
+    private static final class Block {
+        private final byte[] bytes;
+        private final int length;
+        private final Exception error;
+
+        private Block(byte[] bytes, int length, Exception error) {
+            this.bytes = bytes;
+            this.length = length;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import features.data.FloatSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a remote csv file by fetching byte ranges of it concurrently, e.g. with HTTP range requests,
+ * and parsing the complete lines of every range on the thread which fetched it. The line split between
+ * two ranges is parsed when the ranges are pushed to the sink, in the order of the file, so the sink gets
+ * the same values in the same order as from the sequential {@link CsvFloatParser}.
+ * <p>
+ * The number of columns of the first line is taken from the first range and every other range waits for it
+ * before parsing. At most two ranges per thread are fetched or waiting to be pushed at the same time.
+ */
+final class RangedCsvReader {
+
+    /**
+     * Fetches a byte range of the file
+     */
+    interface RangeFetcher {
+        /**
+         * @return the bytes from the start to the end (exclusive)
+         */
+        byte[] fetch(long start, long end) throws IOException;
+    }
+
+    private static final int RANGES_IN_FLIGHT_PER_THREAD = 2;
+    private static final Logger logger = LoggerFactory.getLogger(RangedCsvReader.class);
+
+    private final RangeFetcher fetcher;
+    private final long size;
+    private final int threads;
+    private final long rangeSize;
+    private final ParseErrors errors;
+
+    /**
+     * Constructor
+     * @param fetcher fetches the ranges, called from several threads at the same time
+     * @param size size of the file
+     * @param threads number of ranges fetched and parsed at the same time
+     * @param rangeSize size of the ranges
+     */
+    RangedCsvReader(RangeFetcher fetcher, long size, int threads, long rangeSize) {
+        this(fetcher, size, threads, rangeSize, null);
+    }
+
+    /**
+     * Constructor
+     * @param fetcher fetches the ranges, called from several threads at the same time
+     * @param size size of the file
+     * @param threads number of ranges fetched and parsed at the same time
+     * @param rangeSize size of the ranges
+     * @param errors error budget of the lenient mode, null to throw an exception for the first invalid value
+     */
+    RangedCsvReader(RangeFetcher fetcher, long size, int threads, long rangeSize, ParseErrors errors) {
+        if (rangeSize < 1 || rangeSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Range size must be from 1 to 2 GB: " + rangeSize);
+        }
+        this.fetcher = fetcher;
+        this.size = size;
+        this.threads = threads;
+        this.rangeSize = rangeSize;
+        this.errors = errors;
+    }
+
+    /**
+     * Reads the file and pushes every parsed value to the sink, in the order of the file.
+     *
+     * @return false, before any value is pushed, if the first line does not end in the first range,
+     * the file has to be read sequentially then
+     * @throws ReadErrorException with code 1 if the first line is blank,
+     * with code 4 if a line has a different number of columns than the first one, with code 2 if it cannot be read
+     * @throws exceptions.InvalidNumberFormatException with code 4 for a value which is not a number
+     */
+    boolean readInto(FloatSink sink) throws IOException {
+        int ranges = (int) ((size + rangeSize - 1) / rangeSize);
+        CompletableFuture<Integer> columnCount = new CompletableFuture<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "csv-range-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Reading {} bytes in {} ranges with {} threads", size, ranges, threads);
+        try {
+            Deque<Future<RangeResult>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            long linesBefore = 0;
+            // the start of the line which continues in the next range
+            byte[] tail = new byte[0];
+            while (next < ranges || !inFlight.isEmpty()) {
+                while (next < ranges && inFlight.size() < threads * RANGES_IN_FLIGHT_PER_THREAD) {
+                    int index = next++;
+                    inFlight.add(executor.submit(() -> readRange(index, ranges, columnCount)));
+                }
+                RangeResult result = await(inFlight.poll());
+                if (result == null) {
+                    return false;
+                }
+                if (result.headEnd < 0) {
+                    // the whole range belongs to the line of the tail
+                    tail = concat(tail, result.bytes, 0, result.bytes.length);
+                    continue;
+                }
+                long rangeStart = result.index * rangeSize;
+                if (result.index > 0) {
+                    byte[] line = concat(tail, result.bytes, 0, result.headEnd);
+                    linesBefore += parseLine(line, rangeStart - tail.length, columnCount.join(), linesBefore, sink);
+                }
+                if (errors != null) {
+                    errors.merge(result.errors, linesBefore, rangeStart);
+                }
+                if (result.errorLine > 0) {
+                    throw CsvFloatParser.inconsistentColumns(linesBefore + result.errorLine);
+                }
+                sink.accept(result.values.elements(), 0, result.values.size());
+                linesBefore += result.lines;
+                tail = Arrays.copyOfRange(result.bytes, result.tailStart, result.bytes.length);
+            }
+            if (tail.length > 0) {
+                parseLine(tail, size - tail.length, columnCount.join(), linesBefore, sink);
+            }
+            return true;
+        } finally {
+            columnCount.cancel(false);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetches a range and parses its complete lines, without the line started in the range before
+     * and the line continued in the range after.
+     *
+     * @return the range, or null if it is the first one and the first line does not end in it
+     */
+    private RangeResult readRange(int index, int ranges, CompletableFuture<Integer> columnCount) throws IOException {
+        long start = index * rangeSize;
+        long end = Math.min(size, start + rangeSize);
+        RangeResult result = new RangeResult();
+        result.index = index;
+        try {
+            result.bytes = fetcher.fetch(start, end);
+            if (result.bytes.length != end - start) {
+                throw new ReadErrorException("Read Error: expected " + (end - start) + " bytes from " + start
+                        + " but got " + result.bytes.length, 2);
+            }
+            byte[] bytes = result.bytes;
+            boolean last = index == ranges - 1;
+            result.headEnd = index == 0 ? 0 : firstLineEnd(bytes);
+            result.tailStart = last ? bytes.length : lastLineEnd(bytes);
+            if (index == 0) {
+                int firstLineEnd = firstLineEnd(bytes);
+                if (firstLineEnd < 0 && !last) {
+                    return null;
+                }
+                // the invalid values of the first line are recorded when the range is parsed
+                CsvFloatParser firstLine = new CsvFloatParser(new FloatColumn(), 2, -1,
+                        errors == null ? null : errors.forPart());
+                firstLine.parseLines(bytes, 0, firstLineEnd < 0 ? bytes.length : firstLineEnd, true);
+                if (firstLine.getLineNumber() == 0) {
+                    throw new ReadErrorException("Error: Input is empty", 1);
+                }
+                columnCount.complete(firstLine.getColumnCount());
+            }
+            if (result.headEnd < 0) {
+                return result;
+            }
+            int count = awaitColumnCount(columnCount);
+            int from = result.headEnd;
+            int to = Math.max(from, result.tailStart);
+            result.values = new FloatColumn((to - from) / 8 + 16);
+            result.errors = errors == null ? null : errors.forPart();
+            CsvFloatParser parser = new CsvFloatParser(result.values, CsvFloatParser.DEFAULT_BUFFER_SIZE, count,
+                    result.errors);
+            try {
+                parser.parseLines(bytes, from, to, true);
+            } catch (ReadErrorException e) {
+                // the line number is only known relative to the range here
+                result.errorLine = parser.getLineNumber();
+            }
+            result.lines = parser.getLineNumber();
+            result.tailStart = to;
+            return result;
+        } finally {
+            if (index == 0 && !columnCount.isDone()) {
+                // the other ranges are not parsed without the first line
+                columnCount.completeExceptionally(new CancellationException());
+            }
+        }
+    }
+
+    /**
+     * Parses the line split between two ranges, or the last line.
+     *
+     * @return the number of lines parsed
+     */
+    private long parseLine(byte[] line, long lineOffset, int columnCount, long linesBefore, FloatSink sink)
+            throws ReadErrorException {
+        ParseErrors lineErrors = errors == null ? null : errors.forPart();
+        CsvFloatParser parser = new CsvFloatParser(sink, 2, columnCount, lineErrors);
+        try {
+            parser.parseLines(line, 0, line.length, true);
+        } catch (ReadErrorException e) {
+            throw CsvFloatParser.inconsistentColumns(linesBefore + parser.getLineNumber());
+        }
+        if (errors != null) {
+            errors.merge(lineErrors, linesBefore, lineOffset);
+        }
+        return parser.getLineNumber();
+    }
+
+    /**
+     * @return the position after the first line end, -1 if there is none or it may be the \r of a split \r\n
+     */
+    private static int firstLineEnd(byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+            if (bytes[i] == '\r') {
+                if (i + 1 == bytes.length) {
+                    return -1;
+                }
+                return bytes[i + 1] == '\n' ? i + 2 : i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the position after the last line end, a \r at the very end is not counted
+     * because the \n of a \r\n line end may follow in the next range
+     */
+    private static int lastLineEnd(byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n' || bytes[i] == '\r' && i + 1 < bytes.length) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second, int from, int to) {
+        byte[] bytes = Arrays.copyOf(first, first.length + to - from);
+        System.arraycopy(second, from, bytes, first.length, to - from);
+        return bytes;
+    }
+
+    private static int awaitColumnCount(CompletableFuture<Integer> columnCount) throws IOException {
+        try {
+            return columnCount.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadErrorException("Read Error: interrupted while reading the ranges", e, 2);
+        } catch (ExecutionException | CancellationException e) {
+            // the first range failed, its error is reported
+            throw new ReadErrorException("Read Error: the first range could not be read", e, 2);
+        }
+    }
+
+    private static RangeResult await(Future<RangeResult> range) throws IOException {
+        try {
+            return range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadErrorException("Read Error: interrupted while reading the ranges", e, 2);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ReadErrorException("Read Error: " + cause, cause, 2);
+        }
+    }
+
+    private static final class RangeResult {
+        private int index;
+        private byte[] bytes;
+        // end of the line started in the range before, -1 if it does not end in this range
+        private int headEnd;
+        // start of the line continued in the range after
+        private int tailStart;
+        private FloatColumn values;
+        // invalid values of the lenient mode, relative to the start of the range
+        private ParseErrors errors;
+        private long lines;
+        // line of the range with a different number of columns, 0 if there is none
+        private long errorLine;
+    }
+}
@@ -0,0 +1,365 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.actions.SampleEstimator;
+import features.data.FloatSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Draws a sample of a csv file for a {@link SampleEstimator}.
+ * <p>
+ * The bernoulli and reservoir sampling scan the whole file for its line ends, but only parse the lines they take,
+ * every line is a cluster of the estimator. The bernoulli sampling jumps from one taken line to the next with
+ * geometrically distributed gaps, the reservoir is filled by Li's algorithm L, so the random numbers drawn do not
+ * grow with the number of lines either. Both also read compressed files.
+ * <p>
+ * The block sampling splits the file into blocks of a fixed size and only reads the chosen ones, every block is
+ * a cluster made of the lines starting in it, so the lines are split among the blocks like among the chunks of
+ * the {@link ParallelCsvReader} and a block inside a long line is an empty cluster.
+ */
+final class SampledCsvReader {
+
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Logger logger = LoggerFactory.getLogger(SampledCsvReader.class);
+
+    private final Path file;
+    private final SamplingMode mode;
+    private final CsvColumns columns;
+    private final int blockSize;
+
+    /**
+     * Constructor with blocks of 64 KB
+     * @param file csv file
+     * @param mode how the sample is drawn
+     * @param columns header and selected columns, their values are sampled together, null for every column
+     */
+    SampledCsvReader(Path file, SamplingMode mode, CsvColumns columns) {
+        this(file, mode, columns, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param file csv file
+     * @param mode how the sample is drawn
+     * @param columns header and selected columns, their values are sampled together, null for every column
+     * @param blockSize size of the blocks of the block sampling
+     */
+    SampledCsvReader(Path file, SamplingMode mode, CsvColumns columns, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.file = file;
+        this.mode = mode;
+        this.columns = columns;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @return the estimator holding the sample and the number of lines or blocks of the file
+     * @throws ReadErrorException with code 1 if the file has no data line, with code 4 for a compressed file
+     * sampled by blocks or a line with another number of columns than the first one
+     */
+    SampleEstimator read() throws IOException {
+        SampleEstimator estimator = new SampleEstimator();
+        Random random = new Random(mode.getSeed());
+        if (mode.getKind() == SamplingMode.Kind.BLOCKS) {
+            readBlocks(estimator, random);
+        } else {
+            readLines(estimator, mode.getKind() == SamplingMode.Kind.BERNOULLI
+                    ? new BernoulliSample(mode.getRate(), random) : new Reservoir(mode.getSize(), random));
+        }
+        logger.info("Sampled {} values in {} of {} {} of {}", estimator.getSampledValues(),
+                estimator.getSampledClusters(), estimator.getPopulationClusters(),
+                mode.getKind() == SamplingMode.Kind.BLOCKS ? "blocks" : "lines", file);
+        return estimator;
+    }
+
+    private void readLines(SampleEstimator estimator, LineSample sample) throws IOException {
+        Cluster cluster = new Cluster();
+        // the first line is parsed in any case, for the header or the number of columns
+        CsvFloatParser parser = columns == null
+                ? new CsvFloatParser(cluster, 2, -1, null)
+                : new CsvFloatParser(new FloatSink[]{cluster}, columns, 2, null);
+        boolean header = columns != null && columns.hasHeader();
+        long lines = 0;
+        boolean firstLine = true;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        try (InputStream in = CompressedInput.open(file, false)) {
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                int read = in.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    length += read;
+                }
+                int position = 0;
+                while (true) {
+                    int lineEnd = position;
+                    while (lineEnd < length && buffer[lineEnd] != '\n' && buffer[lineEnd] != '\r') {
+                        lineEnd++;
+                    }
+                    int next;
+                    if (lineEnd < length && (buffer[lineEnd] == '\n' || lineEnd + 1 < length)) {
+                        next = buffer[lineEnd] == '\r' && buffer[lineEnd + 1] == '\n' ? lineEnd + 2 : lineEnd + 1;
+                    } else if (endOfInput && position < length) {
+                        // the last line has no line end, or a \r which is not followed by anything
+                        next = length;
+                    } else {
+                        // the line continues in the next read, a \r at the end may be followed by its \n
+                        break;
+                    }
+                    if (firstLine && lineEnd == position) {
+                        throw new ReadErrorException("Error: Input is empty", 1);
+                    }
+                    if (firstLine && header) {
+                        parser.parseLines(buffer, position, lineEnd, true);
+                    } else {
+                        int slot = sample.choose(lines++);
+                        if (slot >= 0 || firstLine) {
+                            cluster.reset();
+                            parser.parseLines(buffer, position, lineEnd, true);
+                        }
+                        if (slot >= 0) {
+                            sample.take(slot, cluster, estimator);
+                        }
+                    }
+                    firstLine = false;
+                    position = next;
+                }
+                length -= position;
+                System.arraycopy(buffer, position, buffer, 0, length);
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+        }
+        if (lines == 0) {
+            throw new ReadErrorException("Error: Input is empty", 1);
+        }
+        sample.finish(estimator);
+        estimator.setPopulationClusters(lines);
+    }
+
+    private void readBlocks(SampleEstimator estimator, Random random) throws IOException {
+        if (CompressedInput.isCompressed(file)) {
+            throw new ReadErrorException("Format Error: the blocks of the compressed file " + file
+                    + " cannot be read on their own, sample its lines instead", 4);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CsvFloatParser firstLine = ParallelCsvReader.parseFirstLine(channel, new FloatSink[1], columns, null);
+            long dataStart = columns != null && columns.hasHeader() ? ParallelCsvReader.nextLineStart(channel, 1, size) : 0;
+            long blocks = (size - dataStart + blockSize - 1) / blockSize;
+            if (blocks == 0) {
+                throw new ReadErrorException("Error: Input is empty", 1);
+            }
+            Cluster cluster = new Cluster();
+            CsvFloatParser parser = columns == null
+                    ? new CsvFloatParser(cluster, 2, firstLine.getColumnCount(), null)
+                    : new CsvFloatParser(new FloatSink[]{cluster}, firstLine.getColumnIndexes(), 2,
+                    firstLine.getColumnCount(), null);
+            for (long block : choose(blocks, (int) Math.min(mode.getSize(), blocks), random)) {
+                long start = dataStart + block * blockSize;
+                long end = Math.min(size, start + blockSize);
+                // the block holds the lines starting in it, the last one may end in the next block
+                long linesStart = block == 0 ? start : ParallelCsvReader.nextLineStart(channel, start, size);
+                cluster.reset();
+                if (linesStart < end) {
+                    long linesEnd = end == size ? size : ParallelCsvReader.nextLineStart(channel, end, size);
+                    byte[] bytes = read(channel, linesStart, linesEnd);
+                    parser.parseLines(bytes, 0, bytes.length, true);
+                }
+                cluster.addTo(estimator);
+            }
+            estimator.setPopulationClusters(blocks);
+        }
+    }
+
+    /**
+     * Chooses distinct blocks uniformly with Floyd's algorithm
+     *
+     * @return the chosen blocks in the order of the file
+     */
+    static long[] choose(long population, int count, Random random) {
+        Set<Long> chosen = new HashSet<>();
+        for (long j = population - count; j < population; j++) {
+            long candidate = (long) (random.nextDouble() * (j + 1));
+            if (!chosen.add(candidate)) {
+                chosen.add(j);
+            }
+        }
+        return chosen.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private byte[] read(FileChannel channel, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new ReadErrorException("Read Error: a line of " + file + " is longer than 2 GB", 2);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new ReadErrorException("Read Error: " + file + " was truncated while it was sampled", 2);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decides which lines are taken into the sample
+     */
+    private abstract static class LineSample {
+        /**
+         * @param line number of the line from 0, called for every line in order
+         * @return the slot of the line in the sample, -1 if it is not taken
+         */
+        abstract int choose(long line);
+
+        abstract void take(int slot, Cluster cluster, SampleEstimator estimator);
+
+        void finish(SampleEstimator estimator) {
+        }
+
+        static long geometricGap(double probability, Random random) {
+            if (probability >= 1) {
+                return 0;
+            }
+            return (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - probability));
+        }
+    }
+
+    /**
+     * Takes every line with the same probability
+     */
+    private static final class BernoulliSample extends LineSample {
+        private final double rate;
+        private final Random random;
+        private long next;
+
+        private BernoulliSample(double rate, Random random) {
+            this.rate = rate;
+            this.random = random;
+            this.next = geometricGap(rate, random);
+        }
+
+        @Override
+        int choose(long line) {
+            if (line < next) {
+                return -1;
+            }
+            next = line + 1 + geometricGap(rate, random);
+            return 0;
+        }
+
+        @Override
+        void take(int slot, Cluster cluster, SampleEstimator estimator) {
+            cluster.addTo(estimator);
+        }
+    }
+
+    /**
+     * Keeps a uniform sample of a fixed number of lines, by algorithm L
+     */
+    private static final class Reservoir extends LineSample {
+        private final Random random;
+        private final long[] counts;
+        private final double[] sums;
+        private final long[] lessThanFour;
+        private final float[] mins;
+        private final float[] maxs;
+        private int filled;
+        private double weight;
+        private long next;
+
+        private Reservoir(int size, Random random) {
+            this.random = random;
+            this.counts = new long[size];
+            this.sums = new double[size];
+            this.lessThanFour = new long[size];
+            this.mins = new float[size];
+            this.maxs = new float[size];
+        }
+
+        @Override
+        int choose(long line) {
+            int size = counts.length;
+            if (line < size) {
+                if (line == size - 1) {
+                    weight = Math.exp(Math.log(1 - random.nextDouble()) / size);
+                    next = line + 1 + geometricGap(weight, random);
+                }
+                return (int) line;
+            }
+            if (line < next) {
+                return -1;
+            }
+            weight *= Math.exp(Math.log(1 - random.nextDouble()) / size);
+            next = line + 1 + geometricGap(weight, random);
+            return random.nextInt(size);
+        }
+
+        @Override
+        void take(int slot, Cluster cluster, SampleEstimator estimator) {
+            counts[slot] = cluster.count;
+            sums[slot] = cluster.sum;
+            lessThanFour[slot] = cluster.lessThanFour;
+            mins[slot] = cluster.min;
+            maxs[slot] = cluster.max;
+            filled = Math.max(filled, slot + 1);
+        }
+
+        @Override
+        void finish(SampleEstimator estimator) {
+            for (int i = 0; i < filled; i++) {
+                estimator.addCluster(counts[i], sums[i], lessThanFour[i], mins[i], maxs[i]);
+            }
+        }
+    }
+
+    /**
+     * Statistics of the values of a line or a block
+     */
+    private static final class Cluster implements FloatSink {
+        private long count;
+        private double sum;
+        private long lessThanFour;
+        private float min;
+        private float max;
+
+        private void reset() {
+            count = 0;
+            sum = 0;
+            lessThanFour = 0;
+            min = Float.POSITIVE_INFINITY;
+            max = Float.NEGATIVE_INFINITY;
+        }
+
+        @Override
+        public void accept(float value) {
+            count++;
+            sum += value;
+            if (value < 4) {
+                lessThanFour++;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        private void addTo(SampleEstimator estimator) {
+            estimator.addCluster(count, sum, lessThanFour, min, max);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package features.input;
+
+/**
+ * How a csv file is sampled for approximate results, e.g. "bernoulli:0.01", "reservoir:100000" or "blocks:200",
+ * optionally followed by the seed of the random choices like "blocks:200:42" to repeat a run.
+ * <ul>
+ *     <li>bernoulli: every line is taken with the given probability, the lines which are not taken
+ *     are only scanned for their end and not parsed</li>
+ *     <li>reservoir: a fixed number of lines, chosen uniformly among all lines of the file</li>
+ *     <li>blocks: a number of blocks of the file at random offsets, only these are read,
+ *     so the cost does not grow with the size of the file</li>
+ * </ul>
+ */
+public final class SamplingMode {
+
+    public enum Kind {
+        BERNOULLI,
+        RESERVOIR,
+        BLOCKS
+    }
+
+    private final Kind kind;
+    private final double rate;
+    private final int size;
+    private final long seed;
+
+    /**
+     * Constructor
+     * @param kind how the sample is drawn
+     * @param rate probability of a line to be taken by the bernoulli sampling
+     * @param size number of lines of the reservoir or number of blocks
+     * @param seed seed of the random choices
+     */
+    public SamplingMode(Kind kind, double rate, int size, long seed) {
+        if (kind == Kind.BERNOULLI ? !(rate > 0 && rate <= 1) : size < 1) {
+            throw new IllegalArgumentException("Sampling rate must be in (0, 1] and sample size positive");
+        }
+        this.kind = kind;
+        this.rate = rate;
+        this.size = size;
+        this.seed = seed;
+    }
+
+    /**
+     * @param mode kind and parameter separated by ":", optionally followed by the seed
+     * @param defaultSeed seed used when the mode has none
+     * @throws IllegalArgumentException if the mode is not valid
+     */
+    public static SamplingMode parse(String mode, long defaultSeed) {
+        String[] parts = mode.trim().split(":");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Invalid sampling mode: " + mode);
+        }
+        try {
+            Kind kind = Kind.valueOf(parts[0].trim().toUpperCase());
+            long seed = parts.length == 3 ? Long.parseLong(parts[2].trim()) : defaultSeed;
+            if (kind == Kind.BERNOULLI) {
+                return new SamplingMode(kind, Double.parseDouble(parts[1].trim()), 0, seed);
+            }
+            return new SamplingMode(kind, 0, Integer.parseInt(parts[1].trim()), seed);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sampling mode: " + mode, e);
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return kind.name().toLowerCase() + ":" + (kind == Kind.BERNOULLI ? String.valueOf(rate) : String.valueOf(size))
+                + ":" + seed;
+    }
+}
@@ -2,71 +2,321 @@ package features.input;
 
 import exceptions.InvalidNumberFormatException;
 import exceptions.ReadErrorException;
+import features.data.FloatSink;
+import features.data.FloatSinkBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * Implementation of Input Reader for reading input from stdin
  */
 public class StdInReaderImpl implements InputReader {
     private static final Logger logger = LoggerFactory.getLogger(StdInReaderImpl.class);
+    // file type bits of the unix mode, S_IFMT and S_IFCHR
+    private static final int FILE_TYPE_MASK = 0170000;
+    private static final int CHARACTER_DEVICE = 0020000;
+
+    static final int PIPE_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * How stdin is read
+     */
+    public enum Mode {
+        /**
+         * A human at a keyboard: a prompt is printed, every line has to contain values separated by ","
+         */
+        INTERACTIVE,
+        /**
+         * An unbounded stream, e.g. a live feed: there is no prompt, blank lines are skipped
+         * and the values of every line are pushed to the sink as soon as the line is read
+         */
+        CONTINUOUS,
+        /**
+         * Bulk input piped into the application: there is no prompt, stdin is read in large blocks
+         * and the values are separated by any number of commas, blanks and line ends
+         */
+        PIPED
+    }
+
+    private final Mode mode;
+    private final ParseErrors errors;
+    private boolean readAhead;
+    // position of the piped input: of the first byte of the buffer, of the start of the current line and its number
+    private long bufferOffset;
+    private long lineStartOffset;
+    private long lineNumber = 1;
+
+    public StdInReaderImpl() {
+        this(Mode.INTERACTIVE);
+    }
+
+    /**
+     * Constructor
+     * @param continuous if true stdin is read as an unbounded stream, see {@link Mode#CONTINUOUS},
+     *                   otherwise interactively
+     */
+    public StdInReaderImpl(boolean continuous) {
+        this(continuous ? Mode.CONTINUOUS : Mode.INTERACTIVE);
+    }
+
+    /**
+     * Constructor
+     * @param mode how stdin is read
+     */
+    public StdInReaderImpl(Mode mode) {
+        this(mode, null);
+    }
+
+    /**
+     * Constructor
+     * @param mode how stdin is read
+     * @param errors error budget of the lenient mode, which skips invalid values or reads them as NaN,
+     *               null to fail on the first invalid value
+     */
+    public StdInReaderImpl(Mode mode, ParseErrors errors) {
+        this.mode = mode;
+        this.errors = errors;
+    }
+
+    /**
+     * Tells whether stdin is a terminal from the file type of /dev/stdin, so redirecting only stdout
+     * does not count. Where the file type is not available, e.g. on Windows, stdin counts as piped
+     * when there is no console, which is also the case when only stdout is redirected.
+     *
+     * @return true if stdin is not read from a terminal, e.g. when the input is piped into the application
+     */
+    public static boolean isStdInPiped() {
+        try {
+            int mode = (Integer) Files.getAttribute(Paths.get("/dev/stdin"), "unix:mode");
+            // a terminal is a character device, a pipe or a redirected file is not
+            return (mode & FILE_TYPE_MASK) != CHARACTER_DEVICE;
+        } catch (IOException | RuntimeException e) {
+            return System.console() == null;
+        }
+    }
 
     /**
-     * Implementation of readInput method for reading input data from the
-     * stdin (standard input device - keyboard) and returns it as a list of Float values.
+     * Reads piped input in blocks on a thread of its own, ahead of the thread parsing it.
+     * A terminal is read line by line whatever this setting.
+     */
+    @Override
+    public void readBytesAhead() {
+        readAhead = true;
+    }
+
+    /**
+     * Implementation of readInto method for reading input data from the
+     * stdin (standard input device - keyboard) and pushing the values to the sink line by line.
      *
-     * @return a list containing the parsed float values.
+     * @param sink receiver of the parsed float values
      */
-    public List<Float> readInput() throws ReadErrorException {
-        List<Float> inputList = new ArrayList<>();
+    @Override
+    public void readInto(FloatSink sink) throws ReadErrorException {
+        if (mode == Mode.PIPED) {
+            readPiped(sink);
+            return;
+        }
+        FloatSinkBuffer inputList = new FloatSinkBuffer(sink);
+        boolean continuous = mode == Mode.CONTINUOUS;
 
-        System.out.println("Enter float numbers separated by \",\" " +
-                "\n Blank spaces are allowed and will be ignored. " +
-                "\n To end the list press CTRL+Z (Windows) or CTRL+D (Unix):");
+        if (!continuous) {
+            System.out.println("Enter float numbers separated by \",\" " +
+                    "\n Blank spaces are allowed and will be ignored. " +
+                    "\n To end the list press CTRL+Z (Windows) or CTRL+D (Unix):");
+        }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
+        // decoded like the piped input, so the positions of invalid values are counted in bytes of UTF-8 as well
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
             logger.info("Opening connection to read input from stdin.");
             String input;
             boolean inputReceived = false;
+            long line = 0;
+            long lineOffset = 0;
 
             while (true) {
-                input = reader.readLine();
+                String rawInput = reader.readLine();
                 // Check for (CTRL+Z or CTRL+D) for end of input
-                if (input == null) {
+                if (rawInput == null) {
                     break;
                 }
-                input = removeBlankSpaces(input);
+                line++;
+                lineOffset += line == 1 ? 0 : 1;
+                input = removeBlankSpaces(rawInput);
 
                 if (input.isEmpty()) {
+                    if (continuous) {
+                        continue;
+                    }
                     throw new ReadErrorException(1);
                 }
 
                 String[] values = input.split(",");
-                for (String value : values) {
+                for (int field = 0; field < values.length; field++) {
+                    String value = values[field];
+                    if (errors != null && !isFloatLiteral(value)) {
+                        // the position of the field in the line as it was read, counted in bytes
+                        long column = utf8Length(rawInput.substring(0, fieldStart(rawInput, field))) + 1;
+                        errors.add(line, column, lineOffset + column - 1, value);
+                        if (errors.getAction() == ParseErrors.Action.NAN) {
+                            inputList.accept(Float.NaN);
+                            inputReceived = true;
+                        }
+                        continue;
+                    }
                     try {
-                        inputList.add(Float.parseFloat(value));
+                        inputList.accept(Float.parseFloat(value));
                         inputReceived = true;
                     } catch (NumberFormatException e) {
                         logger.error("Invalid float number: {}", value, e);
                         throw new InvalidNumberFormatException("Format error for value: " + value, e, 4);
                     }
                 }
+                if (continuous) {
+                    inputList.flush();
+                }
+                // readLine drops the line end, which is counted as one byte, also a "\r\n" typed on Windows
+                lineOffset += utf8Length(rawInput);
             }
             if (!inputReceived) {
                 throw new ReadErrorException(1);
             }
+            inputList.flush();
         } catch (IOException e) {
             logger.error("IOException occurred while reading input.", e);
             throw new ReadErrorException(e, 2);
         } finally {
             logger.info("Closing connection to read input from stdin.");
         }
-        return inputList;
+    }
+
+    /**
+     * Reads stdin in large blocks and converts the values straight from the bytes,
+     * without a String per line or value. Blank lines are skipped.
+     */
+    private void readPiped(FloatSink sink) throws ReadErrorException {
+        logger.info("Reading the input piped into stdin.");
+        FloatSinkBuffer values = new FloatSinkBuffer(sink);
+        byte[] buffer = new byte[PIPE_BUFFER_SIZE];
+        int length = 0;
+        // the reading thread closes its source at the end, which must not close stdin
+        InputStream stdin = new FilterInputStream(System.in) {
+            @Override
+            public void close() {
+            }
+        };
+        try (InputStream in = readAhead ? new PipelinedInputStream(stdin, "reader-stdin") : stdin) {
+            while (true) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = in.read(buffer, length, buffer.length - length);
+                boolean endOfInput = read < 0;
+                if (!endOfInput) {
+                    length += read;
+                }
+                int consumed = acceptValues(buffer, length, endOfInput, values);
+                // keep the incomplete last value for the next block
+                System.arraycopy(buffer, consumed, buffer, 0, length - consumed);
+                length -= consumed;
+                bufferOffset += consumed;
+                if (endOfInput) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("IOException occurred while reading input.", e);
+            throw new ReadErrorException(e, 2);
+        }
+        values.flush();
+        if (values.getCount() == 0) {
+            throw new ReadErrorException(1);
+        }
+        logger.info("Read {} values from stdin.", values.getCount());
+    }
+
+    /**
+     * Pushes the values of the block which are followed by a separator, or all of them at the end of the input.
+     *
+     * @return the position after the last value pushed
+     */
+    private int acceptValues(byte[] bytes, int length, boolean endOfInput, FloatSink values) throws ReadErrorException {
+        int valueStart = -1;
+        int consumed = 0;
+        for (int position = 0; position < length; position++) {
+            byte b = bytes[position];
+            boolean separator = b == ',' || (b <= ' ' && b >= 0);
+            if (!separator) {
+                if (valueStart < 0) {
+                    valueStart = position;
+                }
+            } else {
+                if (valueStart >= 0) {
+                    acceptValue(bytes, valueStart, position, values);
+                    valueStart = -1;
+                }
+                if (b == '\n') {
+                    lineNumber++;
+                    lineStartOffset = bufferOffset + position + 1;
+                }
+                consumed = position + 1;
+            }
+        }
+        if (endOfInput && valueStart >= 0) {
+            acceptValue(bytes, valueStart, length, values);
+            consumed = length;
+        }
+        return consumed;
+    }
+
+    /**
+     * Converts a piped value, which is validated first in the lenient mode if it is not a plain decimal number.
+     */
+    private void acceptValue(byte[] bytes, int from, int to, FloatSink values) throws ReadErrorException {
+        if (errors != null && !CsvFloatParser.isFloatLiteral(bytes, from, to)) {
+            long offset = bufferOffset + from;
+            errors.add(lineNumber, offset - lineStartOffset + 1, offset, new String(bytes, from, to - from, StandardCharsets.UTF_8));
+            if (errors.getAction() == ParseErrors.Action.NAN) {
+                values.accept(Float.NaN);
+            }
+            return;
+        }
+        values.accept(CsvFloatParser.parseFloat(bytes, from, to));
+    }
+
+    private static boolean isFloatLiteral(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return CsvFloatParser.isFloatLiteral(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return the number of bytes of the text encoded as UTF-8
+     */
+    private static long utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * @return the position of the first character of the field in the line, the fields separated by ","
+     */
+
+    private static int fieldStart(String line, int field) {
+        int position = 0;
+        for (int i = 0; i < field; i++) {
+            position = line.indexOf(',', position) + 1;
+        }
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
     }
 
     /**
@@ -77,6 +327,17 @@ public class StdInReaderImpl implements InputReader {
      * @return a sanitized string without any whitespace characters
      */
     private String removeBlankSpaces(String value) {
-        return value.replaceAll("\\s+", "");
+        // the same characters as the regular expression \\s, without compiling it for every line
+        StringBuilder sanitized = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean blank = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+            if (blank && sanitized == null) {
+                sanitized = new StringBuilder(value.length()).append(value, 0, i);
+            } else if (!blank && sanitized != null) {
+                sanitized.append(c);
+            }
+        }
+        return sanitized == null ? value : sanitized.toString();
     }
 }
@@ -1,19 +1,266 @@
 package features.input;
 
-import java.util.List;
+import exceptions.ReadErrorException;
+import features.data.FloatSink;
+import features.data.FloatSinkBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 
 /**
- * Implementation of Input Reader for reading input from URL
+ * Implementation of Input Reader for reading input from URL.
+ * <p>
+ * The response body is parsed while it is received, it is never held in memory as a whole. A large csv file
+ * from a server which accepts range requests is fetched in several ranges at the same time which are parsed
+ * in parallel, see {@link RangedCsvReader}. Gzip content encoding and compressed files are decompressed
+ * while they are read. Failed connections, timeouts and the responses 429 and 5xx are retried
+ * up to {@link #MAX_ATTEMPTS} times, as long as no value has been read.
  */
 public class UrlInputReaderImpl implements InputReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlInputReaderImpl.class);
+
+    // files from this size on are fetched in ranges
+    static final long RANGE_THRESHOLD = 16L * 1024 * 1024;
+    static final int MAX_ATTEMPTS = 3;
+    private static final long MIN_RANGE_SIZE = 4L * 1024 * 1024;
+    private static final long MAX_RANGE_SIZE = 64L * 1024 * 1024;
+    private static final int RANGES_PER_THREAD = 4;
+    private static final long RETRY_DELAY_MILLIS = 200;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String url;
+    private final String format;
+    private final int threads;
+    private final long rangeThreshold;
+    private final long rangeSize;
+    private final ParseErrors errors;
+    private boolean readAhead;
+
+    public UrlInputReaderImpl(String url, String format) {
+        this(url, format, Runtime.getRuntime().availableProcessors());
+    }
+
     /**
-     * Implementation of readInput method for reading input data from URL
-     * returns it as a list of Float values.
-     *
-     * @return a list containing the parsed float values.
+     * Constructor
+     * @param url http or https URL of the input file
+     * @param format csv, json or bin
+     * @param threads number of ranges of a large csv file fetched at the same time, 1 to always read it sequentially
+     */
+    public UrlInputReaderImpl(String url, String format, int threads) {
+        this(url, format, threads, null);
+    }
+
+    /**
+     * Constructor
+     * @param url http or https URL of the input file
+     * @param format csv, json or bin
+     * @param threads number of ranges of a large csv file fetched at the same time, 1 to always read it sequentially
+     * @param errors error budget of the lenient mode, which skips invalid values or reads them as NaN,
+     *               null to fail on the first invalid value
+     */
+    public UrlInputReaderImpl(String url, String format, int threads, ParseErrors errors) {
+        this(url, format, threads, RANGE_THRESHOLD, 0, errors);
+    }
+
+    /**
+     * Constructor
+     * @param url http or https URL of the input file
+     * @param format csv, json or bin
+     * @param threads number of ranges of a large csv file fetched at the same time, 1 to always read it sequentially
+     * @param rangeThreshold size from which a csv file is fetched in ranges
+     * @param rangeSize size of the ranges, 0 for about four ranges per thread, from 4 MB to 64 MB each
+     * @param errors error budget of the lenient mode, null to fail on the first invalid value
+     */
+    UrlInputReaderImpl(String url, String format, int threads, long rangeThreshold, long rangeSize,
+                       ParseErrors errors) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.url = url;
+        this.format = format;
+        this.threads = threads;
+        this.rangeThreshold = rangeThreshold;
+        this.rangeSize = rangeSize;
+        this.errors = errors;
+    }
+
+    /**
+     * Receives the body of the response on a thread of its own, and inflates a compressed one on its own thread.
+     * A large csv file fetched in ranges in parallel is not affected.
+     */
+    @Override
+    public void readBytesAhead() {
+        readAhead = true;
+    }
+
+    /**
+     * Implementation of readInto method for reading input data from URL
+     * and pushing the values to the sink while the response is received.
      */
     @Override
-    public List<Float> readInput() {
-        return null; // TODO
+    public void readInto(FloatSink sink) throws ReadErrorException {
+        String lowerCaseFormat = format.toLowerCase(Locale.ROOT);
+        if (!lowerCaseFormat.equals("csv") && !lowerCaseFormat.equals("json") && !lowerCaseFormat.equals("bin")) {
+            throw new ReadErrorException("Unsupported format: " + format, 4);
+        }
+        URI uri = toUri();
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        FloatSinkBuffer values = new FloatSinkBuffer(sink);
+        try {
+            if (threads > 1 && lowerCaseFormat.equals("csv") && readRanges(client, uri, values)) {
+                values.flush();
+                return;
+            }
+            readStream(client, uri, lowerCaseFormat, values);
+            values.flush();
+        } catch (ReadErrorException e) {
+            logger.error(e.getMessage() + " Error code: " + e.getErrorCode());
+            throw new ReadErrorException(e.getMessage(), e, e.getErrorCode());
+        } catch (IOException e) {
+            logger.error("Read Error {} the URL: {}", e.getMessage(), url);
+            throw new ReadErrorException("Error while reading the URL " + url, e, 2);
+        }
+        logger.info("{} values are read successfully from {}.", values.getCount(), url);
+    }
+
+    private URI toUri() throws ReadErrorException {
+        if (url == null || url.trim().isEmpty()) {
+            throw new ReadErrorException("URL cannot be empty", 1);
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            if (scheme.equals("http") || scheme.equals("https")) {
+                return uri;
+            }
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid URL {}: {}", url, e.getMessage());
+        }
+        throw new ReadErrorException("Read Error: " + url + " is not a valid http or https URL", 2);
+    }
+
+    /**
+     * Fetches the file in ranges if the server accepts range requests and the file is large enough.
+     *
+     * @return false if the file has to be read as a single stream
+     */
+    private boolean readRanges(HttpClient client, URI uri, FloatSink sink) throws IOException {
+        HttpRequest head = HttpRequest.newBuilder(uri).timeout(RESPONSE_TIMEOUT)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<Void> response = send(client, head, HttpResponse.BodyHandlers.discarding());
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        boolean acceptsRanges = response.headers().allValues("Accept-Ranges").stream()
+                .anyMatch(value -> value.trim().equalsIgnoreCase("bytes"));
+        if (response.statusCode() != 200 || !acceptsRanges || size < Math.max(1, rangeThreshold)
+                || response.headers().firstValue("Content-Encoding").isPresent()) {
+            return false;
+        }
+        long effectiveRangeSize = rangeSize > 0 ? rangeSize
+                : Math.min(MAX_RANGE_SIZE, Math.max(MIN_RANGE_SIZE, size / ((long) threads * RANGES_PER_THREAD) + 1));
+        RangedCsvReader reader = new RangedCsvReader((start, end) -> fetchRange(client, uri, start, end),
+                size, threads, effectiveRangeSize, errors);
+        if (reader.readInto(sink)) {
+            return true;
+        }
+        logger.info("The first line of {} is longer than a range, the file is read as a single stream", uri);
+        return false;
+    }
+
+    private byte[] fetchRange(HttpClient client, URI uri, long start, long end) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(RESPONSE_TIMEOUT)
+                .header("Range", "bytes=" + start + "-" + (end - 1)).GET().build();
+        HttpResponse<byte[]> response = send(client, request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 206) {
+            throw new ReadErrorException("Read Error: HTTP " + response.statusCode() + " for the bytes "
+                    + start + "-" + (end - 1) + " of " + uri, 2);
+        }
+        return response.body();
+    }
+
+    /**
+     * Parses the response body while it is received.
+     */
+    private void readStream(HttpClient client, URI uri, String format, FloatSinkBuffer values) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(RESPONSE_TIMEOUT)
+                .header("Accept-Encoding", "gzip").GET().build();
+        HttpResponse<InputStream> response = send(client, request, HttpResponse.BodyHandlers.ofInputStream());
+        InputStream body = response.body();
+        if (response.statusCode() != 200) {
+            body.close();
+            throw new ReadErrorException("Read Error: HTTP " + response.statusCode() + " for " + uri, 2);
+        }
+        if (response.headers().firstValue("Content-Encoding").orElse("").trim().equalsIgnoreCase("gzip")) {
+            body = new GZIPInputStream(body, 64 * 1024);
+        }
+        // a compressed file is recognized by its first bytes like a local one
+        try (InputStream in = CompressedInput.decompress(body, threads > 1, readAhead, "url")) {
+            switch (format) {
+                case "csv":
+                    new CsvFloatParser(values, CsvFloatParser.DEFAULT_BUFFER_SIZE, -1, errors).parse(in);
+                    break;
+                case "json":
+                    new JsonFloatArrayParser(values, JsonFloatArrayParser.DEFAULT_BUFFER_SIZE, errors).parse(in);
+                    if (values.getCount() == 0) {
+                        throw new ReadErrorException("Error: Input is empty.", 1);
+                    }
+                    break;
+                default:
+                    if (BinaryFloatReader.readInto(in, url, values) == 0) {
+                        throw new ReadErrorException("Error: Input is empty.", 1);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Sends the request, retrying failed connections, timeouts and the responses 429 and 5xx
+     * with an exponential backoff.
+     *
+     * @return the response of the last attempt
+     */
+    private <T> HttpResponse<T> send(HttpClient client, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpResponse<T> response = client.send(request, handler);
+                int status = response.statusCode();
+                if ((status != 429 && status < 500) || attempt == MAX_ATTEMPTS) {
+                    return response;
+                }
+                if (response.body() instanceof InputStream) {
+                    ((InputStream) response.body()).close();
+                }
+                logger.warn("HTTP {} for {} {}, attempt {} of {}", status, request.method(), request.uri(),
+                        attempt, MAX_ATTEMPTS);
+            } catch (IOException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("{} for {} {}, attempt {} of {}", e, request.method(), request.uri(), attempt, MAX_ATTEMPTS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadErrorException("Read Error: interrupted while reading " + request.uri(), e, 2);
+            }
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadErrorException("Read Error: interrupted while reading " + request.uri(), e, 2);
+            }
+        }
     }
 }
@@ -0,0 +1,183 @@
+package features.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Zone map of a csv file: the file split into blocks of whole lines, with the byte range, number, sum, smallest and
+ * largest value of every block. It is stored as a binary sidecar file which records the size and modification time
+ * of the csv file and the columns it was built with, and is ignored when one of them differs.
+ */
+final class ZoneMap {
+
+    private static final int MAGIC = 0x515A4D31; // "QZM1"
+    private static final Logger logger = LoggerFactory.getLogger(ZoneMap.class);
+
+    private final long fileSize;
+    private final long modifiedMillis;
+    private final String settings;
+    private final int columnCount;
+    private final int[] columnIndexes;
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * Constructor of an index without blocks
+     * @param fileSize size of the csv file
+     * @param modifiedMillis modification time of the csv file
+     * @param settings columns and block size the file is read with
+     * @param columnCount number of columns of the first line
+     * @param columnIndexes positions of the selected columns, null for every column
+     */
+    ZoneMap(long fileSize, long modifiedMillis, String settings, int columnCount, int[] columnIndexes) {
+        this.fileSize = fileSize;
+        this.modifiedMillis = modifiedMillis;
+        this.settings = settings;
+        this.columnCount = columnCount;
+        this.columnIndexes = columnIndexes;
+    }
+
+    /**
+     * @return the index, null if there is none, it cannot be read or it does not match the file and the settings
+     */
+    static ZoneMap load(Path path, long fileSize, long modifiedMillis, String settings) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("not a zone map");
+            }
+            long indexedSize = input.readLong();
+            long indexedModified = input.readLong();
+            String indexedSettings = input.readUTF();
+            if (indexedSize != fileSize || indexedModified != modifiedMillis || !indexedSettings.equals(settings)) {
+                logger.info("The zone map {} is out of date, it is built again", path);
+                return null;
+            }
+            int columnCount = input.readInt();
+            int indexCount = input.readInt();
+            int[] columnIndexes = indexCount < 0 ? null : new int[indexCount];
+            for (int i = 0; i < indexCount; i++) {
+                columnIndexes[i] = input.readInt();
+            }
+            ZoneMap index = new ZoneMap(fileSize, modifiedMillis, settings, columnCount, columnIndexes);
+            int blockCount = input.readInt();
+            for (int i = 0; i < blockCount; i++) {
+                index.blocks.add(new Block(input.readLong(), input.readLong(), input.readLong(), input.readDouble(),
+                        input.readFloat(), input.readFloat()));
+            }
+            return index;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Ignoring the unreadable zone map {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the index file atomically, so a concurrent run never reads a partly written one.
+     */
+    void save(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, "zonemap", ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeLong(fileSize);
+                output.writeLong(modifiedMillis);
+                output.writeUTF(settings);
+                output.writeInt(columnCount);
+                output.writeInt(columnIndexes == null ? -1 : columnIndexes.length);
+                if (columnIndexes != null) {
+                    for (int columnIndex : columnIndexes) {
+                        output.writeInt(columnIndex);
+                    }
+                }
+                output.writeInt(blocks.size());
+                for (Block block : blocks) {
+                    output.writeLong(block.start);
+                    output.writeLong(block.end);
+                    output.writeLong(block.count);
+                    output.writeDouble(block.sum);
+                    output.writeFloat(block.min);
+                    output.writeFloat(block.max);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    void addBlock(Block block) {
+        blocks.add(block);
+    }
+
+    List<Block> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    int getColumnCount() {
+        return columnCount;
+    }
+
+    int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    /**
+     * Lines of the file from the start to the end position, the bounds ignore NaN values
+     * and are +inf and -inf if the block has no other values.
+     */
+    static final class Block {
+        private final long start;
+        private final long end;
+        private final long count;
+        private final double sum;
+        private final float min;
+        private final float max;
+
+        Block(long start, long end, long count, double sum, float min, float max) {
+            this.start = start;
+            this.end = end;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        long getStart() {
+            return start;
+        }
+
+        long getEnd() {
+            return end;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        double getSum() {
+            return sum;
+        }
+
+        float getMin() {
+            return min;
+        }
+
+        float getMax() {
+            return max;
+        }
+    }
+}
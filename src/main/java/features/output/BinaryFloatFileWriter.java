@@ -0,0 +1,131 @@
+package features.output;
+
+import exceptions.WriteErrorException;
+import features.data.BinaryFloatFormat;
+import features.data.FloatSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the values pushed to it into a file of the binary format described by {@link BinaryFloatFormat},
+ * e.g. to convert a csv or json input file once so it is read without parsing afterwards.
+ * The values are collected in a direct buffer which is written to the file channel whenever it is full,
+ * the number of values in the header is written when the writer is closed.
+ * <p>
+ * The sink methods cannot throw checked exceptions, a failed write is thrown as an {@link UncheckedIOException}
+ * wrapping the {@link WriteErrorException}.
+ */
+public final class BinaryFloatFileWriter implements FloatSink, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final Logger logger = LoggerFactory.getLogger(BinaryFloatFileWriter.class);
+
+    private final Path file;
+    private final ByteOrder order;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final FloatBuffer values;
+    private long count;
+
+    /**
+     * Constructor with the native byte order
+     * @param file file to create or replace
+     */
+    public BinaryFloatFileWriter(Path file) throws WriteErrorException {
+        this(file, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Constructor
+     * @param file file to create or replace
+     * @param order byte order of the values in the file
+     */
+    public BinaryFloatFileWriter(Path file, ByteOrder order) throws WriteErrorException {
+        this.file = file;
+        this.order = order;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(order);
+        this.values = buffer.asFloatBuffer();
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            // the header is written again with the number of values on close
+            channel.position(BinaryFloatFormat.HEADER_SIZE);
+        } catch (IOException e) {
+            logger.error("Error while creating the binary file {}: {}", file, e.getMessage());
+            throw new WriteErrorException("Failed to create binary file: " + file, e, 3);
+        }
+    }
+
+    @Override
+    public void accept(float value) {
+        if (!values.hasRemaining()) {
+            writeBuffer();
+        }
+        values.put(value);
+        count++;
+    }
+
+    @Override
+    public void accept(float[] block, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            if (!values.hasRemaining()) {
+                writeBuffer();
+            }
+            int chunk = Math.min(values.remaining(), end - offset);
+            values.put(block, offset, chunk);
+            offset += chunk;
+        }
+        count += length;
+    }
+
+    /**
+     * @return the number of values written
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the remaining values and the header and closes the file.
+     */
+    @Override
+    public void close() throws WriteErrorException {
+        try (FileChannel closing = channel) {
+            writeValues();
+            ByteBuffer header = new BinaryFloatFormat(order, count).header();
+            while (header.hasRemaining()) {
+                closing.write(header, header.position());
+            }
+            logger.info("Wrote {} values to the binary file {}", count, file);
+        } catch (IOException e) {
+            logger.error("Error while writing to the binary file {}: {}", file, e.getMessage());
+            throw new WriteErrorException("Failed to write to binary file: " + file, e, 3);
+        }
+    }
+
+    private void writeBuffer() {
+        try {
+            writeValues();
+        } catch (IOException e) {
+            logger.error("Error while writing to the binary file {}: {}", file, e.getMessage());
+            throw new UncheckedIOException(new WriteErrorException("Failed to write to binary file: " + file, e, 3));
+        }
+    }
+
+    private void writeValues() throws IOException {
+        buffer.clear().limit(values.position() * Float.BYTES);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        values.clear();
+    }
+}
@@ -3,14 +3,20 @@ package features.output;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import exceptions.WriteErrorException;
-import features.actions.ActionsManager;
-import features.actions.ActionsManagerImpl;
+import features.actions.AggregationResult;
+import features.actions.SampleEstimator;
+import features.actions.WindowResult;
+import features.data.FloatColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.FileWriter;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.List;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
 
 /**
  * Implementation of OutputWriter interface for creating file of the output data in csv or json format
@@ -21,6 +27,7 @@ public class FileOutputWriterImpl implements OutputWriter {
     private final String action;
     private final String format;
     private final String filePath;
+    private TextChannelWriter buffer;
 
     /**
      * Constructor
@@ -35,93 +42,202 @@ public class FileOutputWriterImpl implements OutputWriter {
     }
 
     /**
-     * Implementation of writeOutput method for creating a String of the output data
+     * Implementation of writeColumn method for creating a String of the output data
      * to be written in csv or json file
      *
      * @return a string which represents the output data
      */
     @Override
-    public String writeOutput(List<Float> inputList) throws WriteErrorException {
-        switch (format.toUpperCase()) {
-            case "CSV":
-                return writeToCSV(inputList, filePath);
-            case "JSON":
-                return writeToJson(inputList, filePath, action);
-            default:
-                throw new WriteErrorException("Invalid format of the output file: " + format, 4);
-        }
+    public String writeColumn(FloatColumn values) throws WriteErrorException {
+        validateFormat();
+        return writeResult(aggregate(values, action));
     }
 
-    private String writeToCSV(List<Float> inputList, String filePath) throws WriteErrorException {
-        StringBuilder stringBuilder = new StringBuilder();
+    /**
+     * Implementation of writeResult method for writing already computed results
+     * to a csv or json file, the adapter of {@link #streamResult(AggregationResult)} for the String based API:
+     * the file is streamed, only the returned String is formatted in memory
+     *
+     * @return a string which represents the output data
+     */
+    @Override
+    public String writeResult(AggregationResult result) throws WriteErrorException {
+        validateFormat();
+        return writeFileAndText(writer -> writeResultTo(result, writer));
+    }
 
-        List<Float> resultValues = perfomAction(inputList, action);
+    /**
+     * Implementation of writeColumnResults method writing the results of every column to a csv file,
+     * each line starting with the name of the column, or to a json file as one object per column,
+     * streamed like {@link #writeResult(AggregationResult)}
+     *
+     * @return a string which represents the output data
+     */
+    @Override
+    public String writeColumnResults(Map<String, AggregationResult> results) throws WriteErrorException {
+        validateFormat();
+        return writeFileAndText(writer -> writeColumnResultsTo(results, writer));
+    }
 
-        if (resultValues.isEmpty()) {
-            stringBuilder.append("\n");
-        }
-        for (Float f : resultValues) {
-            stringBuilder.append(f).append(",");
-        }
-        if (stringBuilder.length() > 0) {
-            stringBuilder.setLength(stringBuilder.length() - 1); // Remove last comma
+    /**
+     * Implementation of streamResult method writing the results to a csv or json file
+     * through a reusable buffer, the file has the same content as with writeResult
+     *
+     * @return the number of bytes and values written
+     */
+    @Override
+    public WriteSummary streamResult(AggregationResult result) throws WriteErrorException {
+        validateFormat();
+        return writeFile(writer -> writeResultTo(result, writer));
+    }
+
+    /**
+     * Implementation of streamColumnResults method writing the results of every column to a csv or json file
+     * through a reusable buffer, the file has the same content as with writeColumnResults
+     *
+     * @return the number of bytes and values written
+     */
+    @Override
+    public WriteSummary streamColumnResults(Map<String, AggregationResult> results) throws WriteErrorException {
+        validateFormat();
+        return writeFile(writer -> writeColumnResultsTo(results, writer));
+    }
+
+    /**
+     * Writes the estimates of the sampling mode to a csv or json file, see the output of the sampling mode
+     *
+     * @return the number of bytes written
+     */
+    public WriteSummary writeEstimates(SampleEstimator estimator) throws WriteErrorException {
+        validateFormat();
+        return writeFile(writer -> {
+            if (isCsv()) {
+                ResultFormat.writeCsvEstimates(estimator, writer);
+            } else {
+                ResultFormat.writeJsonEstimates(estimator, writer);
+            }
+            writer.append(System.lineSeparator());
+        });
+    }
+
+    /**
+     * @return the path of the output file, with the extension of the format
+     */
+    public String getOutputPath() {
+        return outputPath();
+    }
+
+    /**
+     * Implementation of writeWindow method appending the window to the csv or json file.
+     * The file is recreated for the first window, csv gets a header line and json one object per line.
+     * The file is only open while the window is written, so every window is on disk once this method returns.
+     *
+     * @return a string which represents the output data of the window
+     */
+    @Override
+    public String writeWindow(WindowResult window) throws WriteErrorException {
+        validateFormat();
+        boolean csv = format.equalsIgnoreCase("CSV");
+        String path = filePath + (csv ? ".csv" : ".json");
+        String outputString;
+        if (csv) {
+            outputString = formatWindow(window);
+        } else {
+            JsonObject jsonObject = new JsonObject();
+            jsonObject.addProperty("FROM", window.getFrom());
+            jsonObject.addProperty("TO", window.getTo());
+            for (Map.Entry<String, Number> scalar : window.getScalars().entrySet()) {
+                jsonObject.addProperty(scalar.getKey(), scalar.getValue());
+            }
+            outputString = new Gson().toJson(jsonObject);
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath + ".csv"))) {
-            logger.info("Opened connection to write output to a file.");
-            writer.write(stringBuilder.toString());
+        boolean first = window.getIndex() == 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, !first))) {
+            if (first && csv) {
+                writer.write(formatWindowHeader(window));
+                writer.newLine();
+            }
+            writer.write(outputString);
             writer.newLine();
         } catch (IOException e) {
-            logger.error("Error while writing to the CSV file {}: {}. Connection closed.", filePath, e.getMessage());
-            throw new WriteErrorException("Failed to write to CSV file: " + filePath, e, 3);
+            logger.error("Error while writing window {} to the file {}: {}", window.getIndex(), path, e.getMessage());
+            throw new WriteErrorException("Failed to write to file: " + path, e, 3);
         }
+        return outputString;
+    }
 
-        logger.info("Successfully wrote to CSV file. Connection closed.");
-        return stringBuilder.toString();
+    private void validateFormat() throws WriteErrorException {
+        if (!format.equalsIgnoreCase("CSV") && !format.equalsIgnoreCase("JSON")) {
+            throw new WriteErrorException("Invalid format of the output file: " + format, 4);
+        }
     }
 
-    private String writeToJson(List<Float> inputList, String filePath, String action) throws WriteErrorException {
-        JsonObject jsonObject = new JsonObject();
-        Gson gson = new Gson();
-        perfomJSONAction(inputList, action, jsonObject);
-        return writeJsonToFile(gson.toJson(jsonObject) + "\n", filePath);
+    private void writeResultTo(AggregationResult result, TextChannelWriter writer) throws IOException {
+        if (isCsv()) {
+            ResultFormat.writeCsv(result, "", writer);
+            if (writer.getBytes() == 0) {
+                // a result without values is written as an empty line
+                writer.append('\n');
+            }
+        } else {
+            ResultFormat.writeJson(result, writer);
+            writer.append('\n');
+        }
+        writer.append(System.lineSeparator());
     }
 
-    private String writeJsonToFile(String jsonString, String filePath) throws WriteErrorException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath + ".json"))) {
-            logger.info("Opened connection to write output to a file.");
-            writer.write(jsonString);
-            writer.newLine();
-            logger.info("Successfully wrote to JSON file.");
-        } catch (IOException e) {
-            logger.error("Error while writing to JSON file {}: {}", filePath, e.getMessage());
-            throw new WriteErrorException("Failed to write to JSON file: " + filePath, e, 3);
+    private void writeColumnResultsTo(Map<String, AggregationResult> results, TextChannelWriter writer)
+            throws IOException {
+        if (isCsv()) {
+            ResultFormat.writeCsvColumns(results, writer);
+        } else {
+            ResultFormat.writeJsonColumns(results, writer);
+            writer.append('\n');
         }
-        return jsonString;
-    }
-
-    private void perfomJSONAction(List<Float> inputList, String action, JsonObject jsonObject) throws WriteErrorException {
-        ActionsManager actionsManager = new ActionsManagerImpl();
-        Gson gson = new Gson();
-
-        switch (action.toUpperCase()) {
-            case "SUM":
-                float sumValue = actionsManager.sum(inputList);
-                jsonObject.addProperty(action.toUpperCase(), sumValue);
-                break;
-            case "MINMAX":
-                float minValue = actionsManager.min(inputList);
-                float maxValue = actionsManager.max(inputList);
-                jsonObject.addProperty("MIN", minValue);
-                jsonObject.addProperty("MAX", maxValue);
-                break;
-            case "LT4":
-                jsonObject.addProperty("LT4", gson.toJson(inputList));
-                break;
-            default:
-                logger.error("Unknown operation, will be ignored.");
-                throw new WriteErrorException("Write Error: invalid operation, invalid action", 3);
+        writer.append(System.lineSeparator());
+    }
+
+    private WriteSummary writeFile(ResultFormat.Content content) throws WriteErrorException {
+        String path = outputPath();
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            logger.info("Opened connection to write output to a file.");
+            if (buffer == null) {
+                buffer = new TextChannelWriter(channel);
+            }
+            TextChannelWriter writer = buffer.reset(channel);
+            content.writeTo(writer);
+            writer.flush();
+            logger.info("Successfully wrote {} to the file {}. Connection closed.", writer.summary(), path);
+            return writer.summary();
+        } catch (IOException | InvalidPathException e) {
+            throw writeError(path, e);
         }
     }
 
+    /**
+     * Streams the output to the file, then formats it in memory for the caller of the String based API
+     *
+     * @return the output without the line end at its end
+     */
+    private String writeFileAndText(ResultFormat.Content content) throws WriteErrorException {
+        writeFile(content);
+        String text = ResultFormat.toText(content);
+        return text.substring(0, text.length() - System.lineSeparator().length());
+    }
+
+    private WriteErrorException writeError(String path, Exception e) {
+        String format = isCsv() ? "CSV" : "JSON";
+        logger.error("Error while writing to the {} file {}: {}. Connection closed.", format, path, e.getMessage());
+        return new WriteErrorException("Failed to write to " + format + " file: " + filePath, e, 3);
+    }
+
+    private String outputPath() {
+        return filePath + (isCsv() ? ".csv" : ".json");
+    }
+
+    private boolean isCsv() {
+        return format.equalsIgnoreCase("CSV");
+    }
 }
@@ -1,47 +1,177 @@
 package features.output;
 
 import exceptions.WriteErrorException;
-import features.actions.ActionsManager;
-import features.actions.ActionsManagerImpl;
+import features.actions.ActionDefinition;
+import features.actions.ActionRegistry;
+import features.actions.AggregationEngine;
+import features.actions.AggregationResult;
+import features.actions.WindowResult;
+import features.data.FloatColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 /**
- * This interface provides a contract for writing the output data as a string
+ * This interface provides a contract for writing the output data, streamed to its destination
+ * or as a string
  */
 public interface OutputWriter {
 
-    String writeOutput (List<Float> inputList) throws WriteErrorException;
+    String writeColumn(FloatColumn values) throws WriteErrorException;
+
+    /**
+     * Writes the results of actions which were already computed, e.g. by an
+     * {@link features.actions.AggregationAccumulator} the input was streamed into.
+     *
+     * @return a string which represents the output data
+     */
+    String writeResult(AggregationResult result) throws WriteErrorException;
+
+    /**
+     * Writes the results of one window of the continuous mode and flushes them right away,
+     * appending to the windows written before.
+     *
+     * @return a string which represents the output data of the window
+     */
+    String writeWindow(WindowResult window) throws WriteErrorException;
+
+    /**
+     * Writes the results of the actions of every selected input column, keyed by the name of the column.
+     *
+     * @return a string which represents the output data
+     */
+    String writeColumnResults(Map<String, AggregationResult> results) throws WriteErrorException;
+
+    /**
+     * Streams the results of actions which were already computed to the destination of the writer, e.g. a file
+     * or stdout, through a reusable buffer, so a large output like the values selected by LT4 is never built
+     * as a String. Writers without a streaming destination write the String of {@link #writeResult}.
+     *
+     * @return the number of bytes and values written
+     */
+    default WriteSummary streamResult(AggregationResult result) throws WriteErrorException {
+        String output = writeResult(result);
+        return new WriteSummary(output == null ? 0 : output.getBytes(StandardCharsets.UTF_8).length, 0);
+    }
+
+    /**
+     * Streams the results of the actions of every selected input column like {@link #streamResult}.
+     *
+     * @return the number of bytes and values written
+     */
+    default WriteSummary streamColumnResults(Map<String, AggregationResult> results) throws WriteErrorException {
+        String output = writeColumnResults(results);
+        return new WriteSummary(output == null ? 0 : output.getBytes(StandardCharsets.UTF_8).length, 0);
+    }
+
     Logger logger = LoggerFactory.getLogger(OutputWriter.class);
 
+    /**
+     * Adapter for the List based API, null elements are ignored.
+     */
+    default String writeOutput (List<Float> inputList) throws WriteErrorException {
+        return writeColumn(inputList == null ? null : FloatColumn.fromList(inputList));
+    }
+
+    /**
+     * Adapter for the List based API, null elements are ignored.
+     */
     default List<Float> perfomAction(List<Float> inputList, String action) throws WriteErrorException {
-        ActionsManager actionsManager = new ActionsManagerImpl();
-        float sum;
-        float minValue;
-        float maxValue;
-        List<Float> filteredValues;
-        List<Float> resultValues = new ArrayList<>();
-
-        switch (action.toUpperCase()) {
-            case "SUM":
-                sum = actionsManager.sum(inputList);
-                resultValues.add(sum);
-                break;
-            case "MINMAX":
-                minValue = actionsManager.min(inputList); // 0 if the list is empty or null
-                maxValue = actionsManager.max(inputList); // 0 if the list is empty or null
-                resultValues.add(minValue);
-                resultValues.add(maxValue);
-                break;
-            case "LT4":
-                filteredValues = actionsManager.filter(inputList);
-                resultValues.addAll(filteredValues);
-                break;
-            default:
-                logger.error("Unknown operation, will be ignored.");
-                throw new WriteErrorException("Write Error: invalid operation, invalid action", 3);
-        } return resultValues;
+        return perfomColumnAction(FloatColumn.fromList(inputList), action).toList();
+    }
+
+    /**
+     * Performs the requested actions on the values. When several actions are requested
+     * the result values of all of them are concatenated in the requested order.
+     */
+    default FloatColumn perfomColumnAction(FloatColumn values, String action) throws WriteErrorException {
+        AggregationResult result = aggregate(values, action);
+        if (result.getActions().size() == 1) {
+            return result.valuesOf(result.getActions().get(0));
+        }
+        FloatColumn resultValues = new FloatColumn();
+        for (ActionDefinition requestedAction : result.getActions()) {
+            resultValues.addAll(result.valuesOf(requestedAction));
+        }
+        return resultValues;
+    }
+
+    /**
+     * Computes all actions of a comma separated action list, e.g. "sum,minmax,lt4",
+     * in a single pass over the values. The actions are resolved with the {@link ActionRegistry}.
+     */
+    default AggregationResult aggregate(FloatColumn values, String action) throws WriteErrorException {
+        List<ActionDefinition> actions;
+        try {
+            actions = ActionRegistry.getDefault().parseActions(action);
+        } catch (IllegalArgumentException e) {
+            logger.error("Unknown operation, will be ignored. {}", e.getMessage());
+            throw new WriteErrorException("Write Error: invalid operation, invalid action", e, 3);
+        }
+        return new AggregationEngine().aggregate(values, actions);
+    }
+
+    /**
+     * Formats the results as comma separated values. A single action keeps the plain layout,
+     * several actions are written one per line, each line starting with the action name,
+     * quoted if it contains a comma. Histograms are written one bucket per line.
+     */
+    default String formatResults(AggregationResult result) {
+        return ResultFormat.toText(writer -> ResultFormat.writeCsv(result, "", writer));
+    }
+
+    default String formatValues(AggregationResult result, ActionDefinition action) {
+        return ResultFormat.toText(writer ->
+                ResultFormat.writeCsvLines(result, action, "", "", writer.getBytes(), writer));
+    }
+
+    /**
+     * Formats the results of every column as comma separated values in the layout of
+     * {@link #formatResults(AggregationResult)}, each line starting with the name of the column,
+     * quoted if it contains a comma.
+     */
+    default String formatColumnResults(Map<String, AggregationResult> results) {
+        return ResultFormat.toText(writer -> ResultFormat.writeCsvColumns(results, writer));
+    }
+
+    /**
+     * Formats the csv header of the windows, the positions of the first and after the last value
+     * followed by the names of the window results, e.g. FROM,TO,SUM,LT4_COUNT
+     */
+    default String formatWindowHeader(WindowResult window) {
+        StringBuilder stringBuilder = new StringBuilder("FROM,TO");
+        for (String name : window.getScalars().keySet()) {
+            stringBuilder.append(",").append(name);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Formats one window as a csv line in the layout of {@link #formatWindowHeader(WindowResult)}.
+     */
+    default String formatWindow(WindowResult window) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(window.getFrom()).append(",").append(window.getTo());
+        for (Number scalar : window.getScalars().values()) {
+            stringBuilder.append(",").append(scalar);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Joins the values of the column with the given delimiter, without boxing them.
+     */
+    default String joinValues(FloatColumn values, String delimiter) {
+        StringBuilder stringBuilder = new StringBuilder(values.size() * 6);
+        float[] elements = values.elements();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                stringBuilder.append(delimiter);
+            }
+            stringBuilder.append(elements[i]);
+        }
+        return stringBuilder.toString();
     }
 }
@@ -0,0 +1,255 @@
+package features.output;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import features.actions.ActionDefinition;
+import features.actions.ActionOutput;
+import features.actions.AggregationResult;
+import features.actions.HistogramAccumulator;
+import features.actions.SampleEstimator;
+import features.data.FloatColumn;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Csv and json layout of the results, streamed into a {@link TextChannelWriter}. The String based methods of
+ * {@link OutputWriter} are adapters which stream the same layout into memory.
+ */
+final class ResultFormat {
+
+    private static final Gson GSON = new Gson();
+
+    private ResultFormat() {
+    }
+
+    /**
+     * Part of an output written by one of the methods of this class
+     */
+    interface Content {
+        void writeTo(TextChannelWriter writer) throws IOException;
+    }
+
+    /**
+     * @return the content as a String
+     */
+    static String toText(Content content) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TextChannelWriter writer = new TextChannelWriter(Channels.newChannel(output), 8192);
+        try {
+            content.writeTo(writer);
+            writer.flush();
+        } catch (IOException e) {
+            // writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the results as comma separated values. A single action keeps the plain layout,
+     * several actions are written one per line, each line starting with the action name,
+     * quoted if it contains a comma or a quote. Histograms are written one bucket per line.
+     * The lines are separated by \n, there is none after the last line.
+     *
+     * @param linePrefix written at the start of every line, e.g. the name of a column
+     */
+    static void writeCsv(AggregationResult result, String linePrefix, TextChannelWriter writer) throws IOException {
+        long start = writer.getBytes();
+        List<ActionDefinition> actions = result.getActions();
+        if (actions.size() == 1) {
+            writeCsvLines(result, actions.get(0), linePrefix, "", start, writer);
+            return;
+        }
+        for (ActionDefinition action : actions) {
+            writeCsvLines(result, action, linePrefix + quote(action.getName()), ",", start, writer);
+        }
+    }
+
+    /**
+     * Writes the results of every column in the csv layout, each line starting with the name of the column,
+     * quoted if it contains a comma or a quote.
+     */
+    static void writeCsvColumns(Map<String, AggregationResult> results, TextChannelWriter writer) throws IOException {
+        boolean first = true;
+        for (Map.Entry<String, AggregationResult> entry : results.entrySet()) {
+            if (!first) {
+                writer.append('\n');
+            }
+            first = false;
+            writeCsv(entry.getValue(), quote(entry.getKey()) + ",", writer);
+        }
+    }
+
+    /**
+     * Writes the lines of one action, the separator goes between the start of a line and a non-empty content.
+     * Every line but the first of the output starts with \n, the first line always has content or a prefix.
+     */
+    static void writeCsvLines(AggregationResult result, ActionDefinition action, String lineStart, String separator,
+                              long outputStart, TextChannelWriter writer) throws IOException {
+        ActionOutput output = result.outputOf(action);
+        if (output.hasValues()) {
+            FloatColumn values = output.getValues();
+            startLine(lineStart, outputStart, writer);
+            if (!values.isEmpty()) {
+                writer.append(separator).appendValues(values, ',');
+            }
+            return;
+        }
+        if (output.hasBuckets()) {
+            List<HistogramAccumulator.Bucket> buckets = output.getBuckets();
+            if (buckets.isEmpty()) {
+                startLine(lineStart, outputStart, writer);
+            }
+            for (HistogramAccumulator.Bucket bucket : buckets) {
+                startLine(lineStart, outputStart, writer);
+                writer.append(separator).append(bucket.getLower()).append(',')
+                        .append(bucket.getUpper()).append(',')
+                        .append(bucket.getCount());
+            }
+            return;
+        }
+        startLine(lineStart, outputStart, writer);
+        String delimiter = separator;
+        for (Number scalar : output.getScalars().values()) {
+            writer.append(delimiter).append(scalar);
+            delimiter = ",";
+        }
+    }
+
+    /**
+     * Writes the results as one json object, the values of an action as a string of a json array
+     * and histograms as an array of {lower, upper, count} objects.
+     */
+    static void writeJson(AggregationResult result, TextChannelWriter writer) throws IOException {
+        // a later property of the same name replaces the value in place, like in a JsonObject
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (ActionDefinition action : result.getActions()) {
+            ActionOutput output = result.outputOf(action);
+            for (Map.Entry<String, Number> scalar : output.getScalars().entrySet()) {
+                properties.put(scalar.getKey(), new JsonPrimitive(scalar.getValue()));
+            }
+            if (output.hasValues()) {
+                properties.put(output.getValuesName(), output.getValues());
+            }
+            if (output.hasBuckets()) {
+                properties.put(output.getValuesName(), toJsonBuckets(output));
+            }
+        }
+        writer.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            if (!first) {
+                writer.append(',');
+            }
+            first = false;
+            writer.append(GSON.toJson(property.getKey())).append(':');
+            if (property.getValue() instanceof FloatColumn) {
+                writer.append("\"[").appendValues((FloatColumn) property.getValue(), ',').append("]\"");
+            } else {
+                writer.append(GSON.toJson((JsonElement) property.getValue()));
+            }
+        }
+        writer.append('}');
+    }
+
+    /**
+     * Writes the results of every column as one json object holding an object per column.
+     */
+    static void writeJsonColumns(Map<String, AggregationResult> results, TextChannelWriter writer) throws IOException {
+        writer.append('{');
+        boolean first = true;
+        for (Map.Entry<String, AggregationResult> entry : results.entrySet()) {
+            if (!first) {
+                writer.append(',');
+            }
+            first = false;
+            writer.append(GSON.toJson(entry.getKey())).append(':');
+            writeJson(entry.getValue(), writer);
+        }
+        writer.append('}');
+    }
+
+    /**
+     * Writes the estimates of the sampling mode as csv lines with a header line, followed by the smallest and
+     * largest sampled values. The lines are separated by \n, there is none after the last line.
+     */
+    static void writeCsvEstimates(SampleEstimator estimator, TextChannelWriter writer) throws IOException {
+        writer.append("ESTIMATE,VALUE,LOWER_95,UPPER_95");
+        for (SampleEstimator.Estimate estimate : estimator.estimate()) {
+            writer.append('\n').append(estimate.toString());
+        }
+        writer.append("\nMIN_SAMPLED,").append(estimator.getSampledMin()).append(",,");
+        writer.append("\nMAX_SAMPLED,").append(estimator.getSampledMax()).append(",,");
+    }
+
+    /**
+     * Writes the estimates of the sampling mode as one json object holding a {VALUE, LOWER_95, UPPER_95} object
+     * per estimate and the smallest and largest sampled values. Values which are not finite are written as null.
+     */
+    static void writeJsonEstimates(SampleEstimator estimator, TextChannelWriter writer) throws IOException {
+        JsonObject estimates = new JsonObject();
+        for (SampleEstimator.Estimate estimate : estimator.estimate()) {
+            JsonObject jsonEstimate = new JsonObject();
+            jsonEstimate.add("VALUE", jsonNumber(estimate.getValue()));
+            jsonEstimate.add("LOWER_95", jsonNumber(estimate.getLower()));
+            jsonEstimate.add("UPPER_95", jsonNumber(estimate.getUpper()));
+            estimates.add(estimate.getName(), jsonEstimate);
+        }
+        estimates.add("MIN_SAMPLED", jsonNumber(estimator.getSampledMin()));
+        estimates.add("MAX_SAMPLED", jsonNumber(estimator.getSampledMax()));
+        writer.append(GSON.toJson(estimates));
+    }
+
+    private static JsonElement jsonNumber(double value) {
+        return Double.isFinite(value) ? new JsonPrimitive(value) : JsonNull.INSTANCE;
+    }
+
+    private static void startLine(String lineStart, long outputStart, TextChannelWriter writer) throws IOException {
+        if (writer.getBytes() > outputStart) {
+            writer.append('\n');
+        }
+        writer.append(lineStart);
+    }
+
+    /**
+     * Quotes the name like a csv field if it contains a comma, a quote or a line end, doubling the quotes in it.
+     */
+    private static String quote(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + name.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Writes the buckets as an array of objects, infinite bounds are left out since JSON cannot represent them.
+     */
+    private static JsonArray toJsonBuckets(ActionOutput output) {
+        JsonArray buckets = new JsonArray();
+        for (HistogramAccumulator.Bucket bucket : output.getBuckets()) {
+            JsonObject jsonBucket = new JsonObject();
+            if (!Float.isInfinite(bucket.getLower())) {
+                jsonBucket.addProperty("lower", bucket.getLower());
+            }
+            if (!Float.isInfinite(bucket.getUpper())) {
+                jsonBucket.addProperty("upper", bucket.getUpper());
+            }
+            jsonBucket.addProperty("count", bucket.getCount());
+            buckets.add(jsonBucket);
+        }
+        return buckets;
+    }
+}
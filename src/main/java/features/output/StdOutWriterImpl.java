@@ -1,16 +1,21 @@
 package features.output;
 
 import exceptions.WriteErrorException;
+import features.actions.AggregationResult;
+import features.actions.WindowResult;
+import features.data.FloatColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Map;
 
 public class StdOutWriterImpl implements OutputWriter {
 
     private static final Logger logger = LoggerFactory.getLogger(StdOutWriterImpl.class);
 
     private final String action;
+    private TextChannelWriter buffer;
 
     /**
      * Constructor
@@ -21,22 +26,35 @@ public class StdOutWriterImpl implements OutputWriter {
     }
 
     /**
-     * Implementation of writeOutput method for creating a String of the output data to be printed on the screen
+     * Implementation of writeColumn method for creating a String of the output data to be printed on the screen
      *
      * @return a string which represents the output data
      */
-    public String writeOutput(List<Float> inputList) throws WriteErrorException {
+    @Override
+    public String writeColumn(FloatColumn values) throws WriteErrorException {
+        if (values == null || values.isEmpty()) {
+            logger.error("Input list is empty.");
+            throw new WriteErrorException("Input list cannot be empty.", 1);
+        }
+        return writeResult(aggregate(values, action));
+    }
+
+    /**
+     * Implementation of writeResult method for creating a String of already computed results
+     * to be printed on the screen
+     *
+     * @return a string which represents the output data
+     */
+    @Override
+    public String writeResult(AggregationResult result) throws WriteErrorException {
         String outputString;
 
         try {
-            if (inputList == null || inputList.isEmpty()) {
+            if (result == null || result.getCount() == 0) {
                 logger.error("Input list is empty.");
                 throw new WriteErrorException("Input list cannot be empty.", 1);
             }
-            List<Float> outputList = perfomAction(inputList, action);
-            outputString = outputList.stream()
-                    .map(String::valueOf)
-                    .collect(Collectors.joining(",")) + "\n";
+            outputString = formatResults(result) + "\n";
 
             logger.info("List of the numbers provided for the output operation: {}", outputString);
             return outputString;
@@ -45,4 +63,115 @@ public class StdOutWriterImpl implements OutputWriter {
             logger.info("Closing connection to write std output.");
         }
     }
+
+    /**
+     * Implementation of writeColumnResults method for creating a String of the results of every column
+     * to be printed on the screen
+     *
+     * @return a string which represents the output data
+     */
+    @Override
+    public String writeColumnResults(Map<String, AggregationResult> results) throws WriteErrorException {
+        if (results.values().stream().allMatch(result -> result.getCount() == 0)) {
+            logger.error("Input list is empty.");
+            throw new WriteErrorException("Input list cannot be empty.", 1);
+        }
+        return formatColumnResults(results) + "\n";
+    }
+
+    /**
+     * Implementation of streamResult method printing the results on the screen through a reusable buffer
+     *
+     * @return the number of bytes and values written
+     */
+    @Override
+    public WriteSummary streamResult(AggregationResult result) throws WriteErrorException {
+        return streamResult(result, "");
+    }
+
+    /**
+     * Prints the heading followed by the results and a line end on the screen through a reusable buffer,
+     * the same text as the heading followed by writeResult. Nothing is printed if the result is empty.
+     *
+     * @param heading text printed before the results, e.g. what they are
+     * @return the number of bytes and values written
+     */
+    public WriteSummary streamResult(AggregationResult result, String heading) throws WriteErrorException {
+        if (result == null || result.getCount() == 0) {
+            logger.error("Input list is empty.");
+            throw new WriteErrorException("Input list cannot be empty.", 1);
+        }
+        return print(writer -> {
+            writer.append(heading);
+            ResultFormat.writeCsv(result, "", writer);
+        });
+    }
+
+    /**
+     * Implementation of streamColumnResults method printing the results of every column on the screen
+     * through a reusable buffer
+     *
+     * @return the number of bytes and values written
+     */
+    @Override
+    public WriteSummary streamColumnResults(Map<String, AggregationResult> results) throws WriteErrorException {
+        return streamColumnResults(results, "");
+    }
+
+    /**
+     * Prints the heading followed by the results of every column and a line end on the screen
+     * through a reusable buffer. Nothing is printed if every column is empty.
+     *
+     * @param heading text printed before the results, e.g. what they are
+     * @return the number of bytes and values written
+     */
+    public WriteSummary streamColumnResults(Map<String, AggregationResult> results, String heading)
+            throws WriteErrorException {
+        if (results.values().stream().allMatch(result -> result.getCount() == 0)) {
+            logger.error("Input list is empty.");
+            throw new WriteErrorException("Input list cannot be empty.", 1);
+        }
+        return print(writer -> {
+            writer.append(heading);
+            ResultFormat.writeCsvColumns(results, writer);
+        });
+    }
+
+    /**
+     * Implementation of writeWindow method printing the window as a csv line on the screen,
+     * preceded by the header before the first window.
+     *
+     * @return a string which represents the output data of the window
+     */
+    @Override
+    public String writeWindow(WindowResult window) {
+        String outputString = formatWindow(window);
+        if (window.getIndex() == 0) {
+            System.out.println(formatWindowHeader(window));
+        }
+        System.out.println(outputString);
+        System.out.flush();
+        return outputString;
+    }
+
+    private WriteSummary print(ResultFormat.Content content) throws WriteErrorException {
+        // System.out is not closed, the text goes through its buffer after anything printed before
+        // the buffer is reused, the channel is taken anew in case System.out was replaced
+        if (buffer == null) {
+            buffer = new TextChannelWriter(Channels.newChannel(System.out));
+        }
+        TextChannelWriter writer = buffer.reset(Channels.newChannel(System.out));
+        try {
+            content.writeTo(writer);
+            writer.append('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new WriteErrorException("Failed to write to the standard output", e, 3);
+        }
+        System.out.flush();
+        if (System.out.checkError()) {
+            throw new WriteErrorException("Failed to write to the standard output", 3);
+        }
+        return writer.summary();
+    }
 }
@@ -0,0 +1,150 @@
+package features.output;
+
+import features.data.FloatColumn;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes text into a reusable byte buffer which is written to the channel whenever it is full, so a large output,
+ * e.g. the values selected by LT4, is written piece by piece and never built as a String.
+ * Floats are formatted like {@link Float#toString(float)} into a reused StringBuilder, without a String per value.
+ * The text is encoded as UTF-8, the channel is neither flushed nor closed by the writer.
+ * A writer can be {@link #reset} to another channel, so an output writer allocates its buffer only once.
+ */
+public final class TextChannelWriter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder number = new StringBuilder(32);
+    private long bytes;
+    private long values;
+
+    public TextChannelWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param channel channel the buffer is written to, e.g. of a file or stdout
+     * @param bufferSize number of bytes of the buffer
+     */
+    public TextChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Starts a new output to the channel with the same buffer, the counts start from 0 again.
+     * Bytes which were not flushed to the previous channel are dropped.
+     */
+    public TextChannelWriter reset(WritableByteChannel channel) {
+        this.channel = channel;
+        buffer.clear();
+        bytes = 0;
+        values = 0;
+        return this;
+    }
+
+    public TextChannelWriter append(char c) throws IOException {
+        if (c < 0x80) {
+            put((byte) c);
+            return this;
+        }
+        return append(String.valueOf(c));
+    }
+
+    public TextChannelWriter append(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // the rest is encoded at once, so surrogate pairs stay together
+                for (byte b : text.subSequence(i, length).toString().getBytes(StandardCharsets.UTF_8)) {
+                    put(b);
+                }
+                return this;
+            }
+            put((byte) c);
+        }
+        return this;
+    }
+
+    public TextChannelWriter append(float value) throws IOException {
+        number.setLength(0);
+        return append(number.append(value));
+    }
+
+    public TextChannelWriter append(long value) throws IOException {
+        number.setLength(0);
+        return append(number.append(value));
+    }
+
+    /**
+     * Appends the number in the format of its toString method.
+     */
+    public TextChannelWriter append(Number value) throws IOException {
+        if (value instanceof Float) {
+            return append(value.floatValue());
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return append(value.longValue());
+        }
+        return append(String.valueOf(value));
+    }
+
+    /**
+     * Appends the values of the column separated by the delimiter and counts them as written values.
+     */
+    public TextChannelWriter appendValues(FloatColumn column, char delimiter) throws IOException {
+        float[] elements = column.elements();
+        for (int i = 0; i < column.size(); i++) {
+            if (i > 0) {
+                append(delimiter);
+            }
+            append(elements[i]);
+        }
+        values += column.size();
+        return this;
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return the number of bytes appended so far, including the ones not flushed yet
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of values appended with {@link #appendValues(FloatColumn, char)}
+     */
+    public long getValues() {
+        return values;
+    }
+
+    public WriteSummary summary() {
+        return new WriteSummary(bytes, values);
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+        bytes++;
+    }
+}
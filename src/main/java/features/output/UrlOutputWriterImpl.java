@@ -1,11 +1,38 @@
 package features.output;
 
 import exceptions.WriteErrorException;
-import java.util.List;
+import features.actions.AggregationResult;
+import features.actions.WindowResult;
+import features.data.FloatColumn;
+import java.util.Map;
 
+/**
+ * Output to a URL, which is not supported yet: every write fails with a {@link WriteErrorException} of code 3,
+ * so the application reports it instead of silently writing nothing.
+ */
 public class UrlOutputWriterImpl implements OutputWriter {
+
+    @Override
+    public String writeColumn(FloatColumn values) throws WriteErrorException {
+        throw unsupported();
+    }
+
+    @Override
+    public String writeResult(AggregationResult result) throws WriteErrorException {
+        throw unsupported();
+    }
+
+    @Override
+    public String writeWindow(WindowResult window) throws WriteErrorException {
+        throw unsupported();
+    }
+
     @Override
-    public String writeOutput(List<Float> inputList) throws WriteErrorException {
-        return null; // TODO
+    public String writeColumnResults(Map<String, AggregationResult> results) throws WriteErrorException {
+        throw unsupported();
+    }
+
+    private static WriteErrorException unsupported() {
+        return new WriteErrorException("Write Error: output to a URL is not supported yet", 3);
     }
 }
@@ -0,0 +1,33 @@
+package features.output;
+
+/**
+ * What a streaming write produced, returned instead of the written text.
+ */
+public final class WriteSummary {
+
+    private final long bytes;
+    private final long values;
+
+    /**
+     * Constructor
+     * @param bytes number of bytes written
+     * @param values number of values written by actions which output values, e.g. LT4
+     */
+    public WriteSummary(long bytes, long values) {
+        this.bytes = bytes;
+        this.values = values;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return bytes + " bytes, " + values + " values";
+    }
+}
@@ -0,0 +1,156 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the float kernels on the incubating Vector API.
+ * Compiled into the META-INF/versions/17 layer of the jar and loaded by {@link FloatKernels#get()}
+ * only when the jdk.incubator.vector module is available.
+ * Sums are accumulated per lane, so they can differ in the last bits from the scalar sum.
+ * Min and max use compare and blend instead of the lanewise MIN/MAX operators, which are slower
+ * because of their NaN and signed zero handling and would not match the scalar comparisons.
+ */
+final class VectorFloatKernels implements FloatKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float sum(float[] values, int from, int to) {
+        FloatVector sums = FloatVector.zero(SPECIES);
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            sums = sums.add(FloatVector.fromArray(SPECIES, values, i));
+        }
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float min(float[] values, int from, int to) {
+        FloatVector mins = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector vector = FloatVector.fromArray(SPECIES, values, i);
+            mins = mins.blend(vector, vector.lt(mins));
+        }
+        float minValue = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            if (values[i] < minValue) {
+                minValue = values[i];
+            }
+        }
+        return minValue;
+    }
+
+    @Override
+    public float max(float[] values, int from, int to) {
+        FloatVector maxs = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector vector = FloatVector.fromArray(SPECIES, values, i);
+            maxs = maxs.blend(vector, vector.compare(VectorOperators.GT, maxs));
+        }
+        float maxValue = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            if (values[i] > maxValue) {
+                maxValue = values[i];
+            }
+        }
+        return maxValue;
+    }
+
+    @Override
+    public void aggregate(float[] values, int from, int to, float[] result) {
+        FloatVector sums = FloatVector.zero(SPECIES);
+        FloatVector mins = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        FloatVector maxs = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector vector = FloatVector.fromArray(SPECIES, values, i);
+            sums = sums.add(vector);
+            mins = mins.blend(vector, vector.lt(mins));
+            maxs = maxs.blend(vector, vector.compare(VectorOperators.GT, maxs));
+        }
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+        float min = mins.reduceLanes(VectorOperators.MIN);
+        float max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            float value = values[i];
+            sum += value;
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        result[0] = sum;
+        result[1] = min;
+        result[2] = max;
+    }
+
+    @Override
+    public void filterRange(float[] values, int from, int to, float lower, float upper, FloatColumn target) {
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector vector = FloatVector.fromArray(SPECIES, values, i);
+            appendSelected(vector.compare(VectorOperators.GE, lower).and(vector.compare(VectorOperators.LE, upper)),
+                    values, i, target);
+        }
+        for (; i < to; i++) {
+            float value = values[i];
+            if (value >= lower && value <= upper) {
+                target.add(value);
+            }
+        }
+    }
+
+    @Override
+    public int countRange(float[] values, int from, int to, float lower, float upper) {
+        int count = 0;
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector vector = FloatVector.fromArray(SPECIES, values, i);
+            count += vector.compare(VectorOperators.GE, lower).and(vector.compare(VectorOperators.LE, upper)).trueCount();
+        }
+        for (; i < to; i++) {
+            float value = values[i];
+            if (value >= lower && value <= upper) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends the lanes selected by the mask. Java 17 has no compress operation,
+     * so whole matching vectors are copied in bulk and partial ones lane by lane.
+     */
+    private static void appendSelected(VectorMask<Float> mask, float[] values, int offset, FloatColumn target) {
+        if (!mask.anyTrue()) {
+            return;
+        }
+        if (mask.allTrue()) {
+            target.addAll(values, offset, SPECIES.length());
+            return;
+        }
+        long bits = mask.toLong();
+        while (bits != 0) {
+            target.add(values[offset + Long.numberOfTrailingZeros(bits)]);
+            bits &= bits - 1;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package clientInterface;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CLIAppTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testZoneMapFallsBackToTheWholeFileWhenCompressed() throws IOException {
+        Path plain = Files.write(directory.resolve("values.csv"), "1,2,3\n".getBytes());
+        Path compressed = directory.resolve("values.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            out.write("1,2,3\n".getBytes());
+        }
+        Map<String, String> options = new HashMap<>();
+        options.put("-Z", "on");
+        options.put("-f", "csv");
+
+        assertTrue(CLIApp.useZoneMap(options, plain.toString(), null));
+        assertFalse(CLIApp.useZoneMap(options, compressed.toString(), null));
+        assertFalse(CLIApp.useZoneMap(options, directory.resolve("missing.csv").toString(), null));
+        options.put("-Z", "off");
+        assertFalse(CLIApp.useZoneMap(options, plain.toString(), null));
+    }
+}
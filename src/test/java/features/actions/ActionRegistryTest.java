@@ -0,0 +1,53 @@
+package features.actions;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionRegistryTest {
+
+    @Test
+    void testBuiltInProviderIsDiscovered() {
+        assertTrue(ActionRegistry.getDefault().getProviders().stream()
+                .anyMatch(provider -> provider instanceof BuiltInActionProvider));
+    }
+
+    @Test
+    void testNumericPartsContinueFilterArguments() {
+        List<ActionDefinition> actions = ActionRegistry.getDefault().parseActions("sum,between:1,3,lt4");
+
+        assertEquals(3, actions.size());
+        assertEquals(Action.SUM, actions.get(0));
+        assertEquals("between:1,3", actions.get(1).getName());
+        assertEquals(Action.LT4, actions.get(2));
+    }
+
+    @Test
+    void testCustomProviderIsAskedInOrder() {
+        ActionDefinition mean = new ActionDefinition() {
+            @Override
+            public String getName() {
+                return "MEAN";
+            }
+
+            @Override
+            public ActionOutput output(AggregationResult result) {
+                return ActionOutput.ofScalar("MEAN", result.getSum() / result.getCount());
+            }
+        };
+        ActionRegistry registry = new ActionRegistry(Arrays.asList(
+                action -> action.equalsIgnoreCase("mean") ? mean : null,
+                new BuiltInActionProvider()));
+
+        assertEquals(Arrays.asList(mean, Action.SUM), registry.parseActions("mean,sum"));
+    }
+
+    @Test
+    void testUnknownAction() {
+        ActionRegistry registry = new ActionRegistry(Collections.singletonList(new BuiltInActionProvider()));
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> registry.parseActions("avg"));
+        assertEquals("Unknown action: avg", exception.getMessage());
+    }
+}
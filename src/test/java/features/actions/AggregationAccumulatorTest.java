@@ -0,0 +1,81 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import features.data.FloatSinkBuffer;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregationAccumulatorTest {
+
+    private static final List<ActionDefinition> ACTIONS = Action.parseActions("sum,minmax,lt4,count");
+
+    @Test
+    void testStreamingMatchesBatch() {
+        FloatColumn values = randomColumn(10_000);
+        AggregationResult batch = new AggregationEngine().aggregate(values, ACTIONS);
+
+        AggregationAccumulator accumulator = new AggregationAccumulator(ACTIONS);
+        FloatSinkBuffer buffer = new FloatSinkBuffer(accumulator, 100);
+        for (int i = 0; i < values.size(); i++) {
+            buffer.accept(values.get(i));
+        }
+        buffer.flush();
+        AggregationResult streamed = accumulator.result();
+
+        assertEquals(batch.getSum(), streamed.getSum(), 1e-2);
+        assertEquals(batch.getMin(), streamed.getMin());
+        assertEquals(batch.getMax(), streamed.getMax());
+        assertEquals(batch.getCount(), streamed.getCount());
+        assertEquals(batch.getLt4(), streamed.getLt4());
+    }
+
+    @Test
+    void testMergeKeepsInputOrder() {
+        FloatColumn values = randomColumn(5_000);
+        AggregationAccumulator first = new AggregationAccumulator(ACTIONS);
+        AggregationAccumulator second = new AggregationAccumulator(ACTIONS);
+        first.accept(values.elements(), 0, 2_000);
+        second.accept(values.elements(), 2_000, 3_000);
+        first.merge(second);
+
+        AggregationResult merged = first.result();
+        AggregationResult batch = new AggregationEngine().aggregate(values, ACTIONS);
+        assertEquals(batch.getCount(), merged.getCount());
+        assertEquals(batch.getMin(), merged.getMin());
+        assertEquals(batch.getMax(), merged.getMax());
+        assertEquals(batch.getLt4(), merged.getLt4());
+    }
+
+    @Test
+    void testMergeOfOtherActionsFails() {
+        AggregationAccumulator accumulator = new AggregationAccumulator(ACTIONS);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> accumulator.merge(new AggregationAccumulator(Action.parseActions("sum"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BestValuesAccumulator(3, true).merge(new QuantileSketch(QuantileSketch.DEFAULT_K)));
+    }
+
+    @Test
+    void testSnapshotIsNotChangedByLaterValues() {
+        AggregationAccumulator accumulator = new AggregationAccumulator(ACTIONS);
+        accumulator.accept(1.0f);
+        AggregationResult before = accumulator.snapshot().result();
+        accumulator.accept(2.0f);
+
+        assertEquals(1, before.getCount());
+        assertEquals(FloatColumn.of(1.0f), before.getLt4());
+        assertEquals(FloatColumn.of(1.0f, 2.0f), accumulator.result().getLt4());
+    }
+
+    private static FloatColumn randomColumn(int size) {
+        Random random = new Random(42);
+        FloatColumn column = new FloatColumn(size);
+        for (int i = 0; i < size; i++) {
+            column.add(random.nextFloat() * 10 - 5);
+        }
+        return column;
+    }
+}
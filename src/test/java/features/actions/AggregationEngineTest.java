@@ -0,0 +1,70 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregationEngineTest {
+
+    private final AggregationEngine engine = new AggregationEngine();
+
+    @Test
+    void testAllActionsInOnePass() {
+        FloatColumn values = FloatColumn.of(1.5f, 4.0f, 3.7f, -2.0f);
+        AggregationResult result = engine.aggregate(values, Action.parseActions("sum,minmax,lt4,count"));
+
+        assertEquals(7.2f, result.getSum(), 1e-6);
+        assertEquals(-2.0f, result.getMin());
+        assertEquals(4.0f, result.getMax());
+        assertEquals(4, result.getCount());
+        assertEquals(FloatColumn.of(1.5f, 3.7f, -2.0f), result.getLt4());
+    }
+
+    @Test
+    void testMatchesActionsManager() {
+        FloatColumn values = FloatColumn.of(9.0f, 2.1f, 3.1f, 5.3f);
+        ActionsManager actionsManager = new ActionsManagerImpl();
+        AggregationResult result = engine.aggregate(values, Action.parseActions("sum,minmax,lt4"));
+
+        assertEquals(actionsManager.sumColumn(values), result.getSum());
+        assertEquals(actionsManager.minColumn(values), result.getMin());
+        assertEquals(actionsManager.maxColumn(values), result.getMax());
+        assertEquals(actionsManager.filterColumn(values), result.getLt4());
+    }
+
+    @Test
+    void testEmptyInput() {
+        AggregationResult result = engine.aggregate(null, Collections.singletonList(Action.MINMAX));
+
+        assertEquals(0, result.getMin());
+        assertEquals(0, result.getMax());
+        assertEquals(0, result.getCount());
+        assertNull(result.getLt4());
+    }
+
+    @Test
+    void testParseActionsKeepsOrderAndDropsDuplicates() {
+        List<ActionDefinition> actions = Action.parseActions(" lt4, SUM ,lt4,");
+        assertEquals(Arrays.asList(Action.LT4, Action.SUM), actions);
+    }
+
+    @Test
+    void testSeveralFiltersInOnePass() {
+        FloatColumn values = FloatColumn.of(-6.0f, 0.5f, 2.0f, 3.0f, 7.5f, 12.0f);
+        List<ActionDefinition> actions = Action.parseActions("lt4,between:1,3,abs_gt:5,count");
+        AggregationResult result = engine.aggregate(values, actions);
+
+        assertEquals(FloatColumn.of(-6.0f, 0.5f, 2.0f, 3.0f), result.getLt4());
+        assertEquals(FloatColumn.of(2.0f, 3.0f), result.getFiltered(actions.get(1)));
+        assertEquals(FloatColumn.of(-6.0f, 7.5f, 12.0f), result.getFiltered(actions.get(2)));
+        assertEquals(6, result.getCount());
+    }
+
+    @Test
+    void testParseUnknownAction() {
+        assertThrows(IllegalArgumentException.class, () -> Action.parseActions("sum,avg"));
+    }
+}
@@ -0,0 +1,102 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterCompilerTest {
+
+    private static final FloatColumn VALUES = FloatColumn.of(-7.0f, -5.0f, -1.0f, 0.0f, 1.0f, 3.0f,
+            3.9999998f, 4.0f, 5.0f, 9.5f, 10.0f, Float.NaN);
+
+    @Test
+    void testLessThan() {
+        assertEquals(FloatColumn.of(-7.0f, -5.0f, -1.0f, 0.0f, 1.0f, 3.0f, 3.9999998f), select("lt:4"));
+        assertInstanceOf(RangeFilter.class, FilterCompiler.compile("lt:4"));
+    }
+
+    @Test
+    void testBetweenIsInclusive() {
+        assertEquals(FloatColumn.of(1.0f, 3.0f), select("between:1,3"));
+    }
+
+    @Test
+    void testConjunctionFoldsIntoOneRange() {
+        assertEquals(FloatColumn.of(1.0f, 3.0f, 3.9999998f, 4.0f, 5.0f, 9.5f), select("gt:0&lt:10"));
+        assertInstanceOf(RangeFilter.class, FilterCompiler.compile("gt:0 & lt:10"));
+    }
+
+    @Test
+    void testAbsoluteValue() {
+        assertEquals(FloatColumn.of(-7.0f, 9.5f, 10.0f), select("abs_gt:5"));
+        assertInstanceOf(AbsRangeFilter.class, FilterCompiler.compile("abs_gt:5"));
+    }
+
+    @Test
+    void testMixedConditions() {
+        assertEquals(FloatColumn.of(-7.0f, -5.0f), select("lt:0&abs_ge:5"));
+        assertInstanceOf(AndFilter.class, FilterCompiler.compile("lt:0&abs_ge:5"));
+    }
+
+    @Test
+    void testContradictionMatchesNothing() {
+        assertTrue(select("gt:5&lt:1").isEmpty());
+        assertInstanceOf(NoneFilter.class, FilterCompiler.compile("gt:5&lt:1"));
+    }
+
+    @Test
+    void testStrictBoundsAtInfinityMatchNothing() {
+        for (String expression : new String[]{"gt:Infinity", "lt:-Infinity", "abs_gt:Infinity"}) {
+            FloatFilter filter = FilterCompiler.compile(expression);
+            assertInstanceOf(NoneFilter.class, filter, expression);
+            assertFalse(filter.test(Float.POSITIVE_INFINITY), expression);
+            assertFalse(filter.test(Float.NEGATIVE_INFINITY), expression);
+        }
+        // the next float above the largest finite one is infinity
+        FloatFilter filter = FilterCompiler.compile("gt:" + Float.MAX_VALUE);
+        assertTrue(filter.test(Float.POSITIVE_INFINITY));
+        assertFalse(filter.test(Float.MAX_VALUE));
+        assertTrue(FilterCompiler.compile("lt:" + -Float.MAX_VALUE).test(Float.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void testTestAgreesWithSelect() {
+        FloatFilter filter = FilterCompiler.compile("ge:-1&le:3");
+        for (int i = 0; i < VALUES.size(); i++) {
+            float value = VALUES.get(i);
+            assertEquals(value >= -1 && value <= 3, filter.test(value));
+        }
+    }
+
+    @Test
+    void testMayMatchBlockBounds() {
+        FloatFilter lessThanFour = FilterCompiler.compile("lt:4");
+        assertTrue(lessThanFour.mayMatch(3.5f, 100));
+        assertFalse(lessThanFour.mayMatch(4, 100));
+        FloatFilter absolute = FilterCompiler.compile("abs_lt:1");
+        assertTrue(absolute.mayMatch(-5, 5));
+        assertFalse(absolute.mayMatch(-5, -2));
+        assertFalse(absolute.mayMatch(2, 5));
+        assertTrue(FilterCompiler.compile("lt:0&abs_ge:5").mayMatch(-6, 10));
+        assertFalse(FilterCompiler.compile("lt:0&abs_ge:5").mayMatch(-4, 4));
+        assertFalse(FilterCompiler.compile("gt:5&lt:1").mayMatch(-100, 100));
+        // a block of only NaN has inverted bounds
+        assertFalse(lessThanFour.mayMatch(Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY));
+        assertFalse(absolute.mayMatch(Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void testInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("lt:"));
+        assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("lt:abc"));
+        assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("near:4"));
+        assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("between:1"));
+        assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile("lt:4&"));
+    }
+
+    private static FloatColumn select(String expression) {
+        FloatColumn target = new FloatColumn();
+        FilterCompiler.compile(expression).select(VALUES.elements(), 0, VALUES.size(), target);
+        return target;
+    }
+}
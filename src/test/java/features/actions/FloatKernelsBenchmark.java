@@ -0,0 +1,75 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import java.util.Random;
+
+/**
+ * Simple throughput comparison of the scalar and the SIMD float kernels, not run as part of the tests.
+ * Run it from the test classpath on Java 17+ with --add-modules jdk.incubator.vector and
+ * target/classes/META-INF/versions/17 on the classpath, e.g. after mvn test-compile:
+ * <pre>
+ * java --add-modules jdk.incubator.vector \
+ *   -cp target/classes/META-INF/versions/17:target/classes:target/test-classes:&lt;dependencies&gt; \
+ *   features.actions.FloatKernelsBenchmark
+ * </pre>
+ */
+public class FloatKernelsBenchmark {
+
+    private static int rounds;
+
+    /**
+     * @param args optional number of values (default 64K, cache resident) and number of rounds (default 2000)
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 64 * 1024;
+        rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        float[] values = new float[size];
+        Random random = new Random(1);
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextFloat() * 8f;
+        }
+        FloatKernels scalar = new ScalarFloatKernels();
+        FloatKernels kernels = FloatKernels.get();
+        System.out.println("Kernels: " + kernels.getClass().getSimpleName());
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            run(scalar, values, false);
+            run(kernels, values, false);
+        }
+        run(scalar, values, true);
+        run(kernels, values, true);
+    }
+
+    private static void run(FloatKernels kernels, float[] values, boolean print) {
+        float[] result = new float[3];
+        float blackhole = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            blackhole += kernels.sum(values, 0, values.length);
+        }
+        long sumTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            blackhole += kernels.min(values, 0, values.length) + kernels.max(values, 0, values.length);
+        }
+        long minMaxTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            kernels.aggregate(values, 0, values.length, result);
+            blackhole += result[0];
+        }
+        long aggregateTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            FloatColumn target = new FloatColumn();
+            kernels.filterRange(values, 0, values.length, Float.NEGATIVE_INFINITY, Math.nextDown(4f), target);
+            blackhole += target.size();
+        }
+        long filterTime = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%s: sum %.3f ms, min+max %.3f ms, aggregate %.3f ms, lt4 %.3f ms (%s)%n",
+                    kernels.getClass().getSimpleName(), sumTime / 1e6 / rounds, minMaxTime / 1e6 / rounds,
+                    aggregateTime / 1e6 / rounds, filterTime / 1e6 / rounds, blackhole);
+        }
+    }
+}
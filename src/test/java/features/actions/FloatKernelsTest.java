@@ -0,0 +1,62 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloatKernelsTest {
+
+    private final FloatKernels scalar = new ScalarFloatKernels();
+    private final FloatKernels kernels = FloatKernels.get();
+
+    @Test
+    void testVectorKernelsAreLoadedWhenModuleIsPresent() {
+        boolean vectorModulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (Runtime.version().feature() >= 17 && vectorModulePresent) {
+            assertEquals("VectorFloatKernels", kernels.getClass().getSimpleName());
+        } else {
+            assertEquals(ScalarFloatKernels.class, kernels.getClass());
+        }
+    }
+
+    @Test
+    void testKernelsMatchScalarKernels() {
+        Random random = new Random(7);
+        // Odd lengths and offsets exercise the scalar tails of the vector loops
+        for (int length : new int[]{0, 1, 7, 15, 16, 17, 1000, 100_003}) {
+            float[] values = new float[length + 3];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (random.nextFloat() - 0.5f) * 20f;
+            }
+            int from = 3;
+            int to = values.length;
+
+            assertEquals(scalar.min(values, from, to), kernels.min(values, from, to));
+            assertEquals(scalar.max(values, from, to), kernels.max(values, from, to));
+            assertEquals(scalar.sum(values, from, to), kernels.sum(values, from, to), 1e-3 * Math.max(1, length));
+
+            FloatColumn expected = new FloatColumn();
+            FloatColumn actual = new FloatColumn();
+            scalar.filterRange(values, from, to, Float.NEGATIVE_INFINITY, Math.nextDown(4f), expected);
+            kernels.filterRange(values, from, to, Float.NEGATIVE_INFINITY, Math.nextDown(4f), actual);
+            assertEquals(expected, actual);
+
+            expected.clear();
+            actual.clear();
+            scalar.filterRange(values, from, to, -1f, 1f, expected);
+            kernels.filterRange(values, from, to, -1f, 1f, actual);
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), kernels.countRange(values, from, to, -1f, 1f));
+            assertEquals(expected.size(), scalar.countRange(values, from, to, -1f, 1f));
+
+            float[] expectedResult = new float[3];
+            float[] actualResult = new float[3];
+            scalar.aggregate(values, from, to, expectedResult);
+            kernels.aggregate(values, from, to, actualResult);
+            assertEquals(expectedResult[0], actualResult[0], 1e-3 * Math.max(1, length));
+            assertEquals(expectedResult[1], actualResult[1]);
+            assertEquals(expectedResult[2], actualResult[2]);
+        }
+    }
+}
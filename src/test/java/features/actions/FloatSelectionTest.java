@@ -0,0 +1,113 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloatSelectionTest {
+
+    private final ActionsManager actionsManager = new ActionsManagerImpl();
+
+    @Test
+    void testSelectMatchesSortedArray() {
+        Random random = new Random(5);
+        for (int size : new int[]{1, 2, 15, 16, 17, 1000, 10_001}) {
+            // few distinct values to exercise the three way partition
+            float[] values = new float[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = size > 100 && i % 2 == 0 ? random.nextInt(5) : random.nextFloat() - 0.5f;
+            }
+            float[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (int k : new int[]{0, size / 3, size / 2, size - 1}) {
+                assertEquals(sorted[k], FloatSelection.select(values.clone(), 0, size, k), "size " + size + " k " + k);
+            }
+        }
+    }
+
+    @Test
+    void testSelectOnSortedAndReversedInput() {
+        float[] ascending = new float[100_000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i;
+        }
+        float[] descending = new float[ascending.length];
+        for (int i = 0; i < descending.length; i++) {
+            descending[i] = descending.length - 1 - i;
+        }
+        assertEquals(12_345, FloatSelection.select(ascending, 0, ascending.length, 12_345));
+        assertEquals(99_998, FloatSelection.select(descending, 0, descending.length, 99_998));
+    }
+
+    @Test
+    void testMedianAndPercentile() {
+        FloatColumn odd = FloatColumn.of(7, 1, 3, Float.NaN, 9, 5);
+        FloatColumn even = FloatColumn.of(4, 1, 3, 2);
+
+        assertEquals(5, actionsManager.medianColumn(odd));
+        assertEquals(2.5f, actionsManager.medianColumn(even));
+        assertEquals(1, actionsManager.percentileColumn(odd, 0));
+        assertEquals(3, actionsManager.percentileColumn(odd, 40));
+        assertEquals(9, actionsManager.percentileColumn(odd, 99));
+        assertEquals(0, actionsManager.medianColumn(null));
+        assertEquals(0, actionsManager.percentileColumn(FloatColumn.of(Float.NaN), 50));
+        assertThrows(IllegalArgumentException.class, () -> actionsManager.percentileColumn(odd, 101));
+    }
+
+    @Test
+    void testSmallestAndLargest() {
+        Random random = new Random(9);
+        FloatColumn values = new FloatColumn();
+        for (int i = 0; i < 10_000; i++) {
+            values.add(random.nextFloat());
+        }
+        float[] sorted = values.toArray();
+        Arrays.sort(sorted);
+
+        for (int k : new int[]{0, 1, 10, 5_000, 20_000}) {
+            int count = Math.min(k, sorted.length);
+            FloatColumn smallest = actionsManager.smallestColumn(values, k);
+            FloatColumn largest = actionsManager.largestColumn(values, k);
+            assertEquals(FloatColumn.of(Arrays.copyOf(sorted, count)), smallest);
+            assertEquals(count, largest.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(sorted[sorted.length - 1 - i], largest.get(i));
+            }
+        }
+        assertEquals(FloatColumn.of(3, 2), actionsManager.largestColumn(FloatColumn.of(1, Float.NaN, 3, 2), 2));
+        assertThrows(IllegalArgumentException.class, () -> actionsManager.smallestColumn(values, -1));
+    }
+
+    @Test
+    void testExactActionsMatchTheActionsManager() {
+        Random random = new Random(11);
+        float[] values = new float[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 97 == 0 ? Float.NaN : (float) random.nextGaussian();
+        }
+        FloatColumn column = FloatColumn.wrap(values, values.length);
+        List<ActionDefinition> actions = ActionRegistry.getDefault()
+                .parseActions("median:exact,p95:exact,top:5,bottom:3");
+        assertEquals(Arrays.asList("MEDIAN_EXACT", "P95_EXACT", "TOP5", "BOTTOM3"),
+                Arrays.asList(actions.stream().map(ActionDefinition::getName).toArray()));
+
+        // blocks and single values go through different paths of the accumulators
+        AggregationAccumulator accumulator = new AggregationAccumulator(actions);
+        accumulator.accept(values, 0, 4000);
+        for (int i = 4000; i < values.length; i++) {
+            accumulator.accept(values[i]);
+        }
+        AggregationResult result = accumulator.result();
+        assertEquals(actionsManager.medianColumn(column), result.outputOf(actions.get(0)).getScalars().get("MEDIAN_EXACT"));
+        assertEquals(actionsManager.percentileColumn(column, 95), result.outputOf(actions.get(1)).getScalars().get("P95_EXACT"));
+        assertEquals(actionsManager.largestColumn(column, 5), result.outputOf(actions.get(2)).getValues());
+        assertEquals(actionsManager.smallestColumn(column, 3), result.outputOf(actions.get(3)).getValues());
+
+        assertNull(ExactQuantileAction.parse("median"));
+        assertThrows(IllegalArgumentException.class, () -> ExactQuantileAction.parse("p101:exact"));
+        assertThrows(IllegalArgumentException.class, () -> TopValuesAction.parse("top:0"));
+    }
+}
@@ -0,0 +1,69 @@
+package features.actions;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void testLinearBuckets() {
+        LinearHistogram histogram = new LinearHistogram(0, 10, 5);
+        histogram.accept(new float[]{-1, 0, 1.99f, 2, 9.99f, 10, 15, Float.NaN}, 0, 8);
+        List<HistogramAccumulator.Bucket> buckets = histogram.getBuckets();
+
+        assertEquals(7, buckets.size());
+        assertEquals(1, buckets.get(0).getCount());
+        assertEquals(2, buckets.get(1).getCount());
+        assertEquals(2.0f, buckets.get(2).getLower());
+        assertEquals(1, buckets.get(2).getCount());
+        assertEquals(1, buckets.get(5).getCount());
+        assertEquals(2, buckets.get(6).getCount());
+        assertEquals(10.0f, buckets.get(6).getLower());
+    }
+
+    @Test
+    void testLogBucketsHaveBoundedRelativeWidth() {
+        LogHistogram histogram = new LogHistogram(3);
+        float[] values = {-300, 0, 0.001f, 1, 1.1f, 1.2f, 1000, 1e30f};
+        histogram.accept(values, 0, values.length);
+        long total = 0;
+        for (HistogramAccumulator.Bucket bucket : histogram.getBuckets()) {
+            total += bucket.getCount();
+            if (bucket.getLower() > 0) {
+                assertTrue(bucket.getUpper() - bucket.getLower() <= bucket.getLower() / 8);
+            }
+        }
+        assertEquals(values.length, total);
+        assertEquals(-300.0f, histogram.getBuckets().get(0).getUpper(), 300.0f / 8);
+    }
+
+    @Test
+    void testMergeAddsCounts() {
+        LogHistogram first = new LogHistogram();
+        LogHistogram second = new LogHistogram();
+        first.accept(5);
+        second.accept(5);
+        second.accept(-5);
+        first.merge(second);
+
+        assertEquals(2, first.getBuckets().size());
+        assertEquals(2, first.getBuckets().get(1).getCount());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new LogHistogram(4)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LinearHistogram(0, 1, 2).merge(new LinearHistogram(0, 1, 3)));
+    }
+
+    @Test
+    void testHistogramActions() {
+        assertEquals("histogram:0,10,20", HistogramAction.parse("histogram:0, 10, 20").getName());
+        assertEquals("loghistogram", HistogramAction.parse("LogHistogram").getName());
+        assertEquals("loghistogram:5", HistogramAction.parse("loghistogram:5").getName());
+        assertNull(HistogramAction.parse("lt:4"));
+        assertThrows(IllegalArgumentException.class, () -> HistogramAction.parse("histogram:10,0,5"));
+        assertThrows(IllegalArgumentException.class, () -> HistogramAction.parse("loghistogram:11"));
+
+        List<ActionDefinition> actions = Action.parseActions("sum,histogram:0,10,2,p50");
+        assertEquals(3, actions.size());
+    }
+}
@@ -0,0 +1,111 @@
+package features.actions;
+
+import features.data.FloatColumn;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelActionsManagerImplTest {
+
+    private static FloatColumn values;
+
+    @BeforeAll
+    static void setUp() {
+        Random random = new Random(42);
+        values = new FloatColumn(1_000_003);
+        for (int i = 0; i < 1_000_003; i++) {
+            values.add((random.nextFloat() - 0.3f) * 10_000f);
+        }
+    }
+
+    @Test
+    void testSumIsIndependentOfParallelismAndThreshold() {
+        float expected = (float) ParallelActionsManagerImpl.pairwiseSum(values.elements(), 0, values.size());
+        int[][] configurations = {{1, 1000}, {2, 4096}, {4, 50_000}, {8, 2_000_000}, {3, 7}};
+        for (int[] configuration : configurations) {
+            try (ParallelActionsManagerImpl actionsManager =
+                         new ParallelActionsManagerImpl(configuration[0], configuration[1])) {
+                assertEquals(expected, actionsManager.sumColumn(values));
+            }
+        }
+    }
+
+    @Test
+    void testSumIsCloseToExactSum() {
+        double exact = 0;
+        for (int i = 0; i < values.size(); i++) {
+            exact += values.get(i);
+        }
+        try (ParallelActionsManagerImpl actionsManager = new ParallelActionsManagerImpl(4, 10_000)) {
+            assertEquals((float) exact, actionsManager.sumColumn(values), Math.ulp((float) exact));
+        }
+    }
+
+    @Test
+    void testMinMaxAndFilterMatchSerialImplementation() {
+        ActionsManager serial = new ActionsManagerImpl();
+        try (ParallelActionsManagerImpl parallel = new ParallelActionsManagerImpl(4, 10_000)) {
+            assertEquals(serial.minColumn(values), parallel.minColumn(values));
+            assertEquals(serial.maxColumn(values), parallel.maxColumn(values));
+            assertEquals(serial.filterColumn(values), parallel.filterColumn(values));
+        }
+    }
+
+    @Test
+    void testFilterMatchesSerialFilterAroundChunkBoundaries() {
+        int threshold = 1000;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String expression : new String[]{"lt:4", "abs_gt:2000", "gt:-3000&abs_lt:100", "gt:5&lt:1"}) {
+                FloatFilter filter = FilterCompiler.compile(expression);
+                ActionsManager serial = new ActionsManagerImpl(filter);
+                ActionsManager parallel = new ParallelActionsManagerImpl(pool, threshold, filter);
+                for (int size : new int[]{threshold + 1, 2 * threshold - 1, 2 * threshold, 2 * threshold + 1,
+                        7 * threshold + 13}) {
+                    FloatColumn column = FloatColumn.wrap(values.toArray(), size);
+                    assertEquals(serial.filterColumn(column), parallel.filterColumn(column),
+                            expression + " size " + size);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSmallAndEmptyInputsStaySerial() {
+        ParallelActionsManagerImpl actionsManager = new ParallelActionsManagerImpl();
+        assertEquals(0, actionsManager.sumColumn(null));
+        assertEquals(0, actionsManager.minColumn(new FloatColumn()));
+        assertEquals(6.0f, actionsManager.sumColumn(FloatColumn.of(1.0f, 2.0f, 3.0f)));
+        assertEquals(FloatColumn.of(1.0f, 3.0f), actionsManager.filterColumn(FloatColumn.of(1.0f, 5.0f, 3.0f)));
+    }
+
+    @Test
+    void testSelectionMatchesSequential() {
+        ActionsManager sequential = new ActionsManagerImpl();
+        try (ParallelActionsManagerImpl actionsManager = new ParallelActionsManagerImpl(4, 10_000)) {
+            assertEquals(sequential.medianColumn(values), actionsManager.medianColumn(values));
+            for (double percentile : new double[]{0, 0.1, 50, 95, 99.9, 100}) {
+                assertEquals(sequential.percentileColumn(values, percentile),
+                        actionsManager.percentileColumn(values, percentile), "percentile " + percentile);
+            }
+            assertEquals(sequential.smallestColumn(values, 100), actionsManager.smallestColumn(values, 100));
+            assertEquals(sequential.largestColumn(values, 50_000), actionsManager.largestColumn(values, 50_000));
+        }
+    }
+
+    @Test
+    void testOrderedBitsKeepFloatOrder() {
+        float[] ordered = {Float.NEGATIVE_INFINITY, -3.5f, -Float.MIN_VALUE, -0.0f, 0.0f, Float.MIN_VALUE, 1, Float.POSITIVE_INFINITY};
+        for (int i = 0; i < ordered.length; i++) {
+            int bits = ParallelActionsManagerImpl.orderedBits(ordered[i]);
+            assertEquals(Float.floatToIntBits(ordered[i]), Float.floatToIntBits(ParallelActionsManagerImpl.fromOrderedBits(bits)));
+            if (i > 0) {
+                assertTrue(Integer.compareUnsigned(ParallelActionsManagerImpl.orderedBits(ordered[i - 1]), bits) < 0);
+            }
+        }
+    }
+}
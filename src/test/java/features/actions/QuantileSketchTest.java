@@ -0,0 +1,89 @@
+package features.actions;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void testSmallInputIsExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.accept(new float[]{5, 1, 4, 2, 3}, 0, 5);
+
+        assertEquals(3, sketch.quantile(0.5));
+        assertEquals(1, sketch.quantile(0));
+        assertEquals(5, sketch.quantile(1));
+        assertEquals(5, sketch.quantile(0.99));
+    }
+
+    @Test
+    void testEmptySketch() {
+        assertEquals(0, new QuantileSketch().quantile(0.5));
+    }
+
+    @Test
+    void testLargeInputWithinRankErrorAndBoundedMemory() {
+        int size = 1_000_000;
+        float[] values = randomValues(size, 1);
+        QuantileSketch sketch = new QuantileSketch(200);
+        sketch.accept(values, 0, size);
+        float[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(size, sketch.getCount());
+        assertTrue(sketch.getRetained() < 3 * 200 + 64, "retained " + sketch.getRetained());
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.95, 0.99}) {
+            double rank = rankOf(sorted, sketch.quantile(q)) / (double) size;
+            assertEquals(q, rank, 0.02, "quantile " + q);
+        }
+    }
+
+    @Test
+    void testMergeMatchesSingleSketch() {
+        float[] values = randomValues(200_000, 7);
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        first.accept(values, 0, 120_000);
+        second.accept(values, 120_000, 80_000);
+        first.merge(second);
+        float[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(values.length, first.getCount());
+        assertEquals(0.9, rankOf(sorted, first.quantile(0.9)) / (double) values.length, 0.02);
+        assertEquals(sorted[0], first.quantile(0));
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new QuantileSketch(100)));
+    }
+
+    @Test
+    void testQuantileActions() {
+        assertEquals("MEDIAN", QuantileAction.parse("median").getName());
+        assertEquals("P99.9", QuantileAction.parse("p99.9").getName());
+        assertEquals(400, QuantileAction.parse("quantiles:k=400:0.5,0.99").getK());
+        assertNull(QuantileAction.parse("sum"));
+        assertThrows(IllegalArgumentException.class, () -> QuantileAction.parse("quantiles:0.5,2"));
+        assertThrows(IllegalArgumentException.class, () -> QuantileAction.parse("p101"));
+
+        AggregationResult result = new AggregationEngine().aggregate(features.data.FloatColumn.of(1, 2, 3, 4, 5),
+                Action.parseActions("quantiles:0.2,0.8"));
+        ActionOutput output = result.outputOf(result.getActions().get(0));
+        assertEquals(1.0f, output.getScalars().get("P20"));
+        assertEquals(4.0f, output.getScalars().get("P80"));
+    }
+
+    private static int rankOf(float[] sorted, float value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private static float[] randomValues(int size, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) random.nextGaussian() * 100;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,69 @@
+package features.actions;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleEstimatorTest {
+
+    @Test
+    void testEstimatesOfSingleValueClusters() {
+        SampleEstimator estimator = new SampleEstimator();
+        for (float value : new float[]{1, 2, 3, 4}) {
+            estimator.addCluster(1, value, value < 4 ? 1 : 0, value, value);
+        }
+        estimator.setPopulationClusters(8);
+        List<SampleEstimator.Estimate> estimates = estimator.estimate();
+
+        // half of the values are sampled: standard error of the mean sqrt(5/3 * (1 - 1/2) / 4)
+        double meanError = Math.sqrt(5.0 / 3 * 0.5 / 4);
+        assertEstimate(estimates.get(0), "SUM", 20, 8 * meanError);
+        assertEstimate(estimates.get(1), "COUNT", 8, 0);
+        assertEstimate(estimates.get(2), "MEAN", 2.5, meanError);
+        assertEstimate(estimates.get(3), "LT4", 6, 8 * Math.sqrt(0.25 * 0.5 / 4));
+        assertEstimate(estimates.get(4), "LT4_FRACTION", 0.75, Math.sqrt(0.25 * 0.5 / 4));
+        assertEquals(1, estimator.getSampledMin());
+        assertEquals(4, estimator.getSampledMax());
+    }
+
+    @Test
+    void testSampleOfTheWholeInputIsExact() {
+        SampleEstimator estimator = new SampleEstimator();
+        estimator.addCluster(3, 7.5, 2, 0.5f, 5);
+        estimator.addCluster(0, 0, 0, 0, 0);
+        estimator.addCluster(2, -1, 2, -3, 2);
+        estimator.setPopulationClusters(3);
+        List<SampleEstimator.Estimate> estimates = estimator.estimate();
+
+        assertEstimate(estimates.get(0), "SUM", 6.5, 0);
+        assertEstimate(estimates.get(1), "COUNT", 5, 0);
+        assertEstimate(estimates.get(2), "MEAN", 1.3, 0);
+        assertEstimate(estimates.get(4), "LT4_FRACTION", 0.8, 0);
+        // the empty cluster has no min or max
+        assertEquals(-3, estimator.getSampledMin());
+        assertEquals(5, estimator.getSampledMax());
+    }
+
+    @Test
+    void testSingleClusterHasNoInterval() {
+        SampleEstimator estimator = new SampleEstimator();
+        estimator.addCluster(1, 2, 1, 2, 2);
+        estimator.setPopulationClusters(10);
+        SampleEstimator.Estimate sum = estimator.estimate().get(0);
+
+        assertEquals(20, sum.getValue(), 1e-9);
+        assertTrue(Double.isNaN(sum.getLower()));
+        assertTrue(Double.isNaN(new SampleEstimator().getSampledMin()));
+        assertThrows(IllegalArgumentException.class, () -> {
+            estimator.setPopulationClusters(0);
+            estimator.estimate();
+        });
+    }
+
+    private static void assertEstimate(SampleEstimator.Estimate estimate, String name, double value, double error) {
+        assertEquals(name, estimate.getName());
+        assertEquals(value, estimate.getValue(), 1e-9, name);
+        assertEquals(value - SampleEstimator.Z_95 * error, estimate.getLower(), 1e-9, name);
+        assertEquals(value + SampleEstimator.Z_95 * error, estimate.getUpper(), 1e-9, name);
+    }
+}
@@ -0,0 +1,129 @@
+package features.actions;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowAggregatorTest {
+
+    private static final List<ActionDefinition> ACTIONS = Action.parseActions("sum,minmax,lt4,count");
+
+    @Test
+    void testSlidingWindowsMatchRecomputation() {
+        float[] values = randomValues(5_000);
+        int[][] sizes = {{1, 1}, {7, 1}, {64, 16}, {100, 100}, {333, 7}};
+        for (int[] size : sizes) {
+            List<WindowResult> windows = new ArrayList<>();
+            WindowAggregator aggregator = new WindowAggregator(size[0], size[1], ACTIONS, windows::add);
+            aggregator.accept(values, 0, values.length);
+
+            assertEquals((values.length - size[0]) / size[1] + 1, windows.size());
+            for (WindowResult window : windows) {
+                assertWindow(values, window);
+            }
+        }
+    }
+
+    @Test
+    void testFinishEmitsLastTumblingWindow() {
+        List<WindowResult> windows = new ArrayList<>();
+        WindowAggregator aggregator = new WindowAggregator(3, 3, ACTIONS, windows::add);
+        float[] values = {1, 5, 2, 7, 3};
+        aggregator.accept(values, 0, values.length);
+        aggregator.finish();
+        aggregator.finish();
+
+        assertEquals(2, windows.size());
+        assertEquals(3, windows.get(1).getFrom());
+        assertEquals(5, windows.get(1).getTo());
+        assertWindow(values, windows.get(1));
+    }
+
+    @Test
+    void testFinishEmitsShortSlidingWindow() {
+        List<WindowResult> windows = new ArrayList<>();
+        WindowAggregator aggregator = new WindowAggregator(10, 2, ACTIONS, windows::add);
+        float[] values = {4, 3, 8};
+        aggregator.accept(values, 0, values.length);
+        aggregator.finish();
+
+        assertEquals(1, windows.size());
+        assertEquals(3L, windows.get(0).getScalars().get("COUNT"));
+        assertWindow(values, windows.get(0));
+    }
+
+    @Test
+    void testFinishSkipsValuesAfterLastFullSlidingWindow() {
+        List<WindowResult> windows = new ArrayList<>();
+        WindowAggregator aggregator = new WindowAggregator(5, 2, ACTIONS, windows::add);
+        float[] values = randomValues(12);
+        aggregator.accept(values, 0, values.length);
+        aggregator.finish();
+
+        assertEquals(4, windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            assertEquals(2 * i, windows.get(i).getFrom());
+            assertEquals(2 * i + 5, windows.get(i).getTo());
+        }
+    }
+
+    @Test
+    void testNaNIsNeverMinOrMax() {
+        List<WindowResult> windows = new ArrayList<>();
+        WindowAggregator aggregator = new WindowAggregator(3, 1, ACTIONS, windows::add);
+        float[] values = {5, Float.NaN, 2, 9, Float.NaN, Float.NaN, Float.NaN, 1};
+        aggregator.accept(values, 0, values.length);
+
+        float[][] expected = {{2, 5}, {2, 9}, {2, 9}, {9, 9}, {Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY}, {1, 1}};
+        assertEquals(expected.length, windows.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i][0], windows.get(i).getScalars().get("MIN"), "window " + i);
+            assertEquals(expected[i][1], windows.get(i).getScalars().get("MAX"), "window " + i);
+        }
+
+        // the same rule for the short window emitted at the end
+        windows.clear();
+        aggregator = new WindowAggregator(10, 2, ACTIONS, windows::add);
+        aggregator.accept(values, 0, values.length);
+        aggregator.finish();
+        assertEquals(1f, windows.get(0).getScalars().get("MIN"));
+        assertEquals(9f, windows.get(0).getScalars().get("MAX"));
+    }
+
+    @Test
+    void testUnsupportedActionsAndSizes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WindowAggregator(10, 1, Action.parseActions("median"), window -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new WindowAggregator(10, 11, ACTIONS, window -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new WindowAggregator(0, 1, ACTIONS, window -> { }));
+    }
+
+    private static void assertWindow(float[] values, WindowResult window) {
+        double sum = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        long lt4 = 0;
+        for (int i = (int) window.getFrom(); i < window.getTo(); i++) {
+            sum += values[i];
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+            lt4 += values[i] < 4 ? 1 : 0;
+        }
+        assertEquals((float) sum, window.getScalars().get("SUM").floatValue(), 1e-2);
+        assertEquals(min, window.getScalars().get("MIN"));
+        assertEquals(max, window.getScalars().get("MAX"));
+        assertEquals(lt4, window.getScalars().get("LT4_COUNT"));
+        assertEquals(window.getCount(), window.getScalars().get("COUNT"));
+    }
+
+    private static float[] randomValues(int size) {
+        Random random = new Random(3);
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextFloat() * 20 - 10;
+        }
+        return values;
+    }
+}
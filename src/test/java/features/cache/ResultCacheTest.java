@@ -0,0 +1,116 @@
+package features.cache;
+
+import features.actions.Action;
+import features.actions.ActionDefinition;
+import features.actions.AggregationEngine;
+import features.actions.AggregationResult;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private static final List<ActionDefinition> ACTIONS = Action.parseActions("sum,minmax,lt4,count,histogram:0,4,2");
+
+    @Test
+    void testStoredResultIsRestored() throws IOException {
+        ResultCache cache = new ResultCache(directory.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES, 10);
+        String key = ResultCache.key(writeInput("input.csv", "1,5,2"), "csv", ACTIONS, false);
+        AggregationResult result = new AggregationEngine().aggregate(FloatColumn.of(1, 5, 2), ACTIONS);
+
+        assertNull(cache.get(key, ACTIONS));
+        cache.put(key, result);
+        AggregationResult cached = cache.get(key, ACTIONS);
+
+        assertNotNull(cached);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(result.getCount(), cached.getCount());
+        for (ActionDefinition action : ACTIONS) {
+            assertEquals(result.valuesOf(action), cached.valuesOf(action), action.getName());
+            assertEquals(result.outputOf(action).getScalars(), cached.outputOf(action).getScalars());
+        }
+    }
+
+    @Test
+    void testKeyChangesWithFileActionsAndFormat() throws IOException {
+        Path input = writeInput("input.csv", "1,5,2");
+        String key = ResultCache.key(input, "csv", ACTIONS, false);
+
+        assertEquals(key, ResultCache.key(input, "CSV", ACTIONS, false));
+        assertNotEquals(key, ResultCache.key(input, "json", ACTIONS, false));
+        assertNotEquals(key, ResultCache.key(input, "csv", Action.parseActions("sum"), false));
+        assertNotEquals(key, ResultCache.key(input, "csv", ACTIONS, true));
+
+        // same size and modification time, only the content hash notices the change
+        String hashKey = ResultCache.key(input, "csv", ACTIONS, true);
+        FileTime modified = Files.getLastModifiedTime(input);
+        Files.write(input, "1,6,2".getBytes());
+        Files.setLastModifiedTime(input, modified);
+        assertEquals(key, ResultCache.key(input, "csv", ACTIONS, false));
+        assertNotEquals(hashKey, ResultCache.key(input, "csv", ACTIONS, true));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+        ResultCache cache = new ResultCache(directory.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES, 2);
+        AggregationResult result = new AggregationEngine().aggregate(FloatColumn.of(1), ACTIONS);
+        String first = ResultCache.key(writeInput("first.csv", "1"), "csv", ACTIONS, false);
+        String second = ResultCache.key(writeInput("second.csv", "1"), "csv", ACTIONS, false);
+        String third = ResultCache.key(writeInput("third.csv", "1"), "csv", ACTIONS, false);
+
+        cache.put(first, result);
+        cache.put(second, result);
+        setAllEntriesLastUse();
+        cache.get(first, ACTIONS);
+        cache.put(third, result);
+
+        assertNotNull(cache.get(first, ACTIONS));
+        assertNull(cache.get(second, ACTIONS));
+        assertNotNull(cache.get(third, ACTIONS));
+    }
+
+    @Test
+    void testClearAndStats() throws IOException {
+        ResultCache cache = new ResultCache(directory.resolve("cache"), ResultCache.DEFAULT_MAX_BYTES, 10);
+        String key = ResultCache.key(writeInput("input.csv", "1"), "csv", ACTIONS, false);
+        cache.put(key, new AggregationEngine().aggregate(FloatColumn.of(1), ACTIONS));
+        cache.get(key, ACTIONS);
+        assertArrayEquals(new long[]{1, 0}, cache.saveStats());
+        cache.get(key, ACTIONS);
+        assertArrayEquals(new long[]{2, 0}, cache.saveStats());
+
+        cache.clear();
+        assertNull(cache.get(key, ACTIONS));
+        assertArrayEquals(new long[]{0, 1}, cache.saveStats());
+    }
+
+    /**
+     * Entries stored within the same millisecond would have the same last use.
+     */
+    private void setAllEntriesLastUse() throws IOException {
+        try (java.util.stream.Stream<Path> entries = Files.list(directory.resolve("cache"))) {
+            entries.filter(entry -> entry.toString().endsWith(".entry"))
+                    .forEach(entry -> {
+                        try {
+                            Files.setLastModifiedTime(entry, FileTime.fromMillis(1000));
+                        } catch (IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+                    });
+        }
+    }
+
+    private Path writeInput(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes());
+    }
+}
@@ -0,0 +1,64 @@
+package features.data;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloatColumnTest {
+
+    @Test
+    void testAddGrowsBeyondInitialCapacity() {
+        FloatColumn column = new FloatColumn(2);
+        for (int i = 0; i < 100; i++) {
+            column.add(i);
+        }
+        assertEquals(100, column.size());
+        assertEquals(99.0f, column.get(99));
+    }
+
+    @Test
+    void testFromListSkipsNullElements() {
+        FloatColumn column = FloatColumn.fromList(Arrays.asList(1.5f, null, 3.5f));
+        assertEquals(FloatColumn.of(1.5f, 3.5f), column);
+    }
+
+    @Test
+    void testFromNullListIsEmpty() {
+        assertTrue(FloatColumn.fromList(null).isEmpty());
+    }
+
+    @Test
+    void testToListRoundTrip() {
+        FloatColumn column = FloatColumn.of(1.0f, 2.0f, 3.0f);
+        assertEquals(Arrays.asList(1.0f, 2.0f, 3.0f), column.toList());
+    }
+
+    @Test
+    void testReadOnlyViewRejectsWrites() {
+        FloatColumn column = FloatColumn.of(1.0f, 2.0f);
+        FloatColumn view = column.asReadOnly();
+
+        assertEquals(2, view.size());
+        assertEquals(2.0f, view.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(3.0f));
+        assertThrows(UnsupportedOperationException.class, () -> view.set(0, 3.0f));
+    }
+
+    @Test
+    void testGetOutOfBounds() {
+        FloatColumn column = new FloatColumn(10);
+        column.add(1.0f);
+        assertThrows(IndexOutOfBoundsException.class, () -> column.get(1));
+    }
+
+    @Test
+    void testNegativeIndexOutOfBounds() {
+        FloatColumn column = new FloatColumn(10);
+        column.add(1.0f);
+        IndexOutOfBoundsException get = assertThrows(IndexOutOfBoundsException.class, () -> column.get(-1));
+        assertEquals("Index -1 out of bounds for size 1", get.getMessage());
+        IndexOutOfBoundsException set = assertThrows(IndexOutOfBoundsException.class, () -> column.set(-1, 2.0f));
+        assertEquals("Index -1 out of bounds for size 1", set.getMessage());
+        assertEquals(1.0f, column.get(0));
+    }
+}
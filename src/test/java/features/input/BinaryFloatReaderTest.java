@@ -0,0 +1,93 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.BinaryFloatFormat;
+import features.data.FloatColumn;
+import features.output.BinaryFloatFileWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFloatReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testConvertedCsvFileGivesTheSameValuesInBothByteOrders() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        FloatColumn expected = new FloatColumn();
+        for (int i = 0; i < 100_000; i++) {
+            float value = (i - 50_000) * 0.37f;
+            csv.append(value).append(i % 4 == 3 ? "\n" : ",");
+            expected.add(value);
+        }
+        Path csvFile = Files.write(directory.resolve("input.csv"), csv.toString().getBytes());
+
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            Path binaryFile = directory.resolve("input-" + order + ".bin");
+            try (BinaryFloatFileWriter writer = new BinaryFloatFileWriter(binaryFile, order)) {
+                new FileInputReaderImpl(csvFile.toString(), "csv").readInto(writer);
+                assertEquals(expected.size(), writer.getCount());
+            }
+            assertEquals(BinaryFloatFormat.HEADER_SIZE + 4L * expected.size(), Files.size(binaryFile));
+
+            FloatColumn values = new FileInputReaderImpl(binaryFile.toString(), "bin").readColumn();
+            assertEquals(expected, values, order.toString());
+        }
+    }
+
+    @Test
+    void testSpecialValuesAreKeptBitForBit() throws IOException {
+        float[] values = {Float.NaN, Float.POSITIVE_INFINITY, -0f, Float.MIN_VALUE, Float.MAX_VALUE, 1.5f};
+        Path file = directory.resolve("special.bin");
+        try (BinaryFloatFileWriter writer = new BinaryFloatFileWriter(file)) {
+            writer.accept(values[0]);
+            writer.accept(values, 1, values.length - 1);
+        }
+        FloatColumn read = new FloatColumn();
+        assertEquals(values.length, new BinaryFloatReader(file).readInto(read));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Float.floatToRawIntBits(values[i]), Float.floatToRawIntBits(read.elements()[i]));
+        }
+    }
+
+    @Test
+    void testInvalidFiles() throws IOException {
+        Path empty = directory.resolve("empty.bin");
+        new BinaryFloatFileWriter(empty).close();
+        assertEquals(1, assertThrows(ReadErrorException.class,
+                () -> new FileInputReaderImpl(empty.toString(), "bin").readColumn()).getErrorCode());
+
+        Path text = Files.write(directory.resolve("text.bin"), "1.0,2.0,3.0,4.0,5.0".getBytes());
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new FileInputReaderImpl(text.toString(), "bin").readColumn());
+        assertEquals(4, exception.getErrorCode());
+        assertEquals("Format Error: not a binary float file", exception.getMessage());
+
+        Path truncated = directory.resolve("truncated.bin");
+        try (BinaryFloatFileWriter writer = new BinaryFloatFileWriter(truncated, ByteOrder.BIG_ENDIAN)) {
+            writer.accept(new float[]{1, 2, 3}, 0, 3);
+        }
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 2));
+        exception = assertThrows(ReadErrorException.class,
+                () -> new FileInputReaderImpl(truncated.toString(), "bin").readColumn());
+        assertEquals(4, exception.getErrorCode());
+
+        ByteBuffer header = new BinaryFloatFormat(ByteOrder.LITTLE_ENDIAN, 0).header();
+        header.put(4, (byte) 2);
+        exception = assertThrows(ReadErrorException.class, () -> BinaryFloatFormat.read(header));
+        assertEquals("Format Error: unsupported binary float file version 2", exception.getMessage());
+
+        assertEquals(2, assertThrows(ReadErrorException.class,
+                () -> new FileInputReaderImpl(directory.resolve("missing.bin").toString(), "bin").readColumn())
+                .getErrorCode());
+    }
+}
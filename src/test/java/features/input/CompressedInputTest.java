@@ -0,0 +1,140 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import features.output.BinaryFloatFileWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedInputTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCompressedFilesAreRecognizedByTheirContent() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        FloatColumn expected = new FloatColumn();
+        for (int i = 0; i < 50_000; i++) {
+            csv.append(i * 0.5f).append(i % 2 == 1 ? "\n" : ",");
+            expected.add(i * 0.5f);
+        }
+        // no extension tells that the files are compressed
+        Path gzip = write("values.csv", gzip(csv.toString().getBytes()));
+        Path zlib = write("values.zlib", zlib(csv.toString().getBytes()));
+        assertTrue(CompressedInput.isCompressed(gzip));
+        assertTrue(CompressedInput.isCompressed(zlib));
+        assertFalse(CompressedInput.isCompressed(write("plain.csv", csv.toString().getBytes())));
+
+        for (int threads : new int[]{1, 2}) {
+            assertEquals(expected, new FileInputReaderImpl(gzip.toString(), "csv", threads).readColumn());
+            assertEquals(expected, new FileInputReaderImpl(zlib.toString(), "csv", threads).readColumn());
+        }
+
+        Path json = write("values.json.gz", gzip("[1.5, 2, null, 3]".getBytes()));
+        assertEquals(FloatColumn.of(1.5f, 2f, 3f), new FileInputReaderImpl(json.toString(), "json", 2).readColumn());
+
+        Path binary = directory.resolve("values.bin");
+        try (BinaryFloatFileWriter writer = new BinaryFloatFileWriter(binary)) {
+            writer.accept(expected.elements(), 0, expected.size());
+        }
+        Path compressedBinary = write("values.bin.gz", gzip(Files.readAllBytes(binary)));
+        assertEquals(expected, new FileInputReaderImpl(compressedBinary.toString(), "bin", 2).readColumn());
+    }
+
+    @Test
+    void testConcatenatedGzipMembersAndDirectories() throws IOException {
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        members.write(gzip("1,2\n".getBytes()));
+        members.write(gzip("3,4\n".getBytes()));
+        write("a.csv.gz", members.toByteArray());
+        write("b.csv", "5,6\n".getBytes());
+        write("c.json.gz", gzip("[7]".getBytes()));
+
+        FileSetReader reader = new FileSetReader(directory.toString(), "csv", 2);
+        List<Path> files = reader.listFiles();
+        assertEquals(Arrays.asList(directory.resolve("a.csv.gz"), directory.resolve("b.csv")), files);
+        assertEquals(FloatColumn.of(1, 2, 3, 4, 5, 6), reader.readColumn());
+    }
+
+    @Test
+    void testCorruptCompressedFile() throws IOException {
+        byte[] compressed = gzip("1,2,3,4,5,6,7,8,9\n".getBytes());
+        Path truncated = write("truncated.csv", Arrays.copyOf(compressed, compressed.length - 10));
+        for (int threads : new int[]{1, 2}) {
+            ReadErrorException exception = assertThrows(ReadErrorException.class,
+                    () -> new FileInputReaderImpl(truncated.toString(), "csv", threads).readColumn());
+            assertEquals(2, exception.getErrorCode());
+        }
+    }
+
+    @Test
+    void testPipelinedStreamGivesTheBytesOfTheSourceInOrder() throws IOException {
+        byte[] content = new byte[100_000];
+        new Random(3).nextBytes(content);
+        // blocks smaller than the reads and reads smaller than the blocks
+        for (int blockSize : new int[]{1, 7, 4096, 200_000}) {
+            try (InputStream in = new PipelinedInputStream(new ByteArrayInputStream(content), "test", blockSize, 2)) {
+                ByteArrayOutputStream read = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1000];
+                read.write(in.read());
+                int length;
+                while ((length = in.read(buffer, 0, buffer.length)) >= 0) {
+                    read.write(buffer, 0, length);
+                }
+                assertArrayEquals(content, read.toByteArray(), "block size " + blockSize);
+                assertEquals(-1, in.read());
+            }
+        }
+
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (++count > 10) {
+                    throw new IOException("broken");
+                }
+                return 'x';
+            }
+        };
+        try (InputStream in = new PipelinedInputStream(failing, "test", 4, 1)) {
+            assertEquals('x', in.read());
+            IOException exception = assertThrows(IOException.class, () -> in.readAllBytes());
+            assertEquals("broken", exception.getMessage());
+        }
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(directory.resolve(name), content);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] zlib(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
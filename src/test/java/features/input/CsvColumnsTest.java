@@ -0,0 +1,132 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import features.data.FloatSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvColumnsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testColumnsAreSelectedByNameOrPosition() throws IOException {
+        // the skipped columns are not parsed, so they may hold anything but delimiters
+        String csv = "id,\"price\",label, qty\n1,2.5,red,3\n2,-1,green,4e1\n";
+        FloatColumn price = new FloatColumn();
+        FloatColumn quantity = new FloatColumn();
+        CsvFloatParser parser = new CsvFloatParser(new FloatSink[]{quantity, price},
+                CsvColumns.parse("qty,2", true), CsvFloatParser.DEFAULT_BUFFER_SIZE, null);
+        parser.parse(new ByteArrayInputStream(csv.getBytes()));
+        assertEquals(Arrays.asList("qty", "price"), parser.getColumnNames());
+        assertEquals(FloatColumn.of(2.5f, -1), price);
+        assertEquals(FloatColumn.of(3, 40), quantity);
+
+        // without a header the selectors name the columns
+        FloatColumn first = new FloatColumn();
+        FloatColumn last = new FloatColumn();
+        parser = new CsvFloatParser(new FloatSink[]{last, first}, CsvColumns.parse("3,1", false),
+                CsvFloatParser.DEFAULT_BUFFER_SIZE, null);
+        parser.parse(new ByteArrayInputStream("1,x,3\n4,y,6".getBytes()));
+        assertEquals(Arrays.asList("3", "1"), parser.getColumnNames());
+        assertEquals(FloatColumn.of(1, 4), first);
+        assertEquals(FloatColumn.of(3, 6), last);
+
+        // a header alone selects every column, the values of all of them go to a single sink
+        FloatColumn all = new FloatColumn();
+        new CsvFloatParser(new FloatSink[]{all}, CsvColumns.parse("", true), CsvFloatParser.DEFAULT_BUFFER_SIZE, null)
+                .parse(new ByteArrayInputStream("a,b\n1,2\n3,4\n".getBytes()));
+        assertEquals(FloatColumn.of(1, 2, 3, 4), all);
+    }
+
+    @Test
+    void testQuotedNamesMayContainCommasAndQuotes() throws IOException {
+        String csv = "id,\"price, net\", \"say \"\"hi\"\"\"\n1,2.5,3\n2,-1,4\n";
+        FloatColumn price = new FloatColumn();
+        FloatColumn said = new FloatColumn();
+        CsvFloatParser parser = new CsvFloatParser(new FloatSink[]{price, said},
+                CsvColumns.parse("\"price, net\",\"say \"\"hi\"\"\"", true), CsvFloatParser.DEFAULT_BUFFER_SIZE, null);
+        parser.parse(new ByteArrayInputStream(csv.getBytes()));
+        assertEquals(Arrays.asList("price, net", "say \"hi\""), parser.getColumnNames());
+        assertEquals(FloatColumn.of(2.5f, -1), price);
+        assertEquals(FloatColumn.of(3, 4), said);
+    }
+
+    @Test
+    void testErrors() {
+        ReadErrorException missing = assertThrows(ReadErrorException.class, () -> parse("a,b\n1,2\n", "c", true));
+        assertEquals(4, missing.getErrorCode());
+        assertEquals("Format Error: no column c in the header a,b", missing.getMessage());
+        assertEquals(4, assertThrows(ReadErrorException.class, () -> parse("1,2\n", "3", false)).getErrorCode());
+        assertEquals(4, assertThrows(ReadErrorException.class, () -> parse("a,b\n1,2\n", "a,1", true)).getErrorCode());
+
+        // the skipped columns still count for the number of columns of a line
+        ReadErrorException inconsistent = assertThrows(ReadErrorException.class,
+                () -> parse("a,b\n1,2\n3,4,5\n", "a", true));
+        assertEquals("Format Error: Inconsistent number of columns at line 3", inconsistent.getMessage());
+        assertEquals("Format Error: Inconsistent number of columns at line 3", assertThrows(ReadErrorException.class,
+                () -> parse("a,b,c\n1,  ,text which is not a number\n2,,\n", "a", true)).getMessage());
+        assertEquals("Format Error: Inconsistent number of columns at line 2", assertThrows(ReadErrorException.class,
+                () -> parse("a,b,c,d,e,f,g,h,i,j\n1,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,x\n", "a", true)).getMessage());
+        assertDoesNotThrow(() -> parse("a,b,c,d,e,f,g,h,i,j\n1,2,3,4,5,6,7,8,9, 10,,,,,,,,,,,,,,,,,,,,,\r\n", "a", true));
+        assertEquals(1, assertThrows(ReadErrorException.class, () -> parse(" \n1,2\n", "a", true)).getErrorCode());
+        assertThrows(IllegalArgumentException.class, () -> CsvColumns.parse("a,,b", true));
+    }
+
+    @Test
+    void testParallelChunksGiveTheSameColumnsAsTheSequentialParser() throws IOException {
+        StringBuilder content = new StringBuilder("name,a,b,c,d\r\n");
+        Random random = new Random(21);
+        for (int line = 0; line < 2000; line++) {
+            content.append("n").append(line);
+            for (int column = 0; column < 4; column++) {
+                // empty values only before the last column, trailing empty columns are not counted
+                content.append(',').append(column < 3 && random.nextInt(5) == 0 ? "" : random.nextFloat());
+            }
+            content.append(line % 2 == 0 ? "\n" : "\r\n");
+        }
+        Path file = Files.write(directory.resolve("wide.csv"), content.toString().getBytes());
+        CsvColumns columns = CsvColumns.parse("d,b", true);
+
+        FloatColumn[] expected = {new FloatColumn(), new FloatColumn()};
+        new CsvFloatParser(expected, columns, CsvFloatParser.DEFAULT_BUFFER_SIZE, null)
+                .parse(new ByteArrayInputStream(content.toString().getBytes()));
+        for (long chunkSize : new long[]{1, 100, 4096, 1 << 20}) {
+            FloatColumn[] values = {new FloatColumn(), new FloatColumn()};
+            List<String> names = new ParallelCsvReader(file, 3, chunkSize).readColumnsInto(values, columns);
+            assertEquals(Arrays.asList("d", "b"), names);
+            assertArrayEquals(expected, values, "chunk size " + chunkSize);
+
+            // both columns into one sink keep the order of the lines
+            FloatColumn flattened = new FloatColumn();
+            new ParallelCsvReader(file, 3, chunkSize).readColumnsInto(new FloatSink[]{flattened}, columns);
+            FloatColumn sequential = new FloatColumn();
+            new CsvFloatParser(new FloatSink[]{sequential}, columns, CsvFloatParser.DEFAULT_BUFFER_SIZE, null)
+                    .parse(new ByteArrayInputStream(content.toString().getBytes()));
+            assertEquals(sequential, flattened, "chunk size " + chunkSize);
+        }
+
+        FloatColumn[] values = {new FloatColumn(), new FloatColumn()};
+        assertEquals(Arrays.asList("d", "b"),
+                new FileInputReaderImpl(file.toString(), "csv", 1, null, columns).readColumnsInto(values));
+        assertArrayEquals(expected, values);
+    }
+
+    private static void parse(String csv, String selection, boolean header) throws IOException {
+        String[] selectors = selection.split(",");
+        FloatSink[] sinks = new FloatSink[selectors.length];
+        Arrays.setAll(sinks, i -> new FloatColumn());
+        new CsvFloatParser(sinks, CsvColumns.parse(selection, header), CsvFloatParser.DEFAULT_BUFFER_SIZE, null)
+                .parse(new ByteArrayInputStream(csv.getBytes()));
+    }
+}
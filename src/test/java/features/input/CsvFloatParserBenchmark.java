@@ -0,0 +1,69 @@
+package features.input;
+
+import features.data.FloatSink;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Simple throughput comparison of the byte level csv parser and the String based parsing it replaced,
+ * not run as part of the tests. Run it from the test classpath, e.g. after mvn test-compile:
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; features.input.CsvFloatParserBenchmark
+ * </pre>
+ */
+public class CsvFloatParserBenchmark {
+
+    private static float checksum;
+
+    /**
+     * @param args optional number of lines (default 1M) of 10 values each and number of rounds (default 5)
+     */
+    public static void main(String[] args) throws IOException {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(1);
+        for (int line = 0; line < lines; line++) {
+            for (int column = 0; column < 10; column++) {
+                content.append(column == 0 ? "" : ",").append(random.nextFloat() * 1000);
+            }
+            content.append('\n');
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        FloatSink sink = new FloatSink() {
+            @Override
+            public void accept(float value) {
+                checksum += value;
+            }
+
+            @Override
+            public void accept(float[] values, int offset, int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    checksum += values[i];
+                }
+            }
+        };
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes)))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    for (String value : line.split(",")) {
+                        sink.accept(Float.parseFloat(value.trim()));
+                    }
+                }
+            }
+            long split = System.nanoTime();
+            new CsvFloatParser(sink).parse(new ByteArrayInputStream(bytes));
+            long end = System.nanoTime();
+            System.out.printf("String based: %.0f MB/s, byte level: %.0f MB/s%n",
+                    bytes.length / 1e6 / ((split - start) / 1e9), bytes.length / 1e6 / ((end - split) / 1e9));
+        }
+        System.out.println("Checksum " + checksum);
+    }
+}
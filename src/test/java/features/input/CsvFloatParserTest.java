@@ -0,0 +1,127 @@
+package features.input;
+
+import exceptions.InvalidNumberFormatException;
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvFloatParserTest {
+
+    @Test
+    void testParseFloatIsTheSameAsFloatParseFloat() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            String value;
+            switch (i % 5) {
+                case 0:
+                    value = Float.toString(Float.intBitsToFloat(random.nextInt()));
+                    break;
+                case 1:
+                    value = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(20) - 10));
+                    break;
+                case 2:
+                    value = randomDecimal(random);
+                    break;
+                case 3:
+                    value = Float.toString(random.nextFloat() * 100);
+                    break;
+                default:
+                    // values exactly in the middle of two floats are the hard case of rounding twice
+                    float lower = random.nextFloat() * 1000;
+                    value = new java.math.BigDecimal(lower).add(new java.math.BigDecimal(Math.ulp(lower)).divide(
+                            java.math.BigDecimal.valueOf(2))).toPlainString();
+                    break;
+            }
+            assertParsed(value);
+        }
+        for (String value : new String[]{"0", "-0", "+1", ".5", "5.", "1e10", "1E-5", "-3.4028235e38", "3.4028236e38",
+                "1.4e-45", "1e-40", "NaN", "-Infinity", "0x1.8p1", "1f", "2.5d", "0.000000000000000000000000001",
+                "123456789012345678901234567890", "16777217", "9007199254740993", "0e99999", "1e-99999"}) {
+            assertParsed(value);
+        }
+    }
+
+    @Test
+    void testLinesAndColumns() throws IOException {
+        assertEquals(FloatColumn.of(1, 2, 3, 4, 5, 6), parse("1, 2 ,3\n4,5,6\n"));
+        assertEquals(FloatColumn.of(1, 2, 3, 4, 5, 6), parse("1,2,3\r\n4,5,6\r\n"));
+        assertEquals(FloatColumn.of(1, 2, 3, 4), parse("1,2\r3,4"));
+        // trailing empty columns are not counted, empty values in between are skipped
+        assertEquals(FloatColumn.of(1, 2, 3, 4), parse("1,2,,\n3,4"));
+        assertEquals(FloatColumn.of(1, 3, 4, 6), parse("1,,3\n4, ,6"));
+        assertEquals(FloatColumn.of(1, 2), parse("1\n\n2\n"));
+    }
+
+    @Test
+    void testSmallBufferGivesTheSameResult() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(3);
+        for (int line = 0; line < 500; line++) {
+            for (int column = 0; column < 7; column++) {
+                content.append(column == 0 ? "" : ",").append(random.nextFloat() * 100);
+            }
+            content.append(line % 3 == 0 ? "\r\n" : line % 3 == 1 ? "\n" : "\r");
+        }
+        FloatColumn expected = parse(content.toString());
+        assertEquals(3500, expected.size());
+        for (int bufferSize : new int[]{2, 3, 17, 100}) {
+            FloatColumn column = new FloatColumn();
+            CsvFloatParser parser = new CsvFloatParser(column, bufferSize);
+            parser.parse(new ByteArrayInputStream(content.toString().getBytes(StandardCharsets.UTF_8)));
+            assertEquals(expected, column);
+            assertEquals(500, parser.getLineNumber());
+        }
+    }
+
+    @Test
+    void testErrors() {
+        assertEquals(1, assertThrows(ReadErrorException.class, () -> parse("")).getErrorCode());
+        assertEquals(1, assertThrows(ReadErrorException.class, () -> parse(" \n1,2")).getErrorCode());
+
+        ReadErrorException exception = assertThrows(ReadErrorException.class, () -> parse("1,2\n3,4\n5"));
+        assertEquals(4, exception.getErrorCode());
+        assertEquals("Format Error: Inconsistent number of columns at line 3", exception.getMessage());
+
+        InvalidNumberFormatException numberException = assertThrows(InvalidNumberFormatException.class,
+                () -> parse("1,2\n3, x4 "));
+        assertEquals(4, numberException.getErrorCode());
+        assertEquals("Invalid number format: x4 Error code: 4", numberException.getMessage());
+        assertThrows(InvalidNumberFormatException.class, () -> parse("1e"));
+        assertThrows(InvalidNumberFormatException.class, () -> parse("1.2.3"));
+        assertThrows(InvalidNumberFormatException.class, () -> parse("-"));
+    }
+
+    private static FloatColumn parse(String content) throws IOException {
+        FloatColumn column = new FloatColumn();
+        new CsvFloatParser(column).parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return column;
+    }
+
+    private static void assertParsed(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        assertEquals(Float.floatToIntBits(Float.parseFloat(value)),
+                Float.floatToIntBits(CsvFloatParser.parseFloat(bytes, 0, bytes.length)), value);
+    }
+
+    private static String randomDecimal(Random random) {
+        StringBuilder value = new StringBuilder(random.nextBoolean() ? "-" : "");
+        int integerDigits = random.nextInt(10);
+        for (int i = 0; i < integerDigits; i++) {
+            value.append(random.nextInt(10));
+        }
+        value.append('.');
+        int fractionDigits = 1 + random.nextInt(12);
+        for (int i = 0; i < fractionDigits; i++) {
+            value.append(random.nextInt(10));
+        }
+        if (random.nextInt(4) == 0) {
+            value.append('e').append(random.nextInt(60) - 30);
+        }
+        return value.toString();
+    }
+}
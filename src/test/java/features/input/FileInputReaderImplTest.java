@@ -3,6 +3,9 @@ package features.input;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import exceptions.ReadErrorException;
+import features.actions.Action;
+import features.actions.AggregationAccumulator;
+import features.actions.AggregationResult;
 import java.util.List;
 class FileInputReaderImplTest {
 
@@ -75,7 +78,7 @@ class FileInputReaderImplTest {
     void testInvalidJsonFile() {
         FileInputReaderImpl reader = new FileInputReaderImpl(INVALID_JSON_FILE_PATH, "json");
         Exception exception = assertThrows(ReadErrorException.class, reader::readInput);
-        assertEquals("Invalid JSON format: java.io.EOFException: End of input at line 1 column 31 path $[7]", exception.getMessage());
+        assertEquals("Invalid JSON format: End of input at line 1 column 31 (offset 30) path $[7]", exception.getMessage());
     }
 
     @Test
@@ -92,4 +95,16 @@ class FileInputReaderImplTest {
         assertEquals("Read Error: File with path src/test/resources/not-existing-file.csv does not exist or is not readable.", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testReadIntoAccumulator() throws ReadErrorException {
+        AggregationAccumulator accumulator = new AggregationAccumulator(Action.parseActions("count,minmax"));
+        new FileInputReaderImpl(VALID_JSON_FILE_PATH, "json").readInto(accumulator);
+        new FileInputReaderImpl(VALID_CSV_FILE_PATH, "csv").readInto(accumulator);
+        AggregationResult result = accumulator.result();
+
+        assertEquals(13, result.getCount());
+        assertEquals(0.5f, result.getMin());
+        assertEquals(6.0f, result.getMax());
+    }
+
+}
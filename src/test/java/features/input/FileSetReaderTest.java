@@ -0,0 +1,124 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.actions.Action;
+import features.actions.ActionDefinition;
+import features.actions.AggregationResult;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSetReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private static final List<ActionDefinition> ACTIONS = Action.parseActions("sum,minmax,lt4,count");
+
+    @Test
+    void testDirectoryListsFilesOfTheFormat() throws IOException {
+        Path second = write("b.csv", "4,5");
+        Path first = write("a.csv", "1,2,3");
+        write("c.json", "[6]");
+        Files.createDirectory(directory.resolve("nested"));
+        write("nested/d.csv", "7");
+
+        assertTrue(FileSetReader.isFileSet(directory.toString()));
+        assertFalse(FileSetReader.isFileSet(first.toString()));
+        assertEquals(Arrays.asList(first, second), new FileSetReader(directory.toString(), "csv").listFiles());
+    }
+
+    @Test
+    void testGlobPatterns() throws IOException {
+        Files.createDirectory(directory.resolve("2024-01"));
+        Files.createDirectory(directory.resolve("2024-02"));
+        Path january = write("2024-01/00.csv", "1");
+        Path february = write("2024-02/00.csv", "2");
+        write("2024-02/00.json", "[2]");
+        Path top = write("top.csv", "3");
+
+        assertTrue(FileSetReader.isFileSet(directory + "/*.csv"));
+        assertEquals(List.of(top), new FileSetReader(directory + "/*.csv", "csv").listFiles());
+        assertEquals(List.of(january, february), new FileSetReader(directory + "/2024-*/*.csv", "csv").listFiles());
+        assertEquals(List.of(january, february, top), new FileSetReader(directory + "/**.csv", "csv").listFiles());
+    }
+
+    @Test
+    void testBracketsInExistingNamesAreNotGlobs() throws IOException {
+        Path file = write("prices[2024].csv", "1,2");
+        Files.createDirectory(directory.resolve("shards{a}"));
+        Path shard = write("shards{a}/00.csv", "3");
+
+        assertFalse(FileSetReader.isFileSet(file.toString()));
+        assertTrue(FileSetReader.isFileSet(directory.resolve("shards{a}").toString()));
+        assertEquals(List.of(shard), new FileSetReader(directory.resolve("shards{a}").toString(), "csv").listFiles());
+        assertTrue(FileSetReader.isFileSet(directory + "/prices[0-9]*.csv"));
+    }
+
+    @Test
+    void testParallelResultIsTheSameAsTheSequentialOne() throws IOException {
+        List<Float> expectedValues = new ArrayList<>();
+        for (int file = 0; file < 20; file++) {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                float value = (file * 100 + i) % 7 / 2f;
+                expectedValues.add(value);
+                content.append(i == 0 ? "" : ",").append(value);
+            }
+            write(String.format("shard-%02d.csv", file), content.toString());
+        }
+        FileSetReader reader = new FileSetReader(directory.toString(), "csv", 4);
+
+        AggregationResult result = reader.aggregate(ACTIONS, false).getResult();
+        FloatColumn sequential = reader.readColumn();
+
+        assertEquals(FloatColumn.fromList(expectedValues), sequential);
+        assertEquals(2000, result.getCount());
+        assertEquals(0f, result.getMin());
+        assertEquals(3f, result.getMax());
+        // the values less than four of all files are kept in the order of the files
+        assertEquals(sequential, result.getLt4());
+    }
+
+    @Test
+    void testBreakdownAndEmptyFiles() throws IOException {
+        Path first = write("a.csv", "1,2,3");
+        Path empty = write("b.csv", "");
+        Path last = write("c.csv", "4,5");
+
+        FileSetResult fileSetResult = new FileSetReader(directory.toString(), "csv", 2).aggregate(ACTIONS, true);
+
+        assertEquals(15f, fileSetResult.getResult().getSum());
+        assertEquals(List.of(first, empty, last), new ArrayList<>(fileSetResult.getFileResults().keySet()));
+        assertEquals(6f, fileSetResult.getFileResults().get(first).getSum());
+        assertEquals(0, fileSetResult.getFileResults().get(empty).getCount());
+        assertEquals(2, fileSetResult.getFileResults().get(last).getCount());
+        assertTrue(new FileSetReader(directory.toString(), "csv").aggregate(ACTIONS, false).getFileResults().isEmpty());
+    }
+
+    @Test
+    void testErrors() throws IOException {
+        write("a.csv", "1,2");
+        Path invalid = write("b.csv", "3,x");
+
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new FileSetReader(directory.toString(), "csv", 2).aggregate(ACTIONS, false));
+        assertEquals(4, exception.getErrorCode());
+        assertTrue(exception.getMessage().contains(invalid.toString()));
+
+        exception = assertThrows(ReadErrorException.class,
+                () -> new FileSetReader(directory + "/*.json", "json").aggregate(ACTIONS, false));
+        assertEquals(2, exception.getErrorCode());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes());
+    }
+}
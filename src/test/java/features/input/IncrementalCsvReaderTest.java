@@ -0,0 +1,139 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import exceptions.WriteErrorException;
+import features.actions.Action;
+import features.actions.ActionDefinition;
+import features.actions.ActionRegistry;
+import features.actions.RunningAggregate;
+import features.actions.WindowResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalCsvReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEveryRunOnlyReadsTheAppendedLines() throws IOException {
+        Path file = Files.write(directory.resolve("log.csv"), "1,2\n3,4\n5,".getBytes());
+        Path checkpoint = directory.resolve("state/log.checkpoint");
+
+        // the incomplete last line waits for its line end
+        assertEquals(4, run(file, checkpoint, "sum,minmax,count,lt4").getTo());
+        // a \r at the end may still be followed by its \n
+        append(file, "6\r");
+        assertEquals(expected(4, 10, 1, 4, 3), run(file, checkpoint, "sum,minmax,count,lt4").getScalars());
+        append(file, "\n7,-8\n");
+        WindowResult result = run(file, checkpoint, "sum,minmax,count,lt4");
+        assertEquals(expected(8, 20, -8, 7, 4), result.getScalars());
+
+        // nothing appended, the result is restored from the checkpoint alone
+        IncrementalCsvReader reader = new IncrementalCsvReader(file, checkpoint, null);
+        RunningAggregate aggregate = new RunningAggregate(actions("sum,minmax,count,lt4"));
+        assertEquals(0, reader.update(aggregate));
+        assertEquals(result.getScalars(), aggregate.result(0).getScalars());
+
+        // the same reader keeps following the file
+        append(file, "0.5,1\n");
+        assertEquals(6, reader.update(aggregate));
+        assertEquals(expected(10, 21.5f, -8, 7, 6), aggregate.result(1).getScalars());
+    }
+
+    @Test
+    void testTruncatedRotatedAndRewrittenFilesAreReadFromTheStart() throws IOException {
+        Path file = Files.write(directory.resolve("log.csv"), "1\n2\n3\n".getBytes());
+        Path checkpoint = directory.resolve("log.checkpoint");
+        assertEquals(3, run(file, checkpoint, "count").getTo());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(2);
+        }
+        assertEquals(1, run(file, checkpoint, "count").getTo());
+
+        // a new file moved into place has another file key
+        Path rotated = Files.write(directory.resolve("new.csv"), "4\n5\n6\n7\n".getBytes());
+        Files.move(rotated, file, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(4, run(file, checkpoint, "sum,count").getTo());
+        assertEquals(22f, run(file, checkpoint, "sum,count").getScalars().get("SUM"));
+
+        // the same file written again with other first lines
+        Files.write(file, "9\n9\n9\n9\n9\n".getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
+        assertEquals(45f, run(file, checkpoint, "sum,count").getScalars().get("SUM"));
+
+        // a filter action whose count was not saved needs all values again
+        assertEquals(0L, run(file, checkpoint, "count,lt4").getScalars().get("LT4_COUNT"));
+        append(file, "1\n");
+        assertEquals(1L, run(file, checkpoint, "count,lt4").getScalars().get("LT4_COUNT"));
+    }
+
+    @Test
+    void testSelectedColumnsAreResumed() throws IOException {
+        Path file = Files.write(directory.resolve("wide.csv"), "id,price,qty\n1,2.5,3\n".getBytes());
+        Path checkpoint = directory.resolve("wide.checkpoint");
+        CsvColumns qty = CsvColumns.parse("qty", true);
+        assertEquals(1, run(file, checkpoint, qty).getTo());
+        append(file, "2,1,4\n3,1,5\n");
+        assertEquals(12f, run(file, checkpoint, qty).getScalars().get("SUM"));
+
+        // other columns do not continue the checkpoint
+        assertEquals(4.5f, run(file, checkpoint, CsvColumns.parse("price", true)).getScalars().get("SUM"));
+
+        append(file, "4,5\n");
+        ReadErrorException exception = assertThrows(ReadErrorException.class, () -> run(file, checkpoint, qty));
+        assertEquals(4, exception.getErrorCode());
+    }
+
+    @Test
+    void testUnreadableCheckpointIsIgnored() throws IOException {
+        Path file = Files.write(directory.resolve("log.csv"), "1\n2\n".getBytes());
+        Path checkpoint = Files.write(directory.resolve("log.checkpoint"), "offset=x\n".getBytes());
+        assertEquals(2, run(file, checkpoint, "count").getTo());
+        assertThrows(IllegalArgumentException.class,
+                () -> new RunningAggregate(actions("sum,histogram:0,4,2")));
+    }
+
+    private WindowResult run(Path file, Path checkpoint, String actions)
+            throws ReadErrorException, WriteErrorException {
+        RunningAggregate aggregate = new RunningAggregate(actions(actions));
+        new IncrementalCsvReader(file, checkpoint, null).update(aggregate);
+        return aggregate.result(0);
+    }
+
+    private WindowResult run(Path file, Path checkpoint, CsvColumns columns)
+            throws ReadErrorException, WriteErrorException {
+        RunningAggregate aggregate = new RunningAggregate(Arrays.asList(Action.SUM, Action.COUNT));
+        new IncrementalCsvReader(file, checkpoint, columns).update(aggregate);
+        return aggregate.result(0);
+    }
+
+    private static List<ActionDefinition> actions(String actions) {
+        return ActionRegistry.getDefault().parseActions(actions);
+    }
+
+    private static Map<String, Number> expected(long count, float sum, float min, float max, long lessThanFour) {
+        Map<String, Number> scalars = new LinkedHashMap<>();
+        scalars.put("SUM", sum);
+        scalars.put("MIN", min);
+        scalars.put("MAX", max);
+        scalars.put("COUNT", count);
+        scalars.put("LT4_COUNT", lessThanFour);
+        return scalars;
+    }
+
+    private static void append(Path file, String lines) throws IOException {
+        Files.write(file, lines.getBytes(), StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,113 @@
+package features.input;
+
+import features.actions.ActionDefinition;
+import features.actions.ActionRegistry;
+import features.actions.AggregationAccumulator;
+import features.actions.AggregationResult;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedCsvReaderTest {
+
+    private static final int BLOCK_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testFirstRunBuildsTheIndexLaterRunsSkipBlocks() throws IOException {
+        // values rising from 0, only the first block holds values below four
+        Path file = directory.resolve("values.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append(String.format(Locale.ROOT, "%.1f", i * 0.5)).append(i % 4 == 3 ? "\n" : ",");
+        }
+        Files.write(file, content.toString().getBytes());
+        List<ActionDefinition> actions = ActionRegistry.getDefault().parseActions("sum,minmax,count,lt4");
+        AggregationResult expected = readAll(file, actions);
+
+        IndexedCsvReader reader = new IndexedCsvReader(file, null, BLOCK_SIZE);
+        assertResult(expected, reader.aggregate(actions));
+        assertTrue(Files.exists(IndexedCsvReader.indexPath(file)));
+        assertEquals(reader.getBlockCount(), reader.getBlocksRead());
+        assertTrue(reader.getBlockCount() > 10);
+
+        AggregationResult indexed = reader.aggregate(actions);
+        assertResult(expected, indexed);
+        assertEquals(1, reader.getBlocksRead());
+
+        // sum, min, max and count come from the index alone
+        List<ActionDefinition> aggregations = ActionRegistry.getDefault().parseActions("sum,minmax,count");
+        assertResult(readAll(file, aggregations), reader.aggregate(aggregations));
+        assertEquals(0, reader.getBlocksRead());
+
+        // a histogram needs every value
+        reader.aggregate(ActionRegistry.getDefault().parseActions("histogram:0,100,10"));
+        assertEquals(reader.getBlockCount(), reader.getBlocksRead());
+    }
+
+    @Test
+    void testChangedFileRebuildsTheIndex() throws IOException {
+        Path file = Files.write(directory.resolve("values.csv"), "5,6,7\n8,9,10\n".getBytes());
+        List<ActionDefinition> actions = ActionRegistry.getDefault().parseActions("sum,count,lt4");
+        IndexedCsvReader reader = new IndexedCsvReader(file, null, 8);
+        reader.aggregate(actions);
+        assertEquals(0, reader.aggregate(actions).getLt4().size());
+        assertEquals(0, reader.getBlocksRead());
+
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.write(file, "1,2,3\n".getBytes(), StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+        AggregationResult result = reader.aggregate(actions);
+        assertEquals(9, result.getCount());
+        assertEquals(51, result.getSum());
+        assertEquals(FloatColumn.of(1, 2, 3), result.getLt4());
+        assertEquals(reader.getBlockCount(), reader.getBlocksRead());
+    }
+
+    @Test
+    void testHeaderAndSelectedColumns() throws IOException {
+        Path file = Files.write(directory.resolve("prices.csv"),
+                "price,qty,note\n1.5,10,1\n2.5,20,2\n12.5,30,3\n".getBytes());
+        List<ActionDefinition> actions = ActionRegistry.getDefault().parseActions("sum,minmax,count,lt4");
+        CsvColumns columns = CsvColumns.parse("price,qty", true);
+        IndexedCsvReader reader = new IndexedCsvReader(file, columns, 4);
+        AggregationResult built = reader.aggregate(actions);
+        AggregationResult indexed = reader.aggregate(actions);
+        for (AggregationResult result : List.of(built, indexed)) {
+            assertEquals(6, result.getCount());
+            assertEquals(76.5f, result.getSum());
+            assertEquals(1.5f, result.getMin());
+            assertEquals(30, result.getMax());
+            assertEquals(FloatColumn.of(1.5f, 2.5f), result.getLt4());
+        }
+        assertEquals(2, reader.getBlocksRead());
+
+        // the index of other columns is not used
+        AggregationResult all = new IndexedCsvReader(file, CsvColumns.parse("", true), 4).aggregate(actions);
+        assertEquals(9, all.getCount());
+    }
+
+    private static AggregationResult readAll(Path file, List<ActionDefinition> actions) throws IOException {
+        AggregationAccumulator accumulator = new AggregationAccumulator(actions);
+        new FileInputReaderImpl(file.toString(), "csv", 1).readInto(accumulator);
+        return accumulator.result();
+    }
+
+    private static void assertResult(AggregationResult expected, AggregationResult actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum(), 1e-3);
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.getLt4(), actual.getLt4());
+    }
+}
@@ -0,0 +1,79 @@
+package features.input;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFloatArrayParserTest {
+
+    @Test
+    void testSameValuesAsGson() throws IOException {
+        String[] documents = {
+                "[1.3, 2.1, 2.2, 1.3, 3.2, 6, 0.5]",
+                "  [ -1 ,\n 2e3,\t0.000123, 12345678901234567890, -0 ]  ",
+                "[1, null, 2]",
+                "[1,,2]",
+                "[\"1.5\", '2.5', NaN, -Infinity]",
+                "[1; 2; 3]",
+                "// comment\n[1, /* two */ 2, # three\n 3]",
+                "﻿[7]",
+                "[]",
+                "null",
+                "",
+                "[3.4028235e38, 1.4e-45, 0.1, 1e-50, 16777217, 9007199254740993]"
+        };
+        for (String document : documents) {
+            List<Float> expected = new Gson().fromJson(document, new TypeToken<List<Float>>() {}.getType());
+            FloatColumn expectedColumn = FloatColumn.fromList(expected);
+            assertEquals(expectedColumn, parse(document, 4), document);
+        }
+
+        StringBuilder document = new StringBuilder("[");
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            document.append(i == 0 ? "" : ",").append(i % 3 == 0 ? random.nextDouble() * 1e6 : random.nextFloat() - 0.5f);
+        }
+        document.append("]");
+        List<Float> expected = new Gson().fromJson(document.toString(), new TypeToken<List<Float>>() {}.getType());
+        assertEquals(FloatColumn.fromList(expected), parse(document.toString(), 64));
+        assertEquals(FloatColumn.fromList(expected), parse(document.toString(), JsonFloatArrayParser.DEFAULT_BUFFER_SIZE));
+    }
+
+    @Test
+    void testErrorsNameTheOffsetOfTheMalformedToken() {
+        assertError("Invalid JSON format: End of input at line 1 column 31 (offset 30) path $[7]",
+                "[1.3, 2.1, 2.2, 1.3, 3.2, 6, 0");
+        assertError("Invalid JSON format: Expected a number but was abc at line 2 column 3 (offset 6) path $[1]",
+                "[1,\n  abc]");
+        assertError("Invalid JSON format: Expected , or ] at line 1 column 4 (offset 3) path $[1]", "[1 2]");
+        assertError("Invalid JSON format: Expected a number at line 1 column 5 (offset 4) path $[1]", "[1, {}]");
+        assertError("Invalid JSON format: Expected an array at line 1 column 1 (offset 0) path $[0]", "{\"a\": 1}");
+        assertError("Invalid JSON format: Unexpected content after the array at line 2 column 1 (offset 4) path $[1]",
+                "[1]\n[2]");
+        assertError("Invalid JSON format: Unterminated string at line 1 column 2 (offset 1) path $[0]", "[\"1");
+        assertError("Invalid JSON format: Expected a number but was true at line 1 column 2 (offset 1) path $[0]",
+                "[true]");
+    }
+
+    private static FloatColumn parse(String document, int bufferSize) throws IOException {
+        FloatColumn column = new FloatColumn();
+        JsonFloatArrayParser parser = new JsonFloatArrayParser(column, bufferSize);
+        parser.parse(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(column.size(), parser.getCount());
+        return column;
+    }
+
+    private static void assertError(String message, String document) {
+        ReadErrorException exception = assertThrows(ReadErrorException.class, () -> parse(document, 2));
+        assertEquals(4, exception.getErrorCode());
+        assertEquals(message, exception.getMessage());
+    }
+}
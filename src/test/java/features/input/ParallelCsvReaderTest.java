@@ -0,0 +1,77 @@
+package features.input;
+
+import exceptions.InvalidNumberFormatException;
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testChunksGiveTheSameValuesAsTheSequentialParser() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(5);
+        for (int line = 0; line < 2000; line++) {
+            // empty values only before the last column, trailing empty columns are not counted
+            for (int column = 0; column < 5; column++) {
+                content.append(column == 0 ? "" : ",").append(column < 4 && random.nextInt(4) == 0 ? "" : random.nextFloat() * 100);
+            }
+            // every kind of line end, so the chunk boundaries fall between \r and \n too
+            content.append(line % 3 == 0 ? "\r\n" : line % 3 == 1 ? "\n" : "\r");
+        }
+        content.append("1,2,3,4,5");
+        Path file = write(content.toString());
+
+        FloatColumn expected = new FloatColumn();
+        new CsvFloatParser(expected).parse(new ByteArrayInputStream(Files.readAllBytes(file)));
+        for (long chunkSize : new long[]{1, 7, 100, 4096, 1 << 20}) {
+            FloatColumn values = new FloatColumn();
+            new ParallelCsvReader(file, 3, chunkSize).readInto(values);
+            assertEquals(expected, values, "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void testLineNumbersOfErrorsCountTheLinesOfAllChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int line = 1; line <= 1000; line++) {
+            content.append(line == 777 ? "1,2,3" : "1,2").append('\n');
+        }
+        Path file = write(content.toString());
+
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new ParallelCsvReader(file, 4, 50).readInto(new FloatColumn()));
+        assertEquals(4, exception.getErrorCode());
+        assertEquals("Format Error: Inconsistent number of columns at line 777", exception.getMessage());
+
+        // the first line of a chunk is checked against the first line of the file
+        Path second = write("1,2\n3\n4,5\n");
+        exception = assertThrows(ReadErrorException.class,
+                () -> new ParallelCsvReader(second, 2, 1).readInto(new FloatColumn()));
+        assertEquals("Format Error: Inconsistent number of columns at line 2", exception.getMessage());
+    }
+
+    @Test
+    void testEmptyAndInvalidInput() throws IOException {
+        assertEquals(1, assertThrows(ReadErrorException.class,
+                () -> new ParallelCsvReader(write(""), 2, 1).readInto(new FloatColumn())).getErrorCode());
+        assertEquals(1, assertThrows(ReadErrorException.class,
+                () -> new ParallelCsvReader(write("  \n1"), 2, 1).readInto(new FloatColumn())).getErrorCode());
+        assertThrows(InvalidNumberFormatException.class,
+                () -> new ParallelCsvReader(write("1,2\n3,4\n5,x\n"), 2, 4).readInto(new FloatColumn()));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(Files.createTempFile(directory, "input", ".csv"), content.getBytes());
+    }
+}
@@ -0,0 +1,125 @@
+package features.input;
+
+import exceptions.InvalidNumberFormatException;
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseErrorsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testInvalidValuesAreSkippedOrReadAsNaN() throws IOException {
+        String csv = "1,x,3\n4,5e,6\n";
+        ParseErrors skipped = new ParseErrors(ParseErrors.Action.SKIP, Long.MAX_VALUE);
+        assertEquals(FloatColumn.of(1, 3, 4, 6), parse(csv, skipped));
+        assertEquals(2, skipped.getCount());
+
+        ParseErrors nan = new ParseErrors(ParseErrors.Action.NAN, Long.MAX_VALUE);
+        assertEquals(FloatColumn.of(1, Float.NaN, 3, 4, Float.NaN, 6), parse(csv, nan));
+
+        List<ParseErrors.ParseError> errors = nan.getErrors();
+        assertEquals("at line 1 column 3 (offset 2): x", errors.get(0).toString());
+        assertEquals("at line 2 column 3 (offset 8): 5e", errors.get(1).toString());
+
+        // the strict mode still fails on the first one
+        assertThrows(InvalidNumberFormatException.class, () -> parse(csv, null));
+    }
+
+    @Test
+    void testErrorBudget() throws IOException {
+        ParseErrors errors = new ParseErrors(ParseErrors.Action.SKIP, 1);
+        ReadErrorException exception = assertThrows(ReadErrorException.class, () -> parse("1,a\nb,2\n", errors));
+        assertEquals(4, exception.getErrorCode());
+        assertEquals("Format Error: 2 invalid values, more than the error budget of 1, "
+                + "the last one at line 2 column 1 (offset 4): b", exception.getMessage());
+
+        assertEquals(FloatColumn.of(1, 2, 3), parse("1,a\n2,3\n", new ParseErrors(ParseErrors.Action.SKIP, 1)));
+    }
+
+    @Test
+    void testFloatLiterals() {
+        for (String valid : new String[]{"1", "-1.5", "+.5", "5.", "1e10", "1E-3f", "2d", "NaN", "-Infinity",
+                "0x1p3", "0X1.8P-1F", " 7 "}) {
+            assertTrue(isFloatLiteral(valid), valid);
+        }
+        for (String invalid : new String[]{"", ".", "e5", "1e", "1.2.3", "--1", "0x1", "0xp1", "nan", "1f5",
+                "Infinityf", "1 2"}) {
+            assertFalse(isFloatLiteral(invalid), invalid);
+        }
+    }
+
+    @Test
+    void testPositionsOfParallelChunksAndJson() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(11);
+        for (int line = 0; line < 1000; line++) {
+            content.append(random.nextFloat()).append(',')
+                    .append(random.nextInt(20) == 0 ? "bad" + line : String.valueOf(random.nextFloat()))
+                    .append(line % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path file = Files.write(directory.resolve("values.csv"), content.toString().getBytes());
+
+        ParseErrors expected = new ParseErrors(ParseErrors.Action.NAN, Long.MAX_VALUE);
+        FloatColumn expectedValues = parse(content.toString(), expected);
+        assertTrue(expected.getCount() > 10);
+        for (long chunkSize : new long[]{1, 100, 4096}) {
+            ParseErrors errors = new ParseErrors(ParseErrors.Action.NAN, Long.MAX_VALUE);
+            FloatColumn values = new FloatColumn();
+            new ParallelCsvReader(file, 3, chunkSize, errors).readInto(values);
+            assertEquals(expectedValues, values, "chunk size " + chunkSize);
+            assertEquals(strings(expected), strings(errors), "chunk size " + chunkSize);
+        }
+
+        ParseErrors jsonErrors = new ParseErrors(ParseErrors.Action.SKIP, Long.MAX_VALUE);
+        FloatColumn values = new FloatColumn();
+        new JsonFloatArrayParser(values, JsonFloatArrayParser.DEFAULT_BUFFER_SIZE, jsonErrors)
+                .parse(new ByteArrayInputStream("[1, 2x, 3,\n 1e+]".getBytes()));
+        assertEquals(FloatColumn.of(1, 3), values);
+        assertEquals(2, jsonErrors.getCount());
+    }
+
+    @Test
+    void testReportNamesTheSourceOfEveryError() throws IOException {
+        ParseErrors errors = new ParseErrors(ParseErrors.Action.SKIP, Long.MAX_VALUE, 2);
+        parse("1,\"x\n", errors.forSource("a.csv"));
+        parse("z\nw\n", errors.forSource("b.csv"));
+        assertEquals(3, errors.getCount());
+
+        Path report = directory.resolve("errors.csv");
+        errors.writeReport(report);
+        assertEquals(Arrays.asList("SOURCE,LINE,COLUMN,OFFSET,TOKEN",
+                "a.csv,1,3,2,\"\"\"x\"",
+                "b.csv,1,1,0,z",
+                "# 1 more invalid values are not recorded"), Files.readAllLines(report, StandardCharsets.UTF_8));
+    }
+
+    private static FloatColumn parse(String csv, ParseErrors errors) throws IOException {
+        FloatColumn values = new FloatColumn();
+        new CsvFloatParser(values, CsvFloatParser.DEFAULT_BUFFER_SIZE, -1, errors)
+                .parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        return values;
+    }
+
+    private static boolean isFloatLiteral(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return CsvFloatParser.isFloatLiteral(bytes, 0, bytes.length);
+    }
+
+    private static List<String> strings(ParseErrors errors) {
+        return errors.getErrors().stream().map(ParseErrors.ParseError::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,136 @@
+package features.input;
+
+import exceptions.InvalidNumberFormatException;
+import exceptions.ReadErrorException;
+import exceptions.WriteErrorException;
+import features.data.FloatColumn;
+import features.data.FloatSink;
+import features.data.FloatSinkBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelinedInputReaderTest {
+
+    @Test
+    void testValuesArriveInOrder() throws ReadErrorException {
+        FloatColumn expected = new FloatColumn();
+        for (int i = 0; i < 100_000; i++) {
+            expected.add(i * 0.25f);
+        }
+        InputReader source = sink -> {
+            // single values and blocks smaller and larger than the blocks of the pipeline
+            FloatSinkBuffer values = new FloatSinkBuffer(sink, 333);
+            for (int i = 0; i < 50_000; i++) {
+                values.accept(expected.get(i));
+            }
+            values.flush();
+            sink.accept(expected.elements(), 50_000, 50_000);
+        };
+        for (int blockSize : new int[]{1, 100, 4096, 1 << 20}) {
+            assertEquals(expected, new PipelinedInputReader(source, blockSize, 2).readColumn(), "block size " + blockSize);
+        }
+    }
+
+    @Test
+    void testErrorsOfTheReaderKeepTheirCode() {
+        FloatColumn values = new FloatColumn();
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new PipelinedInputReader(sink -> {
+                    sink.accept(new float[]{1, 2}, 0, 2);
+                    throw new ReadErrorException("Format Error: broken", 4);
+                }, 1, 1).readInto(values));
+        assertEquals(4, exception.getErrorCode());
+        assertEquals("Format Error: broken", exception.getMessage());
+        assertEquals(FloatColumn.of(1, 2), values);
+
+        InvalidNumberFormatException numberException = assertThrows(InvalidNumberFormatException.class,
+                () -> new PipelinedInputReader(sink -> {
+                    throw new InvalidNumberFormatException("Invalid number", 4);
+                }).readColumn());
+        assertEquals(4, numberException.getErrorCode());
+    }
+
+    @Test
+    void testFailingSinkStopsTheReader() throws InterruptedException {
+        AtomicBoolean stopped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        InputReader endless = sink -> {
+            try {
+                while (true) {
+                    sink.accept(new float[]{1, 2, 3}, 0, 3);
+                }
+            } catch (RuntimeException e) {
+                stopped.set(true);
+                throw e;
+            } finally {
+                done.countDown();
+            }
+        };
+        assertThrows(UncheckedIOException.class, () -> new PipelinedInputReader(endless, 10, 2).readInto(value -> {
+            throw new UncheckedIOException(new WriteErrorException("Write Error: disk full", 3));
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(stopped.get());
+    }
+
+    @Test
+    void testOnlyFullBlocksAndTheLastOneAreHandedOver() throws ReadErrorException {
+        InputReader source = sink -> {
+            for (int i = 0; i < 10; i++) {
+                sink.accept(new float[]{i}, 0, 1);
+            }
+        };
+        List<Integer> lengths = new ArrayList<>();
+        new PipelinedInputReader(source, 4, 2).readInto(new FloatSink() {
+            @Override
+            public void accept(float value) {
+                lengths.add(1);
+            }
+
+            @Override
+            public void accept(float[] values, int offset, int length) {
+                lengths.add(length);
+            }
+        });
+        assertEquals(List.of(4, 4, 2), lengths);
+    }
+
+    @Test
+    void testFileBytesAreReadAheadOfTheParser(@TempDir Path dir) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            csv.append(i % 1000 * 0.5f).append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Path plain = dir.resolve("values.csv");
+        Files.write(plain, bytes);
+        Path compressed = dir.resolve("values.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            out.write(bytes);
+        }
+        FloatColumn expected = new FileInputReaderImpl(plain.toString(), "csv", 1).readColumn();
+        assertEquals(200_000, expected.size());
+        for (Path file : new Path[]{plain, compressed}) {
+            // blocks of the byte queue end in the middle of values
+            assertEquals(expected, new PipelinedInputReader(new FileInputReaderImpl(file.toString(), "csv", 1))
+                    .readColumn(), file.toString());
+        }
+
+        ReadErrorException e = assertThrows(ReadErrorException.class, () -> new PipelinedInputReader(
+                new FileInputReaderImpl(dir.resolve("missing.csv").toString(), "csv", 1)).readColumn());
+        assertEquals(2, e.getErrorCode());
+    }
+}
@@ -0,0 +1,126 @@
+package features.input;
+
+import exceptions.ReadErrorException;
+import features.actions.SampleEstimator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampledCsvReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSampleOfEveryLineOrBlockIsExact() throws IOException {
+        String csv = "a,b,c\n1,2,3\r\n4,5,6\n7,8,9\r10,11,12";
+        Path file = Files.write(directory.resolve("values.csv"), csv.getBytes());
+        CsvColumns columns = CsvColumns.parse("c,a", true);
+        for (String mode : new String[]{"bernoulli:1", "reservoir:10", "blocks:100"}) {
+            SampleEstimator estimator = new SampledCsvReader(file, SamplingMode.parse(mode, 5), columns, 4).read();
+            List<SampleEstimator.Estimate> estimates = estimator.estimate();
+            // 1 + 3 + 4 + 6 + 7 + 9 + 10 + 12
+            assertEquals(52, estimates.get(0).getValue(), 1e-9, mode);
+            assertEquals(52, estimates.get(0).getUpper(), 1e-9, mode);
+            assertEquals(8, estimates.get(1).getValue(), 1e-9, mode);
+            assertEquals(0.25, estimates.get(4).getValue(), 1e-9, mode);
+            assertEquals(1, estimator.getSampledMin());
+            assertEquals(12, estimator.getSampledMax());
+        }
+        // the 27 bytes after the header make 7 blocks, 3 of them hold no line start
+        assertEquals(7, new SampledCsvReader(file, SamplingMode.parse("blocks:100", 5), columns, 4).read()
+                .getPopulationClusters());
+    }
+
+    @Test
+    void testConfidenceIntervalsCoverTheTrueValues() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(22);
+        double sum = 0;
+        int lessThanFour = 0;
+        int count = 0;
+        for (int line = 0; line < 20_000; line++) {
+            // the values drift along the file, so neighbouring lines are alike
+            for (int column = 0; column < 2; column++) {
+                float value = (float) (line / 2000.0 + random.nextGaussian());
+                content.append(column == 0 ? "" : ",").append(value);
+                sum += value;
+                lessThanFour += value < 4 ? 1 : 0;
+                count++;
+            }
+            content.append('\n');
+        }
+        Path file = Files.write(directory.resolve("drift.csv"), content.toString().getBytes());
+
+        for (String mode : new String[]{"bernoulli:0.02", "reservoir:400", "blocks:40"}) {
+            int covered = 0;
+            for (long seed = 0; seed < 40; seed++) {
+                List<SampleEstimator.Estimate> estimates =
+                        new SampledCsvReader(file, SamplingMode.parse(mode, seed), null, 2048).read().estimate();
+                if (covers(estimates.get(0), sum) && covers(estimates.get(2), sum / count)
+                        && covers(estimates.get(4), lessThanFour / (double) count)) {
+                    covered++;
+                }
+            }
+            // each interval misses in about 5% of the samples
+            assertTrue(covered >= 30, mode + " covered " + covered);
+        }
+    }
+
+    @Test
+    void testCompressedFiles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write("1,2\n3,4\n".getBytes());
+        }
+        Path file = Files.write(directory.resolve("values.csv.gz"), bytes.toByteArray());
+
+        assertEquals(10, new SampledCsvReader(file, SamplingMode.parse("reservoir:2", 1), null).read()
+                .estimate().get(0).getValue(), 1e-9);
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new SampledCsvReader(file, SamplingMode.parse("blocks:2", 1), null).read());
+        assertEquals(4, exception.getErrorCode());
+    }
+
+    @Test
+    void testErrors() throws IOException {
+        Path header = Files.write(directory.resolve("header.csv"), "a,b\n".getBytes());
+        for (String mode : new String[]{"bernoulli:0.5", "blocks:1"}) {
+            assertEquals(1, assertThrows(ReadErrorException.class, () -> new SampledCsvReader(header,
+                    SamplingMode.parse(mode, 1), CsvColumns.parse("", true)).read()).getErrorCode());
+        }
+        Path inconsistent = Files.write(directory.resolve("inconsistent.csv"), "1,2\n3\n".getBytes());
+        assertEquals(4, assertThrows(ReadErrorException.class, () -> new SampledCsvReader(inconsistent,
+                SamplingMode.parse("bernoulli:1", 1), null).read()).getErrorCode());
+
+        assertThrows(IllegalArgumentException.class, () -> SamplingMode.parse("bernoulli:0", 1));
+        assertThrows(IllegalArgumentException.class, () -> SamplingMode.parse("blocks", 1));
+        assertThrows(IllegalArgumentException.class, () -> SamplingMode.parse("systematic:5", 1));
+        assertEquals("reservoir:10:7", SamplingMode.parse(" reservoir:10:7", 1).toString());
+
+        // the FileInputReaderImpl samples csv files only
+        assertEquals(4, assertThrows(ReadErrorException.class, () -> new FileInputReaderImpl(header.toString(), "json")
+                .sample(SamplingMode.parse("blocks:1", 1))).getErrorCode());
+    }
+
+    @Test
+    void testChosenBlocksAreDistinctAndSorted() {
+        long[] blocks = SampledCsvReader.choose(1000, 100, new Random(3));
+        assertEquals(100, blocks.length);
+        for (int i = 1; i < blocks.length; i++) {
+            assertTrue(blocks[i] > blocks[i - 1]);
+        }
+        assertArrayEquals(new long[]{0, 1, 2}, SampledCsvReader.choose(3, 3, new Random(3)));
+    }
+
+    private static boolean covers(SampleEstimator.Estimate estimate, double value) {
+        return estimate.getLower() <= value && value <= estimate.getUpper();
+    }
+}
@@ -1,12 +1,18 @@
 package features.input;
 
+import exceptions.InvalidNumberFormatException;
 import exceptions.ReadErrorException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import features.data.FloatColumn;
+import features.data.FloatSink;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -51,4 +57,95 @@ public class StdInReaderImplTest {
         });
         assertEquals(2, exception.getErrorCode());
         }
+
+    @Test
+    void testContinuousModeSkipsBlankLinesAndPushesEveryLine() throws ReadErrorException {
+        System.setIn(new ByteArrayInputStream("1.5,2\n\n  \n3\n".getBytes()));
+        List<Integer> blockSizes = new ArrayList<>();
+        FloatColumn values = new FloatColumn();
+
+        new StdInReaderImpl(true).readInto(new FloatSink() {
+            @Override
+            public void accept(float value) {
+                values.add(value);
+            }
+
+            @Override
+            public void accept(float[] block, int offset, int length) {
+                blockSizes.add(length);
+                values.addAll(block, offset, length);
+            }
+        });
+        assertEquals(FloatColumn.of(1.5f, 2f, 3f), values);
+        assertEquals(Arrays.asList(2, 1), blockSizes);
+    }
+
+    @Test
+    void testPipedModeSeparatesValuesByCommasBlanksAndLineEnds() throws ReadErrorException {
+        System.setIn(new ByteArrayInputStream("1.5,2\n\n  3 4\t5,,6\r\n-7e1".getBytes()));
+
+        FloatColumn values = new StdInReaderImpl(StdInReaderImpl.Mode.PIPED).readColumn();
+        assertEquals(FloatColumn.of(1.5f, 2f, 3f, 4f, 5f, 6f, -70f), values);
+    }
+
+    @Test
+    void testPipedModeKeepsValuesSplitBetweenReads() throws ReadErrorException {
+        StringBuilder input = new StringBuilder();
+        FloatColumn expected = new FloatColumn();
+        for (int i = 0; i < 1000; i++) {
+            input.append(i * 0.25f).append(i % 10 == 9 ? "\n" : ", ");
+            expected.add(i * 0.25f);
+        }
+        // a pipe returns whatever is available, here at most 7 bytes per read
+        System.setIn(new ByteArrayInputStream(input.toString().getBytes()) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                return super.read(bytes, offset, Math.min(length, 7));
+            }
+        });
+
+        assertEquals(expected, new StdInReaderImpl(StdInReaderImpl.Mode.PIPED).readColumn());
+    }
+
+    @Test
+    void testPipedModeErrors() {
+        System.setIn(new ByteArrayInputStream(" \n\n".getBytes()));
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new StdInReaderImpl(StdInReaderImpl.Mode.PIPED).readColumn());
+        assertEquals(1, exception.getErrorCode());
+
+        System.setIn(new ByteArrayInputStream("1,2\nabc\n".getBytes()));
+        InvalidNumberFormatException numberException = assertThrows(InvalidNumberFormatException.class,
+                () -> new StdInReaderImpl(StdInReaderImpl.Mode.PIPED).readColumn());
+        assertEquals(4, numberException.getErrorCode());
+    }
+
+    @Test
+    void testLenientModePositions() throws ReadErrorException {
+        System.setIn(new ByteArrayInputStream("1,2\n x, 3\n4 y\n".getBytes()));
+        ParseErrors piped = new ParseErrors(ParseErrors.Action.NAN, Long.MAX_VALUE);
+        assertEquals(FloatColumn.of(1, 2, Float.NaN, 3, 4, Float.NaN),
+                new StdInReaderImpl(StdInReaderImpl.Mode.PIPED, piped).readColumn());
+        assertEquals("[at line 2 column 2 (offset 5): x, at line 3 column 3 (offset 12): y]",
+                piped.getErrors().toString());
+
+        System.setIn(new ByteArrayInputStream("1,2\n x, 3\n".getBytes()));
+        ParseErrors interactive = new ParseErrors(ParseErrors.Action.SKIP, Long.MAX_VALUE);
+        assertEquals(FloatColumn.of(1, 2, 3),
+                new StdInReaderImpl(StdInReaderImpl.Mode.INTERACTIVE, interactive).readColumn());
+        assertEquals("[at line 2 column 2 (offset 5): x]", interactive.getErrors().toString());
+    }
+
+    @Test
+    void testLenientModePositionsAreCountedInBytes() throws ReadErrorException {
+        byte[] input = "1,\u00e9\u00e9,x\n2\n".getBytes(StandardCharsets.UTF_8);
+        String expected = "[at line 1 column 3 (offset 2): \u00e9\u00e9, at line 1 column 8 (offset 7): x]";
+        for (StdInReaderImpl.Mode mode : new StdInReaderImpl.Mode[]{StdInReaderImpl.Mode.PIPED,
+                StdInReaderImpl.Mode.INTERACTIVE}) {
+            System.setIn(new ByteArrayInputStream(input));
+            ParseErrors errors = new ParseErrors(ParseErrors.Action.SKIP, Long.MAX_VALUE);
+            assertEquals(FloatColumn.of(1, 2), new StdInReaderImpl(mode, errors).readColumn());
+            assertEquals(expected, errors.getErrors().toString(), mode.toString());
+        }
+    }
 }
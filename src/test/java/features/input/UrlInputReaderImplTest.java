@@ -0,0 +1,161 @@
+package features.input;
+
+import com.sun.net.httpserver.HttpServer;
+import exceptions.ReadErrorException;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlInputReaderImplTest {
+
+    private HttpServer server;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testRangesGiveTheSameValuesAsTheSequentialParser() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(7);
+        for (int line = 0; line < 3000; line++) {
+            content.append(random.nextFloat() * 100).append(',').append(line % 5 == 0 ? "" : random.nextFloat())
+                    .append(',').append(random.nextInt(1000)).append(line % 3 == 0 ? "\r\n" : line % 3 == 1 ? "\n" : "\r");
+        }
+        content.append("1,2,3");
+        byte[] bytes = content.toString().getBytes();
+        serve("/values.csv", bytes, false);
+
+        FloatColumn expected = new FloatColumn();
+        new CsvFloatParser(expected).parse(new ByteArrayInputStream(bytes));
+        for (long rangeSize : new long[]{1000, 1 << 20}) {
+            ranges.clear();
+            FloatColumn values = new UrlInputReaderImpl(url("/values.csv"), "csv", 3, 1, rangeSize, null).readColumn();
+            assertEquals(expected, values, "range size " + rangeSize);
+            assertEquals((bytes.length + rangeSize - 1) / rangeSize, ranges.size(), "range size " + rangeSize);
+        }
+
+        // a single stream with one thread or below the threshold
+        ranges.clear();
+        assertEquals(expected, new UrlInputReaderImpl(url("/values.csv"), "csv", 1).readColumn());
+        assertEquals(expected, new UrlInputReaderImpl(url("/values.csv"), "csv", 3).readColumn());
+        assertTrue(ranges.isEmpty());
+    }
+
+    @Test
+    void testLineNumbersOfErrorsInRanges() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int line = 1; line <= 500; line++) {
+            content.append(line == 321 ? "1,2,3" : "1,2").append('\n');
+        }
+        serve("/inconsistent.csv", content.toString().getBytes(), false);
+
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new UrlInputReaderImpl(url("/inconsistent.csv"), "csv", 2, 1, 50, null).readColumn());
+        assertEquals(4, exception.getErrorCode());
+        assertEquals("Format Error: Inconsistent number of columns at line 321", exception.getMessage());
+
+        // the first line is longer than a range, the file is read as a single stream
+        serve("/long.csv", "1,2,3,4,5,6,7,8,9\n1,2,3,4,5,6,7,8,9\n".getBytes(), false);
+        assertEquals(18, new UrlInputReaderImpl(url("/long.csv"), "csv", 2, 1, 4, null).readColumn().size());
+    }
+
+    @Test
+    void testGzipEncodingJsonAndRetries() throws IOException {
+        serve("/values.json", "[1.5, 2, null, 3]".getBytes(), true);
+        assertEquals(FloatColumn.of(1.5f, 2f, 3f), new UrlInputReaderImpl(url("/values.json"), "json", 2).readColumn());
+
+        failures.set(UrlInputReaderImpl.MAX_ATTEMPTS - 1);
+        serve("/flaky.csv", "4,5\n6,7\n".getBytes(), false);
+        assertEquals(FloatColumn.of(4, 5, 6, 7), new UrlInputReaderImpl(url("/flaky.csv"), "csv", 1).readColumn());
+        assertEquals(0, failures.get());
+
+        failures.set(UrlInputReaderImpl.MAX_ATTEMPTS);
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new UrlInputReaderImpl(url("/flaky.csv"), "csv", 1).readColumn());
+        assertEquals(2, exception.getErrorCode());
+        assertEquals("Read Error: HTTP 503 for " + url("/flaky.csv"), exception.getMessage());
+    }
+
+    @Test
+    void testErrors() {
+        ReadErrorException exception = assertThrows(ReadErrorException.class,
+                () -> new UrlInputReaderImpl(url("/missing.csv"), "csv", 2).readColumn());
+        assertEquals(2, exception.getErrorCode());
+        assertEquals("Read Error: HTTP 404 for " + url("/missing.csv"), exception.getMessage());
+
+        assertEquals(2, assertThrows(ReadErrorException.class,
+                () -> new UrlInputReaderImpl("ftp://example.com/values.csv", "csv").readColumn()).getErrorCode());
+        assertEquals(4, assertThrows(ReadErrorException.class,
+                () -> new UrlInputReaderImpl(url("/values.csv"), "txt").readColumn()).getErrorCode());
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Serves the content with support for single byte ranges, gzip encoded if requested and accepted,
+     * answering 503 while there are failures left.
+     */
+    private void serve(String path, byte[] content, boolean gzip) {
+        server.createContext(path, exchange -> {
+            // an exchange is only AutoCloseable from Java 14 on
+            try {
+                if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                byte[] body = content;
+                int status = 200;
+                if (range != null) {
+                    ranges.add(range);
+                    String[] bounds = range.substring("bytes=".length()).split("-");
+                    body = Arrays.copyOfRange(content, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+                    status = 206;
+                } else if (gzip && "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                    try (OutputStream out = new GZIPOutputStream(compressed)) {
+                        out.write(content);
+                    }
+                    body = compressed.toByteArray();
+                    exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                }
+                if (exchange.getRequestMethod().equals("HEAD")) {
+                    exchange.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+                    exchange.sendResponseHeaders(status, -1);
+                    return;
+                }
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+}
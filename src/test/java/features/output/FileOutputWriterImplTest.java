@@ -1,16 +1,24 @@
 package features.output;
 
-import org.junit.jupiter.api.Test;
-import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.Mockito.*;
 import exceptions.WriteErrorException;
 import features.actions.ActionsManager;
+import features.actions.AggregationResult;
+import features.actions.SampleEstimator;
+import features.actions.WindowResult;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.junit.jupiter.api.BeforeEach;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
 
 public class FileOutputWriterImplTest {
 
@@ -19,13 +27,16 @@ public class FileOutputWriterImplTest {
     private final String action3 = "LT4";
     private final String format1 = "CSV";
     private final String format2 = "JSON";
-    private final String filePath = "src/test/resources/test";
+    @TempDir
+    Path directory;
+    private String filePath;
     private FileOutputWriterImpl outputWriter;
     private ActionsManager actionsManagerMock;
 
     @BeforeEach
     public void setUp() {
         actionsManagerMock = mock(ActionsManager.class);
+        filePath = directory.resolve("test").toString();
     }
 
     @Test
@@ -98,6 +109,82 @@ public class FileOutputWriterImplTest {
         assertTrue(Files.exists(Paths.get(filePath + ".json")));
     }
 
+    @Test
+    public void testWriteMultipleActionsCSV() throws WriteErrorException {
+        outputWriter = new FileOutputWriterImpl("sum,minmax,lt4", format1, filePath);
+        List<Float> inputList = Arrays.asList(1.0f, 2.0f, 3.0f, 4.0f, 5.0f);
+
+        String result = outputWriter.writeOutput(inputList);
+        assertEquals("SUM,15.0\nMINMAX,1.0,5.0\nLT4,1.0,2.0,3.0", result);
+        assertTrue(Files.exists(Paths.get(filePath + ".csv")));
+    }
+
+    @Test
+    public void testWriteMultipleActionsJSON() throws WriteErrorException {
+        outputWriter = new FileOutputWriterImpl("sum,minmax,count", format2, filePath);
+        List<Float> inputList = Arrays.asList(1.0f, 2.0f, 3.0f);
+
+        String result = outputWriter.writeOutput(inputList);
+        assertTrue(result.contains("\"SUM\":6.0"));
+        assertTrue(result.contains("\"MIN\":1.0") && result.contains("\"MAX\":3.0"));
+        assertTrue(result.contains("\"COUNT\":3"));
+    }
+
+    @Test
+    public void testWriteHistogramAndQuantilesCSV() throws WriteErrorException {
+        outputWriter = new FileOutputWriterImpl("median,histogram:0,4,2", format1, filePath);
+        List<Float> inputList = Arrays.asList(1.0f, 2.0f, 3.0f, 5.0f);
+
+        String result = outputWriter.writeOutput(inputList);
+        assertEquals("MEDIAN,2.0\n" +
+                "\"histogram:0,4,2\",-Infinity,0.0,0\n" +
+                "\"histogram:0,4,2\",0.0,2.0,1\n" +
+                "\"histogram:0,4,2\",2.0,4.0,2\n" +
+                "\"histogram:0,4,2\",4.0,Infinity,1", result);
+    }
+
+    @Test
+    public void testWriteHistogramAndQuantilesJSON() throws WriteErrorException {
+        outputWriter = new FileOutputWriterImpl("p50,quantiles:0.25,0.75,histogram:0,4,2", format2, filePath);
+        List<Float> inputList = Arrays.asList(1.0f, 2.0f, 3.0f, 5.0f);
+
+        String result = outputWriter.writeOutput(inputList);
+        assertTrue(result.contains("\"P50\":2.0"));
+        assertTrue(result.contains("\"P25\":1.0") && result.contains("\"P75\":3.0"));
+        assertTrue(result.contains("\"histogram:0,4,2\":[{\"upper\":0.0,\"count\":0},"
+                + "{\"lower\":0.0,\"upper\":2.0,\"count\":1}"));
+    }
+
+    @Test
+    public void testStreamResultWritesTheSameFileAsWriteResult() throws Exception {
+        for (String format : Arrays.asList(format1, format2)) {
+            outputWriter = new FileOutputWriterImpl("sum,lt4,histogram:0,4,2", format, filePath);
+            AggregationResult result = outputWriter.aggregate(FloatColumn.of(1, 2, 3, 4, 5), "sum,lt4,histogram:0,4,2");
+            Path file = Paths.get(filePath + "." + format.toLowerCase());
+
+            outputWriter.writeResult(result);
+            byte[] written = Files.readAllBytes(file);
+            WriteSummary summary = outputWriter.streamResult(result);
+
+            assertArrayEquals(written, Files.readAllBytes(file));
+            assertEquals(written.length, summary.getBytes());
+            assertEquals(3, summary.getValues());
+        }
+    }
+
+    @Test
+    public void testWriteWindowsCSVAppendsLines() throws Exception {
+        outputWriter = new FileOutputWriterImpl("sum,lt4", format1, filePath);
+        Map<String, Number> scalars = new LinkedHashMap<>();
+        scalars.put("SUM", 6.0f);
+        scalars.put("LT4_COUNT", 2L);
+        outputWriter.writeWindow(new WindowResult(0, 0, 3, scalars));
+        outputWriter.writeWindow(new WindowResult(1, 3, 6, scalars));
+
+        assertEquals(Arrays.asList("FROM,TO,SUM,LT4_COUNT", "0,3,6.0,2", "3,6,6.0,2"),
+                Files.readAllLines(Paths.get(filePath + ".csv")));
+    }
+
     @Test
     public void testInvalidFormat() {
         outputWriter = new FileOutputWriterImpl("SUM", "txt", filePath);
@@ -108,4 +195,43 @@ public class FileOutputWriterImplTest {
         });
         assertEquals("Invalid format of the output file: txt", exception.getMessage());
     }
+
+    @Test
+    public void testWriteColumnResults() throws WriteErrorException {
+        outputWriter = new FileOutputWriterImpl("sum,count", format1, filePath);
+        Map<String, AggregationResult> results = new LinkedHashMap<>();
+        results.put("price", outputWriter.aggregate(FloatColumn.of(1, 2), "sum,count"));
+        results.put("qty,total", outputWriter.aggregate(FloatColumn.of(5), "sum,count"));
+        results.put("say \"hi\"", outputWriter.aggregate(FloatColumn.of(6), "sum,count"));
+
+        assertEquals("price,SUM,3.0\nprice,COUNT,2\n\"qty,total\",SUM,5.0\n\"qty,total\",COUNT,1\n"
+                        + "\"say \"\"hi\"\"\",SUM,6.0\n\"say \"\"hi\"\"\",COUNT,1",
+                outputWriter.writeColumnResults(results));
+
+        outputWriter = new FileOutputWriterImpl("sum,count", format2, filePath);
+        assertEquals("{\"price\":{\"SUM\":3.0,\"COUNT\":2},\"qty,total\":{\"SUM\":5.0,\"COUNT\":1},"
+                        + "\"say \\\"hi\\\"\":{\"SUM\":6.0,\"COUNT\":1}}\n",
+                outputWriter.writeColumnResults(results));
+    }
+
+    @Test
+    public void testWriteEstimates() throws Exception {
+        SampleEstimator estimator = new SampleEstimator();
+        estimator.addCluster(2, 3, 2, 1, 2);
+        estimator.setPopulationClusters(1);
+
+        outputWriter = new FileOutputWriterImpl("sum", format1, filePath);
+        outputWriter.writeEstimates(estimator);
+        List<String> lines = Files.readAllLines(Paths.get(filePath + ".csv"));
+        assertEquals("ESTIMATE,VALUE,LOWER_95,UPPER_95", lines.get(0));
+        assertEquals("SUM,3.0,3.0,3.0", lines.get(1));
+        assertEquals("MAX_SAMPLED,2.0,,", lines.get(lines.size() - 1));
+
+        outputWriter = new FileOutputWriterImpl("sum", format2, filePath);
+        assertEquals(filePath + ".json", outputWriter.getOutputPath());
+        outputWriter.writeEstimates(estimator);
+        String json = Files.readAllLines(Paths.get(filePath + ".json")).get(0);
+        assertTrue(json.startsWith("{\"SUM\":{\"VALUE\":3.0,\"LOWER_95\":3.0,\"UPPER_95\":3.0},"), json);
+        assertTrue(json.endsWith("\"MIN_SAMPLED\":1.0,\"MAX_SAMPLED\":2.0}"), json);
+    }
 }
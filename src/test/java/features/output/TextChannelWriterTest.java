@@ -0,0 +1,55 @@
+package features.output;
+
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextChannelWriterTest {
+
+    @Test
+    void testValuesAreFormattedLikeToString() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TextChannelWriter writer = new TextChannelWriter(Channels.newChannel(output), 16);
+        FloatColumn values = FloatColumn.of(1.0f, -0.1f, 3.4028235E38f, 1.0E-7f, Float.NaN, Float.NEGATIVE_INFINITY);
+        writer.appendValues(values, ',').append('\n').append(42L).append(',').append((Number) 2.5);
+        // nothing is written before the buffer is full or flushed
+        assertTrue(output.size() < writer.getBytes());
+        writer.flush();
+
+        assertEquals("1.0,-0.1,3.4028235E38,1.0E-7,NaN,-Infinity\n42,2.5", output.toString(StandardCharsets.UTF_8));
+        assertEquals(output.size(), writer.getBytes());
+        assertEquals(6, writer.summary().getValues());
+    }
+
+    @Test
+    void testTextIsEncodedAsUtf8() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TextChannelWriter writer = new TextChannelWriter(Channels.newChannel(output), 4);
+        writer.append("prix €,").append('é').append("😀");
+        writer.flush();
+
+        assertEquals("prix €,é😀", output.toString(StandardCharsets.UTF_8));
+        assertEquals(output.size(), writer.getBytes());
+    }
+
+    @Test
+    void testResetStartsANewOutputWithTheSameBuffer() throws IOException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        TextChannelWriter writer = new TextChannelWriter(Channels.newChannel(first), 8);
+        writer.appendValues(FloatColumn.of(1, 2), ',').flush();
+        // not flushed, dropped by the reset
+        writer.append("lost");
+
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        writer.reset(Channels.newChannel(second)).append("next").flush();
+
+        assertEquals("1.0,2.0", first.toString(StandardCharsets.UTF_8));
+        assertEquals("next", second.toString(StandardCharsets.UTF_8));
+        assertEquals(4, writer.getBytes());
+        assertEquals(0, writer.getValues());
+    }
+}
@@ -0,0 +1,26 @@
+package features.output;
+
+import exceptions.WriteErrorException;
+import features.actions.AggregationResult;
+import features.actions.WindowResult;
+import features.data.FloatColumn;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlOutputWriterImplTest {
+
+    private final UrlOutputWriterImpl writer = new UrlOutputWriterImpl();
+
+    @Test
+    void testResultIsRejected() throws WriteErrorException {
+        AggregationResult result = writer.aggregate(FloatColumn.of(1, 2), "sum");
+        WriteErrorException exception = assertThrows(WriteErrorException.class, () -> writer.writeResult(result));
+        assertEquals(3, exception.getErrorCode());
+        assertThrows(WriteErrorException.class, () -> writer.writeColumn(FloatColumn.of(1, 2)));
+        assertThrows(WriteErrorException.class, () -> writer.streamResult(result));
+        assertThrows(WriteErrorException.class, () -> writer.writeWindow(new WindowResult(0, 0, 2, Map.of())));
+        assertThrows(WriteErrorException.class, () -> writer.writeColumnResults(Map.of("price", result)));
+        assertThrows(WriteErrorException.class, () -> writer.streamColumnResults(Map.of("price", result)));
+    }
+}